@@ -2,6 +2,8 @@ package com.inventory;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import com.inventory.config.InventoryProperties;
 
 /**
  * InventoryManagementSystemApplication - Main entry point for the Spring Boot
@@ -9,6 +11,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * Initializes and starts the inventory management backend system.
  */
 @SpringBootApplication
+@EnableConfigurationProperties(InventoryProperties.class)
 public class InventoryManagementSystemApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,437 @@
+package com.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * InventoryProperties - Tunable settings for inventory processing.
+ * Bound from the "inventory" prefix in application.yml.
+ */
+@Data
+@ConfigurationProperties(prefix = "inventory")
+public class InventoryProperties {
+
+    /**
+     * How InventoryService applies quantity changes.
+     */
+    private UpdateMode updateMode = UpdateMode.PESSIMISTIC;
+
+    private Optimistic optimistic = new Optimistic();
+    private Restock restock = new Restock();
+    private BacklogWorker backlogWorker = new BacklogWorker();
+    private CatalogCache catalogCache = new CatalogCache();
+    private ShipmentCache shipmentCache = new ShipmentCache();
+    private ShipmentLookup shipmentLookup = new ShipmentLookup();
+    private InMemory inMemory = new InMemory();
+    private Engine engine = new Engine();
+    private Reservation reservation = new Reservation();
+    private Sharding sharding = new Sharding();
+    private Snapshot snapshot = new Snapshot();
+    private Ledger ledger = new Ledger();
+    private LockStats lockStats = new LockStats();
+    private CatalogLoad catalogLoad = new CatalogLoad();
+    private CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+    private OrderStream orderStream = new OrderStream();
+
+    /**
+     * Inventory update strategies.
+     */
+    public enum UpdateMode {
+        /**
+         * SELECT ... FOR UPDATE, modify the entity, dirty-checked UPDATE.
+         */
+        PESSIMISTIC,
+
+        /**
+         * A single conditional UPDATE per product; no separate lock round trip.
+         */
+        ATOMIC,
+
+        /**
+         * Unlocked read, @Version-checked UPDATE; conflicting transactions are
+         * retried with bounded backoff.
+         */
+        OPTIMISTIC,
+
+        /**
+         * Quantities held in memory and changed with compare-and-set; every
+         * change is journaled to a local file and written to the table in
+         * batches in the background.
+         */
+        IN_MEMORY
+    }
+
+    /**
+     * Retry settings for OPTIMISTIC update mode.
+     */
+    @Data
+    public static class Optimistic {
+
+        /**
+         * Total attempts per operation, including the first.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Backoff before the first retry; doubles per attempt.
+         */
+        private long initialBackoffMs = 5;
+
+        /**
+         * Upper bound on a single backoff.
+         */
+        private long maxBackoffMs = 100;
+    }
+
+    /**
+     * Restock processing settings.
+     */
+    @Data
+    public static class Restock {
+
+        /**
+         * When true, /v1/process_restock commits the inventory increase and
+         * queues backlog fulfillment instead of running it inline.
+         * Callers can override per request with ?async=true|false.
+         */
+        private boolean asyncEnabled = false;
+
+        /**
+         * Restocks of the same product queued within this window are
+         * coalesced into a single backlog allocation pass.
+         */
+        private long coalesceWindowMs = 200;
+
+        /**
+         * Attempts of a queued backlog allocation pass before it is given
+         * up; failed attempts are queued again with exponential backoff.
+         */
+        private int passMaxAttempts = 5;
+
+        /**
+         * Delay before retrying a failed allocation pass; doubles per attempt.
+         */
+        private long passRetryBackoffMs = 500;
+
+        /**
+         * Upper bound on the retry delay of an allocation pass.
+         */
+        private long passRetryMaxBackoffMs = 30_000;
+
+        /**
+         * Items read and applied per transaction by
+         * /v1/process_restock/stream.
+         */
+        private int streamChunkSize = 1_000;
+
+        /**
+         * File records read per restock transaction by
+         * /v1/process_restock/ingest; duplicate product lines within a chunk
+         * are merged.
+         */
+        private int ingestChunkSize = 500;
+    }
+
+    /**
+     * Background backlog draining settings.
+     */
+    @Data
+    public static class BacklogWorker {
+
+        /**
+         * Starts the backlog workers when the application is ready.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of worker threads in this instance.
+         */
+        private int workerCount = 2;
+
+        /**
+         * Pending items claimed per transaction.
+         */
+        private int batchSize = 50;
+
+        /**
+         * Idle wait after a worker finds nothing to claim.
+         */
+        private long pollIntervalMs = 500;
+    }
+
+    /**
+     * Settings for the in-memory product catalog cache.
+     */
+    @Data
+    public static class CatalogCache {
+
+        /**
+         * Products kept in memory before least recently used ones are evicted.
+         */
+        private int maxSize = 10_000;
+    }
+
+    /**
+     * Settings for the in-memory cache of serialized shipment responses.
+     */
+    @Data
+    public static class ShipmentCache {
+
+        /**
+         * Shipments kept in memory before least recently used ones are evicted.
+         */
+        private int maxSize = 10_000;
+    }
+
+    /**
+     * Settings for batch shipment lookups.
+     */
+    @Data
+    public static class ShipmentLookup {
+
+        /**
+         * Shipments loaded and written per pair of queries.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Most shipment IDs accepted in one request.
+         */
+        private int maxIds = 10_000;
+    }
+
+    /**
+     * Settings for IN_MEMORY update mode.
+     */
+    @Data
+    public static class InMemory {
+
+        /**
+         * Directory holding the inventory change journal.
+         */
+        private String journalDir = "data/inventory-journal";
+
+        /**
+         * Interval between write-behind flushes to the inventory table.
+         */
+        private long flushIntervalMs = 100;
+
+        /**
+         * Forces every journal record to disk before the change is
+         * acknowledged. Without it the journal survives a process crash but
+         * not a power loss.
+         */
+        private boolean fsync = false;
+    }
+
+    /**
+     * Settings for the single-writer sequenced inventory engine.
+     */
+    @Data
+    public static class Engine {
+
+        /**
+         * Routes /v1/process_order and /v1/process_restock through the engine.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Ring buffer slots; must be a power of two. Publishers wait when full.
+         */
+        private int ringBufferSize = 4096;
+
+        /**
+         * Memory-mapped command journal file.
+         */
+        private String journalPath = "data/engine/commands.journal";
+
+        /**
+         * Size of each mapped journal region.
+         */
+        private long journalRegionBytes = 64L * 1024 * 1024;
+
+        /**
+         * Forces journaled commands to disk before they are acknowledged.
+         * Without it the journal survives a process crash but not a power loss.
+         */
+        private boolean fsync = false;
+
+        /**
+         * Most commands written to the database in one projection transaction.
+         */
+        private int projectionBatchSize = 1000;
+
+        /**
+         * Journal size at which the engine waits for the projection to catch
+         * up and then truncates the journal.
+         */
+        private long journalMaxBytes = 256L * 1024 * 1024;
+
+        /**
+         * Longest a caller waits for the engine to apply its command.
+         */
+        private long commandTimeoutMs = 30_000;
+    }
+
+    /**
+     * Settings for stock reservations and their expiry timing wheel.
+     */
+    @Data
+    public static class Reservation {
+
+        /**
+         * Hold time used when a reservation request does not give one.
+         */
+        private long defaultTtlSeconds = 300;
+
+        /**
+         * Longest hold time a reservation may request.
+         */
+        private long maxTtlSeconds = 3600;
+
+        /**
+         * Timing wheel tick; expiry is accurate to about one tick.
+         */
+        private long wheelTickMs = 100;
+
+        /**
+         * Timing wheel buckets; must be a power of two. Holds longer than
+         * ticks x buckets wait extra rounds of the wheel.
+         */
+        private int wheelSize = 1024;
+
+        /**
+         * Delay before expiring a reservation again when its expiry
+         * transaction failed.
+         */
+        private long expiryRetryMs = 1000;
+    }
+
+    /**
+     * Settings for splitting hot products' stock across inventory shards.
+     */
+    @Data
+    public static class Sharding {
+
+        /**
+         * Shard count per product ID, e.g. {7: 8}. Applied once the product's
+         * inventory exists; 1 folds the shards back into the inventory row.
+         */
+        private Map<Long, Integer> products = new HashMap<>();
+
+        /**
+         * Delay between passes that apply shard counts and rebalance shards
+         * that have run low.
+         */
+        private long rebalanceIntervalMs = 1000;
+    }
+
+    /**
+     * Settings for the published availability snapshot (GET /v1/inventory).
+     */
+    @Data
+    public static class Snapshot {
+
+        /**
+         * How often the snapshot is rebuilt after inventory changed.
+         */
+        private long refreshIntervalMs = 250;
+
+        /**
+         * Maximum age before the snapshot is rebuilt even without a known
+         * change, to pick up writes made outside InventoryService.
+         */
+        private long maxAgeMs = 5000;
+    }
+
+    /**
+     * Settings for the append-only inventory ledger.
+     */
+    @Data
+    public static class Ledger {
+
+        /**
+         * Whether inventory changes are recorded in the ledger.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay between checkpoint passes.
+         */
+        private long checkpointIntervalMs = 60_000;
+
+        /**
+         * Minimum age of the entries a checkpoint covers, leaving
+         * transactions that are still committing out of it.
+         */
+        private long checkpointDelayMs = 10_000;
+    }
+
+    /**
+     * Settings for per-product inventory row lock timings.
+     */
+    @Data
+    public static class LockStats {
+
+        /**
+         * Whether lock waits, timeouts and hold times are recorded.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of products tracked; each costs about 16 KB.
+         */
+        private int maxProducts = 512;
+    }
+
+    /**
+     * Settings for bulk catalog loading.
+     */
+    @Data
+    public static class CatalogLoad {
+
+        /**
+         * Products written per transaction and JDBC batch.
+         */
+        private int chunkSize = 10_000;
+    }
+
+    /**
+     * Settings for the memory-mapped catalog snapshot used for warm starts.
+     */
+    @Data
+    public static class CatalogSnapshot {
+
+        /**
+         * Serves product cache misses from the snapshot and rewrites it after
+         * catalog changes.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Snapshot file.
+         */
+        private String path = "data/catalog.snapshot";
+    }
+
+    /**
+     * Settings for streamed order ingest (/v1/process_order/stream).
+     */
+    @Data
+    public static class OrderStream {
+
+        /**
+         * Orders parsed and validated together; results are flushed to the
+         * client after each chunk.
+         */
+        private int chunkSize = 100;
+
+        /**
+         * Validated chunks buffered ahead of order processing; with the chunk
+         * size, bounds the memory a stream uses.
+         */
+        private int pipelineDepth = 2;
+    }
+}
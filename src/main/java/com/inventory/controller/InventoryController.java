@@ -1,18 +1,45 @@
 package com.inventory.controller;
 
+import com.inventory.config.InventoryProperties;
 import com.inventory.dto.*;
 import com.inventory.entity.*;
+import com.inventory.service.AsyncRestockQueue;
+import com.inventory.service.CatalogLoader;
+import com.inventory.service.CatalogSnapshotStore;
+import com.inventory.service.InventoryLedger;
+import com.inventory.service.InventoryLockStats;
 import com.inventory.service.InventoryService;
+import com.inventory.service.InventorySnapshotPublisher;
+import com.inventory.service.OptimisticRetry;
 import com.inventory.service.OrderService;
+import com.inventory.service.OrderStreamProcessor;
+import com.inventory.service.ProductCatalogCache;
+import com.inventory.service.ReservationService;
+import com.inventory.service.RestockIngestService;
+import com.inventory.service.RestockService;
+import com.inventory.service.SequencedInventoryEngine;
+import com.inventory.service.ShardedInventory;
+import com.inventory.service.ShipmentBatchWriter;
+import com.inventory.service.ShipmentResponseCache;
 import com.inventory.service.ShipmentService;
-import com.inventory.repository.ProductRepository;
-import com.inventory.repository.PendingOrderItemRepository;
-import com.inventory.repository.OrderItemRepository;
+import com.inventory.exception.ReservationNotFoundException;
+import com.inventory.util.JsonArrayReader;
+import com.inventory.util.RestockRecordReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -27,17 +54,34 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class InventoryController {
 
-    private final ProductRepository productRepository;
     private final InventoryService inventoryService;
     private final OrderService orderService;
     private final ShipmentService shipmentService;
-    private final PendingOrderItemRepository pendingOrderItemRepository;
-    private final OrderItemRepository orderItemRepository;
+    private final RestockService restockService;
+    private final AsyncRestockQueue asyncRestockQueue;
+    private final InventoryProperties inventoryProperties;
+    private final OptimisticRetry optimisticRetry;
+    private final ProductCatalogCache productCatalogCache;
+    private final SequencedInventoryEngine sequencedInventoryEngine;
+    private final ReservationService reservationService;
+    private final ShardedInventory shardedInventory;
+    private final InventorySnapshotPublisher inventorySnapshotPublisher;
+    private final InventoryLedger inventoryLedger;
+    private final InventoryLockStats inventoryLockStats;
+    private final CatalogLoader catalogLoader;
+    private final CatalogSnapshotStore catalogSnapshotStore;
+    private final RestockIngestService restockIngestService;
+    private final OrderStreamProcessor orderStreamProcessor;
+    private final ShipmentResponseCache shipmentResponseCache;
+    private final ShipmentBatchWriter shipmentBatchWriter;
+    private final ObjectMapper objectMapper;
 
     /**
      * POST /v1/init_catalog
      * Initializes the product catalog and inventory.
      * Creates product records and sets initial inventory to 0 for each product.
+     * Products are written in JDBC batches, committed in chunks; progress is
+     * reported by GET /v1/catalog/load.
      * 
      * Request Body: List<ProductDTO>
      * Example: [{"product_id": 0, "product_name": "RBC A+ Adult", "mass_g": 700}]
@@ -47,24 +91,10 @@ public class InventoryController {
         log.info("Initializing catalog with {} products", products.size());
 
         try {
-            for (ProductDTO productDTO : products) {
-                // Create product
-                Product product = Product.builder()
-                        .productId(productDTO.getProductId())
-                        .productName(productDTO.getProductName())
-                        .massG(productDTO.getMassG())
-                        .build();
-                productRepository.save(product);
-
-                // Initialize inventory with 0 quantity
-                inventoryService.initializeInventoryForProduct(productDTO.getProductId());
-
-                log.debug("Initialized product {} with mass {}g",
-                        productDTO.getProductId(), productDTO.getMassG());
-            }
+            CatalogLoadProgressDTO result = catalogLoader.load(products);
 
-            String message = "Catalog initialized successfully with " + products.size() + " products";
-            log.info(message);
+            String message = "Catalog initialized successfully with " + result.getLoadedProducts() + " products";
+            log.info("{} in {} ms", message, result.getElapsedMs());
 
             return ResponseEntity.ok(ApiResponseDTO.<String>builder()
                     .success(true)
@@ -79,9 +109,143 @@ public class InventoryController {
                             .message("Failed to initialize catalog")
                             .error(e.getMessage())
                             .build());
+        } finally {
+            // Drop cached products even if only part of the catalog was saved
+            productCatalogCache.invalidateAll();
+            if (sequencedInventoryEngine.isEnabled() && !products.isEmpty()) {
+                sequencedInventoryEngine.resetInventory(products.stream()
+                        .map(ProductDTO::getProductId)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .toList());
+            }
+        }
+    }
+
+    /**
+     * POST /v1/catalog/upsert
+     * Applies only changed products: new products are created with zero
+     * inventory, existing products get the new name and mass if they differ,
+     * and their inventory quantities are kept. Only the updated products are
+     * dropped from the product cache.
+     *
+     * Request Body: List<ProductDTO> with the new or changed products
+     * Example: [{"productId": 0, "productName": "RBC A+ Adult", "massG": 700}]
+     * Response: CatalogUpsertResultDTO
+     */
+    @PostMapping("/catalog/upsert")
+    public ResponseEntity<ApiResponseDTO<CatalogUpsertResultDTO>> upsertCatalog(
+            @RequestBody List<ProductDTO> products) {
+        log.info("Upserting {} catalog products", products.size());
+
+        try {
+            CatalogUpsertResultDTO result = catalogLoader.upsert(products);
+            productCatalogCache.invalidate(result.getUpdatedProductIds());
+            if (sequencedInventoryEngine.isEnabled() && !result.getInsertedProductIds().isEmpty()) {
+                sequencedInventoryEngine.resetInventory(result.getInsertedProductIds());
+            }
+            log.info("Catalog upsert: {} inserted, {} updated, {} unchanged in {} ms",
+                    result.getInsertedProducts(), result.getUpdatedProducts(), result.getUnchangedProducts(),
+                    result.getElapsedMs());
+
+            return ResponseEntity.ok(ApiResponseDTO.<CatalogUpsertResultDTO>builder()
+                    .success(true)
+                    .message("Catalog upserted successfully")
+                    .data(result)
+                    .build());
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid catalog upsert: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDTO.<CatalogUpsertResultDTO>builder()
+                            .success(false)
+                            .message("Failed to upsert catalog")
+                            .error(e.getMessage())
+                            .build());
+        } catch (Exception e) {
+            log.error("Error upserting catalog", e);
+            // Chunks before the failure may have committed
+            productCatalogCache.invalidateAll();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDTO.<CatalogUpsertResultDTO>builder()
+                            .success(false)
+                            .message("Failed to upsert catalog")
+                            .error(e.getMessage())
+                            .build());
+        }
+    }
+
+    /**
+     * POST /v1/init_catalog/stream
+     * Same as /v1/init_catalog, but the JSON array is parsed as it arrives
+     * and loaded one chunk at a time, so memory use does not grow with the
+     * size of the catalog. If the payload turns out to be invalid part way,
+     * the chunks before the error stay loaded.
+     *
+     * Request Body: List<ProductDTO>, streamed
+     * Response: CatalogLoadProgressDTO
+     */
+    @PostMapping(value = "/init_catalog/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseDTO<CatalogLoadProgressDTO>> initializeCatalogStream(InputStream body) {
+        try {
+            CatalogLoadProgressDTO result = catalogLoader.load(body, productIds -> {
+                if (sequencedInventoryEngine.isEnabled()) {
+                    sequencedInventoryEngine.resetInventory(productIds);
+                }
+            });
+            log.info("Catalog streamed: {} products in {} ms", result.getLoadedProducts(), result.getElapsedMs());
+
+            return ResponseEntity.ok(ApiResponseDTO.<CatalogLoadProgressDTO>builder()
+                    .success(true)
+                    .message("Catalog initialized successfully with " + result.getLoadedProducts() + " products")
+                    .data(result)
+                    .build());
+        } catch (Exception e) {
+            log.error("Error streaming catalog", e);
+            return ResponseEntity.status(e instanceof IllegalArgumentException
+                            ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDTO.<CatalogLoadProgressDTO>builder()
+                            .success(false)
+                            .message("Failed to initialize catalog")
+                            .data(catalogLoader.getProgress())
+                            .error(e.getMessage())
+                            .build());
+        } finally {
+            productCatalogCache.invalidateAll();
         }
     }
 
+    /**
+     * GET /v1/catalog/load
+     * Reports the progress of the running catalog load, or the result of the
+     * last one.
+     *
+     * Response: CatalogLoadProgressDTO
+     */
+    @GetMapping("/catalog/load")
+    public ResponseEntity<ApiResponseDTO<CatalogLoadProgressDTO>> getCatalogLoadProgress() {
+        return ResponseEntity.ok(ApiResponseDTO.<CatalogLoadProgressDTO>builder()
+                .success(true)
+                .message("Catalog load progress retrieved successfully")
+                .data(catalogLoader.getProgress())
+                .build());
+    }
+
+    /**
+     * GET /v1/catalog/snapshot
+     * Reports whether product lookups are served from the memory-mapped
+     * catalog snapshot and whether it has been checked against the database.
+     *
+     * Response: CatalogSnapshotStatusDTO
+     */
+    @GetMapping("/catalog/snapshot")
+    public ResponseEntity<ApiResponseDTO<CatalogSnapshotStatusDTO>> getCatalogSnapshotStatus() {
+        return ResponseEntity.ok(ApiResponseDTO.<CatalogSnapshotStatusDTO>builder()
+                .success(true)
+                .message("Catalog snapshot status retrieved successfully")
+                .data(catalogSnapshotStore.getStatus())
+                .build());
+    }
+
     /**
      * POST /v1/process_order
      * Processes a new order.
@@ -101,29 +265,20 @@ public class InventoryController {
         log.info("Processing order {}", orderRequest.getOrderId());
 
         try {
-            Order order = orderService.processOrder(orderRequest);
-
-            // Build response with order details
-            List<OrderItem> orderItems = orderService.getOrderItems(order.getOrderId());
-            OrderResponseDTO response = OrderResponseDTO.builder()
-                    .orderId(order.getOrderId())
-                    .status(order.getStatus())
-                    .createdAt(order.getCreatedAt())
-                    .totalItems(orderItems.size())
-                    .items(orderItems.stream()
-                            .map(item -> OrderItemDTO.builder()
-                                    .productId(item.getProductId())
-                                    .requestedQty(item.getRequestedQty())
-                                    .fulfilledQty(item.getFulfilledQty())
-                                    .status(item.getStatus())
-                                    .build())
-                            .collect(Collectors.toList()))
-                    .build();
+            if (sequencedInventoryEngine.isEnabled()) {
+                return ResponseEntity.ok(ApiResponseDTO.<OrderResponseDTO>builder()
+                        .success(true)
+                        .message("Order processed successfully")
+                        .data(sequencedInventoryEngine.processOrder(orderRequest))
+                        .build());
+            }
+
+            Order order = optimisticRetry.execute(() -> orderService.processOrder(orderRequest));
 
             return ResponseEntity.ok(ApiResponseDTO.<OrderResponseDTO>builder()
                     .success(true)
                     .message("Order processed successfully")
-                    .data(response)
+                    .data(toOrderResponse(order))
                     .build());
         } catch (Exception e) {
             log.error("Error processing order", e);
@@ -136,6 +291,55 @@ public class InventoryController {
         }
     }
 
+    /**
+     * POST /v1/process_order/stream
+     * Processes newline-delimited orders, e.g. to import order history,
+     * writing one OrderStreamResultDTO line per order as it completes.
+     * Parsing and validation of the next chunk overlap with processing of
+     * the current one, and memory use does not grow with the stream.
+     * Malformed or invalid orders are reported in their result line and
+     * the stream continues.
+     *
+     * Request Body: application/x-ndjson, one OrderRequestDTO per line
+     * Response: application/x-ndjson, one OrderStreamResultDTO per order
+     */
+    @PostMapping(value = "/process_order/stream", consumes = "application/x-ndjson")
+    public void processOrderStream(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        orderStreamProcessor.process(body, response.getOutputStream());
+    }
+
+    /**
+     * POST /v1/process_order/preview
+     * Dry run of process_order: reports how much of each line would ship
+     * now and the packing plan, from the published inventory snapshot and
+     * the product cache. Takes no locks and writes nothing; the order ID is
+     * not checked or reserved.
+     *
+     * Request Body: OrderRequestDTO
+     * Response: OrderPreviewDTO
+     */
+    @PostMapping("/process_order/preview")
+    public ResponseEntity<ApiResponseDTO<OrderPreviewDTO>> previewOrder(
+            @RequestBody OrderRequestDTO orderRequest) {
+        try {
+            return ResponseEntity.ok(ApiResponseDTO.<OrderPreviewDTO>builder()
+                    .success(true)
+                    .message("Order preview computed successfully")
+                    .data(orderService.previewOrder(orderRequest))
+                    .build());
+        } catch (Exception e) {
+            log.error("Error previewing order", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDTO.<OrderPreviewDTO>builder()
+                            .success(false)
+                            .message("Failed to preview order")
+                            .error(e.getMessage())
+                            .build());
+        }
+    }
+
     /**
      * POST /v1/process_restock
      * Restocks inventory and fulfills pending orders.
@@ -146,79 +350,512 @@ public class InventoryController {
      * 3. Creates shipments for fulfilled pending items
      * 4. Updates order statuses
      * 
+     * With ?async=true (or inventory.restock.async-enabled), only step 1 runs
+     * inline; steps 2-4 are queued and coalesced per product. When the
+     * sequenced engine is enabled, restocks always run through it and async
+     * is ignored.
+     * 
      * Request Body: List<RestockItemDTO>
      * Example: [{"product_id": 0, "quantity": 30}]
      */
     @PostMapping("/process_restock")
     public ResponseEntity<ApiResponseDTO<RestockResponseDTO>> processRestock(
-            @RequestBody List<RestockItemDTO> restockItems) {
+            @RequestBody List<RestockItemDTO> restockItems,
+            @RequestParam(name = "async", required = false) Boolean async) {
         log.info("Processing restock for {} products", restockItems.size());
 
+        // The engine serializes restocks itself; async is ignored when it runs
+        boolean queued = !sequencedInventoryEngine.isEnabled()
+                && (async != null ? async : inventoryProperties.getRestock().isAsyncEnabled());
+
         try {
-            List<Long> shipmentsCreated = new ArrayList<>();
-            List<Long> ordersUpdated = new ArrayList<>();
+            RestockResponseDTO response = applyRestock(restockItems, queued);
 
-            for (RestockItemDTO restockItem : restockItems) {
-                Long productId = restockItem.getProductId();
-                Long quantity = restockItem.getQuantity();
+            return ResponseEntity.status(queued ? HttpStatus.ACCEPTED : HttpStatus.OK)
+                    .body(ApiResponseDTO.<RestockResponseDTO>builder()
+                            .success(true)
+                            .message(queued ? "Restock applied; backlog fulfillment queued"
+                                    : "Restock processed successfully")
+                            .data(response)
+                            .build());
+        } catch (Exception e) {
+            log.error("Error processing restock", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDTO.<RestockResponseDTO>builder()
+                            .success(false)
+                            .message("Failed to process restock")
+                            .error(e.getMessage())
+                            .build());
+        }
+    }
 
-                log.info("Restocking product {} with quantity {}", productId, quantity);
+    /**
+     * POST /v1/process_restock/stream?async=false
+     * Same as /v1/process_restock, but the JSON array is parsed as it
+     * arrives and applied inventory.restock.stream-chunk-size items at a
+     * time, one transaction per chunk, so memory use does not grow with the
+     * size of the payload. If the payload turns out to be invalid part way,
+     * the chunks before the error stay applied; the error response reports
+     * how many products were restocked.
+     *
+     * Request Body: List<RestockItemDTO>, streamed
+     * Response: RestockResponseDTO, totalled over all chunks
+     */
+    @PostMapping(value = "/process_restock/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseDTO<RestockResponseDTO>> processRestockStream(InputStream body,
+            @RequestParam(name = "async", required = false) Boolean async) {
+        boolean queued = !sequencedInventoryEngine.isEnabled()
+                && (async != null ? async : inventoryProperties.getRestock().isAsyncEnabled());
+        RestockResponseDTO total = RestockResponseDTO.builder()
+                .productsRestocked(0)
+                .shipmentsCreated(0)
+                .ordersUpdated(0)
+                .build();
+
+        try (JsonArrayReader<RestockItemDTO> reader = new JsonArrayReader<>(objectMapper, body, RestockItemDTO.class)) {
+            List<RestockItemDTO> chunk;
+            while (!(chunk = reader.nextChunk(inventoryProperties.getRestock().getStreamChunkSize())).isEmpty()) {
+                RestockResponseDTO applied = applyRestock(chunk, queued);
+                total.setProductsRestocked(total.getProductsRestocked() + applied.getProductsRestocked());
+                total.setShipmentsCreated(total.getShipmentsCreated() + applied.getShipmentsCreated());
+                total.setOrdersUpdated(total.getOrdersUpdated() + applied.getOrdersUpdated());
+            }
+            log.info("Streamed restock of {} products", total.getProductsRestocked());
 
-                // Update inventory
-                inventoryService.increaseInventory(productId, quantity);
+            return ResponseEntity.status(queued ? HttpStatus.ACCEPTED : HttpStatus.OK)
+                    .body(ApiResponseDTO.<RestockResponseDTO>builder()
+                            .success(true)
+                            .message(queued ? "Restock applied; backlog fulfillment queued"
+                                    : "Restock processed successfully")
+                            .data(total)
+                            .build());
+        } catch (Exception e) {
+            log.error("Error streaming restock after {} products", total.getProductsRestocked(), e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDTO.<RestockResponseDTO>builder()
+                            .success(false)
+                            .message("Failed to process restock")
+                            .data(total)
+                            .error(e.getMessage())
+                            .build());
+        }
+    }
 
-                // Get all pending items for this product, ordered by creation time (oldest
-                // first)
-                List<PendingOrderItem> pendingItems = pendingOrderItemRepository
-                        .findByProductIdOrderByCreatedAt(productId);
+    /**
+     * POST /v1/process_restock/ingest/{ingestId}
+     * Applies a restock file, such as a warehouse receipt, in chunks of
+     * inventory.restock.ingest-chunk-size records. Each chunk merges lines
+     * for the same product and commits with its backlog fulfillment. If the
+     * ingest fails, sending the same file under the same ID resumes after the
+     * last committed chunk; a completed ingest is not applied again.
+     *
+     * Request Body: text/csv ("productId,quantity" lines, optional header)
+     *               or application/x-ndjson (one RestockItemDTO per line)
+     * Response: RestockIngestDTO
+     */
+    @PostMapping(value = "/process_restock/ingest/{ingestId}", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ApiResponseDTO<RestockIngestDTO>> ingestRestockFile(@PathVariable String ingestId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) {
+        RestockRecordReader.Format format = contentType.isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? RestockRecordReader.Format.CSV : RestockRecordReader.Format.NDJSON;
+        log.info("Ingesting restock file {} ({})", ingestId, format);
 
-                long remainingQuantity = quantity;
+        try {
+            RestockIngestDTO result = restockIngestService.ingest(ingestId, format, body);
 
-                for (PendingOrderItem pending : pendingItems) {
-                    if (remainingQuantity <= 0)
-                        break;
+            return ResponseEntity.ok(ApiResponseDTO.<RestockIngestDTO>builder()
+                    .success(true)
+                    .message("Restock file ingested successfully")
+                    .data(result)
+                    .build());
+        } catch (Exception e) {
+            log.error("Error ingesting restock file {}", ingestId, e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDTO.<RestockIngestDTO>builder()
+                            .success(false)
+                            .message("Failed to ingest restock file; resend it to resume")
+                            .data(restockIngestService.getIngest(ingestId).orElse(null))
+                            .error(e.getMessage())
+                            .build());
+        }
+    }
 
-                    Long orderId = pending.getOrderId();
-                    Order order = orderService.getOrder(orderId);
-                    List<OrderItem> orderItems = orderItemRepository.findByOrderId(orderId);
+    /**
+     * GET /v1/process_restock/ingest/{ingestId}
+     * Reports the progress of a restock file ingest.
+     *
+     * Response: RestockIngestDTO
+     */
+    @GetMapping("/process_restock/ingest/{ingestId}")
+    public ResponseEntity<ApiResponseDTO<RestockIngestDTO>> getRestockIngest(@PathVariable String ingestId) {
+        return restockIngestService.getIngest(ingestId)
+                .map(ingest -> ResponseEntity.ok(ApiResponseDTO.<RestockIngestDTO>builder()
+                        .success(true)
+                        .message("Restock ingest retrieved successfully")
+                        .data(ingest)
+                        .build()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponseDTO.<RestockIngestDTO>builder()
+                                .success(false)
+                                .message("Restock ingest not found")
+                                .error("No restock ingest " + ingestId)
+                                .build()));
+    }
 
-                    // Create shipments for pending items
-                    List<Shipment> shipments = shipmentService.createShipments(
-                            orderId, orderItems, order, orderItemRepository);
+    /**
+     * Applies one batch of restock items through the engine, inline, or with
+     * backlog fulfillment queued.
+     */
+    private RestockResponseDTO applyRestock(List<RestockItemDTO> restockItems, boolean queued) {
+        if (sequencedInventoryEngine.isEnabled()) {
+            return sequencedInventoryEngine.processRestock(restockItems);
+        }
+        if (!queued) {
+            return optimisticRetry.execute(() -> restockService.processRestock(restockItems));
+        }
 
-                    shipmentsCreated.addAll(shipments.stream()
-                            .map(Shipment::getShipmentId)
-                            .collect(Collectors.toList()));
+        // Commit the inventory increase now; backlog fulfillment is queued
+        optimisticRetry.run(() -> restockService.increaseInventory(restockItems));
+        for (RestockItemDTO restockItem : restockItems) {
+            asyncRestockQueue.submit(restockItem.getProductId(), restockItem.getQuantity());
+        }
+        return RestockResponseDTO.builder()
+                .productsRestocked(restockItems.size())
+                .shipmentsCreated(0)
+                .ordersUpdated(0)
+                .build();
+    }
 
-                    // Remove fulfilled pending items
-                    List<PendingOrderItem> remainingPending = orderService.getPendingItems(orderId);
-                    if (remainingPending.isEmpty()) {
-                        orderService.completeOrderIfAllFulfilled(orderId);
-                        ordersUpdated.add(orderId);
-                    }
+    /**
+     * POST /v1/reservations
+     * Holds stock for a checkout until it is confirmed, released or expires.
+     * Every requested quantity is reserved, or none.
+     *
+     * Request Body: ReservationRequestDTO
+     * Example: {"requested": [{"product_id": 0, "quantity": 2}], "ttl_seconds": 300}
+     */
+    @PostMapping("/reservations")
+    public ResponseEntity<ApiResponseDTO<ReservationResponseDTO>> reserve(
+            @RequestBody ReservationRequestDTO reservationRequest) {
+        log.info("Reserving {} products", reservationRequest.getRequested() != null
+                ? reservationRequest.getRequested().size() : 0);
 
-                    // Update remaining quantity (simplified - in production, track more granularly)
-                    remainingQuantity -= pending.getPendingQty();
-                }
-            }
+        try {
+            ReservationResponseDTO response = optimisticRetry.execute(
+                    () -> reservationService.reserve(reservationRequest));
+
+            return ResponseEntity.ok(ApiResponseDTO.<ReservationResponseDTO>builder()
+                    .success(true)
+                    .message("Reservation created successfully")
+                    .data(response)
+                    .build());
+        } catch (Exception e) {
+            log.error("Error creating reservation", e);
+            return reservationError("Failed to create reservation", e);
+        }
+    }
+
+    /**
+     * GET /v1/reservations/{reservationId}
+     * Retrieves a reservation with its held items and status.
+     *
+     * Response: ReservationResponseDTO
+     */
+    @GetMapping("/reservations/{reservationId}")
+    public ResponseEntity<ApiResponseDTO<ReservationResponseDTO>> getReservation(
+            @PathVariable Long reservationId) {
+        try {
+            return ResponseEntity.ok(ApiResponseDTO.<ReservationResponseDTO>builder()
+                    .success(true)
+                    .message("Reservation retrieved successfully")
+                    .data(reservationService.getReservation(reservationId))
+                    .build());
+        } catch (Exception e) {
+            log.error("Error retrieving reservation", e);
+            return reservationError("Failed to retrieve reservation", e);
+        }
+    }
+
+    /**
+     * POST /v1/reservations/{reservationId}/confirm?order_id=123
+     * Creates an order from an active reservation and ships the reserved
+     * stock.
+     *
+     * Response: OrderResponseDTO
+     */
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<ApiResponseDTO<OrderResponseDTO>> confirmReservation(
+            @PathVariable Long reservationId,
+            @RequestParam(name = "order_id") Long orderId) {
+        log.info("Confirming reservation {} as order {}", reservationId, orderId);
+
+        try {
+            Order order = optimisticRetry.execute(() -> reservationService.confirm(reservationId, orderId));
+
+            return ResponseEntity.ok(ApiResponseDTO.<OrderResponseDTO>builder()
+                    .success(true)
+                    .message("Reservation confirmed successfully")
+                    .data(toOrderResponse(order))
+                    .build());
+        } catch (Exception e) {
+            log.error("Error confirming reservation", e);
+            return ResponseEntity.status(e instanceof ReservationNotFoundException
+                            ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDTO.<OrderResponseDTO>builder()
+                            .success(false)
+                            .message("Failed to confirm reservation")
+                            .error(e.getMessage())
+                            .build());
+        }
+    }
+
+    /**
+     * DELETE /v1/reservations/{reservationId}
+     * Releases an active reservation, returning its stock to available
+     * inventory.
+     *
+     * Response: ReservationResponseDTO
+     */
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<ApiResponseDTO<ReservationResponseDTO>> releaseReservation(
+            @PathVariable Long reservationId) {
+        log.info("Releasing reservation {}", reservationId);
+
+        try {
+            ReservationResponseDTO response = optimisticRetry.execute(
+                    () -> reservationService.release(reservationId));
+
+            return ResponseEntity.ok(ApiResponseDTO.<ReservationResponseDTO>builder()
+                    .success(true)
+                    .message("Reservation released successfully")
+                    .data(response)
+                    .build());
+        } catch (Exception e) {
+            log.error("Error releasing reservation", e);
+            return reservationError("Failed to release reservation", e);
+        }
+    }
+
+    /**
+     * GET /v1/restock/queue
+     * Reports lag and coalescing statistics for the async restock queue.
+     *
+     * Response: RestockQueueStatsDTO
+     */
+    @GetMapping("/restock/queue")
+    public ResponseEntity<ApiResponseDTO<RestockQueueStatsDTO>> getRestockQueueStats() {
+        return ResponseEntity.ok(ApiResponseDTO.<RestockQueueStatsDTO>builder()
+                .success(true)
+                .message("Restock queue statistics retrieved successfully")
+                .data(asyncRestockQueue.getStats())
+                .build());
+    }
+
+    /**
+     * GET /v1/catalog/cache
+     * Reports size and hit, miss and eviction counters of the product catalog
+     * cache.
+     *
+     * Response: CacheStatsDTO
+     */
+    @GetMapping("/catalog/cache")
+    public ResponseEntity<ApiResponseDTO<CacheStatsDTO>> getCatalogCacheStats() {
+        return ResponseEntity.ok(ApiResponseDTO.<CacheStatsDTO>builder()
+                .success(true)
+                .message("Catalog cache statistics retrieved successfully")
+                .data(productCatalogCache.getStats())
+                .build());
+    }
+
+    /**
+     * GET /v1/engine/stats
+     * Reports sequence positions, queue depth and command latency percentiles
+     * of the sequenced inventory engine.
+     *
+     * Response: EngineStatsDTO
+     */
+    @GetMapping("/engine/stats")
+    public ResponseEntity<ApiResponseDTO<EngineStatsDTO>> getEngineStats() {
+        return ResponseEntity.ok(ApiResponseDTO.<EngineStatsDTO>builder()
+                .success(true)
+                .message("Engine statistics retrieved successfully")
+                .data(sequencedInventoryEngine.getStats())
+                .build());
+    }
+
+    /**
+     * GET /v1/inventory/contention?limit=10
+     * Lists the products whose inventory row locks were waited on longest in
+     * total, with lock wait and hold percentiles and lock timeouts. Only
+     * PESSIMISTIC mode takes row locks.
+     *
+     * Response: List<LockContentionDTO>
+     */
+    @GetMapping("/inventory/contention")
+    public ResponseEntity<ApiResponseDTO<List<LockContentionDTO>>> getLockContention(
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ApiResponseDTO.<List<LockContentionDTO>>builder()
+                .success(true)
+                .message("Lock contention retrieved successfully")
+                .data(inventoryLockStats.getTopContended(limit))
+                .build());
+    }
+
+    /**
+     * GET /v1/inventory
+     * Returns the available quantity of every product from the published
+     * inventory snapshot, which is refreshed shortly after inventory changes.
+     * The response is serialized once per snapshot version and carries an
+     * ETag; a request whose If-None-Match matches gets 304 Not Modified.
+     *
+     * Response: InventorySnapshotDTO
+     */
+    @GetMapping("/inventory")
+    public ResponseEntity<byte[]> getInventory(WebRequest request) {
+        InventorySnapshotPublisher.Snapshot snapshot = inventorySnapshotPublisher.getSnapshot();
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.getBody());
+    }
+
+    /**
+     * GET /v1/inventory?ids=1,2,3
+     * Returns the available quantities of the given products from the
+     * published inventory snapshot; unknown products are left out. Carries
+     * the snapshot's ETag, so unchanged polls get 304 Not Modified.
+     *
+     * Response: InventorySnapshotDTO
+     */
+    @GetMapping(value = "/inventory", params = "ids")
+    public ResponseEntity<ApiResponseDTO<InventorySnapshotDTO>> getInventoryForProducts(
+            @RequestParam List<Long> ids, WebRequest request) {
+        InventorySnapshotPublisher.Snapshot snapshot = inventorySnapshotPublisher.getSnapshot();
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .body(ApiResponseDTO.<InventorySnapshotDTO>builder()
+                        .success(true)
+                        .message("Inventory retrieved successfully")
+                        .data(snapshot.toDTO(ids))
+                        .build());
+    }
+
+    /**
+     * GET /v1/inventory/atp?ids=1,2,3
+     * Returns what new orders for the given products could get now: the
+     * available quantity minus what is already promised to pending order
+     * items. Reads maintained totals by primary key; no backlog scan.
+     *
+     * Response: List<AvailableToPromiseDTO>
+     */
+    @GetMapping("/inventory/atp")
+    public ResponseEntity<ApiResponseDTO<List<AvailableToPromiseDTO>>> getAvailableToPromise(
+            @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(ApiResponseDTO.<List<AvailableToPromiseDTO>>builder()
+                .success(true)
+                .message("Available-to-promise retrieved successfully")
+                .data(inventoryService.getAvailableToPromise(ids))
+                .build());
+    }
+
+    /**
+     * GET /v1/inventory/{productId}/ledger?after_id=0&limit=100
+     * Lists a product's inventory ledger entries after the given entry,
+     * oldest first.
+     *
+     * Response: List<LedgerEntryDTO>
+     */
+    @GetMapping("/inventory/{productId}/ledger")
+    public ResponseEntity<ApiResponseDTO<List<LedgerEntryDTO>>> getLedgerEntries(
+            @PathVariable Long productId,
+            @RequestParam(name = "after_id", defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, 1000));
+        List<LedgerEntryDTO> entries = inventoryLedger.getEntries(productId, afterId, pageSize).stream()
+                .map(entry -> LedgerEntryDTO.builder()
+                        .id(entry.getId())
+                        .entryType(entry.getEntryType())
+                        .quantity(entry.getQuantity())
+                        .availableDelta(entry.getAvailableDelta())
+                        .reservedDelta(entry.getReservedDelta())
+                        .createdAt(entry.getCreatedAt())
+                        .build())
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(ApiResponseDTO.<List<LedgerEntryDTO>>builder()
+                .success(true)
+                .message("Ledger entries retrieved successfully")
+                .data(entries)
+                .build());
+    }
 
-            RestockResponseDTO response = RestockResponseDTO.builder()
-                    .productsRestocked(restockItems.size())
-                    .shipmentsCreated(shipmentsCreated.size())
-                    .ordersUpdated(ordersUpdated.size())
+    /**
+     * GET /v1/inventory/{productId}/stock_level?at=2024-01-01T12:00:00
+     * GET /v1/inventory/{productId}/stock_level?ledger_id=1234
+     * Rebuilds a product's available and reserved quantity as of a time or
+     * ledger entry from the nearest ledger checkpoint; the latest level
+     * when neither is given.
+     *
+     * Response: StockLevelDTO
+     */
+    @GetMapping("/inventory/{productId}/stock_level")
+    public ResponseEntity<ApiResponseDTO<StockLevelDTO>> getStockLevel(
+            @PathVariable Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestParam(name = "ledger_id", required = false) Long ledgerId) {
+        StockLevelDTO level = at != null
+                ? inventoryLedger.getStockLevel(productId, at)
+                : inventoryLedger.getStockLevel(productId, ledgerId != null ? ledgerId : Long.MAX_VALUE);
+
+        return ResponseEntity.ok(ApiResponseDTO.<StockLevelDTO>builder()
+                .success(true)
+                .message("Stock level rebuilt successfully")
+                .data(level)
+                .build());
+    }
+
+    /**
+     * PUT /v1/inventory/{productId}/shards?count=8
+     * Splits a hot product's available quantity across count inventory
+     * shards so concurrent orders stop queueing on one row lock; a count of
+     * 1 or 0 folds the shards back into the inventory row. Stock is
+     * conserved either way.
+     *
+     * Response: InventoryShardsDTO
+     */
+    @PutMapping("/inventory/{productId}/shards")
+    public ResponseEntity<ApiResponseDTO<InventoryShardsDTO>> setInventoryShards(
+            @PathVariable Long productId,
+            @RequestParam int count) {
+        log.info("Setting {} inventory shards for product {}", count, productId);
+
+        try {
+            shardedInventory.setShardCount(productId, count);
+
+            InventoryShardsDTO response = InventoryShardsDTO.builder()
+                    .productId(productId)
+                    .shardCount(shardedInventory.getShardCount(productId))
+                    .availableQty(inventoryService.getAvailableQuantity(productId))
+                    .shards(shardedInventory.getShardQuantities(productId))
                     .build();
 
-            return ResponseEntity.ok(ApiResponseDTO.<RestockResponseDTO>builder()
+            return ResponseEntity.ok(ApiResponseDTO.<InventoryShardsDTO>builder()
                     .success(true)
-                    .message("Restock processed successfully")
+                    .message("Inventory shards updated successfully")
                     .data(response)
                     .build());
         } catch (Exception e) {
-            log.error("Error processing restock", e);
+            log.error("Error updating inventory shards", e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponseDTO.<RestockResponseDTO>builder()
+                    .body(ApiResponseDTO.<InventoryShardsDTO>builder()
                             .success(false)
-                            .message("Failed to process restock")
+                            .message("Failed to update inventory shards")
                             .error(e.getMessage())
                             .build());
         }
@@ -226,44 +863,120 @@ public class InventoryController {
 
     /**
      * GET /v1/ship_package/{shipmentId}
-     * Retrieves shipment details for a given shipment ID.
+     * Retrieves shipment details for a given shipment ID. Shipments do not
+     * change once created, so the serialized response is cached and repeat
+     * lookups are served from memory.
      * 
      * Response: ShipmentResponseDTO with order ID and shipped items
      */
     @GetMapping("/ship_package/{shipmentId}")
-    public ResponseEntity<ApiResponseDTO<ShipmentResponseDTO>> getShipment(
-            @PathVariable Long shipmentId) {
-        log.info("Retrieving shipment {}", shipmentId);
+    public ResponseEntity<byte[]> getShipment(@PathVariable Long shipmentId) throws IOException {
+        log.debug("Retrieving shipment {}", shipmentId);
 
         try {
-            Shipment shipment = shipmentService.getShipment(shipmentId);
-            List<com.inventory.entity.ShipmentItem> items = shipmentService.getShipmentItems(shipmentId);
-
-            List<ShippedItemDTO> shippedItems = items.stream()
-                    .map(item -> ShippedItemDTO.builder()
-                            .productId(item.getProductId())
-                            .quantity(item.getQuantity())
-                            .build())
-                    .collect(Collectors.toList());
-
-            ShipmentResponseDTO response = ShipmentResponseDTO.builder()
-                    .orderId(shipment.getOrderId())
-                    .shipped(shippedItems)
-                    .build();
-
-            return ResponseEntity.ok(ApiResponseDTO.<ShipmentResponseDTO>builder()
-                    .success(true)
-                    .message("Shipment retrieved successfully")
-                    .data(response)
-                    .build());
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(shipmentResponseCache.getResponse(shipmentId));
         } catch (Exception e) {
             log.error("Error retrieving shipment", e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponseDTO.<ShipmentResponseDTO>builder()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(objectMapper.writeValueAsBytes(ApiResponseDTO.<ShipmentResponseDTO>builder()
                             .success(false)
                             .message("Failed to retrieve shipment")
                             .error(e.getMessage())
-                            .build());
+                            .build()));
+        }
+    }
+
+    /**
+     * GET /v1/ship_package/cache
+     * Reports size and hit, miss and eviction counters of the shipment
+     * response cache.
+     *
+     * Response: CacheStatsDTO
+     */
+    @GetMapping("/ship_package/cache")
+    public ResponseEntity<ApiResponseDTO<CacheStatsDTO>> getShipmentCacheStats() {
+        return ResponseEntity.ok(ApiResponseDTO.<CacheStatsDTO>builder()
+                .success(true)
+                .message("Shipment cache statistics retrieved successfully")
+                .data(shipmentResponseCache.getStats())
+                .build());
+    }
+
+    /**
+     * GET /v1/ship_packages?ids=1,2,3
+     * Retrieves several shipments at once, loading them with two queries per
+     * chunk of IDs and streaming the response as it is loaded. Unknown IDs
+     * are listed in notFound.
+     *
+     * Response: ShipmentBatchDTO
+     */
+    @GetMapping(value = "/ship_packages", params = "ids")
+    public void getShipments(@RequestParam List<Long> ids, HttpServletResponse response) throws IOException {
+        writeShipments(ids, response);
+    }
+
+    /**
+     * POST /v1/ship_packages
+     * Same as GET /v1/ship_packages, for ID lists too long for a query
+     * string.
+     *
+     * Request Body: JSON array of shipment IDs
+     * Response: ShipmentBatchDTO
+     */
+    @PostMapping("/ship_packages")
+    public void getShipmentsByPost(@RequestBody List<Long> ids, HttpServletResponse response) throws IOException {
+        writeShipments(ids, response);
+    }
+
+    private void writeShipments(List<Long> ids, HttpServletResponse response) throws IOException {
+        int maxIds = inventoryProperties.getShipmentLookup().getMaxIds();
+        String problem = ids.isEmpty() || ids.contains(null) ? "Shipment IDs are required"
+                : ids.size() > maxIds ? "At most " + maxIds + " shipment IDs can be looked up at once" : null;
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (problem != null) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            objectMapper.writeValue(response.getOutputStream(), ApiResponseDTO.<ShipmentBatchDTO>builder()
+                    .success(false)
+                    .message("Failed to retrieve shipments")
+                    .error(problem)
+                    .build());
+            return;
         }
+        shipmentBatchWriter.write(ids, response.getOutputStream());
+    }
+
+    /**
+     * Builds the API response for an order with its current items.
+     */
+    private OrderResponseDTO toOrderResponse(Order order) {
+        List<OrderItem> orderItems = orderService.getOrderItems(order.getOrderId());
+        return OrderResponseDTO.builder()
+                .orderId(order.getOrderId())
+                .status(order.getStatus())
+                .createdAt(order.getCreatedAt())
+                .totalItems(orderItems.size())
+                .items(orderItems.stream()
+                        .map(item -> OrderItemDTO.builder()
+                                .productId(item.getProductId())
+                                .requestedQty(item.getRequestedQty())
+                                .fulfilledQty(item.getFulfilledQty())
+                                .status(item.getStatus())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private ResponseEntity<ApiResponseDTO<ReservationResponseDTO>> reservationError(String message, Exception e) {
+        return ResponseEntity.status(e instanceof ReservationNotFoundException
+                        ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.<ReservationResponseDTO>builder()
+                        .success(false)
+                        .message(message)
+                        .error(e.getMessage())
+                        .build());
     }
 }
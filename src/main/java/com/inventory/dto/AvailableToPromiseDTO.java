@@ -0,0 +1,28 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+/**
+ * AvailableToPromiseDTO - What a new order for a product could get now:
+ * available stock net of what is already promised to the backlog.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailableToPromiseDTO {
+
+    private Long productId;
+
+    private Long availableQty;
+
+    /**
+     * Quantity promised to pending order items
+     */
+    private Long pendingQty;
+
+    /**
+     * availableQty - pendingQty, never below 0
+     */
+    private Long atpQty;
+}
@@ -0,0 +1,58 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+/**
+ * CacheStatsDTO - Snapshot of an in-memory cache's size and counters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDTO {
+
+    /**
+     * Entries currently cached
+     */
+    private Integer size;
+
+    /**
+     * Maximum entries before least recently used ones are evicted
+     */
+    private Integer maxSize;
+
+    /**
+     * Lookups served from memory
+     */
+    private Long hits;
+
+    /**
+     * Lookups that had to go to the database
+     */
+    private Long misses;
+
+    /**
+     * hits / (hits + misses)
+     */
+    private Double hitRate;
+
+    /**
+     * Entries dropped to stay within maxSize
+     */
+    private Long evictions;
+
+    /**
+     * Times the whole cache was invalidated
+     */
+    private Long invalidations;
+
+    /**
+     * Entries dropped one by one after delta catalog upserts
+     */
+    private Long keyInvalidations;
+
+    /**
+     * Misses served from the catalog snapshot instead of the database
+     */
+    private Long snapshotLoads;
+}
@@ -0,0 +1,52 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+/**
+ * CatalogLoadProgressDTO - Progress of a bulk catalog load.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogLoadProgressDTO {
+
+    /**
+     * IDLE, RUNNING, COMPLETED or FAILED
+     */
+    private String status;
+
+    /**
+     * Distinct products in the request
+     */
+    private Long totalProducts;
+
+    /**
+     * Products committed so far
+     */
+    private Long loadedProducts;
+
+    /**
+     * Committed products that were new
+     */
+    private Long insertedProducts;
+
+    /**
+     * Committed products that already existed and were reset
+     */
+    private Long updatedProducts;
+
+    /**
+     * Chunks committed so far
+     */
+    private Integer chunks;
+
+    private Long elapsedMs;
+
+    private Long productsPerSecond;
+
+    /**
+     * Why the load failed, if it did
+     */
+    private String error;
+}
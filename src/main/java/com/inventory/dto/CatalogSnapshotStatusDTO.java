@@ -0,0 +1,45 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * CatalogSnapshotStatusDTO - State of the memory-mapped catalog snapshot.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogSnapshotStatusDTO {
+
+    /**
+     * DISABLED, ABSENT, UNVERIFIED (serving, check against the database
+     * running), VERIFIED or STALE (catalog changed, rewrite pending)
+     */
+    private String status;
+
+    private String path;
+
+    /**
+     * Products in the snapshot being served
+     */
+    private Integer products;
+
+    private Long fileBytes;
+
+    /**
+     * Last time this process wrote the snapshot
+     */
+    private LocalDateTime writtenAt;
+
+    /**
+     * Last time the snapshot was found to match the products table
+     */
+    private LocalDateTime verifiedAt;
+
+    /**
+     * Why the last check or write failed, if it did
+     */
+    private String error;
+}
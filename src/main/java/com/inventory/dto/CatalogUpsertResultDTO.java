@@ -0,0 +1,47 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * CatalogUpsertResultDTO - Outcome of a delta catalog upsert.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogUpsertResultDTO {
+
+    /**
+     * Distinct products in the request
+     */
+    private Long receivedProducts;
+
+    /**
+     * Products that did not exist; created with zero inventory
+     */
+    private Long insertedProducts;
+
+    /**
+     * Existing products whose name or mass changed
+     */
+    private Long updatedProducts;
+
+    /**
+     * Existing products sent with their stored name and mass; not written
+     */
+    private Long unchangedProducts;
+
+    private Long elapsedMs;
+
+    /**
+     * IDs of the inserted products
+     */
+    private List<Long> insertedProductIds;
+
+    /**
+     * IDs of the updated products
+     */
+    private List<Long> updatedProductIds;
+}
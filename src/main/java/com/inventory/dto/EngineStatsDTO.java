@@ -0,0 +1,51 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+/**
+ * EngineStatsDTO - Snapshot of the sequenced inventory engine.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EngineStatsDTO {
+
+    /**
+     * Whether order and restock requests are routed through the engine
+     */
+    private Boolean enabled;
+
+    /**
+     * Sequence of the last command applied by the engine thread
+     */
+    private Long appliedSequence;
+
+    /**
+     * Sequence of the last command whose effects are in the database
+     */
+    private Long projectedSequence;
+
+    /**
+     * Commands waiting in the ring buffer
+     */
+    private Long queuedCommands;
+
+    /**
+     * Ring buffer capacity
+     */
+    private Integer ringBufferSize;
+
+    /**
+     * Commands completed since startup
+     */
+    private Long completedCommands;
+
+    /**
+     * Publish-to-completion latency percentiles, in microseconds
+     */
+    private Long p50LatencyUs;
+    private Long p99LatencyUs;
+    private Long p999LatencyUs;
+    private Long maxLatencyUs;
+}
@@ -0,0 +1,15 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+/**
+ * InventoryLevelDTO - Available quantity of one product.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryLevelDTO {
+    private Long productId;
+    private Long availableQty;
+}
@@ -0,0 +1,34 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * InventoryShardsDTO - How a product's available quantity is split across
+ * inventory shards.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryShardsDTO {
+
+    private Long productId;
+
+    /**
+     * Number of shards; 0 when the product is not sharded
+     */
+    private Integer shardCount;
+
+    /**
+     * Available quantity across all shards, or of the inventory row when
+     * the product is not sharded
+     */
+    private Long availableQty;
+
+    /**
+     * Available quantity of each shard, by shard number
+     */
+    private List<Long> shards;
+}
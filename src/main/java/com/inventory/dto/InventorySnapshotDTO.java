@@ -0,0 +1,29 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * InventorySnapshotDTO - Available quantities of all (or the requested)
+ * products as of one published snapshot.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventorySnapshotDTO {
+
+    /**
+     * Snapshot version; changes only when some quantity changed
+     */
+    private Long version;
+
+    /**
+     * When this version was built
+     */
+    private LocalDateTime publishedAt;
+
+    private List<InventoryLevelDTO> items;
+}
@@ -0,0 +1,21 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * LedgerEntryDTO - One inventory ledger entry.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerEntryDTO {
+    private Long id;
+    private String entryType;
+    private Long quantity;
+    private Long availableDelta;
+    private Long reservedDelta;
+    private LocalDateTime createdAt;
+}
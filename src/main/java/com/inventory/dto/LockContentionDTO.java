@@ -0,0 +1,44 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+/**
+ * LockContentionDTO - Row lock timings of one product.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LockContentionDTO {
+
+    private Long productId;
+
+    /**
+     * Locks acquired
+     */
+    private Long acquisitions;
+
+    /**
+     * Acquisitions that failed with a lock timeout or deadlock
+     */
+    private Long timeouts;
+
+    /**
+     * Time spent waiting for the lock, summed over all acquisitions
+     */
+    private Long totalWaitMs;
+
+    /**
+     * Wait-for-lock percentiles, in microseconds
+     */
+    private Long p50WaitUs;
+    private Long p99WaitUs;
+    private Long maxWaitUs;
+
+    /**
+     * Lock-held-until-commit percentiles, in microseconds
+     */
+    private Long p50HoldUs;
+    private Long p99HoldUs;
+    private Long maxHoldUs;
+}
@@ -0,0 +1,33 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * OrderPreviewDTO - What processing an order would ship right now, computed
+ * without locks or writes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderPreviewDTO {
+
+    /**
+     * Status the order would get: FULFILLED, PARTIALLY_FULFILLED or PENDING
+     */
+    private String status;
+
+    /**
+     * Version of the inventory snapshot the preview was computed from
+     */
+    private Long snapshotVersion;
+
+    /**
+     * Requested lines with the quantity that would ship now as fulfilledQty
+     */
+    private List<OrderItemDTO> items;
+
+    private List<ShipmentPlanDTO> shipments;
+}
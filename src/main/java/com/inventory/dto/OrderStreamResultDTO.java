@@ -0,0 +1,36 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+/**
+ * OrderStreamResultDTO - Outcome of one order of a streamed order ingest,
+ * written as one NDJSON line.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStreamResultDTO {
+
+    /**
+     * Line of the request stream the order was read from, starting at 1
+     */
+    private Long line;
+
+    /**
+     * Null if the line could not be parsed
+     */
+    private Long orderId;
+
+    private Boolean success;
+
+    /**
+     * Order status after processing, e.g. COMPLETED or PENDING
+     */
+    private String status;
+
+    /**
+     * Why the order was rejected, if it was
+     */
+    private String error;
+}
@@ -0,0 +1,24 @@
+package com.inventory.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * ReservationRequestDTO - Request to hold stock for a checkout.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationRequestDTO {
+
+    /**
+     * Products and quantities to hold
+     */
+    private List<OrderItemRequestDTO> requested;
+
+    /**
+     * How long to hold the stock; defaults to inventory.reservation.default-ttl-seconds
+     */
+    private Long ttlSeconds;
+}
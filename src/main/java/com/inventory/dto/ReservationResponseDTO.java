@@ -0,0 +1,40 @@
+package com.inventory.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ReservationResponseDTO - Response DTO for reservation information.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationResponseDTO {
+
+    /**
+     * Reservation ID used to confirm or release the hold
+     */
+    private Long reservationId;
+
+    /**
+     * Status: ACTIVE, CONFIRMED, RELEASED, EXPIRED
+     */
+    private String status;
+
+    /**
+     * Order created from the reservation, once confirmed
+     */
+    private Long orderId;
+
+    /**
+     * When the hold lapses unless confirmed
+     */
+    private LocalDateTime expiresAt;
+
+    /**
+     * Held products and quantities
+     */
+    private List<OrderItemRequestDTO> items;
+}
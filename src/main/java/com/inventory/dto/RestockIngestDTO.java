@@ -0,0 +1,57 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * RestockIngestDTO - Progress of a restock file ingest.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RestockIngestDTO {
+
+    private String ingestId;
+
+    /**
+     * CSV or NDJSON
+     */
+    private String format;
+
+    /**
+     * RUNNING, COMPLETED or FAILED
+     */
+    private String status;
+
+    /**
+     * Records of the file applied so far, across attempts
+     */
+    private Long recordsCommitted;
+
+    /**
+     * Records skipped by this attempt because an earlier one applied them
+     */
+    private Long recordsResumed;
+
+    private Integer chunksCommitted;
+
+    /**
+     * Restocked products after merging duplicate lines within each chunk
+     */
+    private Long productsRestocked;
+
+    private Long shipmentsCreated;
+
+    private Long ordersUpdated;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    /**
+     * Why the last attempt failed, if it did
+     */
+    private String error;
+}
@@ -0,0 +1,63 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+/**
+ * RestockQueueStatsDTO - Snapshot of the async restock backlog queue.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RestockQueueStatsDTO {
+
+    /**
+     * Products currently waiting for a backlog allocation pass
+     */
+    private Integer queuedProducts;
+
+    /**
+     * Age in ms of the oldest queued restock
+     */
+    private Long oldestLagMs;
+
+    /**
+     * Enqueue-to-start delay in ms of the most recent allocation pass
+     */
+    private Long lastLagMs;
+
+    /**
+     * Largest enqueue-to-start delay in ms observed so far
+     */
+    private Long maxLagMs;
+
+    /**
+     * Restocks submitted to the queue
+     */
+    private Long enqueued;
+
+    /**
+     * Restocks merged into an already queued pass for the same product
+     */
+    private Long coalesced;
+
+    /**
+     * coalesced / enqueued
+     */
+    private Double coalesceRate;
+
+    /**
+     * Allocation passes completed
+     */
+    private Long processed;
+
+    /**
+     * Failed allocation passes queued again for a retry
+     */
+    private Long retried;
+
+    /**
+     * Allocation passes given up after their last attempt
+     */
+    private Long failed;
+}
@@ -0,0 +1,25 @@
+package com.inventory.dto;
+
+import lombok.*;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ShipmentBatchDTO - Result of a batch shipment lookup.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShipmentBatchDTO {
+
+    /**
+     * Shipments found, by shipment ID, in the order they were requested
+     */
+    private Map<Long, ShipmentResponseDTO> shipments;
+
+    /**
+     * Requested shipment IDs that do not exist
+     */
+    private List<Long> notFound;
+}
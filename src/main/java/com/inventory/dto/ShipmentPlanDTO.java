@@ -0,0 +1,18 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * ShipmentPlanDTO - A shipment an order would produce, as packed by the
+ * shipment packaging optimizer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShipmentPlanDTO {
+    private Integer totalWeightG;
+    private List<ShippedItemDTO> items;
+}
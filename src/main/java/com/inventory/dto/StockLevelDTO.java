@@ -0,0 +1,34 @@
+package com.inventory.dto;
+
+import lombok.*;
+
+/**
+ * StockLevelDTO - A product's stock level rebuilt from the inventory ledger.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockLevelDTO {
+
+    private Long productId;
+
+    /**
+     * Last ledger entry included; 0 when the product had no entries yet
+     */
+    private Long ledgerId;
+
+    private Long availableQty;
+
+    private Long reservedQty;
+
+    /**
+     * Ledger entry of the checkpoint the level was rebuilt from; 0 for none
+     */
+    private Long checkpointLedgerId;
+
+    /**
+     * Entries after the checkpoint that were replayed
+     */
+    private Long replayedEntries;
+}
@@ -0,0 +1,27 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * EngineCheckpoint Entity - Last engine command whose effects are in the
+ * database. Single row; commands after it are replayed from the command
+ * journal on startup.
+ */
+@Entity
+@Table(name = "engine_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EngineCheckpoint {
+
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+}
@@ -6,7 +6,7 @@ import lombok.*;
 /**
  * Inventory Entity - Tracks available quantity of each product.
  * Maintains the current stock level for order fulfillment and shipment
- * creation.
+ * creation, and the quantity held back by reservations.
  */
 @Entity
 @Table(name = "inventory")
@@ -23,6 +23,42 @@ public class Inventory {
     @Column(name = "available_qty", nullable = false)
     private Long availableQty;
 
+    /**
+     * Quantity held by active reservations; not included in availableQty.
+     */
+    @Builder.Default
+    @Column(name = "reserved_qty", nullable = false)
+    private Long reservedQty = 0L;
+
+    /**
+     * Quantity promised to pending order items. Maintained only by SQL
+     * increments in the transactions that change the backlog, never written
+     * through the entity; available-to-promise is availableQty minus this.
+     */
+    @Builder.Default
+    @Column(name = "pending_qty", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private Long pendingQty = 0L;
+
+    /**
+     * Number of inventory_shards rows holding this product's available
+     * quantity, or 0 when availableQty holds it. Changed only by
+     * ShardedInventory, in the transaction that moves the stock; writes to
+     * availableQty check it so that stock never lands on the wrong rows.
+     */
+    @Builder.Default
+    @Column(name = "shard_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "INT DEFAULT 0 NOT NULL")
+    private Integer shardCount = 0;
+
+    /**
+     * Optimistic locking version, checked on every entity update.
+     * Also bumped by the ATOMIC mode's conditional UPDATEs.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * One-to-one relationship with Product.
      * Foreign key is product_id.
@@ -0,0 +1,43 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * InventoryLedgerCheckpoint Entity - A product's stock level after all of
+ * its ledger entries up to ledgerId, so rebuilding a later level only
+ * replays the entries after it.
+ */
+@Entity
+@Table(name = "inventory_ledger_checkpoints", indexes =
+        @Index(name = "idx_inventory_ledger_checkpoint_product", columnList = "product_id, ledger_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryLedgerCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /**
+     * Last ledger entry of the product included in this checkpoint
+     */
+    @Column(name = "ledger_id", nullable = false)
+    private Long ledgerId;
+
+    @Column(name = "available_qty", nullable = false)
+    private Long availableQty;
+
+    @Column(name = "reserved_qty", nullable = false)
+    private Long reservedQty;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
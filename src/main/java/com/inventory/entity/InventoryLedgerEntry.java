@@ -0,0 +1,52 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * InventoryLedgerEntry Entity - One inventory change, appended in the
+ * transaction that made it and never updated. Entries of a product in id
+ * order replay its stock history; RESET entries set the available quantity
+ * instead of changing it.
+ */
+@Entity
+@Table(name = "inventory_ledger", indexes = {
+        @Index(name = "idx_inventory_ledger_product", columnList = "product_id, id"),
+        @Index(name = "idx_inventory_ledger_product_time", columnList = "product_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /**
+     * INCREASE, DECREASE, RESERVE, RELEASE, CONSUME or RESET
+     */
+    @Column(name = "entry_type", nullable = false, length = 16)
+    private String entryType;
+
+    /**
+     * Quantity changed; for RESET the new available quantity
+     */
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+
+    @Column(name = "available_delta", nullable = false)
+    private Long availableDelta;
+
+    @Column(name = "reserved_delta", nullable = false)
+    private Long reservedDelta;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
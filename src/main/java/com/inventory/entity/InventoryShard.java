@@ -0,0 +1,33 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * InventoryShard Entity - One slice of a hot product's available quantity.
+ * A sharded product's stock is the sum of its shards; concurrent orders
+ * lock different shard rows instead of the single inventory row.
+ */
+@Entity
+@Table(name = "inventory_shards",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "shard_no"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "shard_no", nullable = false)
+    private Integer shardNo;
+
+    @Column(name = "available_qty", nullable = false)
+    private Long availableQty;
+}
@@ -0,0 +1,50 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Reservation Entity - A time-limited hold on stock for a checkout.
+ * Held quantities move from available to reserved inventory until the
+ * reservation is confirmed into an order, released, or expires.
+ * Status values: ACTIVE, CONFIRMED, RELEASED, EXPIRED
+ */
+@Entity
+@Table(name = "reservations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Reservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
+    @Column(name = "status", nullable = false)
+    private String status; // ACTIVE, CONFIRMED, RELEASED, EXPIRED
+
+    /**
+     * Order created when the reservation was confirmed.
+     */
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Initialize createdAt timestamp before persistence.
+     */
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+}
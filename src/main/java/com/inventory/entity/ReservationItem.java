@@ -0,0 +1,30 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * ReservationItem Entity - Quantity of one product held by a reservation.
+ */
+@Entity
+@Table(name = "reservation_items")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+}
@@ -0,0 +1,76 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * RestockIngest Entity - Progress of a restock file ingest.
+ * Advanced in the same transaction as each chunk's restock, so a failed
+ * ingest resumes after the last committed record.
+ * Status values: RUNNING, COMPLETED, FAILED
+ */
+@Entity
+@Table(name = "restock_ingests")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RestockIngest {
+
+    /**
+     * Caller-chosen ID of the file, e.g. the warehouse receipt number.
+     */
+    @Id
+    @Column(name = "ingest_id", length = 128)
+    private String ingestId;
+
+    @Column(name = "format", nullable = false)
+    private String format; // CSV, NDJSON
+
+    @Column(name = "status", nullable = false)
+    private String status; // RUNNING, COMPLETED, FAILED
+
+    /**
+     * Records of the file, in file order, whose restock has committed.
+     */
+    @Column(name = "records_committed", nullable = false)
+    private Long recordsCommitted;
+
+    @Column(name = "chunks_committed", nullable = false)
+    private Integer chunksCommitted;
+
+    @Column(name = "products_restocked", nullable = false)
+    private Long productsRestocked;
+
+    @Column(name = "shipments_created", nullable = false)
+    private Long shipmentsCreated;
+
+    @Column(name = "orders_updated", nullable = false)
+    private Long ordersUpdated;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Initialize timestamps before persistence.
+     */
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
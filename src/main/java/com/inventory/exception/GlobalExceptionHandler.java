@@ -43,6 +43,16 @@ public class GlobalExceptionHandler {
                         .build());
     }
 
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<ApiResponseDTO<Void>> handleReservationNotFound(ReservationNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponseDTO.<Void>builder()
+                        .success(false)
+                        .message("Reservation not found")
+                        .error(ex.getMessage())
+                        .build());
+    }
+
     @ExceptionHandler(InsufficientInventoryException.class)
     public ResponseEntity<ApiResponseDTO<Void>> handleInsufficientInventory(InsufficientInventoryException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
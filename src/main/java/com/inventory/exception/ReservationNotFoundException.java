@@ -0,0 +1,14 @@
+package com.inventory.exception;
+
+/**
+ * ReservationNotFoundException - Thrown when a requested reservation does not exist.
+ */
+public class ReservationNotFoundException extends RuntimeException {
+    public ReservationNotFoundException(String message) {
+        super(message);
+    }
+
+    public ReservationNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
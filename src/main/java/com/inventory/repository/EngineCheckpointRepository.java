@@ -0,0 +1,12 @@
+package com.inventory.repository;
+
+import com.inventory.entity.EngineCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * EngineCheckpointRepository - JPA repository for EngineCheckpoint entity.
+ */
+@Repository
+public interface EngineCheckpointRepository extends JpaRepository<EngineCheckpoint, Long> {
+}
@@ -0,0 +1,20 @@
+package com.inventory.repository;
+
+import com.inventory.entity.InventoryLedgerEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * InventoryLedgerRepository - JPA repository for InventoryLedgerEntry entity.
+ * Entries are appended by InventoryLedger with batched plain SQL.
+ */
+@Repository
+public interface InventoryLedgerRepository extends JpaRepository<InventoryLedgerEntry, Long> {
+    /**
+     * Find a product's entries after the given entry, oldest first.
+     */
+    List<InventoryLedgerEntry> findByProductIdAndIdGreaterThanOrderById(Long productId, Long afterId,
+            Pageable pageable);
+}
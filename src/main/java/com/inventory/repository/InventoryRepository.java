@@ -3,6 +3,7 @@ package com.inventory.repository;
 import com.inventory.entity.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -45,4 +46,82 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT i FROM Inventory i WHERE i.productId IN :productIds ORDER BY i.productId")
     List<Inventory> findByProductIdInWithLock(@Param("productIds") List<Long> productIds);
+
+    /**
+     * Adds delta to the quantity promised to pending order items. Native
+     * because pending_qty is not writable through the entity; the version is
+     * left alone so backlog changes do not conflict with stock updates.
+     */
+    @Modifying
+    @Query(value = "UPDATE inventory SET pending_qty = pending_qty + :delta WHERE product_id = :productId",
+            nativeQuery = true)
+    int adjustPending(@Param("productId") Long productId, @Param("delta") Long delta);
+
+    /**
+     * Reads the current available quantity straight from the table, bypassing
+     * any inventory entity already loaded in the persistence context.
+     */
+    @Query(value = "SELECT available_qty FROM inventory WHERE product_id = :productId", nativeQuery = true)
+    Optional<Long> findAvailableQty(@Param("productId") Long productId);
+
+    /**
+     * Atomically decrements available quantity if enough stock remains.
+     * The row lock is held only for the duration of this single statement.
+     *
+     * @return 1 if the decrement was applied, 0 if the product is missing,
+     *         sharded or has less than the requested quantity
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.availableQty = i.availableQty - :quantity, i.version = i.version + 1 "
+            + "WHERE i.productId = :productId AND i.availableQty >= :quantity AND i.shardCount = 0")
+    int decrementIfAvailable(@Param("productId") Long productId, @Param("quantity") Long quantity);
+
+    /**
+     * Atomically increments available quantity.
+     *
+     * @return 1 if the increment was applied, 0 if the product is missing or
+     *         sharded
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.availableQty = i.availableQty + :quantity, i.version = i.version + 1 "
+            + "WHERE i.productId = :productId AND i.shardCount = 0")
+    int increment(@Param("productId") Long productId, @Param("quantity") Long quantity);
+
+    /**
+     * Atomically moves quantity from available to reserved if enough stock
+     * remains.
+     *
+     * @return 1 if the reservation was applied, 0 if the product is missing,
+     *         sharded or has less than the requested quantity available
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.availableQty = i.availableQty - :quantity, "
+            + "i.reservedQty = i.reservedQty + :quantity, i.version = i.version + 1 "
+            + "WHERE i.productId = :productId AND i.availableQty >= :quantity AND i.shardCount = 0")
+    int reserveIfAvailable(@Param("productId") Long productId, @Param("quantity") Long quantity);
+
+    /**
+     * Atomically moves quantity from reserved back to available.
+     *
+     * @return 1 if the release was applied, 0 if the product is missing,
+     *         sharded or has less than the quantity reserved
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.availableQty = i.availableQty + :quantity, "
+            + "i.reservedQty = i.reservedQty - :quantity, i.version = i.version + 1 "
+            + "WHERE i.productId = :productId AND i.reservedQty >= :quantity AND i.shardCount = 0")
+    int releaseReserved(@Param("productId") Long productId, @Param("quantity") Long quantity);
+
+    /**
+     * Atomically changes reserved quantity only, keeping it non-negative.
+     * Used when available quantity is tracked elsewhere (IN_MEMORY mode) and
+     * when reserved stock is shipped.
+     *
+     * @return 1 if the change was applied, 0 if the product is missing or
+     *         the result would be negative
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reservedQty = i.reservedQty + :delta, i.version = i.version + 1 "
+            + "WHERE i.productId = :productId AND i.reservedQty + :delta >= 0")
+    int adjustReserved(@Param("productId") Long productId, @Param("delta") Long delta);
 }
@@ -0,0 +1,18 @@
+package com.inventory.repository;
+
+import com.inventory.entity.InventoryShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * InventoryShardRepository - JPA repository for InventoryShard entity.
+ * Shard quantities are changed by ShardedInventory with plain SQL.
+ */
+@Repository
+public interface InventoryShardRepository extends JpaRepository<InventoryShard, Long> {
+    /**
+     * Find the shards of a product in shard order.
+     */
+    List<InventoryShard> findByProductIdOrderByShardNo(Long productId);
+}
@@ -2,7 +2,10 @@ package com.inventory.repository;
 
 import com.inventory.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,4 +22,18 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
      * Find order items by order ID and status.
      */
     List<OrderItem> findByOrderIdAndStatus(Long orderId, String status);
+
+    /**
+     * Find order items by order ID and product ID.
+     */
+    List<OrderItem> findByOrderIdAndProductId(Long orderId, Long productId);
+
+    /**
+     * Find the distinct product IDs of every order that has a pending item for
+     * one of the given products. Used to build the lock plan for a restock,
+     * since fulfilling those orders ships (and locks) all of their products.
+     */
+    @Query("SELECT DISTINCT oi.productId FROM OrderItem oi WHERE oi.orderId IN "
+            + "(SELECT p.orderId FROM PendingOrderItem p WHERE p.productId IN :productIds)")
+    List<Long> findProductIdsOfOrdersPendingOn(@Param("productIds") Collection<Long> productIds);
 }
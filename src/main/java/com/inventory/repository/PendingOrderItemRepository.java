@@ -3,7 +3,9 @@ package com.inventory.repository;
 import com.inventory.entity.PendingOrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -25,4 +27,45 @@ public interface PendingOrderItemRepository extends JpaRepository<PendingOrderIt
      * Find pending items by order ID and product ID.
      */
     List<PendingOrderItem> findByOrderIdAndProductId(Long orderId, Long productId);
+
+    /**
+     * Products of the oldest claimable pending items, one entry per item, read
+     * without locking. BacklogService locks these products' inventory rows
+     * before claiming, see claimBatchForProducts.
+     * Reads the table's available quantity, which in IN_MEMORY mode lags the
+     * in-memory counters until they are flushed.
+     *
+     * @param limit Maximum number of items to look at
+     */
+    @Query(value = "SELECT p.product_id FROM pending_order_items p "
+            + "WHERE p.product_id IN (SELECT i.product_id FROM inventory i WHERE i.available_qty > 0 "
+            + "UNION SELECT s.product_id FROM inventory_shards s WHERE s.available_qty > 0) "
+            + "ORDER BY p.id LIMIT :limit", nativeQuery = true)
+    List<Long> findClaimableProductIds(@Param("limit") int limit);
+
+    /**
+     * Claims a batch of pending items of the given products for fulfillment,
+     * oldest first; the caller has already locked their inventory rows.
+     * Only items whose product currently has stock are considered.
+     * Ordered by the identity ID (insertion order, i.e. FIFO) so the database
+     * can lock rows while walking the primary key instead of locking every
+     * candidate before a sort.
+     *
+     * Uses SELECT ... FOR UPDATE SKIP LOCKED so that concurrent backlog
+     * workers (threads or application instances) each claim a disjoint batch
+     * instead of blocking on rows another worker already holds. The claim
+     * lasts until the calling transaction commits. Products with stock in
+     * inventory shards count as available too.
+     *
+     * @param productIds Products whose pending items may be claimed
+     * @param limit      Maximum number of items to claim
+     * @return Claimed pending items, locked by the current transaction
+     */
+    @Query(value = "SELECT * FROM pending_order_items p "
+            + "WHERE p.product_id IN (:productIds) "
+            + "AND p.product_id IN (SELECT i.product_id FROM inventory i WHERE i.available_qty > 0 "
+            + "UNION SELECT s.product_id FROM inventory_shards s WHERE s.available_qty > 0) "
+            + "ORDER BY p.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PendingOrderItem> claimBatchForProducts(@Param("productIds") Collection<Long> productIds,
+            @Param("limit") int limit);
 }
@@ -0,0 +1,17 @@
+package com.inventory.repository;
+
+import com.inventory.entity.ReservationItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * ReservationItemRepository - JPA repository for ReservationItem entity.
+ */
+@Repository
+public interface ReservationItemRepository extends JpaRepository<ReservationItem, Long> {
+    /**
+     * Find all items held by a reservation.
+     */
+    List<ReservationItem> findByReservationId(Long reservationId);
+}
@@ -0,0 +1,30 @@
+package com.inventory.repository;
+
+import com.inventory.entity.Reservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ReservationRepository - JPA repository for Reservation entity.
+ */
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+    /**
+     * Find reservation by ID with pessimistic write lock, so confirmation,
+     * release and expiry of the same reservation are serialized.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reservation r WHERE r.reservationId = :reservationId")
+    Optional<Reservation> findByIdWithLock(@Param("reservationId") Long reservationId);
+
+    /**
+     * Find reservations in a given status (e.g. ACTIVE on startup).
+     */
+    List<Reservation> findByStatus(String status);
+}
@@ -0,0 +1,72 @@
+package com.inventory.repository;
+
+import com.inventory.entity.RestockIngest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * RestockIngestRepository - JPA repository for RestockIngest entity.
+ */
+@Repository
+public interface RestockIngestRepository extends JpaRepository<RestockIngest, String> {
+
+    /**
+     * Records a committed chunk, if no other ingest of the same file got
+     * there first.
+     *
+     * @param expectedRecords Records committed when the chunk was read
+     * @return 1 if advanced, 0 if the progress moved meanwhile
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RestockIngest r SET r.recordsCommitted = r.recordsCommitted + :records, "
+            + "r.chunksCommitted = r.chunksCommitted + 1, "
+            + "r.productsRestocked = r.productsRestocked + :products, "
+            + "r.shipmentsCreated = r.shipmentsCreated + :shipments, "
+            + "r.ordersUpdated = r.ordersUpdated + :orders, r.updatedAt = :now "
+            + "WHERE r.ingestId = :ingestId AND r.recordsCommitted = :expectedRecords")
+    int advance(@Param("ingestId") String ingestId, @Param("expectedRecords") Long expectedRecords,
+            @Param("records") Long records, @Param("products") Long products,
+            @Param("shipments") Long shipments, @Param("orders") Long orders,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Adds the results of a chunk claimed earlier with advance.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RestockIngest r SET r.productsRestocked = r.productsRestocked + :products, "
+            + "r.shipmentsCreated = r.shipmentsCreated + :shipments, "
+            + "r.ordersUpdated = r.ordersUpdated + :orders, r.updatedAt = :now "
+            + "WHERE r.ingestId = :ingestId")
+    int addResults(@Param("ingestId") String ingestId, @Param("products") Long products,
+            @Param("shipments") Long shipments, @Param("orders") Long orders,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Undoes the advance of a claimed chunk that could not be applied, if
+     * the progress has not moved since.
+     *
+     * @param expectedRecords Records committed including the chunk
+     * @return 1 if released, 0 if the progress moved meanwhile
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RestockIngest r SET r.recordsCommitted = r.recordsCommitted - :records, "
+            + "r.chunksCommitted = r.chunksCommitted - 1, r.updatedAt = :now "
+            + "WHERE r.ingestId = :ingestId AND r.recordsCommitted = :expectedRecords")
+    int release(@Param("ingestId") String ingestId, @Param("expectedRecords") Long expectedRecords,
+            @Param("records") Long records, @Param("now") LocalDateTime now);
+
+    /**
+     * Sets the status without loading the entity, so counters advanced by
+     * other transactions are not overwritten with a stale copy.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RestockIngest r SET r.status = :status, r.error = :error, r.updatedAt = :now "
+            + "WHERE r.ingestId = :ingestId")
+    int updateStatus(@Param("ingestId") String ingestId, @Param("status") String status,
+            @Param("error") String error, @Param("now") LocalDateTime now);
+}
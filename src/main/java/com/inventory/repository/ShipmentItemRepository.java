@@ -2,7 +2,10 @@ package com.inventory.repository;
 
 import com.inventory.entity.ShipmentItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -14,4 +17,12 @@ public interface ShipmentItemRepository extends JpaRepository<ShipmentItem, Long
      * Find shipment items by shipment ID.
      */
     List<ShipmentItem> findByShipmentId(Long shipmentId);
+
+    /**
+     * Items of the given shipments, as [shipmentId, productId, quantity]
+     * rows in item order. Products are not loaded.
+     */
+    @Query("SELECT i.shipmentId, i.productId, i.quantity FROM ShipmentItem i "
+            + "WHERE i.shipmentId IN :shipmentIds ORDER BY i.id")
+    List<Object[]> findLinesByShipmentIdIn(@Param("shipmentIds") Collection<Long> shipmentIds);
 }
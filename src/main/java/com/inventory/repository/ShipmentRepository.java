@@ -2,7 +2,10 @@ package com.inventory.repository;
 
 import com.inventory.entity.Shipment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -14,4 +17,21 @@ public interface ShipmentRepository extends JpaRepository<Shipment, Long> {
      * Find shipments by order ID.
      */
     List<Shipment> findByOrderId(Long orderId);
+
+    /**
+     * A shipment's order and shipped items in one query, as [orderId,
+     * productId, quantity] rows in item order; a shipment without items has
+     * one row with null productId and quantity. Products are not loaded.
+     */
+    @Query("SELECT s.orderId, i.productId, i.quantity FROM Shipment s "
+            + "LEFT JOIN ShipmentItem i ON i.shipmentId = s.shipmentId "
+            + "WHERE s.shipmentId = :shipmentId ORDER BY i.id")
+    List<Object[]> findShipmentLines(@Param("shipmentId") Long shipmentId);
+
+    /**
+     * Order of each of the given shipments that exists, as [shipmentId,
+     * orderId] rows.
+     */
+    @Query("SELECT s.shipmentId, s.orderId FROM Shipment s WHERE s.shipmentId IN :shipmentIds")
+    List<Object[]> findOrderIdsByShipmentIdIn(@Param("shipmentIds") Collection<Long> shipmentIds);
 }
@@ -0,0 +1,224 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.RestockQueueStatsDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AsyncRestockQueue - Internal queue for deferred backlog fulfillment.
+ *
+ * Async restocks commit their inventory increase and submit the product here.
+ * A single worker runs one allocation pass per product once the coalescing
+ * window has elapsed; restocks of the same product that arrive while a pass
+ * is still queued are merged into it instead of triggering another pass.
+ *
+ * A failed pass is queued again, merged with anything queued for the product
+ * since, and retried after an exponential backoff up to a maximum number of
+ * attempts. The queue lives only in memory: on shutdown, passes still queued
+ * run at once instead of being lost.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AsyncRestockQueue {
+
+    private final RestockService restockService;
+    private final InventoryProperties properties;
+    private final OptimisticRetry optimisticRetry;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final Map<Long, QueuedRestock> queued = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor worker = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "restock-backlog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong lastLagNanos = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    /**
+     * Queues a backlog allocation pass for a restocked product.
+     * The inventory increase must already be committed.
+     *
+     * @param productId Product that was restocked
+     * @param quantity  Quantity added by the restock
+     */
+    public void submit(Long productId, long quantity) {
+        enqueued.increment();
+        long now = System.nanoTime();
+        boolean[] merged = new boolean[1];
+
+        queued.compute(productId, (id, existing) -> {
+            if (existing == null) {
+                return new QueuedRestock(quantity, now);
+            }
+            existing.quantity += quantity;
+            merged[0] = true;
+            return existing;
+        });
+
+        if (merged[0]) {
+            coalesced.increment();
+            log.debug("Coalesced restock of product {} (qty {}) into queued pass", productId, quantity);
+        } else {
+            worker.schedule(() -> drain(productId),
+                    properties.getRestock().getCoalesceWindowMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs the allocation pass for a product, consuming everything queued for
+     * it, and queues it again if it fails.
+     */
+    private void drain(Long productId) {
+        QueuedRestock entry = queued.remove(productId);
+        if (entry == null) {
+            return;
+        }
+
+        long lag = System.nanoTime() - entry.firstQueuedAt;
+        lastLagNanos.set(lag);
+        maxLagNanos.accumulateAndGet(lag, Math::max);
+
+        if (!runPass(productId, entry)) {
+            retry(productId, entry);
+        }
+    }
+
+    /**
+     * Runs one attempt of a pass.
+     *
+     * @return false if the pass failed
+     */
+    private boolean runPass(Long productId, QueuedRestock entry) {
+        entry.attempts++;
+        try {
+            RestockService.BacklogFulfillment fulfillment = optimisticRetry.execute(
+                    () -> restockService.fulfillBacklog(productId, entry.quantity));
+            processed.increment();
+            log.info("Async backlog pass for product {} (qty {}) created {} shipments, completed {} orders",
+                    productId, entry.quantity, fulfillment.getShipmentIds().size(),
+                    fulfillment.getCompletedOrderIds().size());
+            return true;
+        } catch (Exception e) {
+            log.warn("Async backlog pass failed for product {} (attempt {})", productId, entry.attempts, e);
+            return false;
+        }
+    }
+
+    /**
+     * Queues a failed pass again after its backoff, merged with whatever was
+     * queued for the product meanwhile, or gives it up after its last attempt.
+     */
+    private void retry(Long productId, QueuedRestock entry) {
+        InventoryProperties.Restock config = properties.getRestock();
+        if (entry.attempts >= config.getPassMaxAttempts()) {
+            failed.increment();
+            log.error("Giving up async backlog pass for product {} (qty {}) after {} attempts",
+                    productId, entry.quantity, entry.attempts);
+            return;
+        }
+
+        retried.increment();
+        QueuedRestock merged = queued.merge(productId, entry, (existing, failedEntry) -> {
+            existing.quantity += failedEntry.quantity;
+            existing.firstQueuedAt = Math.min(existing.firstQueuedAt, failedEntry.firstQueuedAt);
+            return existing;
+        });
+        if (merged != entry) {
+            // A pass is already scheduled for the restocks queued meanwhile
+            return;
+        }
+        long backoff = Math.min(config.getPassRetryBackoffMs() << Math.min(entry.attempts - 1, 20),
+                config.getPassRetryMaxBackoffMs());
+        try {
+            worker.schedule(() -> drain(productId), backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the entry stays queued and shutdown runs it
+        }
+    }
+
+    /**
+     * Returns queue lag and coalescing statistics.
+     */
+    public RestockQueueStatsDTO getStats() {
+        long now = System.nanoTime();
+        long oldestLag = queued.values().stream()
+                .mapToLong(entry -> now - entry.firstQueuedAt)
+                .max()
+                .orElse(0L);
+        long enqueuedCount = enqueued.sum();
+        long coalescedCount = coalesced.sum();
+
+        return RestockQueueStatsDTO.builder()
+                .queuedProducts(queued.size())
+                .oldestLagMs(TimeUnit.NANOSECONDS.toMillis(oldestLag))
+                .lastLagMs(TimeUnit.NANOSECONDS.toMillis(lastLagNanos.get()))
+                .maxLagMs(TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get()))
+                .enqueued(enqueuedCount)
+                .coalesced(coalescedCount)
+                .coalesceRate(enqueuedCount == 0 ? 0.0 : (double) coalescedCount / enqueuedCount)
+                .processed(processed.sum())
+                .retried(retried.sum())
+                .failed(failed.sum())
+                .build();
+    }
+
+    /**
+     * Stops the worker without waiting for scheduled passes, then runs every
+     * pass still queued once in the calling thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        worker.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Async backlog pass still running after {} s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (Long productId : new ArrayList<>(queued.keySet())) {
+            QueuedRestock entry = queued.remove(productId);
+            if (entry != null && !runPass(productId, entry)) {
+                failed.increment();
+                log.error("Dropping async backlog pass for product {} (qty {}) at shutdown",
+                        productId, entry.quantity);
+            }
+        }
+    }
+
+    /**
+     * Accumulated quantity for a product awaiting its allocation pass.
+     */
+    private static class QueuedRestock {
+        private long quantity;
+        private long firstQueuedAt;
+        private int attempts;
+
+        QueuedRestock(long quantity, long firstQueuedAt) {
+            this.quantity = quantity;
+            this.firstQueuedAt = firstQueuedAt;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.inventory.service;
+
+import com.inventory.entity.*;
+import com.inventory.repository.OrderItemRepository;
+import com.inventory.repository.PendingOrderItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.*;
+
+/**
+ * BacklogService - Drains pending order items in claimed batches.
+ * Safe to run from many threads and application instances at once.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@Transactional
+public class BacklogService {
+
+    private final PendingOrderItemRepository pendingOrderItemRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final InventoryService inventoryService;
+    private final OrderService orderService;
+    private final ShipmentService shipmentService;
+
+    /**
+     * Claims up to batchSize pending items with SKIP LOCKED, ships what current
+     * inventory allows, and shrinks or removes the pending rows accordingly.
+     * Everything commits together, releasing the claim.
+     *
+     * Locks follow the same order as restocks: the inventory rows of the
+     * products of the oldest claimable items are locked first, in ascending
+     * order, and only then are pending rows of those products claimed. A
+     * restock holding one of these inventory rows is waited for before any
+     * pending row is claimed, and it never finds a pending row of a product
+     * this batch holds, so neither can wait on the other.
+     *
+     * @param batchSize Maximum number of pending items to claim
+     * @return Summary of the work done in this batch
+     */
+    public DrainResult drainBatch(int batchSize) {
+        // Lock plan: every product the batch can claim, ascending, before any claim
+        Set<Long> productIds = new TreeSet<>(pendingOrderItemRepository.findClaimableProductIds(batchSize));
+        if (productIds.isEmpty()) {
+            return new DrainResult(0);
+        }
+        inventoryService.lockInventories(productIds);
+
+        List<PendingOrderItem> claimed = pendingOrderItemRepository.claimBatchForProducts(productIds, batchSize);
+        DrainResult result = new DrainResult(claimed.size());
+        if (claimed.isEmpty()) {
+            return result;
+        }
+
+        Set<Long> touchedOrders = new LinkedHashSet<>();
+        for (PendingOrderItem pending : claimed) {
+            Long orderId = pending.getOrderId();
+            List<OrderItem> orderItems = orderItemRepository.findByOrderIdAndProductId(orderId, pending.getProductId());
+            long fulfilledBefore = orderItems.stream().mapToLong(OrderItem::getFulfilledQty).sum();
+
+            List<Shipment> shipments = shipmentService.createShipments(
+                    orderId, orderItems, orderService.getOrder(orderId), orderItemRepository);
+
+            long shipped = orderItems.stream().mapToLong(OrderItem::getFulfilledQty).sum() - fulfilledBefore;
+            long outstanding = orderItems.stream()
+                    .mapToLong(item -> item.getRequestedQty() - item.getFulfilledQty())
+                    .sum();
+            long remaining = Math.min(pending.getPendingQty() - shipped, outstanding);
+
+            if (remaining <= 0) {
+                pendingOrderItemRepository.delete(pending);
+                inventoryService.adjustPendingQuantity(pending.getProductId(), -pending.getPendingQty());
+                result.itemsCompleted++;
+            } else if (remaining != pending.getPendingQty()) {
+                inventoryService.adjustPendingQuantity(pending.getProductId(), remaining - pending.getPendingQty());
+                pending.setPendingQty(remaining);
+                pendingOrderItemRepository.save(pending);
+            }
+
+            result.unitsShipped += shipped;
+            result.shipmentsCreated += shipments.size();
+            if (shipped > 0) {
+                touchedOrders.add(orderId);
+            }
+        }
+
+        for (Long orderId : touchedOrders) {
+            orderService.updateOrderStatus(orderId);
+            orderService.completeOrderIfAllFulfilled(orderId);
+        }
+
+        log.info("Backlog batch: claimed {}, completed {}, shipped {} units in {} shipments",
+                result.claimed, result.itemsCompleted, result.unitsShipped, result.shipmentsCreated);
+        return result;
+    }
+
+    /**
+     * Result of draining one claimed batch.
+     */
+    public static class DrainResult {
+        private final int claimed;
+        private int itemsCompleted;
+        private long unitsShipped;
+        private int shipmentsCreated;
+
+        public DrainResult(int claimed) {
+            this.claimed = claimed;
+        }
+
+        public int getClaimed() {
+            return claimed;
+        }
+
+        public int getItemsCompleted() {
+            return itemsCompleted;
+        }
+
+        public long getUnitsShipped() {
+            return unitsShipped;
+        }
+
+        public int getShipmentsCreated() {
+            return shipmentsCreated;
+        }
+    }
+}
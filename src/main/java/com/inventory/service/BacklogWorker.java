@@ -0,0 +1,100 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BacklogWorker - Background threads that drain the pending backlog.
+ *
+ * Each worker repeatedly claims a batch through BacklogService; SKIP LOCKED
+ * claims let any number of workers, in this or other instances, run in
+ * parallel without waiting on each other's batches.
+ * Claims are decided by the inventory table's available quantity, which in
+ * IN_MEMORY mode lags the in-memory counters until the write-behind flush;
+ * each batch flushes them first so that restocked products become claimable
+ * at once and sold-out ones stop being claimed.
+ * Enabled with inventory.backlog-worker.enabled; refuses to start while the
+ * sequenced engine is enabled, whose restocks drain the backlog in memory.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BacklogWorker {
+
+    private final BacklogService backlogService;
+    private final InventoryProperties properties;
+    private final OptimisticRetry optimisticRetry;
+    private final SequencedInventoryEngine sequencedInventoryEngine;
+    private final InMemoryInventory inMemoryInventory;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    /**
+     * Starts the configured number of workers once the application is ready.
+     *
+     * @throws IllegalStateException if the sequenced engine is enabled: the
+     *                               workers would change the backlog and
+     *                               inventory behind the engine's copy
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        InventoryProperties.BacklogWorker config = properties.getBacklogWorker();
+        if (!config.isEnabled() || running) {
+            return;
+        }
+        if (sequencedInventoryEngine.isEnabled()) {
+            throw new IllegalStateException("Backlog workers cannot run while the sequenced engine is enabled");
+        }
+
+        running = true;
+        for (int i = 0; i < config.getWorkerCount(); i++) {
+            Thread worker = new Thread(this::drainLoop, "backlog-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Started {} backlog workers (batch size {})", config.getWorkerCount(), config.getBatchSize());
+    }
+
+    private void drainLoop() {
+        InventoryProperties.BacklogWorker config = properties.getBacklogWorker();
+        while (running) {
+            try {
+                if (properties.getUpdateMode() == InventoryProperties.UpdateMode.IN_MEMORY) {
+                    inMemoryInventory.flush();
+                }
+                BacklogService.DrainResult result = optimisticRetry.execute(
+                        () -> backlogService.drainBatch(config.getBatchSize()));
+                if (result.getClaimed() == 0) {
+                    Thread.sleep(config.getPollIntervalMs());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Backlog batch failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(config.getPollIntervalMs());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+}
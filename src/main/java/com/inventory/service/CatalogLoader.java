@@ -0,0 +1,421 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.CatalogLoadProgressDTO;
+import com.inventory.dto.CatalogUpsertResultDTO;
+import com.inventory.dto.ProductDTO;
+import com.inventory.util.JsonArrayReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * CatalogLoader - Bulk loads the product catalog with zero-quantity
+ * inventory.
+ *
+ * Products are sorted by ID and written in chunks, one transaction per
+ * chunk. Per chunk, one range scan finds the products that already exist; new products and their
+ * inventory rows are then inserted in JDBC batches, and existing ones are
+ * renamed, reweighed and reset to zero available in JDBC batches. No
+ * entities are loaded, so there is no merge-time SELECT per product.
+ *
+ * Resets keep the same side effects as
+ * InventoryService.initializeInventoryForProduct: tracked in-memory counters
+ * and shards go to zero and a RESET ledger entry is written. New products
+ * need no ledger entry because they have no stock to replace. A failed
+ * chunk rolls back on its own; chunks before it stay loaded.
+ *
+ * Catalogs can also be streamed: load(InputStream, ...) parses a JSON array a
+ * chunk at a time, so the whole catalog is never held in memory; ordering
+ * and de-duplication then apply within each chunk, and a product repeated
+ * in a later chunk is simply updated again.
+ *
+ * upsert() applies a delta instead: only new or changed products are
+ * written, and existing inventory is left alone.
+ *
+ * Both stop the catalog snapshot from being served while they write and
+ * have it rewritten afterwards.
+ *
+ * Progress of the running (or last) load is available from getProgress().
+ */
+@Service
+@Slf4j
+public class CatalogLoader {
+
+    /**
+     * Rows per multi-row INSERT; far fewer statement executions than one
+     * row per statement, well within parameter limits.
+     */
+    private static final int ROWS_PER_INSERT = 500;
+
+    private static final String INSERT_PRODUCTS = "INSERT INTO products (product_id, product_name, mass_g) VALUES ";
+    private static final String PRODUCT_ROW = "(?, ?, ?)";
+    private static final String SELECT_PRODUCTS =
+            "SELECT product_id, product_name, mass_g FROM products WHERE product_id IN (";
+    private static final String UPDATE_PRODUCT =
+            "UPDATE products SET product_name = ?, mass_g = ? WHERE product_id = ?";
+    private static final String INSERT_INVENTORIES =
+            "INSERT INTO inventory (product_id, available_qty, reserved_qty, version) VALUES ";
+    private static final String INVENTORY_ROW = "(?, 0, 0, 0)";
+    private static final String RESET_INVENTORY =
+            "UPDATE inventory SET available_qty = 0, version = version + 1 WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InMemoryInventory inMemoryInventory;
+    private final ShardedInventory shardedInventory;
+    private final InventoryLedger inventoryLedger;
+    private final InventorySnapshotPublisher inventorySnapshotPublisher;
+    private final CatalogSnapshotStore catalogSnapshotStore;
+    private final ObjectMapper objectMapper;
+    private final InventoryProperties.CatalogLoad config;
+
+    private volatile CatalogLoadProgressDTO progress = CatalogLoadProgressDTO.builder()
+            .status("IDLE")
+            .build();
+
+    public CatalogLoader(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            InMemoryInventory inMemoryInventory, ShardedInventory shardedInventory,
+            InventoryLedger inventoryLedger, InventorySnapshotPublisher inventorySnapshotPublisher,
+            CatalogSnapshotStore catalogSnapshotStore, ObjectMapper objectMapper,
+            InventoryProperties inventoryProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.inMemoryInventory = inMemoryInventory;
+        this.shardedInventory = shardedInventory;
+        this.inventoryLedger = inventoryLedger;
+        this.inventorySnapshotPublisher = inventorySnapshotPublisher;
+        this.catalogSnapshotStore = catalogSnapshotStore;
+        this.objectMapper = objectMapper;
+        this.config = inventoryProperties.getCatalogLoad();
+    }
+
+    /**
+     * Creates or resets every product in the list; one load runs at a time.
+     * When a product appears more than once, its last entry wins.
+     *
+     * @return Final progress of the load
+     * @throws IllegalArgumentException if a product lacks an ID, name or mass
+     */
+    public synchronized CatalogLoadProgressDTO load(List<ProductDTO> products) {
+        List<ProductDTO> catalog = sortedUnique(products);
+        List<List<ProductDTO>> chunks = new ArrayList<>();
+        for (int from = 0; from < catalog.size(); from += config.getChunkSize()) {
+            chunks.add(catalog.subList(from, Math.min(from + config.getChunkSize(), catalog.size())));
+        }
+        Iterator<List<ProductDTO>> next = chunks.iterator();
+        try {
+            return run((long) catalog.size(), () -> next.hasNext() ? next.next() : List.of());
+        } catch (IOException e) {
+            // Not thrown: the chunks are already in memory
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates or resets every product of a JSON array read from the stream,
+     * one chunk at a time, so memory use does not grow with the size of the
+     * catalog. Chunks are checked as they are read: an invalid product or
+     * malformed JSON fails the load with the chunks before it committed.
+     * When a product appears more than once, its last entry wins.
+     *
+     * @param afterChunk Called with the product IDs of each committed chunk
+     * @return Final progress of the load
+     * @throws IllegalArgumentException if the JSON is malformed or a product
+     *                                  lacks an ID, name or mass
+     */
+    public synchronized CatalogLoadProgressDTO load(InputStream json, Consumer<List<Long>> afterChunk) {
+        try (JsonArrayReader<ProductDTO> reader = new JsonArrayReader<>(objectMapper, json, ProductDTO.class)) {
+            List<Long> committed = new ArrayList<>();
+            return run(null, () -> {
+                // The next chunk is only requested once the previous one has committed
+                if (!committed.isEmpty()) {
+                    afterChunk.accept(List.copyOf(committed));
+                }
+                List<ProductDTO> chunk = sortedUnique(reader.nextChunk(config.getChunkSize()));
+                committed.clear();
+                chunk.forEach(product -> committed.add(product.getProductId()));
+                return chunk;
+            });
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed catalog JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Applies only the products that changed: each product is compared with
+     * its stored row, new products are created with zero inventory, products
+     * whose name or mass differs are updated, and identical ones are not
+     * written. Existing inventory is never touched, so unlike load() this
+     * keeps stock, ledger and in-memory counters as they are. One
+     * transaction per chunk, like load().
+     *
+     * @return Counts and IDs of the inserted and updated products
+     * @throws IllegalArgumentException if a product lacks an ID, name or mass
+     */
+    public synchronized CatalogUpsertResultDTO upsert(List<ProductDTO> products) {
+        long begin = System.nanoTime();
+        List<ProductDTO> delta = sortedUnique(products);
+        List<Long> inserted = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        catalogSnapshotStore.beginChange();
+        try {
+            for (int from = 0; from < delta.size(); from += config.getChunkSize()) {
+                List<ProductDTO> chunk = delta.subList(from, Math.min(from + config.getChunkSize(), delta.size()));
+                transactionTemplate.executeWithoutResult(status -> upsertChunk(chunk, inserted, updated));
+            }
+        } finally {
+            catalogSnapshotStore.endChange();
+        }
+        if (!inserted.isEmpty()) {
+            // Existing quantities are unchanged; only new products appear in snapshots
+            inventorySnapshotPublisher.markChanged();
+        }
+
+        return CatalogUpsertResultDTO.builder()
+                .receivedProducts((long) delta.size())
+                .insertedProducts((long) inserted.size())
+                .updatedProducts((long) updated.size())
+                .unchangedProducts((long) (delta.size() - inserted.size() - updated.size()))
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin))
+                .insertedProductIds(inserted)
+                .updatedProductIds(updated)
+                .build();
+    }
+
+    /**
+     * Diffs one chunk against the stored products in the current
+     * transaction and writes what differs.
+     */
+    private void upsertChunk(List<ProductDTO> chunk, List<Long> inserted, List<Long> updated) {
+        // IN list rather than a range scan: deltas are usually sparse over the ID space
+        Map<Long, ProductDTO> stored = new HashMap<>();
+        jdbcTemplate.query(SELECT_PRODUCTS + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")",
+                rs -> {
+                    stored.put(rs.getLong(1), new ProductDTO(rs.getLong(1), rs.getString(2), rs.getInt(3)));
+                }, chunk.stream().map(ProductDTO::getProductId).toArray());
+
+        List<ProductDTO> toInsert = new ArrayList<>();
+        List<ProductDTO> toUpdate = new ArrayList<>();
+        for (ProductDTO product : chunk) {
+            ProductDTO current = stored.get(product.getProductId());
+            if (current == null) {
+                toInsert.add(product);
+            } else if (!current.equals(product)) {
+                toUpdate.add(product);
+            }
+        }
+
+        insertRows(INSERT_PRODUCTS, PRODUCT_ROW, 3, toInsert, (ps, index, product) -> {
+            ps.setLong(index, product.getProductId());
+            ps.setString(index + 1, product.getProductName());
+            ps.setInt(index + 2, product.getMassG());
+        });
+        insertRows(INSERT_INVENTORIES, INVENTORY_ROW, 1, toInsert,
+                (ps, index, product) -> ps.setLong(index, product.getProductId()));
+        if (!toUpdate.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_PRODUCT, toUpdate, toUpdate.size(), (ps, product) -> {
+                ps.setString(1, product.getProductName());
+                ps.setInt(2, product.getMassG());
+                ps.setLong(3, product.getProductId());
+            });
+        }
+        toInsert.forEach(product -> inserted.add(product.getProductId()));
+        toUpdate.forEach(product -> updated.add(product.getProductId()));
+    }
+
+    /**
+     * Writes chunks until the source returns an empty one, publishing
+     * progress after each chunk.
+     *
+     * @param total Products in the load, or null when not known up front
+     */
+    private CatalogLoadProgressDTO run(Long total, ChunkSource source) throws IOException {
+        long begin = System.nanoTime();
+        long inserted = 0;
+        long updated = 0;
+        int chunks = 0;
+        progress = progress(begin, "RUNNING", total, 0, 0, 0, null);
+        catalogSnapshotStore.beginChange();
+        try {
+            List<ProductDTO> chunk;
+            while (!(chunk = source.next()).isEmpty()) {
+                List<ProductDTO> rows = chunk;
+                int chunkUpdated = transactionTemplate.execute(status -> loadChunk(rows));
+                updated += chunkUpdated;
+                inserted += chunk.size() - chunkUpdated;
+                chunks++;
+                progress = progress(begin, "RUNNING", total, inserted, updated, chunks, null);
+                log.info("Loaded {}/{} catalog products ({}/s)", inserted + updated, total != null ? total : "?",
+                        progress.getProductsPerSecond());
+            }
+        } catch (IOException | RuntimeException e) {
+            progress = progress(begin, "FAILED", total, inserted, updated, chunks, e.getMessage());
+            throw e;
+        } finally {
+            // Once per load: a refresh per chunk would rescan inventory while it is being loaded
+            inventorySnapshotPublisher.markChanged();
+            catalogSnapshotStore.endChange();
+        }
+        progress = progress(begin, "COMPLETED", inserted + updated, inserted, updated, chunks, null);
+        return progress;
+    }
+
+    /**
+     * Progress of the running load, or the result of the last one.
+     */
+    public CatalogLoadProgressDTO getProgress() {
+        return progress;
+    }
+
+    /**
+     * Writes one chunk in the current transaction.
+     *
+     * @return Number of products that already existed
+     */
+    private int loadChunk(List<ProductDTO> chunk) {
+        Set<Long> existing = findExisting("products", chunk.stream().map(ProductDTO::getProductId).toList());
+        List<ProductDTO> toInsert = new ArrayList<>(chunk.size() - existing.size());
+        List<ProductDTO> toUpdate = new ArrayList<>(existing.size());
+        for (ProductDTO product : chunk) {
+            (existing.contains(product.getProductId()) ? toUpdate : toInsert).add(product);
+        }
+
+        insertRows(INSERT_PRODUCTS, PRODUCT_ROW, 3, toInsert, (ps, index, product) -> {
+            ps.setLong(index, product.getProductId());
+            ps.setString(index + 1, product.getProductName());
+            ps.setInt(index + 2, product.getMassG());
+        });
+        insertRows(INSERT_INVENTORIES, INVENTORY_ROW, 1, toInsert,
+                (ps, index, product) -> ps.setLong(index, product.getProductId()));
+
+        if (!toUpdate.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_PRODUCT, toUpdate, toUpdate.size(), (ps, product) -> {
+                ps.setString(1, product.getProductName());
+                ps.setInt(2, product.getMassG());
+                ps.setLong(3, product.getProductId());
+            });
+            List<Long> updatedIds = toUpdate.stream().map(ProductDTO::getProductId).toList();
+            Set<Long> withInventory = findExisting("inventory", updatedIds);
+            List<Long> toReset = updatedIds.stream().filter(withInventory::contains).toList();
+            List<Long> missing = updatedIds.stream().filter(id -> !withInventory.contains(id)).toList();
+            jdbcTemplate.batchUpdate(RESET_INVENTORY, toReset, toReset.size(),
+                    (ps, productId) -> ps.setLong(1, productId));
+            insertRows(INSERT_INVENTORIES, INVENTORY_ROW, 1, missing,
+                    (ps, index, productId) -> ps.setLong(index, productId));
+            for (Long productId : toReset) {
+                inventoryLedger.record(InventoryLedger.EntryType.RESET, productId, 0L);
+                inMemoryInventory.resetIfTracked(productId, 0L);
+                if (shardedInventory.isSharded(productId)) {
+                    shardedInventory.reset(productId);
+                }
+            }
+        }
+        return toUpdate.size();
+    }
+
+    /**
+     * Validates products and orders them by ID, keeping the last entry of
+     * each ID.
+     */
+    private static List<ProductDTO> sortedUnique(List<ProductDTO> products) {
+        // Ascending IDs: each chunk is one key range, appended to the indexes in order
+        Map<Long, ProductDTO> unique = new TreeMap<>();
+        for (ProductDTO product : products) {
+            if (product.getProductId() == null || product.getProductName() == null || product.getMassG() == null) {
+                throw new IllegalArgumentException("Product ID, name and mass are required: " + product);
+            }
+            unique.put(product.getProductId(), product);
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    /**
+     * Inserts rows with multi-row INSERT statements of ROWS_PER_INSERT rows,
+     * sent as one JDBC batch, plus one statement for the remainder.
+     */
+    private <T> void insertRows(String insert, String row, int paramsPerRow, List<T> items, RowBinder<T> binder) {
+        int full = items.size() - items.size() % ROWS_PER_INSERT;
+        List<List<T>> groups = new ArrayList<>();
+        for (int from = 0; from < full; from += ROWS_PER_INSERT) {
+            groups.add(items.subList(from, from + ROWS_PER_INSERT));
+        }
+        if (!groups.isEmpty()) {
+            jdbcTemplate.batchUpdate(insert + String.join(", ", Collections.nCopies(ROWS_PER_INSERT, row)),
+                    groups, groups.size(), (ps, group) -> bind(ps, group, paramsPerRow, binder));
+        }
+        List<T> remainder = items.subList(full, items.size());
+        if (!remainder.isEmpty()) {
+            jdbcTemplate.update(insert + String.join(", ", Collections.nCopies(remainder.size(), row)),
+                    ps -> bind(ps, remainder, paramsPerRow, binder));
+        }
+    }
+
+    private static <T> void bind(PreparedStatement ps, List<T> rows, int paramsPerRow, RowBinder<T> binder)
+            throws SQLException {
+        for (int i = 0; i < rows.size(); i++) {
+            binder.bind(ps, i * paramsPerRow + 1, rows.get(i));
+        }
+    }
+
+    /**
+     * IDs of the chunk's products already in the table, found with one range
+     * scan over the chunk's ID range (the chunk is sorted by ID).
+     */
+    private Set<Long> findExisting(String table, List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> wanted = new HashSet<>(productIds);
+        Set<Long> existing = new HashSet<>();
+        jdbcTemplate.query("SELECT product_id FROM " + table + " WHERE product_id BETWEEN ? AND ?", rs -> {
+            long productId = rs.getLong(1);
+            if (wanted.contains(productId)) {
+                existing.add(productId);
+            }
+        }, productIds.get(0), productIds.get(productIds.size() - 1));
+        return existing;
+    }
+
+    private static CatalogLoadProgressDTO progress(long begin, String status, Long total, long inserted,
+            long updated, int chunks, String error) {
+        long elapsedNanos = Math.max(System.nanoTime() - begin, 1);
+        return CatalogLoadProgressDTO.builder()
+                .status(status)
+                .totalProducts(total)
+                .loadedProducts(inserted + updated)
+                .insertedProducts(inserted)
+                .updatedProducts(updated)
+                .chunks(chunks)
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .productsPerSecond((inserted + updated) * TimeUnit.SECONDS.toNanos(1) / elapsedNanos)
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Sets the parameters of one row, starting at the given index.
+     */
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement ps, int index, T item) throws SQLException;
+    }
+
+    /**
+     * Supplies the next chunk of products; empty when there are no more.
+     */
+    @FunctionalInterface
+    private interface ChunkSource {
+        List<ProductDTO> next() throws IOException;
+    }
+}
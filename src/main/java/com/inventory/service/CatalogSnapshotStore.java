@@ -0,0 +1,254 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.CatalogSnapshotStatusDTO;
+import com.inventory.entity.Product;
+import com.inventory.util.CatalogSnapshotFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CatalogSnapshotStore - Serves product lookups from a memory-mapped catalog
+ * snapshot, so a restarted instance answers them without the database.
+ *
+ * At startup an existing snapshot is mapped and served right away; once the
+ * application is ready, a background thread compares its digest with one
+ * computed over the products table and rewrites it if they differ. Catalog
+ * changes (all made by CatalogLoader) stop serving the snapshot when they
+ * begin and schedule a rewrite when they end; rewrites run on the same
+ * thread and coalesce. A rewrite that overlapped a change is written but not
+ * served, and the next one replaces it.
+ *
+ * Only product metadata is kept: inventory quantities change with every
+ * order and are always read from inventory.
+ * Enabled with inventory.catalog-snapshot.enabled.
+ */
+@Service
+@Slf4j
+public class CatalogSnapshotStore {
+
+    private static final String PRODUCTS_SQL =
+            "SELECT product_id, product_name, mass_g FROM products ORDER BY product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventoryProperties.CatalogSnapshot config;
+    private final Path path;
+
+    /** Bumped when a change begins or ends; a check or rewrite only takes effect if it did not move. */
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicInteger activeChanges = new AtomicInteger();
+    private final AtomicBoolean rewriteQueued = new AtomicBoolean();
+
+    /** Null while absent or stale. */
+    private volatile CatalogSnapshotFile snapshot;
+    private volatile String status;
+    private volatile LocalDateTime writtenAt;
+    private volatile LocalDateTime verifiedAt;
+    private volatile String error;
+    private ExecutorService worker;
+
+    public CatalogSnapshotStore(JdbcTemplate jdbcTemplate, InventoryProperties inventoryProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = inventoryProperties.getCatalogSnapshot();
+        this.path = Path.of(config.getPath());
+        this.status = config.isEnabled() ? "ABSENT" : "DISABLED";
+    }
+
+    /**
+     * Maps the existing snapshot, unverified, so lookups are served before
+     * the database is consulted at all.
+     */
+    @PostConstruct
+    public void open() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            snapshot = CatalogSnapshotFile.open(path);
+            status = "UNVERIFIED";
+            log.info("Serving catalog snapshot {} with {} products", path, snapshot.size());
+        } catch (IOException e) {
+            error = e.getMessage();
+            log.warn("Ignoring catalog snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Checks the snapshot against the products table in the background once
+     * the schema is in place, rewriting it if it is missing or differs.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyInBackground() {
+        if (config.isEnabled()) {
+            worker.submit(this::verify);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    /**
+     * Looks a product up in the snapshot.
+     *
+     * @return The product, or null if there is no usable snapshot or it does
+     *         not contain the product; the caller then reads the database
+     */
+    public Product find(Long productId) {
+        CatalogSnapshotFile current = snapshot;
+        return current != null ? current.find(productId) : null;
+    }
+
+    /**
+     * Stops serving the snapshot; called before the catalog is written.
+     */
+    public void beginChange() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        activeChanges.incrementAndGet();
+        generation.incrementAndGet();
+        snapshot = null;
+        status = "STALE";
+    }
+
+    /**
+     * Schedules a rewrite; called once the catalog change has committed or
+     * failed.
+     */
+    public void endChange() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        activeChanges.decrementAndGet();
+        generation.incrementAndGet();
+        if (rewriteQueued.compareAndSet(false, true)) {
+            worker.submit(() -> {
+                rewriteQueued.set(false);
+                rewrite();
+            });
+        }
+    }
+
+    public CatalogSnapshotStatusDTO getStatus() {
+        CatalogSnapshotFile current = snapshot;
+        return CatalogSnapshotStatusDTO.builder()
+                .status(status)
+                .path(path.toString())
+                .products(current != null ? current.size() : null)
+                .fileBytes(current != null ? current.getFileBytes() : null)
+                .writtenAt(writtenAt)
+                .verifiedAt(verifiedAt)
+                .error(error)
+                .build();
+    }
+
+    private void verify() {
+        long seen = generation.get();
+        CatalogSnapshotFile current = snapshot;
+        try {
+            if (current != null) {
+                byte[] stored = current.getDigest();
+                if (!Arrays.equals(stored, current.computeDigest())) {
+                    log.warn("Catalog snapshot {} is corrupt; rewriting", path);
+                } else if (!Arrays.equals(stored, databaseDigest())) {
+                    log.warn("Catalog snapshot {} does not match the products table; rewriting", path);
+                } else {
+                    synchronized (this) {
+                        if (generation.get() == seen) {
+                            status = "VERIFIED";
+                            verifiedAt = LocalDateTime.now();
+                            log.info("Catalog snapshot {} verified", path);
+                        }
+                    }
+                    return;
+                }
+                synchronized (this) {
+                    if (generation.get() == seen) {
+                        snapshot = null;
+                        status = "STALE";
+                    }
+                }
+            }
+            rewrite();
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            log.warn("Failed to verify catalog snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the products table to the snapshot file and serves it, unless
+     * the catalog changed meanwhile.
+     */
+    private void rewrite() {
+        long seen = generation.get();
+        if (activeChanges.get() > 0) {
+            // endChange() schedules another rewrite
+            return;
+        }
+        try {
+            long begin = System.currentTimeMillis();
+            int products = CatalogSnapshotFile.write(path, row -> jdbcTemplate.query(PRODUCTS_SQL,
+                    (RowCallbackHandler) rs -> {
+                        try {
+                            row.accept(rs.getLong(1), rs.getString(2), rs.getInt(3));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+            CatalogSnapshotFile written = CatalogSnapshotFile.open(path);
+            synchronized (this) {
+                if (generation.get() != seen) {
+                    return;
+                }
+                snapshot = written;
+                status = "VERIFIED";
+                writtenAt = LocalDateTime.now();
+                verifiedAt = writtenAt;
+                error = null;
+            }
+            log.info("Wrote catalog snapshot {} with {} products in {} ms", path, products,
+                    System.currentTimeMillis() - begin);
+        } catch (IOException | RuntimeException e) {
+            error = e.getMessage();
+            log.warn("Failed to write catalog snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private byte[] databaseDigest() {
+        CatalogSnapshotFile.Digest digest = new CatalogSnapshotFile.Digest();
+        jdbcTemplate.query(PRODUCTS_SQL, (RowCallbackHandler) rs -> digest.add(rs.getLong(1),
+                rs.getString(2).getBytes(StandardCharsets.UTF_8), rs.getInt(3)));
+        return digest.finish();
+    }
+}
@@ -0,0 +1,134 @@
+package com.inventory.service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * EngineProjection - Row changes produced by a run of engine commands, to be
+ * written to the JPA tables in one transaction.
+ *
+ * New rows are kept in command order. Updates carry absolute values and are
+ * coalesced per row, so only the latest value of a hot product or order is
+ * written. Rows the engine inserted are addressed by order and product, which
+ * is unique for them; rows loaded from the database are addressed by ID,
+ * since an order placed outside the engine may have several lines of one
+ * product. EngineProjector applies inserts before updates and deletes.
+ */
+class EngineProjection {
+
+    final List<Object[]> orderInserts = new ArrayList<>();
+    final List<Object[]> orderItemInserts = new ArrayList<>();
+    final List<ShipmentRow> shipmentInserts = new ArrayList<>();
+    final List<Object[]> pendingInserts = new ArrayList<>();
+    final Map<List<Long>, Object[]> orderItemUpdates = new LinkedHashMap<>();
+    final Map<List<Long>, Long> pendingUpdates = new LinkedHashMap<>();
+    final Set<List<Long>> pendingDeletes = new LinkedHashSet<>();
+    final Map<Long, Object[]> orderItemRowUpdates = new LinkedHashMap<>();
+    final Map<Long, Long> pendingRowUpdates = new LinkedHashMap<>();
+    final Set<Long> pendingRowDeletes = new LinkedHashSet<>();
+    /** Products whose pending items change, for recounting their totals. */
+    final Set<Long> pendingProducts = new TreeSet<>();
+    final Map<Long, Long> inventoryUpdates = new TreeMap<>();
+    final Map<Long, String> orderStatusUpdates = new LinkedHashMap<>();
+    long lastSequence;
+
+    void insertOrder(Long orderId, String status, LocalDateTime createdAt) {
+        orderInserts.add(new Object[] {orderId, status, createdAt});
+    }
+
+    void insertOrderItem(Long orderId, Long productId, long requestedQty, long fulfilledQty, String status) {
+        orderItemInserts.add(new Object[] {orderId, productId, requestedQty, fulfilledQty, status});
+    }
+
+    void insertShipment(ShipmentRow shipment) {
+        shipmentInserts.add(shipment);
+    }
+
+    void insertPending(Long orderId, Long productId, long pendingQty, LocalDateTime createdAt) {
+        pendingInserts.add(new Object[] {orderId, productId, pendingQty, createdAt});
+        pendingProducts.add(productId);
+    }
+
+    void updateOrderItem(Long orderId, Long productId, long fulfilledQty, String status) {
+        orderItemUpdates.put(List.of(orderId, productId), new Object[] {fulfilledQty, status, orderId, productId});
+    }
+
+    void updatePending(Long orderId, Long productId, long pendingQty) {
+        pendingUpdates.put(List.of(orderId, productId), pendingQty);
+        pendingProducts.add(productId);
+    }
+
+    void deletePending(Long orderId, Long productId) {
+        pendingUpdates.remove(List.of(orderId, productId));
+        pendingDeletes.add(List.of(orderId, productId));
+        pendingProducts.add(productId);
+    }
+
+    void updateOrderItemRow(Long id, long fulfilledQty, String status) {
+        orderItemRowUpdates.put(id, new Object[] {fulfilledQty, status, id});
+    }
+
+    void updatePendingRow(Long id, Long productId, long pendingQty) {
+        pendingRowUpdates.put(id, pendingQty);
+        pendingProducts.add(productId);
+    }
+
+    void deletePendingRow(Long id, Long productId) {
+        pendingRowUpdates.remove(id);
+        pendingRowDeletes.add(id);
+        pendingProducts.add(productId);
+    }
+
+    void updateInventory(Long productId, long availableQty) {
+        inventoryUpdates.put(productId, availableQty);
+    }
+
+    void updateOrderStatus(Long orderId, String status) {
+        orderStatusUpdates.put(orderId, status);
+    }
+
+    /**
+     * Appends a later projection to this one.
+     */
+    void merge(EngineProjection later) {
+        orderInserts.addAll(later.orderInserts);
+        orderItemInserts.addAll(later.orderItemInserts);
+        shipmentInserts.addAll(later.shipmentInserts);
+        pendingInserts.addAll(later.pendingInserts);
+        orderItemUpdates.putAll(later.orderItemUpdates);
+        later.pendingUpdates.forEach((key, value) -> {
+            pendingDeletes.remove(key);
+            pendingUpdates.put(key, value);
+        });
+        later.pendingDeletes.forEach(key -> deletePending(key.get(0), key.get(1)));
+        orderItemRowUpdates.putAll(later.orderItemRowUpdates);
+        later.pendingRowUpdates.forEach((id, value) -> {
+            pendingRowDeletes.remove(id);
+            pendingRowUpdates.put(id, value);
+        });
+        later.pendingRowDeletes.forEach(id -> {
+            pendingRowUpdates.remove(id);
+            pendingRowDeletes.add(id);
+        });
+        pendingProducts.addAll(later.pendingProducts);
+        inventoryUpdates.putAll(later.inventoryUpdates);
+        orderStatusUpdates.putAll(later.orderStatusUpdates);
+        lastSequence = Math.max(lastSequence, later.lastSequence);
+    }
+
+    /**
+     * A shipment and its items; the shipment ID is assigned by the database.
+     */
+    static class ShipmentRow {
+        final Long orderId;
+        final int totalWeightG;
+        final LocalDateTime createdAt;
+        final Map<Long, Long> quantities = new LinkedHashMap<>();
+
+        ShipmentRow(Long orderId, int totalWeightG, LocalDateTime createdAt) {
+            this.orderId = orderId;
+            this.totalWeightG = totalWeightG;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.inventory.service;
+
+import com.inventory.entity.EngineCheckpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * EngineProjector - Writes engine projections to the JPA tables.
+ *
+ * Each call is one transaction that also advances the engine checkpoint, so
+ * the database always reflects exactly the commands up to the checkpoint.
+ * Rows are written with JDBC batches: inserts first (in foreign-key order),
+ * then updates, then deletes.
+ */
+@Slf4j
+class EngineProjector {
+
+    private static final String INSERT_ORDER =
+            "INSERT INTO orders (order_id, status, created_at) VALUES (?, ?, ?)";
+    private static final String INSERT_ORDER_ITEM = "INSERT INTO order_items "
+            + "(order_id, product_id, requested_qty, fulfilled_qty, status) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_SHIPMENT =
+            "INSERT INTO shipments (order_id, total_weight_g, created_at) VALUES (?, ?, ?)";
+    private static final String INSERT_SHIPMENT_ITEM =
+            "INSERT INTO shipment_items (shipment_id, product_id, quantity) VALUES (?, ?, ?)";
+    private static final String INSERT_PENDING = "INSERT INTO pending_order_items "
+            + "(order_id, product_id, pending_qty, created_at) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_ORDER_ITEM =
+            "UPDATE order_items SET fulfilled_qty = ?, status = ? WHERE order_id = ? AND product_id = ?";
+    private static final String UPDATE_PENDING =
+            "UPDATE pending_order_items SET pending_qty = ? WHERE order_id = ? AND product_id = ?";
+    private static final String DELETE_PENDING =
+            "DELETE FROM pending_order_items WHERE order_id = ? AND product_id = ?";
+    private static final String UPDATE_ORDER_ITEM_ROW =
+            "UPDATE order_items SET fulfilled_qty = ?, status = ? WHERE id = ?";
+    private static final String UPDATE_PENDING_ROW = "UPDATE pending_order_items SET pending_qty = ? WHERE id = ?";
+    private static final String DELETE_PENDING_ROW = "DELETE FROM pending_order_items WHERE id = ?";
+    private static final String UPDATE_INVENTORY =
+            "UPDATE inventory SET available_qty = ?, version = version + 1 WHERE product_id = ?";
+    private static final String RECOUNT_PENDING = "UPDATE inventory SET pending_qty = "
+            + "(SELECT COALESCE(SUM(p.pending_qty), 0) FROM pending_order_items p "
+            + "WHERE p.product_id = inventory.product_id) WHERE product_id = ?";
+    private static final String UPDATE_ORDER_STATUS = "UPDATE orders SET status = ? WHERE order_id = ?";
+    private static final String UPDATE_CHECKPOINT = "UPDATE engine_checkpoint SET last_sequence = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    EngineProjector(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    void write(EngineProjection projection) {
+        transactionTemplate.executeWithoutResult(status -> {
+            batch(INSERT_ORDER, projection.orderInserts);
+            batch(INSERT_ORDER_ITEM, projection.orderItemInserts);
+            insertShipments(projection.shipmentInserts);
+            batch(INSERT_PENDING, projection.pendingInserts);
+            batch(UPDATE_ORDER_ITEM, new ArrayList<>(projection.orderItemUpdates.values()));
+            batch(UPDATE_PENDING, projection.pendingUpdates.entrySet().stream()
+                    .map(entry -> new Object[] {entry.getValue(), entry.getKey().get(0), entry.getKey().get(1)})
+                    .toList());
+            batch(DELETE_PENDING, projection.pendingDeletes.stream()
+                    .map(key -> new Object[] {key.get(0), key.get(1)})
+                    .toList());
+            batch(UPDATE_ORDER_ITEM_ROW, new ArrayList<>(projection.orderItemRowUpdates.values()));
+            batch(UPDATE_PENDING_ROW, projection.pendingRowUpdates.entrySet().stream()
+                    .map(entry -> new Object[] {entry.getValue(), entry.getKey()})
+                    .toList());
+            batch(DELETE_PENDING_ROW, projection.pendingRowDeletes.stream()
+                    .map(id -> new Object[] {id})
+                    .toList());
+            // Exact because the projector is the only writer while the engine runs
+            batch(RECOUNT_PENDING, projection.pendingProducts.stream()
+                    .map(productId -> new Object[] {productId})
+                    .toList());
+            batch(UPDATE_INVENTORY, projection.inventoryUpdates.entrySet().stream()
+                    .map(entry -> new Object[] {entry.getValue(), entry.getKey()})
+                    .toList());
+            batch(UPDATE_ORDER_STATUS, projection.orderStatusUpdates.entrySet().stream()
+                    .map(entry -> new Object[] {entry.getValue(), entry.getKey()})
+                    .toList());
+            jdbcTemplate.update(UPDATE_CHECKPOINT, projection.lastSequence, EngineCheckpoint.SINGLETON_ID);
+        });
+        log.debug("Projected engine commands up to sequence {}", projection.lastSequence);
+    }
+
+    /**
+     * Inserts shipments one by one to get their generated IDs, then all of
+     * their items in one batch.
+     */
+    private void insertShipments(List<EngineProjection.ShipmentRow> shipments) {
+        List<Object[]> items = new ArrayList<>();
+        for (EngineProjection.ShipmentRow shipment : shipments) {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(INSERT_SHIPMENT, new String[] {"shipment_id"});
+                ps.setLong(1, shipment.orderId);
+                ps.setInt(2, shipment.totalWeightG);
+                ps.setTimestamp(3, Timestamp.valueOf(shipment.createdAt));
+                return ps;
+            }, keyHolder);
+            long shipmentId = keyHolder.getKey().longValue();
+            shipment.quantities.forEach((productId, quantity) ->
+                    items.add(new Object[] {shipmentId, productId, quantity}));
+        }
+        batch(INSERT_SHIPMENT_ITEM, items);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+}
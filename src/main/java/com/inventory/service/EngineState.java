@@ -0,0 +1,446 @@
+package com.inventory.service;
+
+import com.inventory.dto.*;
+import com.inventory.entity.Order;
+import com.inventory.entity.OrderItem;
+import com.inventory.entity.PendingOrderItem;
+import com.inventory.exception.ProductNotFoundException;
+import com.inventory.util.ShipmentPackagingOptimizer;
+import com.inventory.util.ShipmentPackagingOptimizer.ShipmentPackage;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * EngineState - In-memory model of inventory, backlog and order items owned by
+ * the engine thread.
+ *
+ * Applies order and restock commands with the same rules as OrderService and
+ * RestockService, and records every row change in an EngineProjection.
+ * Products and orders are loaded from the database the first time a command
+ * touches them; from then on memory is authoritative. Orders are dropped once
+ * they have nothing outstanding and their rows are projected.
+ *
+ * Orders placed outside the engine may have several lines (and pending
+ * items) of one product. The model keeps one item per product and remembers
+ * the stored rows behind it, and projects changes to them by row ID, split
+ * across the rows in order like ShipmentService and
+ * OrderService.settlePendingItems do.
+ *
+ * Commands validate everything they can fail on before changing any state,
+ * so a rejected command leaves the model untouched. Not thread-safe: only the
+ * engine thread (or startup replay) uses it.
+ */
+class EngineState {
+
+    private final Loader loader;
+    private final Map<Long, ProductState> products = new HashMap<>();
+    private final Map<Long, OrderState> orders = new HashMap<>();
+
+    EngineState(Loader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Creates an order, ships what is available and queues the rest as
+     * backlog.
+     */
+    OrderResponseDTO processOrder(long sequence, OrderRequestDTO request, LocalDateTime timestamp,
+            EngineProjection projection) {
+        Long orderId = request.getOrderId();
+
+        // Validate before changing anything; lines for the same product are merged
+        Map<Long, Long> requested = new LinkedHashMap<>();
+        for (OrderItemRequestDTO item : request.getRequested()) {
+            product(item.getProductId());
+            requested.merge(item.getProductId(), item.getQuantity(), Long::sum);
+        }
+        if (orders.containsKey(orderId) || loader.findOrder(orderId).isPresent()) {
+            throw new IllegalArgumentException("Order already exists: " + orderId);
+        }
+
+        OrderState order = new OrderState(orderId, timestamp);
+        requested.forEach((productId, quantity) -> order.items.put(productId, new ItemState(productId, quantity, 0)));
+        orders.put(orderId, order);
+        order.lastSequence = sequence;
+
+        // Item rows are inserted below with their final quantities
+        ship(order, timestamp, projection, false);
+        order.status = fulfillmentStatus(order);
+
+        projection.insertOrder(orderId, order.status, order.createdAt);
+        for (ItemState item : order.items.values()) {
+            projection.insertOrderItem(orderId, item.productId, item.requested, item.fulfilled, item.status());
+            long pendingQty = item.outstanding();
+            if (pendingQty > 0) {
+                product(item.productId).backlog.put(orderId, new PendingEntry(orderId, pendingQty));
+                projection.insertPending(orderId, item.productId, pendingQty, timestamp);
+            }
+        }
+        return order.toResponse();
+    }
+
+    /**
+     * Adds stock, then fulfills the backlog of each restocked product oldest
+     * first.
+     */
+    RestockResponseDTO processRestock(long sequence, List<RestockItemDTO> restockItems, LocalDateTime timestamp,
+            EngineProjection projection) {
+        for (RestockItemDTO item : restockItems) {
+            product(item.getProductId());
+        }
+
+        int shipmentsCreated = 0;
+        int ordersCompleted = 0;
+        for (RestockItemDTO item : restockItems) {
+            ProductState product = product(item.getProductId());
+            product.available += item.getQuantity();
+            projection.updateInventory(product.productId, product.available);
+
+            long remaining = item.getQuantity();
+            for (PendingEntry pending : new ArrayList<>(product.backlog.values())) {
+                if (remaining <= 0) {
+                    break;
+                }
+                long pendingQty = pending.pendingQty;
+                OrderState order = order(pending.orderId);
+                order.lastSequence = sequence;
+                shipmentsCreated += ship(order, timestamp, projection, true);
+                syncBacklog(order, projection);
+                if (order.outstanding() == 0) {
+                    order.status = "COMPLETED";
+                    ordersCompleted++;
+                } else {
+                    order.status = fulfillmentStatus(order);
+                }
+                projection.updateOrderStatus(order.orderId, order.status);
+                remaining -= pendingQty;
+            }
+        }
+
+        return RestockResponseDTO.builder()
+                .productsRestocked(restockItems.size())
+                .shipmentsCreated(shipmentsCreated)
+                .ordersUpdated(ordersCompleted)
+                .build();
+    }
+
+    /**
+     * Sets the available quantity of catalog products back to 0, mirroring
+     * InventoryService.initializeInventoryForProduct.
+     */
+    void resetInventory(Collection<Long> productIds, EngineProjection projection) {
+        for (Long productId : productIds) {
+            ProductState product = products.get(productId);
+            if (product != null) {
+                product.available = 0;
+                projection.updateInventory(productId, 0);
+            }
+        }
+    }
+
+    /**
+     * Drops orders with nothing outstanding whose rows are all in the
+     * database.
+     *
+     * @return Number of orders dropped
+     */
+    int evictSettledOrders(long projectedSequence) {
+        int before = orders.size();
+        orders.values().removeIf(order -> order.lastSequence <= projectedSequence && order.outstanding() == 0);
+        return before - orders.size();
+    }
+
+    long getAvailable(Long productId) {
+        return product(productId).available;
+    }
+
+    /**
+     * Packs and ships whatever is available of the order's outstanding items.
+     *
+     * @param updateItems Whether to project updates of existing order item rows
+     * @return Number of shipments created
+     */
+    private int ship(OrderState order, LocalDateTime timestamp, EngineProjection projection, boolean updateItems) {
+        List<ShipmentPackagingOptimizer.ShipmentItem> itemsToPack = new ArrayList<>();
+        for (ItemState item : order.items.values()) {
+            ProductState product = product(item.productId);
+            long qtyToShip = Math.min(product.available, item.outstanding());
+            if (qtyToShip > 0) {
+                itemsToPack.add(new ShipmentPackagingOptimizer.ShipmentItem(item.productId, qtyToShip, product.massG));
+            }
+        }
+        if (itemsToPack.isEmpty()) {
+            return 0;
+        }
+
+        List<ShipmentPackage> packages = ShipmentPackagingOptimizer.optimizePackaging(itemsToPack);
+        Set<Long> shippedProducts = new TreeSet<>();
+        for (ShipmentPackage pkg : packages) {
+            EngineProjection.ShipmentRow shipment = new EngineProjection.ShipmentRow(
+                    order.orderId, pkg.totalWeightG, timestamp);
+            for (ShipmentPackagingOptimizer.ShipmentItem pkgItem : pkg.items) {
+                shipment.quantities.merge(pkgItem.productId, pkgItem.quantity, Long::sum);
+                order.items.get(pkgItem.productId).fulfill(pkgItem.quantity);
+                product(pkgItem.productId).available -= pkgItem.quantity;
+                shippedProducts.add(pkgItem.productId);
+            }
+            projection.insertShipment(shipment);
+        }
+
+        for (Long productId : shippedProducts) {
+            ItemState item = order.items.get(productId);
+            if (updateItems && item.rows.isEmpty()) {
+                projection.updateOrderItem(order.orderId, productId, item.fulfilled, item.status());
+            } else if (updateItems) {
+                for (ItemRow row : item.rows) {
+                    projection.updateOrderItemRow(row.id, row.fulfilled,
+                            ItemState.status(row.requested, row.fulfilled));
+                }
+            }
+            projection.updateInventory(productId, product(productId).available);
+        }
+        return packages.size();
+    }
+
+    /**
+     * Shrinks or removes the order's backlog entries to what is still
+     * outstanding.
+     */
+    private void syncBacklog(OrderState order, EngineProjection projection) {
+        for (ItemState item : order.items.values()) {
+            ProductState product = product(item.productId);
+            PendingEntry pending = product.backlog.get(order.orderId);
+            if (pending == null || pending.pendingQty == item.outstanding()) {
+                continue;
+            }
+            if (!pending.rows.isEmpty()) {
+                syncPendingRows(pending, item, projection);
+            } else if (item.outstanding() == 0) {
+                projection.deletePending(order.orderId, item.productId);
+            } else {
+                projection.updatePending(order.orderId, item.productId, item.outstanding());
+            }
+            pending.pendingQty = item.outstanding();
+            if (pending.pendingQty == 0) {
+                product.backlog.remove(order.orderId);
+            }
+        }
+    }
+
+    /**
+     * Settles stored pending rows against what the item still has
+     * outstanding: each row keeps as much as the rows before it left, and
+     * rows left with nothing are deleted.
+     */
+    private static void syncPendingRows(PendingEntry pending, ItemState item, EngineProjection projection) {
+        long outstanding = item.outstanding();
+        for (Iterator<PendingRow> it = pending.rows.iterator(); it.hasNext(); ) {
+            PendingRow row = it.next();
+            long left = Math.min(row.pendingQty, outstanding);
+            outstanding -= left;
+            if (left == 0) {
+                it.remove();
+                projection.deletePendingRow(row.id, item.productId);
+            } else if (left != row.pendingQty) {
+                row.pendingQty = left;
+                projection.updatePendingRow(row.id, item.productId, left);
+            }
+        }
+    }
+
+    private static String fulfillmentStatus(OrderState order) {
+        long fulfilled = order.items.values().stream()
+                .filter(item -> item.outstanding() == 0)
+                .count();
+        if (fulfilled == order.items.size()) {
+            return "FULFILLED";
+        }
+        return fulfilled > 0 ? "PARTIALLY_FULFILLED" : "PENDING";
+    }
+
+    private ProductState product(Long productId) {
+        ProductState product = products.get(productId);
+        if (product != null) {
+            return product;
+        }
+
+        Long available = loader.findAvailableQty(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found in inventory: " + productId));
+        Integer massG = loader.findMassG(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found: " + productId));
+        product = new ProductState(productId, available, massG);
+        for (PendingOrderItem pending : loader.findPendingItems(productId)) {
+            PendingEntry entry = product.backlog.computeIfAbsent(pending.getOrderId(),
+                    orderId -> new PendingEntry(orderId, 0));
+            entry.pendingQty += pending.getPendingQty();
+            entry.rows.add(new PendingRow(pending.getId(), pending.getPendingQty()));
+        }
+        products.put(productId, product);
+        return product;
+    }
+
+    private OrderState order(Long orderId) {
+        OrderState order = orders.get(orderId);
+        if (order != null) {
+            return order;
+        }
+
+        Order stored = loader.findOrder(orderId)
+                .orElseThrow(() -> new IllegalStateException("Backlog references unknown order " + orderId));
+        order = new OrderState(orderId, stored.getCreatedAt());
+        order.status = stored.getStatus();
+        for (OrderItem item : loader.findOrderItems(orderId)) {
+            ItemState merged = order.items.computeIfAbsent(item.getProductId(),
+                    productId -> new ItemState(productId, 0, 0));
+            merged.requested += item.getRequestedQty();
+            merged.fulfilled += item.getFulfilledQty();
+            merged.rows.add(new ItemRow(item.getId(), item.getRequestedQty(), item.getFulfilledQty()));
+        }
+        orders.put(orderId, order);
+        return order;
+    }
+
+    /**
+     * Reads state the engine has not loaded yet.
+     */
+    interface Loader {
+        Optional<Long> findAvailableQty(Long productId);
+
+        Optional<Integer> findMassG(Long productId);
+
+        /**
+         * Pending items of a product, oldest first.
+         */
+        List<PendingOrderItem> findPendingItems(Long productId);
+
+        Optional<Order> findOrder(Long orderId);
+
+        List<OrderItem> findOrderItems(Long orderId);
+    }
+
+    private static class ProductState {
+        final Long productId;
+        final int massG;
+        long available;
+        /** Pending quantity per order, oldest order first. */
+        final LinkedHashMap<Long, PendingEntry> backlog = new LinkedHashMap<>();
+
+        ProductState(Long productId, long available, int massG) {
+            this.productId = productId;
+            this.available = available;
+            this.massG = massG;
+        }
+    }
+
+    private static class PendingEntry {
+        final Long orderId;
+        long pendingQty;
+        /** Stored rows behind pendingQty, oldest first; empty for rows the engine inserted. */
+        final List<PendingRow> rows = new ArrayList<>();
+
+        PendingEntry(Long orderId, long pendingQty) {
+            this.orderId = orderId;
+            this.pendingQty = pendingQty;
+        }
+    }
+
+    private static class OrderState {
+        final Long orderId;
+        final LocalDateTime createdAt;
+        final Map<Long, ItemState> items = new LinkedHashMap<>();
+        String status = "PENDING";
+        long lastSequence;
+
+        OrderState(Long orderId, LocalDateTime createdAt) {
+            this.orderId = orderId;
+            this.createdAt = createdAt;
+        }
+
+        long outstanding() {
+            return items.values().stream().mapToLong(ItemState::outstanding).sum();
+        }
+
+        OrderResponseDTO toResponse() {
+            return OrderResponseDTO.builder()
+                    .orderId(orderId)
+                    .status(status)
+                    .createdAt(createdAt)
+                    .totalItems(items.size())
+                    .items(items.values().stream()
+                            .map(item -> OrderItemDTO.builder()
+                                    .productId(item.productId)
+                                    .requestedQty(item.requested)
+                                    .fulfilledQty(item.fulfilled)
+                                    .status(item.status())
+                                    .build())
+                            .toList())
+                    .build();
+        }
+    }
+
+    private static class PendingRow {
+        final Long id;
+        long pendingQty;
+
+        PendingRow(Long id, long pendingQty) {
+            this.id = id;
+            this.pendingQty = pendingQty;
+        }
+    }
+
+    private static class ItemState {
+        final Long productId;
+        long requested;
+        long fulfilled;
+        /** Stored rows behind the totals, in order; empty for rows the engine inserted. */
+        final List<ItemRow> rows = new ArrayList<>();
+
+        ItemState(Long productId, long requested, long fulfilled) {
+            this.productId = productId;
+            this.requested = requested;
+            this.fulfilled = fulfilled;
+        }
+
+        long outstanding() {
+            return requested - fulfilled;
+        }
+
+        /**
+         * Adds shipped quantity, filling the stored rows in order.
+         */
+        void fulfill(long quantity) {
+            fulfilled += quantity;
+            long left = quantity;
+            for (ItemRow row : rows) {
+                long shipped = Math.min(left, row.requested - row.fulfilled);
+                if (shipped > 0) {
+                    row.fulfilled += shipped;
+                    left -= shipped;
+                }
+            }
+        }
+
+        String status() {
+            return status(requested, fulfilled);
+        }
+
+        static String status(long requested, long fulfilled) {
+            if (fulfilled >= requested) {
+                return "FULFILLED";
+            }
+            return fulfilled > 0 ? "PARTIALLY_FULFILLED" : "PENDING";
+        }
+    }
+
+    private static class ItemRow {
+        final Long id;
+        final long requested;
+        long fulfilled;
+
+        ItemRow(Long id, long requested, long fulfilled) {
+            this.id = id;
+            this.requested = requested;
+            this.fulfilled = fulfilled;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.entity.Inventory;
+import com.inventory.exception.ProductNotFoundException;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.util.InventoryJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * InMemoryInventory - Authoritative available quantities for IN_MEMORY update
+ * mode.
+ *
+ * Each product's quantity lives in an AtomicLong, loaded from the inventory
+ * table on first use and changed with compare-and-set. Every change is
+ * appended to an InventoryJournal before it is acknowledged, and a background
+ * flush writes changed quantities to the table in one JDBC batch.
+ *
+ * A change made inside a transaction takes effect on the counter at once, so
+ * concurrent orders cannot oversell, but is journaled only when the
+ * transaction commits and simply taken back if it rolls back. Until then it
+ * is counted as uncommitted: checkpoints and table writes leave it out, so a
+ * crash never replays a change whose transaction was lost.
+ *
+ * Changes hold the read side of a read-write lock; a flush takes the write
+ * side just long enough to snapshot the counters into a new journal
+ * checkpoint, so the checkpoint and the deltas after it never overlap. The
+ * database write happens after the lock is released; if it fails the
+ * products stay dirty and the journal still holds their quantities.
+ *
+ * When the application starts in IN_MEMORY mode, the newest journal
+ * checkpoint is replayed into the table before any request is served. Once
+ * the journal's quantities are in the table - after recovery and after the
+ * final flush of a clean shutdown - the journal is cleared, so it can never
+ * be replayed over later changes. Starting in another mode discards a
+ * leftover journal for the same reason: that run changes the table directly.
+ */
+@Component
+@Slf4j
+public class InMemoryInventory {
+
+    private static final String UPDATE_SQL = "UPDATE inventory "
+            + "SET available_qty = ?, version = version + 1 WHERE product_id = ?";
+
+    private final InventoryRepository inventoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final InventoryProperties properties;
+    private final InventoryProperties.InMemory config;
+    private final InventoryJournal journal;
+
+    private final Map<Long, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> uncommitted = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InMemoryInventory(InventoryRepository inventoryRepository, JdbcTemplate jdbcTemplate,
+            InventoryProperties properties) {
+        this.inventoryRepository = inventoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.config = properties.getInMemory();
+        this.journal = new InventoryJournal(Path.of(config.getJournalDir()), config.isFsync());
+    }
+
+    /**
+     * Replays the journal into the inventory table when starting in IN_MEMORY
+     * mode, then starts the write-behind flush. The flush also runs in other
+     * modes, which may be switched to IN_MEMORY at runtime; it does nothing
+     * while no product is tracked.
+     */
+    @PostConstruct
+    public void start() {
+        if (properties.getUpdateMode() == InventoryProperties.UpdateMode.IN_MEMORY) {
+            recover();
+        } else {
+            discardJournal();
+        }
+        flusher.scheduleWithFixedDelay(this::flushQuietly,
+                config.getFlushIntervalMs(), config.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the available quantity of a product.
+     *
+     * @throws ProductNotFoundException if the product has no inventory record
+     */
+    public long get(Long productId) {
+        return counter(productId).get();
+    }
+
+    /**
+     * Committed quantities of every product tracked in memory.
+     */
+    public Map<Long, Long> getTracked() {
+        Map<Long, Long> tracked = new HashMap<>(counters.size() * 2);
+        counters.keySet().forEach(productId -> tracked.put(productId, committed(productId)));
+        return tracked;
+    }
+
+    /**
+     * Decrements a product's quantity if enough is available.
+     *
+     * @return The new quantity
+     * @throws IllegalArgumentException if less than quantity is available
+     */
+    public long decrement(Long productId, long quantity) {
+        AtomicLong counter = counter(productId);
+        checkpointLock.readLock().lock();
+        try {
+            long current;
+            do {
+                current = counter.get();
+                if (current < quantity) {
+                    throw new IllegalArgumentException(
+                            "Cannot reduce inventory: available=" + current + ", requested=" + quantity);
+                }
+            } while (!counter.compareAndSet(current, current - quantity));
+            record(productId, counter, -quantity);
+            return current - quantity;
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds delta (which may be negative) to a product's quantity unconditionally.
+     *
+     * @return The new quantity
+     */
+    public long adjust(Long productId, long delta) {
+        AtomicLong counter = counter(productId);
+        checkpointLock.readLock().lock();
+        try {
+            long updated = counter.addAndGet(delta);
+            record(productId, counter, delta);
+            return updated;
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sets a product's quantity if it is tracked in memory. Untracked products
+     * are left to the caller's database write.
+     */
+    public void resetIfTracked(Long productId, long quantity) {
+        AtomicLong counter = counters.get(productId);
+        if (counter == null) {
+            return;
+        }
+        checkpointLock.readLock().lock();
+        try {
+            long previous = counter.getAndSet(quantity);
+            record(productId, counter, quantity - previous);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes every changed quantity to the inventory table.
+     * Runs periodically; callers may also flush explicitly, e.g. before reading
+     * the table directly.
+     */
+    public synchronized void flush() {
+        Map<Long, Long> changed = new TreeMap<>();
+        checkpointLock.writeLock().lock();
+        try {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            Map<Long, Long> snapshot = new HashMap<>();
+            counters.keySet().forEach(productId -> snapshot.put(productId, committed(productId)));
+            for (Long productId : dirty) {
+                changed.put(productId, snapshot.get(productId));
+            }
+            journal.checkpoint(snapshot);
+            dirty.clear();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+
+        try {
+            write(changed);
+            log.debug("Flushed {} inventory quantities", changed.size());
+        } catch (DataAccessException e) {
+            // Quantities are safe in the journal checkpoint; retry next flush
+            dirty.addAll(changed.keySet());
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the remaining changes to the table and, if nothing changed in
+     * the meantime, clears the journal; the table is then complete.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        flusher.shutdown();
+        try {
+            flush();
+            checkpointLock.writeLock().lock();
+            try {
+                if (dirty.isEmpty()) {
+                    journal.clear();
+                } else {
+                    log.warn("Keeping the inventory journal: {} products changed during shutdown", dirty.size());
+                }
+            } finally {
+                checkpointLock.writeLock().unlock();
+            }
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Inventory write-behind flush failed", e);
+        }
+    }
+
+    /**
+     * Rebuilds absolute quantities from the newest journal checkpoint and
+     * writes them to the table. They are first saved as a new checkpoint, so
+     * a crash during recovery replays the same values instead of applying the
+     * deltas twice; once the table has them the journal is cleared.
+     */
+    private void recover() {
+        InventoryJournal.Recovered recovered = journal.read();
+        if (recovered == null) {
+            return;
+        }
+
+        Set<Long> productIds = new TreeSet<>(recovered.getSnapshot().keySet());
+        productIds.addAll(recovered.getDeltas().keySet());
+        Map<Long, Long> quantities = new TreeMap<>();
+        for (Long productId : productIds) {
+            Long base = recovered.getSnapshot().get(productId);
+            if (base == null) {
+                Optional<Inventory> inventory = inventoryRepository.findById(productId);
+                if (inventory.isEmpty()) {
+                    log.warn("Skipping journaled product {} without an inventory record", productId);
+                    continue;
+                }
+                base = inventory.get().getAvailableQty();
+            }
+            quantities.put(productId, base + recovered.getDeltas().getOrDefault(productId, 0L));
+        }
+
+        journal.checkpoint(quantities);
+        write(quantities);
+        journal.clear();
+        log.info("Recovered {} inventory quantities from the journal", quantities.size());
+    }
+
+    /**
+     * Drops a journal left by an IN_MEMORY run that did not shut down
+     * cleanly. Replaying it after this run has changed the table directly
+     * would overwrite newer quantities.
+     */
+    private void discardJournal() {
+        InventoryJournal.Recovered recovered = journal.read();
+        if (recovered == null) {
+            return;
+        }
+        log.warn("Discarding inventory journal with {} checkpointed and {} changed products: update mode is {}",
+                recovered.getSnapshot().size(), recovered.getDeltas().size(), properties.getUpdateMode());
+        journal.clear();
+    }
+
+    private AtomicLong counter(Long productId) {
+        return counters.computeIfAbsent(productId, id -> new AtomicLong(inventoryRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Inventory not found for product: " + id))
+                .getAvailableQty()));
+    }
+
+    /**
+     * Journals a change already applied to the counter, undoing it if the
+     * journal write fails. Inside a transaction the change stays uncommitted
+     * until the transaction completes.
+     */
+    private void record(Long productId, AtomicLong counter, long delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            uncommitted.computeIfAbsent(productId, id -> new AtomicLong()).addAndGet(delta);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    complete(productId, counter, delta, status == STATUS_COMMITTED);
+                }
+            });
+            return;
+        }
+        try {
+            journal.append(productId, delta);
+        } catch (RuntimeException e) {
+            counter.addAndGet(-delta);
+            throw e;
+        }
+        dirty.add(productId);
+    }
+
+    /**
+     * Journals a committed change, or takes a rolled back one off the
+     * counter. Holds the read side of the checkpoint lock, so the change is
+     * either in a checkpoint's snapshot or journaled after it.
+     */
+    private void complete(Long productId, AtomicLong counter, long delta, boolean committed) {
+        checkpointLock.readLock().lock();
+        try {
+            uncommitted.get(productId).addAndGet(-delta);
+            if (!committed) {
+                counter.addAndGet(-delta);
+                return;
+            }
+            dirty.add(productId);
+            journal.append(productId, delta);
+        } catch (RuntimeException e) {
+            // Already committed; the next checkpoint holds the quantity
+            log.error("Failed to journal committed change of product {} by {}", productId, delta, e);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    private long committed(Long productId) {
+        AtomicLong pending = uncommitted.get(productId);
+        return counters.get(productId).get() - (pending != null ? pending.get() : 0);
+    }
+
+    private void write(Map<Long, Long> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> rows.add(new Object[] {quantity, productId}));
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+    }
+}
@@ -0,0 +1,250 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.StockLevelDTO;
+import com.inventory.entity.InventoryLedgerEntry;
+import com.inventory.repository.InventoryLedgerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InventoryLedger - Append-only history of inventory changes with periodic
+ * per-product checkpoints.
+ *
+ * InventoryService records every change of a product's available or
+ * reserved quantity here. Entries are buffered on the transaction and
+ * inserted as one JDBC batch just before it commits, so they commit or
+ * roll back together with the inventory update they describe.
+ *
+ * A background pass writes a checkpoint (the level after a given entry)
+ * for every product with entries since its last checkpoint. Rebuilding a
+ * level then takes an index lookup of the nearest checkpoint and a range
+ * scan of the entries after it: O(log n + delta) instead of a replay of the
+ * whole history. Entries newer than the checkpoint delay are left for the
+ * next pass, so transactions still committing cannot slip in behind a
+ * checkpoint.
+ *
+ * The sequenced engine keeps its own command journal and does not write to
+ * the ledger.
+ */
+@Component
+@Slf4j
+public class InventoryLedger {
+
+    /**
+     * Transaction resource key for the entries buffered by the current
+     * transaction.
+     */
+    private static final Object BUFFER_KEY = new Object();
+
+    private static final String INSERT_SQL = "INSERT INTO inventory_ledger "
+            + "(product_id, entry_type, quantity, available_delta, reserved_delta, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String CHECKPOINT_SQL = "SELECT ledger_id, available_qty, reserved_qty "
+            + "FROM inventory_ledger_checkpoints WHERE product_id = ? AND ledger_id <= ? "
+            + "ORDER BY ledger_id DESC LIMIT 1";
+    private static final String LAST_RESET_SQL = "SELECT id, quantity FROM inventory_ledger "
+            + "WHERE product_id = ? AND entry_type = 'RESET' AND id > ? AND id <= ? ORDER BY id DESC LIMIT 1";
+    private static final String REPLAY_SQL = "SELECT COUNT(*), "
+            + "COALESCE(SUM(CASE WHEN id > ? THEN available_delta ELSE 0 END), 0), "
+            + "COALESCE(SUM(reserved_delta), 0) "
+            + "FROM inventory_ledger WHERE product_id = ? AND id > ? AND id <= ?";
+    private static final String UNCHECKPOINTED_SQL = "SELECT l.product_id, MAX(l.id) FROM inventory_ledger l "
+            + "WHERE l.created_at < ? AND l.id > COALESCE((SELECT MAX(c.ledger_id) "
+            + "FROM inventory_ledger_checkpoints c WHERE c.product_id = l.product_id), 0) "
+            + "GROUP BY l.product_id";
+
+    /**
+     * Kinds of ledger entries and their effect on the available and
+     * reserved quantities.
+     */
+    public enum EntryType {
+        INCREASE(1, 0),
+        DECREASE(-1, 0),
+        RESERVE(-1, 1),
+        RELEASE(1, -1),
+        CONSUME(0, -1),
+        /** Sets the available quantity to the entry's quantity. */
+        RESET(0, 0);
+
+        private final int availableSign;
+        private final int reservedSign;
+
+        EntryType(int availableSign, int reservedSign) {
+            this.availableSign = availableSign;
+            this.reservedSign = reservedSign;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventoryLedgerRepository ledgerRepository;
+    private final InventoryProperties.Ledger config;
+    private ScheduledExecutorService checkpointer;
+
+    public InventoryLedger(JdbcTemplate jdbcTemplate, InventoryLedgerRepository ledgerRepository,
+            InventoryProperties inventoryProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerRepository = ledgerRepository;
+        this.config = inventoryProperties.getLedger();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-ledger-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointer.scheduleWithFixedDelay(this::checkpointQuietly, config.getCheckpointIntervalMs(),
+                config.getCheckpointIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (checkpointer != null) {
+            checkpointer.shutdownNow();
+        }
+    }
+
+    /**
+     * Appends an entry for a change made by the current transaction; it is
+     * written when the transaction commits. Without a transaction it is
+     * written immediately.
+     */
+    public void record(EntryType type, Long productId, long quantity) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Object[] row = {productId, type.name(), quantity, type.availableSign * quantity,
+                type.reservedSign * quantity, null};
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            row[5] = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.update(INSERT_SQL, row);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> buffer = (List<Object[]>) TransactionSynchronizationManager.getResource(BUFFER_KEY);
+        if (buffer == null) {
+            List<Object[]> rows = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(BUFFER_KEY, rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                    rows.forEach(buffered -> buffered[5] = now);
+                    jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BUFFER_KEY);
+                }
+            });
+            buffer = rows;
+        }
+        buffer.add(row);
+    }
+
+    /**
+     * A product's entries after the given entry, oldest first.
+     */
+    public List<InventoryLedgerEntry> getEntries(Long productId, long afterId, int limit) {
+        return ledgerRepository.findByProductIdAndIdGreaterThanOrderById(productId, afterId,
+                PageRequest.of(0, limit));
+    }
+
+    /**
+     * Rebuilds a product's stock level after the given ledger entry.
+     */
+    public StockLevelDTO getStockLevel(Long productId, long ledgerId) {
+        long[] checkpoint = jdbcTemplate.query(CHECKPOINT_SQL,
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                productId, ledgerId).stream().findFirst().orElse(new long[] {0, 0, 0});
+
+        // A reset after the checkpoint replaces the available quantity
+        long[] reset = jdbcTemplate.query(LAST_RESET_SQL,
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)},
+                productId, checkpoint[0], ledgerId).stream().findFirst().orElse(null);
+        long availableFrom = reset != null ? reset[0] : checkpoint[0];
+        long available = reset != null ? reset[1] : checkpoint[1];
+
+        long[] replay = jdbcTemplate.queryForObject(REPLAY_SQL,
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                availableFrom, productId, checkpoint[0], ledgerId);
+        return StockLevelDTO.builder()
+                .productId(productId)
+                .ledgerId(lastEntryId(productId, ledgerId))
+                .availableQty(available + replay[1])
+                .reservedQty(checkpoint[2] + replay[2])
+                .checkpointLedgerId(checkpoint[0])
+                .replayedEntries(replay[0])
+                .build();
+    }
+
+    /**
+     * Rebuilds a product's stock level as of the given time.
+     */
+    public StockLevelDTO getStockLevel(Long productId, LocalDateTime at) {
+        Long ledgerId = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(id), 0) FROM inventory_ledger WHERE product_id = ? AND created_at <= ?",
+                Long.class, productId, Timestamp.valueOf(at));
+        return getStockLevel(productId, ledgerId != null ? ledgerId : 0L);
+    }
+
+    /**
+     * Writes a checkpoint for every product with entries older than the
+     * checkpoint delay that no checkpoint covers yet.
+     *
+     * @return Number of checkpoints written
+     */
+    public int checkpoint() {
+        Timestamp horizon = Timestamp.valueOf(LocalDateTime.now().minusNanos(
+                TimeUnit.MILLISECONDS.toNanos(config.getCheckpointDelayMs())));
+        List<long[]> products = jdbcTemplate.query(UNCHECKPOINTED_SQL,
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}, horizon);
+
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (long[] product : products) {
+            StockLevelDTO level = getStockLevel(product[0], product[1]);
+            rows.add(new Object[] {product[0], product[1], level.getAvailableQty(), level.getReservedQty(), now});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO inventory_ledger_checkpoints "
+                    + "(product_id, ledger_id, available_qty, reserved_qty, created_at) VALUES (?, ?, ?, ?, ?)", rows);
+            log.debug("Wrote {} inventory ledger checkpoints", rows.size());
+        }
+        return rows.size();
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            log.warn("Inventory ledger checkpoint failed", e);
+        }
+    }
+
+    private long lastEntryId(Long productId, long ledgerId) {
+        Long id = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(id), 0) FROM inventory_ledger WHERE product_id = ? AND id <= ?",
+                Long.class, productId, ledgerId);
+        return id != null ? id : 0L;
+    }
+}
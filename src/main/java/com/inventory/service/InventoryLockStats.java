@@ -0,0 +1,175 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.LockContentionDTO;
+import com.inventory.util.LatencyHistogram;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * InventoryLockStats - Per-product timings of inventory row locks.
+ *
+ * InventoryService runs every SELECT ... FOR UPDATE through acquire(), which
+ * records per product:
+ * - wait: time from issuing the statement until it returned the locked rows
+ * - timeouts: acquisitions that failed with a lock timeout or deadlock
+ * - hold: time from acquisition until the transaction completed, which is
+ *   when the database releases the lock
+ *
+ * A multi-row acquisition waits as long as its slowest row and the database
+ * does not say which row that was, so the whole wait is charged to every row
+ * in it. Only PESSIMISTIC mode takes these locks.
+ *
+ * Each tracked product costs two histograms (16 KB), so at most
+ * inventory.lock-stats.max-products products are tracked; products first
+ * locked after that are not recorded.
+ */
+@Component
+public class InventoryLockStats {
+
+    /**
+     * Transaction resource key for the acquisition times of the locks held
+     * by the current transaction.
+     */
+    private static final Object HELD_LOCKS_KEY = new Object();
+
+    private final InventoryProperties.LockStats config;
+    private final Map<Long, ProductLockStats> stats = new ConcurrentHashMap<>();
+
+    public InventoryLockStats(InventoryProperties inventoryProperties) {
+        this.config = inventoryProperties.getLockStats();
+    }
+
+    /**
+     * Runs a lock acquisition for the given products and records how long it
+     * waited, whether it timed out, and, once the current transaction
+     * completes, how long the locks were held.
+     */
+    public <T> T acquire(Collection<Long> productIds, Supplier<T> acquisition) {
+        if (!config.isEnabled()) {
+            return acquisition.get();
+        }
+        long begin = System.nanoTime();
+        T result;
+        try {
+            result = acquisition.get();
+        } catch (PessimisticLockingFailureException e) {
+            long waited = System.nanoTime() - begin;
+            for (Long productId : productIds) {
+                ProductLockStats product = statsFor(productId);
+                if (product != null) {
+                    product.timeouts.incrementAndGet();
+                    product.recordWait(waited);
+                }
+            }
+            throw e;
+        }
+
+        long acquiredAt = System.nanoTime();
+        for (Long productId : productIds) {
+            ProductLockStats product = statsFor(productId);
+            if (product != null) {
+                product.recordWait(acquiredAt - begin);
+            }
+        }
+        holdUntilCompletion(productIds, acquiredAt);
+        return result;
+    }
+
+    /**
+     * Products with the most total lock wait, most contended first.
+     */
+    public List<LockContentionDTO> getTopContended(int limit) {
+        return stats.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<Long, ProductLockStats> entry) -> entry.getValue().totalWaitNanos.get())
+                        .reversed())
+                .limit(Math.max(0, limit))
+                .map(entry -> entry.getValue().toDTO(entry.getKey()))
+                .toList();
+    }
+
+    /**
+     * Forgets all recorded timings.
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * Records the hold time of every newly acquired lock when the current
+     * transaction commits or rolls back; locks re-acquired within the same
+     * transaction keep their first acquisition time.
+     */
+    @SuppressWarnings("unchecked")
+    private void holdUntilCompletion(Collection<Long> productIds, long acquiredAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Map<Long, Long> held = (Map<Long, Long>) TransactionSynchronizationManager.getResource(HELD_LOCKS_KEY);
+        if (held == null) {
+            Map<Long, Long> acquired = new HashMap<>();
+            held = acquired;
+            TransactionSynchronizationManager.bindResource(HELD_LOCKS_KEY, acquired);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(HELD_LOCKS_KEY);
+                    long releasedAt = System.nanoTime();
+                    acquired.forEach((productId, since) -> {
+                        ProductLockStats product = statsFor(productId);
+                        if (product != null) {
+                            product.hold.record(releasedAt - since);
+                        }
+                    });
+                }
+            });
+        }
+        for (Long productId : productIds) {
+            held.putIfAbsent(productId, acquiredAt);
+        }
+    }
+
+    private ProductLockStats statsFor(Long productId) {
+        ProductLockStats product = stats.get(productId);
+        if (product != null || stats.size() >= config.getMaxProducts()) {
+            return product;
+        }
+        return stats.computeIfAbsent(productId, id -> new ProductLockStats());
+    }
+
+    private static class ProductLockStats {
+        private final LatencyHistogram wait = new LatencyHistogram();
+        private final LatencyHistogram hold = new LatencyHistogram();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+
+        void recordWait(long nanos) {
+            wait.record(nanos);
+            totalWaitNanos.addAndGet(nanos);
+        }
+
+        LockContentionDTO toDTO(Long productId) {
+            long timedOut = timeouts.get();
+            return LockContentionDTO.builder()
+                    .productId(productId)
+                    .acquisitions(wait.getCount() - timedOut)
+                    .timeouts(timedOut)
+                    .totalWaitMs(TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()))
+                    .p50WaitUs(TimeUnit.NANOSECONDS.toMicros(wait.getPercentile(50)))
+                    .p99WaitUs(TimeUnit.NANOSECONDS.toMicros(wait.getPercentile(99)))
+                    .maxWaitUs(TimeUnit.NANOSECONDS.toMicros(wait.getMax()))
+                    .p50HoldUs(TimeUnit.NANOSECONDS.toMicros(hold.getPercentile(50)))
+                    .p99HoldUs(TimeUnit.NANOSECONDS.toMicros(hold.getPercentile(99)))
+                    .maxHoldUs(TimeUnit.NANOSECONDS.toMicros(hold.getMax()))
+                    .build();
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package com.inventory.service;
 
+import com.inventory.config.InventoryProperties;
+import com.inventory.config.InventoryProperties.UpdateMode;
+import com.inventory.dto.AvailableToPromiseDTO;
 import com.inventory.entity.Inventory;
 import com.inventory.entity.Product;
+import com.inventory.exception.InsufficientInventoryException;
 import com.inventory.exception.ProductNotFoundException;
 import com.inventory.repository.InventoryRepository;
-import com.inventory.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.List;
-import java.util.Map;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -23,18 +28,48 @@ import java.util.stream.Collectors;
 @Transactional
 public class InventoryService {
 
+    /**
+     * Transaction resource key for the inventory rows locked by the current
+     * transaction.
+     */
+    private static final Object LOCKED_INVENTORY_KEY = new Object();
+
+    private static final String BATCH_LOCK_SQL =
+            "UPDATE inventory SET version = version + 1 WHERE product_id = ? AND shard_count = 0";
+
+    private static final String BATCH_DECREMENT_SQL =
+            "UPDATE inventory SET available_qty = available_qty - ? WHERE product_id = ? AND available_qty >= ?";
+
+    private static final String BATCH_PENDING_SQL =
+            "UPDATE inventory SET pending_qty = pending_qty + ? WHERE product_id = ?";
+
     private final InventoryRepository inventoryRepository;
-    private final ProductRepository productRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final InventoryProperties inventoryProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final InMemoryInventory inMemoryInventory;
+    private final ShardedInventory shardedInventory;
+    private final InventorySnapshotPublisher inventorySnapshotPublisher;
+    private final InventoryLedger inventoryLedger;
+    private final InventoryLockStats inventoryLockStats;
 
     /**
      * Initializes inventory for a product with 0 quantity.
      * Called during catalog initialization.
      */
     public Inventory initializeInventoryForProduct(Long productId) {
-        Inventory inventory = Inventory.builder()
-                .productId(productId)
-                .availableQty(0L)
-                .build();
+        changed(InventoryLedger.EntryType.RESET, productId, 0L);
+        // Reset an existing record in place: a new entity with a null
+        // @Version would be treated as an insert
+        Inventory inventory = inventoryRepository.findById(productId)
+                .orElseGet(() -> Inventory.builder()
+                        .productId(productId)
+                        .build());
+        inventory.setAvailableQty(0L);
+        inMemoryInventory.resetIfTracked(productId, 0L);
+        if (inventory.getShardCount() > 0) {
+            shardedInventory.reset(productId);
+        }
         return inventoryRepository.save(inventory);
     }
 
@@ -43,6 +78,12 @@ public class InventoryService {
      * Throws exception if product not found in inventory.
      */
     public Long getAvailableQuantity(Long productId) {
+        if (inventoryProperties.getUpdateMode() == UpdateMode.IN_MEMORY) {
+            return inMemoryInventory.get(productId);
+        }
+        if (isSharded(productId)) {
+            return shardedInventory.getAvailable(productId);
+        }
         Inventory inventory = inventoryRepository.findById(productId)
                 .orElseThrow(() -> new ProductNotFoundException(
                         "Product not found in inventory: " + productId));
@@ -65,15 +106,46 @@ public class InventoryService {
      * Used when items are shipped. Lock ensures that no concurrent
      * restock operations can modify this inventory during the operation.
      * 
+     * In ATOMIC update mode a single conditional UPDATE is issued instead
+     * and the affected-row count decides success. In OPTIMISTIC mode the row
+     * is read without a lock and the @Version check at flush detects
+     * conflicting writers. In IN_MEMORY mode the in-memory counter is
+     * decremented with compare-and-set; InMemoryInventory restores it if the
+     * transaction rolls back. Sharded products take from one of their shards
+     * instead of the inventory row (see ShardedInventory); a write that finds
+     * the routing copy stale, by the row's shard_count, goes the other way.
+     * 
      * @param productId Product ID to reduce inventory for
      * @param quantity  Quantity to reduce
      * @throws IllegalArgumentException if insufficient inventory
      */
     public void reduceInventory(Long productId, Long quantity) {
-        // Acquire pessimistic lock on inventory record
-        Inventory inventory = inventoryRepository.findByIdWithLock(productId)
-                .orElseThrow(() -> new ProductNotFoundException(
-                        "Inventory not found for product: " + productId));
+        changed(InventoryLedger.EntryType.DECREASE, productId, quantity);
+        if (inventoryProperties.getUpdateMode() == UpdateMode.IN_MEMORY) {
+            long remaining = inMemoryInventory.decrement(productId, quantity);
+            log.info("Reduced inventory for product {} by {}. New quantity: {}", productId, quantity, remaining);
+            return;
+        }
+        if (isSharded(productId) && takeFromShards(productId, quantity)) {
+            return;
+        }
+        if (inventoryProperties.getUpdateMode() == UpdateMode.ATOMIC) {
+            if (inventoryRepository.decrementIfAvailable(productId, quantity) == 0) {
+                if (shardedInventory.refresh(productId) && takeFromShards(productId, quantity)) {
+                    return;
+                }
+                throw atomicDecrementFailure(productId, quantity);
+            }
+            log.info("Reduced inventory for product {} by {}", productId, quantity);
+            return;
+        }
+
+        // Locked record (reused if already held), or version-checked in OPTIMISTIC mode
+        Inventory inventory = getInventoryForUpdate(productId);
+        if (inventory.getShardCount() > 0 && shardedInventory.refresh(productId)
+                && takeFromShards(productId, quantity)) {
+            return;
+        }
 
         Long currentQty = inventory.getAvailableQty();
 
@@ -95,14 +167,43 @@ public class InventoryService {
      * Used when restocking occurs. Lock ensures that no concurrent
      * order/shipment operations can modify this inventory during the operation.
      * 
+     * In ATOMIC update mode a single UPDATE ... SET available_qty =
+     * available_qty + ? is issued instead. In OPTIMISTIC mode the row is read
+     * without a lock and the @Version check at flush detects conflicting writers.
+     * In IN_MEMORY mode the in-memory counter is incremented; InMemoryInventory
+     * decrements it again if the transaction rolls back. Sharded products add
+     * to one of their shards.
+     * 
      * @param productId Product ID to increase inventory for
      * @param quantity  Quantity to increase
      */
     public void increaseInventory(Long productId, Long quantity) {
-        // Acquire pessimistic lock on inventory record
-        Inventory inventory = inventoryRepository.findByIdWithLock(productId)
-                .orElseThrow(() -> new ProductNotFoundException(
-                        "Inventory not found for product: " + productId));
+        changed(InventoryLedger.EntryType.INCREASE, productId, quantity);
+        if (inventoryProperties.getUpdateMode() == UpdateMode.IN_MEMORY) {
+            long newQty = inMemoryInventory.adjust(productId, quantity);
+            log.info("Increased inventory for product {} by {}. New quantity: {}", productId, quantity, newQty);
+            return;
+        }
+        if (isSharded(productId) && addToShards(productId, quantity)) {
+            return;
+        }
+        if (inventoryProperties.getUpdateMode() == UpdateMode.ATOMIC) {
+            if (inventoryRepository.increment(productId, quantity) == 0) {
+                if (shardedInventory.refresh(productId) && addToShards(productId, quantity)) {
+                    return;
+                }
+                throw new ProductNotFoundException("Inventory not found for product: " + productId);
+            }
+            log.info("Increased inventory for product {} by {}", productId, quantity);
+            return;
+        }
+
+        // Locked record (reused if already held), or version-checked in OPTIMISTIC mode
+        Inventory inventory = getInventoryForUpdate(productId);
+        if (inventory.getShardCount() > 0 && shardedInventory.refresh(productId)
+                && addToShards(productId, quantity)) {
+            return;
+        }
 
         Long newQty = inventory.getAvailableQty() + quantity;
         inventory.setAvailableQty(newQty);
@@ -111,11 +212,392 @@ public class InventoryService {
                 productId, quantity, newQty);
     }
 
+    /**
+     * Reduces inventory for several products at once, in ascending productId
+     * order.
+     * 
+     * In ATOMIC update mode one JDBC batch first writes every row, which locks
+     * them all in ascending order, and a second batch sends the conditional
+     * decrements. The quantities were planned from an unlocked read, so
+     * another order may have taken some of the stock since: a decrement that
+     * matches no row takes what is left of the product, and the caller
+     * backorders the rest. Holding every row before any decrement means that
+     * neither this nor the caller's later writes to the rows (pending
+     * quantities) wait for a lock out of ascending order. Otherwise each
+     * product goes through reduceInventory and is reduced in full.
+     * 
+     * A quantity of 0 reduces nothing, but in ATOMIC mode its row is still
+     * locked; sharded products have no row to lock and are skipped.
+     * 
+     * @param quantities Map of productId to quantity to reduce
+     * @return Map of productId to quantity actually reduced
+     * @throws IllegalArgumentException outside ATOMIC mode, if any product has
+     *                                  insufficient inventory
+     */
+    public Map<Long, Long> reduceInventories(Map<Long, Long> quantities) {
+        Map<Long, Long> reduced = new TreeMap<>(quantities);
+        List<Map.Entry<Long, Long>> ordered = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        if (inventoryProperties.getUpdateMode() != UpdateMode.ATOMIC) {
+            ordered.stream()
+                    .filter(entry -> entry.getValue() > 0)
+                    .forEach(entry -> reduceInventory(entry.getKey(), entry.getValue()));
+            return reduced;
+        }
+
+        // Sharded products are not in the inventory row batch
+        ordered.removeIf(entry -> {
+            if (!isSharded(entry.getKey())) {
+                return false;
+            }
+            if (entry.getValue() > 0) {
+                reduceInventory(entry.getKey(), entry.getValue());
+            }
+            return true;
+        });
+        if (ordered.isEmpty()) {
+            return reduced;
+        }
+
+        int[] locked = jdbcTemplate.batchUpdate(BATCH_LOCK_SQL, ordered, ordered.size(),
+                (ps, entry) -> ps.setLong(1, entry.getKey()))[0];
+        int[] updated = jdbcTemplate.batchUpdate(BATCH_DECREMENT_SQL, ordered, ordered.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setLong(3, entry.getValue());
+        })[0];
+
+        for (int i = 0; i < updated.length; i++) {
+            Long productId = ordered.get(i).getKey();
+            if (locked[i] == 0 && shardedInventory.refresh(productId)) {
+                // Sharded since the filter above
+                if (ordered.get(i).getValue() > 0) {
+                    reduceInventory(productId, ordered.get(i).getValue());
+                }
+                continue;
+            }
+            if (locked[i] == 0) {
+                throw new ProductNotFoundException("Inventory not found for product: " + productId);
+            }
+            if (updated[i] == 0) {
+                reduced.put(productId, reduceAvailable(productId, ordered.get(i).getValue()));
+            }
+            if (reduced.get(productId) > 0) {
+                changed(InventoryLedger.EntryType.DECREASE, productId, reduced.get(productId));
+            }
+        }
+        log.info("Reduced inventory for {} products in one batch", ordered.size());
+        return reduced;
+    }
+
+    /**
+     * Moves quantity of a product from available to reserved inventory.
+     *
+     * Follows the update mode like reduceInventory: a locked (or
+     * version-checked) entity update, a single conditional UPDATE in ATOMIC
+     * mode, or a compare-and-set on the in-memory counter plus an UPDATE of
+     * the reserved column in IN_MEMORY mode.
+     *
+     * @throws InsufficientInventoryException if less than quantity is available
+     */
+    public void reserveInventory(Long productId, Long quantity) {
+        changed(InventoryLedger.EntryType.RESERVE, productId, quantity);
+        UpdateMode mode = inventoryProperties.getUpdateMode();
+        if (mode == UpdateMode.IN_MEMORY) {
+            try {
+                inMemoryInventory.decrement(productId, quantity);
+            } catch (IllegalArgumentException e) {
+                throw new InsufficientInventoryException(
+                        "Cannot reserve " + quantity + " of product " + productId + ": " + e.getMessage());
+            }
+            if (inventoryRepository.adjustReserved(productId, quantity) == 0) {
+                throw new ProductNotFoundException("Inventory not found for product: " + productId);
+            }
+        } else if (isSharded(productId) && reserveFromShards(productId, quantity)) {
+            return;
+        } else if (mode == UpdateMode.ATOMIC) {
+            if (inventoryRepository.reserveIfAvailable(productId, quantity) == 0) {
+                if (shardedInventory.refresh(productId) && reserveFromShards(productId, quantity)) {
+                    return;
+                }
+                if (!inventoryRepository.existsById(productId)) {
+                    throw new ProductNotFoundException("Inventory not found for product: " + productId);
+                }
+                throw new InsufficientInventoryException(
+                        "Cannot reserve " + quantity + " of product " + productId + ": insufficient quantity");
+            }
+        } else {
+            Inventory inventory = getInventoryForUpdate(productId);
+            if (inventory.getShardCount() > 0 && shardedInventory.refresh(productId)
+                    && reserveFromShards(productId, quantity)) {
+                return;
+            }
+            if (inventory.getAvailableQty() < quantity) {
+                throw new InsufficientInventoryException("Cannot reserve " + quantity + " of product "
+                        + productId + ": available=" + inventory.getAvailableQty());
+            }
+            inventory.setAvailableQty(inventory.getAvailableQty() - quantity);
+            inventory.setReservedQty(inventory.getReservedQty() + quantity);
+            inventoryRepository.save(inventory);
+        }
+        log.info("Reserved {} units of product {}", quantity, productId);
+    }
+
+    /**
+     * Moves quantity of a product from reserved back to available inventory,
+     * when a reservation is released or expires.
+     *
+     * @throws IllegalArgumentException if less than quantity is reserved
+     */
+    public void releaseReservedInventory(Long productId, Long quantity) {
+        changed(InventoryLedger.EntryType.RELEASE, productId, quantity);
+        UpdateMode mode = inventoryProperties.getUpdateMode();
+        if (mode == UpdateMode.IN_MEMORY) {
+            if (inventoryRepository.adjustReserved(productId, -quantity) == 0) {
+                throw reservedShortfall(productId, quantity);
+            }
+            inMemoryInventory.adjust(productId, quantity);
+        } else if (isSharded(productId) && releaseToShards(productId, quantity)) {
+            return;
+        } else if (mode == UpdateMode.ATOMIC) {
+            if (inventoryRepository.releaseReserved(productId, quantity) == 0) {
+                if (shardedInventory.refresh(productId) && releaseToShards(productId, quantity)) {
+                    return;
+                }
+                throw reservedShortfall(productId, quantity);
+            }
+        } else {
+            Inventory inventory = getInventoryForUpdate(productId);
+            if (inventory.getShardCount() > 0 && shardedInventory.refresh(productId)
+                    && releaseToShards(productId, quantity)) {
+                return;
+            }
+            if (inventory.getReservedQty() < quantity) {
+                throw reservedShortfall(productId, quantity);
+            }
+            inventory.setReservedQty(inventory.getReservedQty() - quantity);
+            inventory.setAvailableQty(inventory.getAvailableQty() + quantity);
+            inventoryRepository.save(inventory);
+        }
+        log.info("Released {} reserved units of product {}", quantity, productId);
+    }
+
+    /**
+     * Removes shipped quantities from reserved inventory, in ascending
+     * productId order. Counterpart of reduceInventories for stock that was
+     * reserved before the order was placed.
+     *
+     * @param quantities Map of productId to shipped reserved quantity
+     * @throws IllegalArgumentException if any product has less reserved
+     */
+    public void consumeReservedInventories(Map<Long, Long> quantities) {
+        UpdateMode mode = inventoryProperties.getUpdateMode();
+        for (Map.Entry<Long, Long> entry : new TreeMap<>(quantities).entrySet()) {
+            Long productId = entry.getKey();
+            Long quantity = entry.getValue();
+            changed(InventoryLedger.EntryType.CONSUME, productId, quantity);
+            if (mode == UpdateMode.ATOMIC || mode == UpdateMode.IN_MEMORY) {
+                if (inventoryRepository.adjustReserved(productId, -quantity) == 0) {
+                    throw reservedShortfall(productId, quantity);
+                }
+            } else {
+                Inventory inventory = getInventoryForUpdate(productId);
+                if (inventory.getReservedQty() < quantity) {
+                    throw reservedShortfall(productId, quantity);
+                }
+                inventory.setReservedQty(inventory.getReservedQty() - quantity);
+                inventoryRepository.save(inventory);
+            }
+        }
+    }
+
+    /**
+     * Adds delta to the quantity of a product promised to pending order
+     * items. Called in the transaction that creates, shrinks or removes a
+     * pending item, so available-to-promise never needs a backlog scan.
+     */
+    public void adjustPendingQuantity(Long productId, long delta) {
+        if (delta != 0) {
+            inventoryRepository.adjustPending(productId, delta);
+        }
+    }
+
+    /**
+     * Applies adjustPendingQuantity for several products as one JDBC batch,
+     * in ascending productId order like reduceInventories.
+     *
+     * @param deltas Map of productId to pending quantity delta
+     */
+    public void adjustPendingQuantities(Map<Long, Long> deltas) {
+        List<Map.Entry<Long, Long>> ordered = new TreeMap<>(deltas).entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .toList();
+        if (ordered.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(BATCH_PENDING_SQL, ordered, ordered.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+        });
+    }
+
+    /**
+     * Available-to-promise of the given products in one query: available
+     * quantity (in-memory counter or shard sum where applicable) minus the
+     * quantity promised to pending order items. Unknown products are left
+     * out.
+     */
+    @Transactional(readOnly = true)
+    public List<AvailableToPromiseDTO> getAvailableToPromise(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(new TreeSet<>(productIds));
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        List<long[]> rows = jdbcTemplate.query("SELECT product_id, available_qty, pending_qty FROM inventory "
+                        + "WHERE product_id IN (" + placeholders + ") ORDER BY product_id",
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2), rs.getLong(3)}, ids.toArray());
+
+        boolean inMemory = inventoryProperties.getUpdateMode() == UpdateMode.IN_MEMORY;
+        Map<Long, Long> shardTotals = inMemory ? Map.of()
+                : shardedInventory.getAvailable(ids.stream().filter(shardedInventory::isSharded).toList());
+        return rows.stream()
+                .map(row -> {
+                    long available = inMemory ? inMemoryInventory.get(row[0])
+                            : row[1] + shardTotals.getOrDefault(row[0], 0L);
+                    return AvailableToPromiseDTO.builder()
+                            .productId(row[0])
+                            .availableQty(available)
+                            .pendingQty(row[2])
+                            .atpQty(Math.max(0, available - row[2]))
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    private IllegalArgumentException reservedShortfall(Long productId, Long quantity) {
+        return new IllegalArgumentException(
+                "Cannot release reserved inventory: less than " + quantity + " reserved for product " + productId);
+    }
+
+    /**
+     * Records a change in the ledger and marks the inventory snapshot stale.
+     * Called before the change is made: a change that fails throws out of
+     * this transactional service, so its transaction cannot commit and the
+     * ledger entry is discarded with it.
+     */
+    private void changed(InventoryLedger.EntryType type, Long productId, Long quantity) {
+        inventoryLedger.record(type, productId, quantity);
+        inventorySnapshotPublisher.markChanged();
+    }
+
+    /**
+     * Whether a product's available quantity lives in inventory shards;
+     * IN_MEMORY mode keeps its own counters and does not use shards.
+     */
+    private boolean isSharded(Long productId) {
+        return inventoryProperties.getUpdateMode() != UpdateMode.IN_MEMORY && shardedInventory.isSharded(productId);
+    }
+
+    /**
+     * Takes quantity from a product's shards.
+     *
+     * @return false if the product turned out not to be sharded
+     */
+    private boolean takeFromShards(Long productId, Long quantity) {
+        if (!shardedInventory.take(productId, quantity)) {
+            return false;
+        }
+        log.info("Reduced sharded inventory for product {} by {}", productId, quantity);
+        return true;
+    }
+
+    /**
+     * Adds quantity to one of a product's shards.
+     *
+     * @return false if the product turned out not to be sharded
+     */
+    private boolean addToShards(Long productId, Long quantity) {
+        if (!shardedInventory.add(productId, quantity)) {
+            return false;
+        }
+        log.info("Increased sharded inventory for product {} by {}", productId, quantity);
+        return true;
+    }
+
+    /**
+     * Takes quantity from a product's shards and reserves it on the
+     * inventory row.
+     *
+     * @return false if the product turned out not to be sharded
+     */
+    private boolean reserveFromShards(Long productId, Long quantity) {
+        try {
+            if (!shardedInventory.take(productId, quantity)) {
+                return false;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InsufficientInventoryException(
+                    "Cannot reserve " + quantity + " of product " + productId + ": " + e.getMessage());
+        }
+        inventoryRepository.adjustReserved(productId, quantity);
+        log.info("Reserved {} units of sharded product {}", quantity, productId);
+        return true;
+    }
+
+    /**
+     * Releases quantity reserved on the inventory row back to one of the
+     * product's shards.
+     *
+     * @return false if the product turned out not to be sharded
+     */
+    private boolean releaseToShards(Long productId, Long quantity) {
+        if (!shardedInventory.add(productId, quantity)) {
+            return false;
+        }
+        if (inventoryRepository.adjustReserved(productId, -quantity) == 0) {
+            throw reservedShortfall(productId, quantity);
+        }
+        log.info("Released {} reserved units of sharded product {}", quantity, productId);
+        return true;
+    }
+
+    /**
+     * Takes what a product has left after its conditional decrement in the
+     * batch matched no row. The batch holds the row's lock, so the quantity
+     * read cannot change before the decrement.
+     *
+     * @return The quantity taken, possibly 0
+     */
+    private long reduceAvailable(Long productId, long quantity) {
+        long take = Math.min(quantity, inventoryRepository.findAvailableQty(productId).orElse(0L));
+        if (take <= 0) {
+            log.info("No inventory left for product {}; {} units go to backorder", productId, quantity);
+            return 0;
+        }
+        inventoryRepository.decrementIfAvailable(productId, take);
+        log.info("Reduced inventory for product {} by {} of {}; the rest goes to backorder",
+                productId, take, quantity);
+        return take;
+    }
+
+    /**
+     * Explains why a conditional decrement matched no row.
+     */
+    private RuntimeException atomicDecrementFailure(Long productId, Long quantity) {
+        if (!inventoryRepository.existsById(productId)) {
+            return new ProductNotFoundException("Inventory not found for product: " + productId);
+        }
+        return new IllegalArgumentException(
+                "Cannot reduce inventory: insufficient quantity for product " + productId
+                        + ", requested=" + quantity);
+    }
+
     /**
      * Gets the product details associated with inventory.
+     * Served from the product catalog cache.
      */
     public Product getProductDetails(Long productId) {
-        return productRepository.findById(productId)
+        return productCatalogCache.getProduct(productId)
                 .orElseThrow(() -> new ProductNotFoundException(
                         "Product not found: " + productId));
     }
@@ -167,23 +649,146 @@ public class InventoryService {
 
         // Load all inventory records in one query (with optional locking)
         List<Inventory> inventories = withLock
-                ? inventoryRepository.findByProductIdInWithLock(productIds)
+                ? lockInventories(productIds)
                 : inventoryRepository.findByProductIdIn(productIds);
 
         Map<Long, Inventory> inventoryMap = inventories.stream()
                 .collect(Collectors.toMap(Inventory::getProductId, inv -> inv));
 
-        // Load all products in one query
-        List<Product> products = productRepository.findAllById(productIds);
+        // Load all products from the catalog cache (misses in one query)
+        Collection<Product> products = productCatalogCache.getProducts(productIds).values();
+
+        // Sharded products sum their shards; the loaded rows catch a stale routing copy
+        Map<Long, Long> shardTotals = shardedInventory.getAvailable(productIds.stream()
+                .filter(id -> isSharded(id) || inventoryMap.containsKey(id) && inventoryMap.get(id).getShardCount() > 0)
+                .distinct().toList());
 
         // Combine product and inventory data
+        boolean inMemory = inventoryProperties.getUpdateMode() == UpdateMode.IN_MEMORY;
         return products.stream()
                 .collect(Collectors.toMap(
                         Product::getProductId,
                         product -> new ProductInventoryData(
                                 product,
-                                inventoryMap.getOrDefault(product.getProductId(), new Inventory())
-                                        .getAvailableQty())));
+                                inMemory && inventoryMap.containsKey(product.getProductId())
+                                        ? inMemoryInventory.get(product.getProductId())
+                                        : shardTotals.containsKey(product.getProductId())
+                                                ? shardTotals.get(product.getProductId())
+                                                : inventoryMap.getOrDefault(product.getProductId(),
+                                                        new Inventory()).getAvailableQty())));
+    }
+
+    /**
+     * Acquires pessimistic write locks on a set of inventory records in
+     * ascending productId order.
+     *
+     * Callers should pass every product the transaction will touch up front
+     * (the lock plan) so that all row locks are taken in one globally
+     * consistent order, which rules out lock-order deadlocks between
+     * concurrent orders and restocks. Rows already locked by the current
+     * transaction are reused rather than re-queried; later calls to
+     * reduceInventory, increaseInventory and getProductsWithInventory(ids, true)
+     * reuse the same locked entities.
+     *
+     * In ATOMIC, OPTIMISTIC and IN_MEMORY update modes no row locks are
+     * taken; the records are read without locking since every write checks
+     * for itself (conditional UPDATE, version check or compare-and-set).
+     * Sharded products are never locked here either: their writes lock a
+     * single shard (see ShardedInventory), and they are left out of the
+     * result.
+     *
+     * Lock waits, timeouts and hold times are recorded per product by
+     * InventoryLockStats.
+     *
+     * @param productIds Product IDs to lock
+     * @return Locked inventory records, ordered by productId
+     */
+    public List<Inventory> lockInventories(Collection<Long> productIds) {
+        if (inventoryProperties.getUpdateMode() != UpdateMode.PESSIMISTIC) {
+            return inventoryRepository.findByProductIdIn(new ArrayList<>(new TreeSet<>(productIds)));
+        }
+
+        NavigableMap<Long, Inventory> locked = currentLocks();
+        SortedSet<Long> toLock = new TreeSet<>(productIds);
+        toLock.removeIf(this::isSharded);
+        if (locked != null) {
+            toLock.removeAll(locked.keySet());
+        }
+
+        if (!toLock.isEmpty()) {
+            if (locked != null && !locked.isEmpty() && toLock.first() < locked.lastKey()) {
+                log.debug("Locking products {} after higher product IDs {} - not covered by the lock plan",
+                        toLock, locked.keySet());
+            }
+            List<Inventory> acquired = inventoryLockStats.acquire(toLock,
+                    () -> inventoryRepository.findByProductIdInWithLock(new ArrayList<>(toLock)));
+            if (locked == null) {
+                return acquired;
+            }
+            acquired.forEach(inventory -> locked.put(inventory.getProductId(), inventory));
+        }
+
+        return new TreeSet<>(productIds).stream()
+                .map(locked::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the inventory record to modify: an unlocked, version-checked
+     * read in OPTIMISTIC mode, otherwise the pessimistically locked record.
+     */
+    private Inventory getInventoryForUpdate(Long productId) {
+        if (inventoryProperties.getUpdateMode() == UpdateMode.OPTIMISTIC) {
+            return getInventory(productId);
+        }
+        return getLockedInventory(productId);
+    }
+
+    /**
+     * Returns the locked inventory record for a product, acquiring the lock
+     * only if the current transaction does not already hold it.
+     */
+    private Inventory getLockedInventory(Long productId) {
+        NavigableMap<Long, Inventory> locked = currentLocks();
+        Inventory inventory = locked != null ? locked.get(productId) : null;
+        if (inventory != null) {
+            return inventory;
+        }
+
+        inventory = inventoryLockStats.acquire(List.of(productId),
+                        () -> inventoryRepository.findByIdWithLock(productId))
+                .orElseThrow(() -> new ProductNotFoundException(
+                        "Inventory not found for product: " + productId));
+        if (locked != null) {
+            locked.put(productId, inventory);
+        }
+        return inventory;
+    }
+
+    /**
+     * Returns the inventory rows locked by the current transaction, or null
+     * when no transaction synchronization is active.
+     */
+    @SuppressWarnings("unchecked")
+    private NavigableMap<Long, Inventory> currentLocks() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+
+        NavigableMap<Long, Inventory> locked = (NavigableMap<Long, Inventory>) TransactionSynchronizationManager
+                .getResource(LOCKED_INVENTORY_KEY);
+        if (locked == null) {
+            locked = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(LOCKED_INVENTORY_KEY, locked);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LOCKED_INVENTORY_KEY);
+                }
+            });
+        }
+        return locked;
     }
 
     /**
@@ -0,0 +1,249 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.config.InventoryProperties;
+import com.inventory.config.InventoryProperties.UpdateMode;
+import com.inventory.dto.ApiResponseDTO;
+import com.inventory.dto.InventoryLevelDTO;
+import com.inventory.dto.InventorySnapshotDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InventorySnapshotPublisher - Publishes an immutable snapshot of every
+ * product's available quantity for polling clients (GET /v1/inventory).
+ *
+ * Writers only bump a change counter (markChanged, applied when their
+ * transaction commits). A background thread rebuilds the snapshot at most
+ * every refresh interval when the counter moved, and at least every max age
+ * regardless, to pick up writes that bypass InventoryService. A rebuild is
+ * one query over inventory and inventory_shards; in IN_MEMORY mode the
+ * in-memory counters override the table.
+ *
+ * A new snapshot replaces the old one by a single volatile write
+ * (copy-on-write), so readers never lock or see a half-built snapshot. The
+ * version only changes when some quantity changed, and the full JSON
+ * response is serialized once per version, so an unchanged poll answered
+ * with 304 Not Modified costs no query and no serialization.
+ */
+@Service
+@Slf4j
+public class InventorySnapshotPublisher {
+
+    private static final String SNAPSHOT_SQL = "SELECT i.product_id, i.available_qty + COALESCE(s.qty, 0) "
+            + "FROM inventory i LEFT JOIN (SELECT product_id, SUM(available_qty) AS qty "
+            + "FROM inventory_shards GROUP BY product_id) s ON s.product_id = i.product_id "
+            + "ORDER BY i.product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InMemoryInventory inMemoryInventory;
+    private final ObjectMapper objectMapper;
+    private final InventoryProperties inventoryProperties;
+    private final InventoryProperties.Snapshot config;
+
+    /** Distinguishes ETags of different application runs. */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+    private volatile Snapshot current;
+    private volatile long refreshedChanges;
+    private volatile long refreshedNanos;
+    private ScheduledExecutorService publisher;
+
+    public InventorySnapshotPublisher(JdbcTemplate jdbcTemplate, InMemoryInventory inMemoryInventory,
+            ObjectMapper objectMapper, InventoryProperties inventoryProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inMemoryInventory = inMemoryInventory;
+        this.objectMapper = objectMapper;
+        this.inventoryProperties = inventoryProperties;
+        this.config = inventoryProperties.getSnapshot();
+    }
+
+    @PostConstruct
+    public void start() {
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-snapshot-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleWithFixedDelay(this::refreshIfStale, config.getRefreshIntervalMs(),
+                config.getRefreshIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (publisher != null) {
+            publisher.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the current snapshot, building the first one on demand.
+     */
+    public Snapshot getSnapshot() {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    /**
+     * Records that available quantities changed. Inside a transaction the
+     * change counts once the transaction commits; rolled-back work does not
+     * trigger a rebuild.
+     */
+    public void markChanged() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changes.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changes.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the snapshot now. Keeps the current version when no quantity
+     * differs.
+     */
+    public synchronized Snapshot refresh() {
+        long seenChanges = changes.get();
+        List<long[]> rows = jdbcTemplate.query(SNAPSHOT_SQL,
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)});
+        long[] productIds = new long[rows.size()];
+        long[] available = new long[rows.size()];
+        Map<Long, Long> tracked = inventoryProperties.getUpdateMode() == UpdateMode.IN_MEMORY
+                ? inMemoryInventory.getTracked() : Map.of();
+        for (int i = 0; i < rows.size(); i++) {
+            productIds[i] = rows.get(i)[0];
+            available[i] = tracked.getOrDefault(productIds[i], rows.get(i)[1]);
+        }
+
+        Snapshot previous = current;
+        if (previous == null || !Arrays.equals(previous.productIds, productIds)
+                || !Arrays.equals(previous.available, available)) {
+            long version = previous != null ? previous.version + 1 : 1;
+            Snapshot snapshot = new Snapshot(version, "\"" + epoch + "-" + version + "\"", LocalDateTime.now(),
+                    productIds, available);
+            // Serialized before publishing; the volatile write makes it visible
+            snapshot.body = serialize(snapshot.toDTO(null));
+            current = snapshot;
+            log.debug("Published inventory snapshot version {} with {} products", version, productIds.length);
+        }
+        refreshedChanges = seenChanges;
+        refreshedNanos = System.nanoTime();
+        return current;
+    }
+
+    /**
+     * Rebuilds the snapshot if inventory changed since the last build or the
+     * snapshot reached its maximum age.
+     */
+    void refreshIfStale() {
+        try {
+            if (current == null || changes.get() != refreshedChanges
+                    || System.nanoTime() - refreshedNanos >= TimeUnit.MILLISECONDS.toNanos(config.getMaxAgeMs())) {
+                refresh();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Inventory snapshot refresh failed", e);
+        }
+    }
+
+    private byte[] serialize(InventorySnapshotDTO snapshot) {
+        try {
+            return objectMapper.writeValueAsBytes(ApiResponseDTO.<InventorySnapshotDTO>builder()
+                    .success(true)
+                    .message("Inventory retrieved successfully")
+                    .data(snapshot)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize inventory snapshot", e);
+        }
+    }
+
+    /**
+     * One published version of the available quantities, ordered by product
+     * ID. Never modified once published.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final String etag;
+        private final LocalDateTime publishedAt;
+        private final long[] productIds;
+        private final long[] available;
+        private byte[] body;
+
+        private Snapshot(long version, String etag, LocalDateTime publishedAt, long[] productIds, long[] available) {
+            this.version = version;
+            this.etag = etag;
+            this.publishedAt = publishedAt;
+            this.productIds = productIds;
+            this.available = available;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Quoted entity tag of this version.
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * The complete API response for this version, serialized as JSON.
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * Available quantity of a product, or null if the snapshot does not
+         * contain it.
+         */
+        public Long getAvailableQty(Long productId) {
+            int index = Arrays.binarySearch(productIds, productId);
+            return index >= 0 ? available[index] : null;
+        }
+
+        /**
+         * Builds the response data for the given products, or for all
+         * products when productIds is null. Unknown products are left out.
+         */
+        public InventorySnapshotDTO toDTO(Collection<Long> productIds) {
+            List<InventoryLevelDTO> items = new ArrayList<>();
+            if (productIds == null) {
+                for (int i = 0; i < this.productIds.length; i++) {
+                    items.add(new InventoryLevelDTO(this.productIds[i], available[i]));
+                }
+            } else {
+                for (Long productId : new TreeSet<>(productIds)) {
+                    int index = Arrays.binarySearch(this.productIds, productId);
+                    if (index >= 0) {
+                        items.add(new InventoryLevelDTO(productId, available[index]));
+                    }
+                }
+            }
+            return InventorySnapshotDTO.builder()
+                    .version(version)
+                    .publishedAt(publishedAt)
+                    .items(items)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.config.InventoryProperties.UpdateMode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * OptimisticRetry - Re-runs a transactional operation when an optimistic
+ * version check fails.
+ *
+ * Only active in OPTIMISTIC update mode. The operation must start its own
+ * transaction (e.g. a call into a @Transactional service from outside any
+ * transaction), because a transaction that hit a version conflict is
+ * rolled back and cannot be reused. When called inside an existing
+ * transaction the operation runs once and the conflict propagates to the
+ * outermost caller.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OptimisticRetry {
+
+    private final InventoryProperties properties;
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    /**
+     * Runs the operation, retrying on optimistic locking failures with
+     * exponential, jittered and bounded backoff.
+     *
+     * @param operation Operation that opens its own transaction
+     * @return The operation's result
+     * @throws OptimisticLockingFailureException if every attempt conflicted
+     */
+    public <T> T execute(Supplier<T> operation) {
+        if (properties.getUpdateMode() != UpdateMode.OPTIMISTIC
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return operation.get();
+        }
+
+        InventoryProperties.Optimistic config = properties.getOptimistic();
+        for (int attempt = 1;; attempt++) {
+            try {
+                return operation.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt >= config.getMaxAttempts()) {
+                    exhausted.increment();
+                    throw e;
+                }
+                long backoff = Math.min(config.getMaxBackoffMs(), config.getInitialBackoffMs() << (attempt - 1));
+                log.debug("Optimistic conflict on attempt {}; retrying in <= {} ms", attempt, backoff);
+                sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+            }
+        }
+    }
+
+    /**
+     * Runs an operation without a result under the same retry policy.
+     */
+    public void run(Runnable operation) {
+        execute(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Version conflicts seen so far, including ones that were retried.
+     */
+    public long getConflictCount() {
+        return conflicts.sum();
+    }
+
+    /**
+     * Operations that still conflicted after the last attempt.
+     */
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during optimistic retry backoff", e);
+        }
+    }
+}
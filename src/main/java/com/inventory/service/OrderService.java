@@ -1,13 +1,21 @@
 package com.inventory.service;
 
+import com.inventory.dto.OrderItemDTO;
+import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderPreviewDTO;
 import com.inventory.dto.OrderRequestDTO;
+import com.inventory.dto.ShipmentPlanDTO;
+import com.inventory.dto.ShippedItemDTO;
 import com.inventory.entity.*;
 import com.inventory.exception.OrderNotFoundException;
 import com.inventory.exception.ProductNotFoundException;
 import com.inventory.repository.*;
+import com.inventory.util.ShipmentPackagingOptimizer;
+import com.inventory.util.ShipmentPackagingOptimizer.ShipmentPackage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -27,18 +35,32 @@ public class OrderService {
     private final PendingOrderItemRepository pendingOrderItemRepository;
     private final InventoryService inventoryService;
     private final ShipmentService shipmentService;
+    private final InventorySnapshotPublisher inventorySnapshotPublisher;
+    private final ProductCatalogCache productCatalogCache;
 
     /**
      * Processes a new order.
      * 
      * Flow:
      * 1. Validate all products exist in inventory
-     * 2. Create order and order items
-     * 3. Create shipments for available inventory
-     * 4. Create pending order items for unfulfilled portions
-     * 5. Update order status
+     * 2. Lock the inventory of every requested product in ascending order
+     * 3. Create order and order items
+     * 4. Create shipments for available inventory
+     * 5. Create pending order items for unfulfilled portions
+     * 6. Update order status
      */
     public Order processOrder(OrderRequestDTO orderRequest) {
+        return processOrder(orderRequest, Map.of());
+    }
+
+    /**
+     * Processes a new order whose stock was reserved beforehand (see
+     * ReservationService.confirm). Reserved quantities are shipped from
+     * reserved inventory; the flow is otherwise that of processOrder.
+     *
+     * @param reservedQuantities Map of productId to quantity reserved for this order
+     */
+    public Order processOrder(OrderRequestDTO orderRequest, Map<Long, Long> reservedQuantities) {
         Long orderId = orderRequest.getOrderId();
 
         log.info("Processing order {}", orderId);
@@ -51,6 +73,12 @@ public class OrderService {
             }
         }
 
+        // Lock plan: take every row lock up front, in ascending productId order;
+        // shipment creation reuses these locks instead of re-acquiring them
+        inventoryService.lockInventories(orderRequest.getRequested().stream()
+                .map(OrderItemRequestDTO::getProductId)
+                .toList());
+
         // Create order
         Order order = Order.builder()
                 .orderId(orderId)
@@ -78,11 +106,15 @@ public class OrderService {
         log.info("Created {} order items for order {}", orderItems.size(), orderId);
 
         // Create shipments for available inventory
-        List<Shipment> shipments = shipmentService.createShipments(orderId, orderItems, order, orderItemRepository);
+        List<Shipment> shipments = reservedQuantities.isEmpty()
+                ? shipmentService.createShipments(orderId, orderItems, order, orderItemRepository)
+                : shipmentService.createShipments(orderId, orderItems, order, orderItemRepository,
+                        reservedQuantities);
         log.info("Created {} shipments for order {}", shipments.size(), orderId);
 
         // Create pending order items for unfulfilled portions
         List<OrderItem> updatedItems = orderItemRepository.findByOrderId(orderId);
+        Map<Long, Long> pendingDeltas = new TreeMap<>();
         for (OrderItem item : updatedItems) {
             long pendingQty = item.getRequestedQty() - item.getFulfilledQty();
             if (pendingQty > 0) {
@@ -93,9 +125,13 @@ public class OrderService {
                         .createdAt(LocalDateTime.now())
                         .build();
                 pendingOrderItemRepository.save(pending);
+                pendingDeltas.merge(item.getProductId(), pendingQty, Long::sum);
                 log.info("Created pending item for product {} with qty {}", item.getProductId(), pendingQty);
             }
         }
+        // One ascending batch, like the decrements: in ATOMIC mode each row is
+        // locked by its first write, so concurrent orders cannot deadlock
+        inventoryService.adjustPendingQuantities(pendingDeltas);
 
         // Update order status based on fulfillment
         updateOrderStatus(orderId);
@@ -103,6 +139,75 @@ public class OrderService {
         return orderRepository.findById(orderId).orElseThrow();
     }
 
+    /**
+     * Computes what processOrder would ship right now, without locks or
+     * writes.
+     *
+     * Quantities come from the published inventory snapshot and masses from
+     * the product catalog cache, so a preview runs no transaction, takes no
+     * row lock and usually no query at all; it never waits for or delays
+     * real orders. The snapshot may trail the latest commits by its refresh
+     * interval. Lines for the same product share its available quantity,
+     * and the packing plan comes from the same optimizer as real shipments.
+     *
+     * @throws ProductNotFoundException if a product is not in the snapshot
+     *                                  or the catalog
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderPreviewDTO previewOrder(OrderRequestDTO orderRequest) {
+        InventorySnapshotPublisher.Snapshot snapshot = inventorySnapshotPublisher.getSnapshot();
+        Map<Long, Product> products = productCatalogCache.getProducts(orderRequest.getRequested().stream()
+                .map(OrderItemRequestDTO::getProductId)
+                .toList());
+
+        Map<Long, Long> availableLeft = new HashMap<>();
+        List<OrderItemDTO> items = new ArrayList<>();
+        List<ShipmentPackagingOptimizer.ShipmentItem> itemsToPack = new ArrayList<>();
+        for (OrderItemRequestDTO requested : orderRequest.getRequested()) {
+            Long productId = requested.getProductId();
+            Long available = snapshot.getAvailableQty(productId);
+            Product product = products.get(productId);
+            if (available == null || product == null) {
+                throw new ProductNotFoundException("Product not found in inventory: " + productId);
+            }
+
+            long left = availableLeft.getOrDefault(productId, available);
+            long toShip = Math.max(0, Math.min(left, requested.getQuantity()));
+            availableLeft.put(productId, left - toShip);
+            if (toShip > 0) {
+                itemsToPack.add(new ShipmentPackagingOptimizer.ShipmentItem(productId, toShip, product.getMassG()));
+            }
+            items.add(OrderItemDTO.builder()
+                    .productId(productId)
+                    .requestedQty(requested.getQuantity())
+                    .fulfilledQty(toShip)
+                    .status(toShip >= requested.getQuantity() ? "FULFILLED"
+                            : toShip > 0 ? "PARTIALLY_FULFILLED" : "PENDING")
+                    .build());
+        }
+
+        List<ShipmentPlanDTO> shipments = new ArrayList<>();
+        if (!itemsToPack.isEmpty()) {
+            for (ShipmentPackage pkg : ShipmentPackagingOptimizer.optimizePackaging(itemsToPack)) {
+                shipments.add(ShipmentPlanDTO.builder()
+                        .totalWeightG(pkg.totalWeightG)
+                        .items(pkg.items.stream()
+                                .map(item -> new ShippedItemDTO(item.productId, item.quantity))
+                                .toList())
+                        .build());
+            }
+        }
+
+        long fulfilledCount = items.stream().filter(item -> "FULFILLED".equals(item.getStatus())).count();
+        return OrderPreviewDTO.builder()
+                .status(fulfilledCount == items.size() ? "FULFILLED"
+                        : fulfilledCount > 0 ? "PARTIALLY_FULFILLED" : "PENDING")
+                .snapshotVersion(snapshot.getVersion())
+                .items(items)
+                .shipments(shipments)
+                .build();
+    }
+
     /**
      * Updates order status based on the fulfillment of order items.
      * Status logic:
@@ -138,6 +243,40 @@ public class OrderService {
         log.info("Updated order {} status to {}", orderId, newStatus);
     }
 
+    /**
+     * Shrinks or removes an order's pending items to what its order items
+     * still lack after shipping, keeping the products' pending totals in
+     * step. Several pending items of one product share what its lines lack,
+     * in order.
+     *
+     * @return Pending items still outstanding
+     */
+    public List<PendingOrderItem> settlePendingItems(Long orderId) {
+        Map<Long, Long> outstanding = new HashMap<>();
+        for (OrderItem item : orderItemRepository.findByOrderId(orderId)) {
+            outstanding.merge(item.getProductId(), item.getRequestedQty() - item.getFulfilledQty(), Long::sum);
+        }
+
+        List<PendingOrderItem> remaining = new ArrayList<>();
+        for (PendingOrderItem pending : pendingOrderItemRepository.findByOrderId(orderId)) {
+            long left = Math.max(0,
+                    Math.min(pending.getPendingQty(), outstanding.getOrDefault(pending.getProductId(), 0L)));
+            // Lines of the same product each settle against what the others left
+            outstanding.merge(pending.getProductId(), -left, Long::sum);
+            inventoryService.adjustPendingQuantity(pending.getProductId(), left - pending.getPendingQty());
+            if (left <= 0) {
+                pendingOrderItemRepository.delete(pending);
+            } else {
+                if (left != pending.getPendingQty()) {
+                    pending.setPendingQty(left);
+                    pendingOrderItemRepository.save(pending);
+                }
+                remaining.add(pending);
+            }
+        }
+        return remaining;
+    }
+
     /**
      * Updates order status to COMPLETED when all pending items are fulfilled.
      */
@@ -0,0 +1,263 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderRequestDTO;
+import com.inventory.dto.OrderStreamResultDTO;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * OrderStreamProcessor - Processes a stream of newline-delimited
+ * OrderRequestDTOs and writes one OrderStreamResultDTO line per order.
+ *
+ * Two stages overlap: a parser thread reads, parses and validates the next
+ * chunk (one catalog lookup per chunk for every product it names) while the
+ * calling thread processes the current chunk's orders through OrderService
+ * and writes their results, flushing after each chunk. Chunks are handed
+ * over through a queue of inventory.order-stream.pipeline-depth chunks, so
+ * memory use is bounded by chunk size and depth, not by the length of the
+ * stream; the parser waits when processing falls behind.
+ *
+ * Each order is its own transaction, exactly as with /v1/process_order, so
+ * one rejected order does not affect the others. Malformed lines and
+ * invalid orders are reported in place and skipped.
+ */
+@Service
+@Slf4j
+public class OrderStreamProcessor {
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final OrderService orderService;
+    private final SequencedInventoryEngine sequencedInventoryEngine;
+    private final OptimisticRetry optimisticRetry;
+    private final ProductCatalogCache productCatalogCache;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final ObjectReader orderReader;
+    private final InventoryProperties.OrderStream config;
+    private final ExecutorService parsers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "order-stream-parser");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderStreamProcessor(OrderService orderService, SequencedInventoryEngine sequencedInventoryEngine,
+            OptimisticRetry optimisticRetry, ProductCatalogCache productCatalogCache, ObjectMapper objectMapper,
+            EntityManager entityManager, InventoryProperties inventoryProperties) {
+        this.orderService = orderService;
+        this.sequencedInventoryEngine = sequencedInventoryEngine;
+        this.optimisticRetry = optimisticRetry;
+        this.productCatalogCache = productCatalogCache;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.orderReader = objectMapper.readerFor(OrderRequestDTO.class);
+        this.config = inventoryProperties.getOrderStream();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsers.shutdownNow();
+    }
+
+    /**
+     * Processes every order of the input, in order, writing each result as a
+     * JSON line to the output.
+     *
+     * @throws IOException if reading the input or writing a result fails;
+     *                     orders already processed stay processed
+     */
+    public void process(InputStream input, OutputStream output) throws IOException {
+        BlockingQueue<List<ParsedOrder>> chunks = new ArrayBlockingQueue<>(config.getPipelineDepth());
+        AtomicReference<IOException> readFailure = new AtomicReference<>();
+        Future<?> parser = parsers.submit(() -> parse(input, chunks, readFailure));
+        long accepted = 0;
+        long rejected = 0;
+        long begin = System.nanoTime();
+        try {
+            List<ParsedOrder> chunk;
+            while (!(chunk = chunks.take()).isEmpty()) {
+                for (ParsedOrder order : chunk) {
+                    OrderStreamResultDTO result = order.rejection != null ? order.rejection : apply(order);
+                    if (result.getSuccess()) {
+                        accepted++;
+                    } else {
+                        rejected++;
+                    }
+                    output.write(objectMapper.writeValueAsBytes(result));
+                    output.write(NEWLINE);
+                }
+                output.flush();
+                // With open-session-in-view the request's persistence context outlives each
+                // order's transaction; without this it keeps every entity of the stream
+                entityManager.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing the order stream", e);
+        } finally {
+            // Stops the parser if processing ended early
+            parser.cancel(true);
+        }
+        if (readFailure.get() != null) {
+            throw readFailure.get();
+        }
+        log.info("Order stream: {} orders processed, {} rejected in {} ms", accepted, rejected,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+    }
+
+    /**
+     * Parser stage: reads and validates chunks until the input ends, then
+     * queues an empty chunk as the end marker.
+     */
+    private void parse(InputStream input, BlockingQueue<List<ParsedOrder>> chunks,
+            AtomicReference<IOException> readFailure) {
+        try {
+            try {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+                long lineNumber = 0;
+                List<ParsedOrder> chunk = new ArrayList<>(config.getChunkSize());
+                String line;
+                try {
+                    while ((line = reader.readLine()) != null) {
+                        lineNumber++;
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        chunk.add(parseLine(lineNumber, line));
+                        if (chunk.size() == config.getChunkSize()) {
+                            chunks.put(validate(chunk));
+                            chunk = new ArrayList<>(config.getChunkSize());
+                        }
+                    }
+                } catch (IOException e) {
+                    // Orders read before the failure are still processed
+                    readFailure.set(e);
+                }
+                if (!chunk.isEmpty()) {
+                    chunks.put(validate(chunk));
+                }
+            } catch (RuntimeException e) {
+                log.error("Order stream parser failed", e);
+                readFailure.set(new IOException("Failed to parse the order stream: " + e.getMessage(), e));
+            }
+            // Always ends the stream, so the consumer never waits forever
+            chunks.put(List.of());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ParsedOrder parseLine(long lineNumber, String line) {
+        try {
+            OrderRequestDTO request = orderReader.readValue(line);
+            return request != null ? new ParsedOrder(lineNumber, request, null)
+                    : new ParsedOrder(lineNumber, null, rejection(lineNumber, null, "Expected an order object"));
+        } catch (JsonProcessingException e) {
+            return new ParsedOrder(lineNumber, null, rejection(lineNumber, null, e.getOriginalMessage()));
+        }
+    }
+
+    /**
+     * Rejects orders that are incomplete or name unknown products, looking
+     * all of the chunk's products up at once.
+     */
+    private List<ParsedOrder> validate(List<ParsedOrder> chunk) {
+        Set<Long> productIds = new HashSet<>();
+        for (ParsedOrder order : chunk) {
+            if (order.rejection == null && order.request.getRequested() != null) {
+                order.request.getRequested().forEach(item -> {
+                    if (item.getProductId() != null) {
+                        productIds.add(item.getProductId());
+                    }
+                });
+            }
+        }
+        Set<Long> known = productIds.isEmpty() ? Set.of() : productCatalogCache.getProducts(productIds).keySet();
+
+        List<ParsedOrder> validated = new ArrayList<>(chunk.size());
+        for (ParsedOrder order : chunk) {
+            String problem = order.rejection == null ? problem(order.request, known) : null;
+            validated.add(problem == null ? order : new ParsedOrder(order.line, order.request,
+                    rejection(order.line, order.request.getOrderId(), problem)));
+        }
+        return validated;
+    }
+
+    private static String problem(OrderRequestDTO request, Set<Long> knownProducts) {
+        if (request.getOrderId() == null) {
+            return "Order ID is required";
+        }
+        if (request.getRequested() == null || request.getRequested().isEmpty()) {
+            return "Order has no items";
+        }
+        for (OrderItemRequestDTO item : request.getRequested()) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                return "Product ID and a positive quantity are required for every item";
+            }
+            if (!knownProducts.contains(item.getProductId())) {
+                return "Product not found in inventory: " + item.getProductId();
+            }
+        }
+        return null;
+    }
+
+    private OrderStreamResultDTO apply(ParsedOrder order) {
+        OrderRequestDTO request = order.request;
+        try {
+            String status = sequencedInventoryEngine.isEnabled()
+                    ? sequencedInventoryEngine.processOrder(request).getStatus()
+                    : optimisticRetry.execute(() -> orderService.processOrder(request)).getStatus();
+            return OrderStreamResultDTO.builder()
+                    .line(order.line)
+                    .orderId(request.getOrderId())
+                    .success(true)
+                    .status(status)
+                    .build();
+        } catch (Exception e) {
+            log.warn("Streamed order {} failed: {}", request.getOrderId(), e.getMessage());
+            return rejection(order.line, request.getOrderId(), e.getMessage());
+        }
+    }
+
+    private static OrderStreamResultDTO rejection(long line, Long orderId, String error) {
+        return OrderStreamResultDTO.builder()
+                .line(line)
+                .orderId(orderId)
+                .success(false)
+                .error(error)
+                .build();
+    }
+
+    /**
+     * An order read from the stream, or the reason it was rejected before
+     * processing.
+     */
+    private static class ParsedOrder {
+        private final long line;
+        private final OrderRequestDTO request;
+        private final OrderStreamResultDTO rejection;
+
+        ParsedOrder(long line, OrderRequestDTO request, OrderStreamResultDTO rejection) {
+            this.line = line;
+            this.request = request;
+            this.rejection = rejection;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.CacheStatsDTO;
+import com.inventory.entity.Product;
+import com.inventory.repository.ProductRepository;
+import com.inventory.util.LruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ProductCatalogCache - Read-through LRU cache of product metadata.
+ *
+ * Products only change through catalog initialization, which calls
+ * invalidateAll(), and delta upserts, which call invalidate() for the
+ * changed products only, so order and restock processing can read names and
+ * masses from memory. Cached products are detached copies without their
+ * inventory association; they must not be saved or used to read stock.
+ * Misses are served from the memory-mapped catalog snapshot when there is
+ * one, and from the database otherwise.
+ *
+ * Every invalidation bumps a generation counter before removing entries. A
+ * miss reads the generation before loading and caches what it loaded only
+ * if no invalidation has happened since, so a load that raced an upsert
+ * never puts the old product back.
+ */
+@Component
+@Slf4j
+public class ProductCatalogCache {
+
+    private final ProductRepository productRepository;
+    private final CatalogSnapshotStore catalogSnapshotStore;
+    private final LruCache<Long, Product> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder keyInvalidations = new LongAdder();
+    private final LongAdder snapshotLoads = new LongAdder();
+
+    public ProductCatalogCache(ProductRepository productRepository, CatalogSnapshotStore catalogSnapshotStore,
+            InventoryProperties properties) {
+        this.productRepository = productRepository;
+        this.catalogSnapshotStore = catalogSnapshotStore;
+        this.cache = new LruCache<>(properties.getCatalogCache().getMaxSize());
+    }
+
+    /**
+     * Returns a product, loading it from the catalog snapshot or the
+     * database on a miss.
+     */
+    public Optional<Product> getProduct(Long productId) {
+        Product cached = cache.get(productId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long loadedAt = generation.get();
+        Product snapshotted = fromSnapshot(productId, loadedAt);
+        if (snapshotted != null) {
+            return Optional.of(snapshotted);
+        }
+        return productRepository.findById(productId).map(product -> store(product, loadedAt));
+    }
+
+    /**
+     * Returns the requested products that exist, loading all misses the
+     * catalog snapshot does not have in one query.
+     *
+     * @param productIds Product IDs to look up
+     * @return Map of productId to product; unknown IDs are absent
+     */
+    public Map<Long, Product> getProducts(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long loadedAt = generation.get();
+        for (Long productId : new LinkedHashSet<>(productIds)) {
+            Product cached = cache.get(productId);
+            if (cached == null) {
+                cached = fromSnapshot(productId, loadedAt);
+            }
+            if (cached != null) {
+                products.put(productId, cached);
+            } else {
+                missing.add(productId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (Product product : productRepository.findAllById(missing)) {
+                products.put(product.getProductId(), store(product, loadedAt));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Drops every cached product. Called after the catalog is (re)initialized.
+     */
+    public void invalidateAll() {
+        invalidations.increment();
+        generation.incrementAndGet();
+        cache.clear();
+        log.info("Product catalog cache invalidated");
+    }
+
+    /**
+     * Drops the given products only. Called after a delta catalog upsert, so
+     * the rest of the catalog stays cached.
+     */
+    public void invalidate(Collection<Long> productIds) {
+        generation.incrementAndGet();
+        for (Long productId : productIds) {
+            cache.remove(productId);
+        }
+        keyInvalidations.add(productIds.size());
+        log.info("Product catalog cache invalidated for {} products", productIds.size());
+    }
+
+    /**
+     * Returns cache size and hit, miss and eviction counters.
+     */
+    public CacheStatsDTO getStats() {
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+        return CacheStatsDTO.builder()
+                .size(cache.size())
+                .maxSize(cache.getMaxSize())
+                .hits(hits)
+                .misses(misses)
+                .hitRate(hits + misses == 0 ? 0.0 : (double) hits / (hits + misses))
+                .evictions(cache.getEvictionCount())
+                .invalidations(invalidations.sum())
+                .keyInvalidations(keyInvalidations.sum())
+                .snapshotLoads(snapshotLoads.sum())
+                .build();
+    }
+
+    private Product fromSnapshot(Long productId, long loadedAt) {
+        Product product = catalogSnapshotStore.find(productId);
+        if (product == null) {
+            return null;
+        }
+        snapshotLoads.increment();
+        putIfCurrent(product, loadedAt);
+        return product;
+    }
+
+    private Product store(Product product, long loadedAt) {
+        Product detached = Product.builder()
+                .productId(product.getProductId())
+                .productName(product.getProductName())
+                .massG(product.getMassG())
+                .build();
+        putIfCurrent(detached, loadedAt);
+        return detached;
+    }
+
+    /**
+     * Caches a product loaded at the given generation unless an
+     * invalidation has happened since.
+     */
+    private void putIfCurrent(Product product, long loadedAt) {
+        if (generation.get() != loadedAt) {
+            return;
+        }
+        cache.put(product.getProductId(), product);
+        // An invalidation between the check and the put may have removed
+        // its entries already
+        if (generation.get() != loadedAt) {
+            cache.remove(product.getProductId());
+        }
+    }
+}
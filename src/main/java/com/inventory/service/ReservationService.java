@@ -0,0 +1,306 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderRequestDTO;
+import com.inventory.dto.ReservationRequestDTO;
+import com.inventory.dto.ReservationResponseDTO;
+import com.inventory.entity.Order;
+import com.inventory.entity.Reservation;
+import com.inventory.entity.ReservationItem;
+import com.inventory.exception.ReservationNotFoundException;
+import com.inventory.repository.ReservationItemRepository;
+import com.inventory.repository.ReservationRepository;
+import com.inventory.util.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ReservationService - Holds stock for checkouts for a limited time.
+ *
+ * Reserving moves quantities from available to reserved inventory, all or
+ * nothing. A reservation ends in one of three ways:
+ * - confirm: an order is created and shipped from the reserved stock
+ * - release: the stock goes back to available inventory
+ * - expiry: like release, triggered by the timing wheel once the TTL passes
+ *
+ * Expiry does not poll the database: every active reservation has a timeout
+ * on an in-memory HashedTimingWheel, so scheduling and cancelling a hold is
+ * O(1). Timeouts are scheduled after the reservation commits and rebuilt
+ * from the ACTIVE rows on startup. All transitions lock the reservation row,
+ * so a confirm racing an expiry is applied at most once; a reservation past
+ * its expiry time cannot be confirmed even if its timeout has not fired yet.
+ */
+@Service
+@Slf4j
+@Transactional
+public class ReservationService {
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationItemRepository reservationItemRepository;
+    private final InventoryService inventoryService;
+    private final OrderService orderService;
+    private final SequencedInventoryEngine sequencedInventoryEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryProperties.Reservation config;
+
+    private final HashedTimingWheel<Long> expiryWheel;
+    private final Map<Long, HashedTimingWheel.Timeout<Long>> timeouts = new ConcurrentHashMap<>();
+
+    public ReservationService(ReservationRepository reservationRepository,
+            ReservationItemRepository reservationItemRepository, InventoryService inventoryService,
+            OrderService orderService, SequencedInventoryEngine sequencedInventoryEngine,
+            TransactionTemplate transactionTemplate, InventoryProperties inventoryProperties) {
+        this.reservationRepository = reservationRepository;
+        this.reservationItemRepository = reservationItemRepository;
+        this.inventoryService = inventoryService;
+        this.orderService = orderService;
+        this.sequencedInventoryEngine = sequencedInventoryEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.config = inventoryProperties.getReservation();
+        this.expiryWheel = new HashedTimingWheel<>(config.getWheelTickMs(), config.getWheelSize(),
+                this::onExpiry, "reservation-expiry");
+    }
+
+    /**
+     * Schedules the expiry of reservations still active from before a
+     * restart, then starts the wheel.
+     */
+    @PostConstruct
+    public void start() {
+        List<Reservation> active = transactionTemplate.execute(
+                status -> reservationRepository.findByStatus("ACTIVE"));
+        LocalDateTime now = LocalDateTime.now();
+        for (Reservation reservation : active) {
+            scheduleExpiry(reservation.getReservationId(),
+                    Math.max(0, Duration.between(now, reservation.getExpiresAt()).toMillis()));
+        }
+        expiryWheel.start();
+        if (!active.isEmpty()) {
+            log.info("Scheduled expiry of {} active reservations", active.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiryWheel.stop();
+    }
+
+    /**
+     * Reserves every requested quantity or none of them.
+     *
+     * @throws com.inventory.exception.InsufficientInventoryException if any product lacks stock
+     * @throws IllegalArgumentException if the request or TTL is invalid
+     */
+    public ReservationResponseDTO reserve(ReservationRequestDTO request) {
+        requireEngineDisabled();
+        if (request.getRequested() == null || request.getRequested().isEmpty()) {
+            throw new IllegalArgumentException("Reservation must request at least one product");
+        }
+        long ttlSeconds = request.getTtlSeconds() != null ? request.getTtlSeconds() : config.getDefaultTtlSeconds();
+        if (ttlSeconds <= 0 || ttlSeconds > config.getMaxTtlSeconds()) {
+            throw new IllegalArgumentException("Reservation TTL must be between 1 and "
+                    + config.getMaxTtlSeconds() + " seconds: " + ttlSeconds);
+        }
+
+        // Lines for the same product are merged; ascending order is the lock plan
+        SortedMap<Long, Long> quantities = new TreeMap<>();
+        for (OrderItemRequestDTO item : request.getRequested()) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Reserved quantity must be positive for product "
+                        + item.getProductId());
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Long::sum);
+        }
+        inventoryService.lockInventories(quantities.keySet());
+        quantities.forEach(inventoryService::reserveInventory);
+
+        LocalDateTime now = LocalDateTime.now();
+        Reservation reservation = reservationRepository.save(Reservation.builder()
+                .status("ACTIVE")
+                .createdAt(now)
+                .expiresAt(now.plusSeconds(ttlSeconds))
+                .build());
+        List<ReservationItem> items = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> items.add(ReservationItem.builder()
+                .reservationId(reservation.getReservationId())
+                .productId(productId)
+                .quantity(quantity)
+                .build()));
+        reservationItemRepository.saveAll(items);
+
+        Long reservationId = reservation.getReservationId();
+        afterCommit(() -> scheduleExpiry(reservationId, ttlSeconds * 1000));
+        log.info("Reserved {} products under reservation {} for {}s", quantities.size(), reservationId, ttlSeconds);
+        return toResponse(reservation, items);
+    }
+
+    /**
+     * Turns an active reservation into an order, shipping the reserved stock.
+     *
+     * @throws ReservationNotFoundException if the reservation does not exist
+     * @throws IllegalStateException        if it is no longer active
+     */
+    public Order confirm(Long reservationId, Long orderId) {
+        requireEngineDisabled();
+        Reservation reservation = lockActive(reservationId);
+        if (!reservation.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new IllegalStateException("Reservation " + reservationId + " has expired");
+        }
+
+        List<ReservationItem> items = reservationItemRepository.findByReservationId(reservationId);
+        Map<Long, Long> reserved = new HashMap<>();
+        List<OrderItemRequestDTO> requested = new ArrayList<>();
+        for (ReservationItem item : items) {
+            reserved.put(item.getProductId(), item.getQuantity());
+            requested.add(new OrderItemRequestDTO(item.getProductId(), item.getQuantity()));
+        }
+        Order order = orderService.processOrder(new OrderRequestDTO(orderId, requested), reserved);
+
+        reservation.setStatus("CONFIRMED");
+        reservation.setOrderId(orderId);
+        reservationRepository.save(reservation);
+        afterCommit(() -> cancelExpiry(reservationId));
+        log.info("Confirmed reservation {} as order {}", reservationId, orderId);
+        return order;
+    }
+
+    /**
+     * Returns an active reservation's stock to available inventory.
+     *
+     * @throws ReservationNotFoundException if the reservation does not exist
+     * @throws IllegalStateException        if it is no longer active
+     */
+    public ReservationResponseDTO release(Long reservationId) {
+        requireEngineDisabled();
+        Reservation reservation = lockActive(reservationId);
+        List<ReservationItem> items = end(reservation, "RELEASED");
+        afterCommit(() -> cancelExpiry(reservationId));
+        log.info("Released reservation {}", reservationId);
+        return toResponse(reservation, items);
+    }
+
+    /**
+     * Retrieves a reservation and its items.
+     */
+    @Transactional(readOnly = true)
+    public ReservationResponseDTO getReservation(Long reservationId) {
+        Reservation reservation = reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException("Reservation not found: " + reservationId));
+        return toResponse(reservation, reservationItemRepository.findByReservationId(reservationId));
+    }
+
+    /**
+     * Reservations waiting on the expiry wheel.
+     */
+    public int getScheduledExpiryCount() {
+        return expiryWheel.getPendingCount();
+    }
+
+    /**
+     * Expires a reservation if it is still active; called on the wheel
+     * thread, in its own transaction. If the transaction fails the expiry is
+     * scheduled again after inventory.reservation.expiry-retry-ms, so the
+     * stock is not held until a restart.
+     */
+    void onExpiry(Long reservationId) {
+        timeouts.remove(reservationId);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Reservation reservation = reservationRepository.findByIdWithLock(reservationId).orElse(null);
+                if (reservation == null || !"ACTIVE".equals(reservation.getStatus())) {
+                    return;
+                }
+                end(reservation, "EXPIRED");
+                log.info("Reservation {} expired", reservationId);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to expire reservation {}, retrying in {} ms: {}",
+                    reservationId, config.getExpiryRetryMs(), e.getMessage());
+            scheduleExpiry(reservationId, config.getExpiryRetryMs());
+        }
+    }
+
+    /**
+     * Releases the reservation's stock and records its final status.
+     */
+    private List<ReservationItem> end(Reservation reservation, String status) {
+        List<ReservationItem> items = reservationItemRepository.findByReservationId(reservation.getReservationId());
+        inventoryService.lockInventories(items.stream().map(ReservationItem::getProductId).toList());
+        for (ReservationItem item : items) {
+            inventoryService.releaseReservedInventory(item.getProductId(), item.getQuantity());
+        }
+        reservation.setStatus(status);
+        reservationRepository.save(reservation);
+        return items;
+    }
+
+    private Reservation lockActive(Long reservationId) {
+        Reservation reservation = reservationRepository.findByIdWithLock(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException("Reservation not found: " + reservationId));
+        if (!"ACTIVE".equals(reservation.getStatus())) {
+            throw new IllegalStateException("Reservation " + reservationId + " is " + reservation.getStatus());
+        }
+        return reservation;
+    }
+
+    private void scheduleExpiry(Long reservationId, long delayMillis) {
+        timeouts.put(reservationId, expiryWheel.schedule(reservationId, delayMillis));
+    }
+
+    private void cancelExpiry(Long reservationId) {
+        HashedTimingWheel.Timeout<Long> timeout = timeouts.remove(reservationId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or immediately
+     * when there is none; wheel state must not change for rolled-back work.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * The engine keeps its own copy of inventory that reservations would
+     * bypass.
+     */
+    private void requireEngineDisabled() {
+        if (sequencedInventoryEngine.isEnabled()) {
+            throw new IllegalStateException("Reservations are not available while the sequenced engine is enabled");
+        }
+    }
+
+    private static ReservationResponseDTO toResponse(Reservation reservation, List<ReservationItem> items) {
+        return ReservationResponseDTO.builder()
+                .reservationId(reservation.getReservationId())
+                .status(reservation.getStatus())
+                .orderId(reservation.getOrderId())
+                .expiresAt(reservation.getExpiresAt())
+                .items(items.stream()
+                        .map(item -> new OrderItemRequestDTO(item.getProductId(), item.getQuantity()))
+                        .toList())
+                .build();
+    }
+}
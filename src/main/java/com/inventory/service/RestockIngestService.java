@@ -0,0 +1,206 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.RestockIngestDTO;
+import com.inventory.dto.RestockItemDTO;
+import com.inventory.dto.RestockResponseDTO;
+import com.inventory.entity.RestockIngest;
+import com.inventory.repository.RestockIngestRepository;
+import com.inventory.util.RestockRecordReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * RestockIngestService - Applies restock files (CSV or NDJSON) in chunks.
+ *
+ * Records are streamed from the file inventory.restock.ingest-chunk-size at
+ * a time; lines for the same product within a chunk are merged, and each
+ * chunk is one restock transaction, including its backlog fulfillment, so
+ * locks are held for one chunk rather than the whole file.
+ *
+ * Progress is kept per file in restock_ingests and advanced inside each
+ * chunk's transaction, guarded by the record count it started from: a chunk
+ * is applied exactly once even if the same file is ingested twice at the
+ * same time. Ingesting a file again under the same ID resumes after the
+ * last committed record; a completed ingest is not applied again.
+ *
+ * With the sequenced engine enabled, chunks go through the engine, outside
+ * any database transaction. A chunk is therefore claimed first, by the same
+ * guarded advance, and only then submitted, so two runs never both apply
+ * it; its results are added once the engine has applied it. A chunk the
+ * engine rejects is released again. A crash between the claim and the
+ * engine taking the chunk skips that one chunk on resume.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RestockIngestService {
+
+    private final RestockService restockService;
+    private final RestockIngestRepository restockIngestRepository;
+    private final SequencedInventoryEngine sequencedInventoryEngine;
+    private final OptimisticRetry optimisticRetry;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final InventoryProperties inventoryProperties;
+
+    /**
+     * Applies the records of a file not applied by earlier attempts.
+     *
+     * @param ingestId Stable ID of the file; reused to resume it
+     * @return Final progress of the ingest, or its progress so far if another
+     *         run of the same file is applying it
+     * @throws IllegalArgumentException if a record is malformed; the chunks
+     *                                  before it stay applied
+     */
+    public RestockIngestDTO ingest(String ingestId, RestockRecordReader.Format format, InputStream file) {
+        RestockIngest ingest = start(ingestId, format);
+        if ("COMPLETED".equals(ingest.getStatus())) {
+            log.info("Restock ingest {} already completed", ingestId);
+            return toDTO(ingest, 0L);
+        }
+
+        long resumed = ingest.getRecordsCommitted();
+        int chunkSize = inventoryProperties.getRestock().getIngestChunkSize();
+        try (RestockRecordReader reader = new RestockRecordReader(file, format, objectMapper)) {
+            if (reader.skip(resumed) < resumed) {
+                throw new IllegalArgumentException("File has fewer records than the " + resumed
+                        + " already ingested as " + ingestId);
+            }
+            long committed = resumed;
+            List<RestockItemDTO> records;
+            while (!(records = reader.nextChunk(chunkSize)).isEmpty()) {
+                applyChunk(ingestId, committed, records);
+                committed += records.size();
+                log.info("Restock ingest {}: {} records committed", ingestId, committed);
+            }
+            return toDTO(finish(ingestId, "COMPLETED", null), resumed);
+        } catch (ConcurrentIngestException e) {
+            // The other run owns the ingest's status; report its progress
+            log.info("Restock ingest {} is being run concurrently; leaving it to the other run", ingestId);
+            return toDTO(restockIngestRepository.findById(ingestId).orElseThrow(), resumed);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Restock ingest {} failed: {}", ingestId, e.getMessage());
+            finish(ingestId, "FAILED", e.getMessage());
+            if (e instanceof IOException) {
+                throw new IllegalArgumentException("Failed to read restock file: " + e.getMessage(), e);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Progress of an ingest.
+     */
+    public Optional<RestockIngestDTO> getIngest(String ingestId) {
+        return restockIngestRepository.findById(ingestId).map(ingest -> toDTO(ingest, null));
+    }
+
+    private RestockIngest start(String ingestId, RestockRecordReader.Format format) {
+        return transactionTemplate.execute(status -> {
+            RestockIngest ingest = restockIngestRepository.findById(ingestId).orElseGet(() -> RestockIngest.builder()
+                    .ingestId(ingestId)
+                    .format(format.name())
+                    .recordsCommitted(0L)
+                    .chunksCommitted(0)
+                    .productsRestocked(0L)
+                    .shipmentsCreated(0L)
+                    .ordersUpdated(0L)
+                    .build());
+            if (!ingest.getFormat().equals(format.name())) {
+                throw new IllegalArgumentException("Ingest " + ingestId + " was started as " + ingest.getFormat());
+            }
+            if (!"COMPLETED".equals(ingest.getStatus())) {
+                ingest.setStatus("RUNNING");
+                ingest.setError(null);
+            }
+            return restockIngestRepository.saveAndFlush(ingest);
+        });
+    }
+
+    private void applyChunk(String ingestId, long committed, List<RestockItemDTO> records) {
+        List<RestockItemDTO> merged = merge(records);
+        if (sequencedInventoryEngine.isEnabled()) {
+            RestockResponseDTO claim = new RestockResponseDTO(0, 0, 0);
+            transactionTemplate.executeWithoutResult(status -> advance(ingestId, committed, records.size(), claim));
+            RestockResponseDTO applied;
+            try {
+                applied = sequencedInventoryEngine.processRestock(merged);
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status -> restockIngestRepository.release(ingestId,
+                        committed + records.size(), (long) records.size(), LocalDateTime.now()));
+                throw e;
+            }
+            transactionTemplate.executeWithoutResult(status -> restockIngestRepository.addResults(ingestId,
+                    (long) applied.getProductsRestocked(), (long) applied.getShipmentsCreated(),
+                    (long) applied.getOrdersUpdated(), LocalDateTime.now()));
+            return;
+        }
+        optimisticRetry.execute(() -> restockService.processRestock(merged,
+                applied -> advance(ingestId, committed, records.size(), applied)));
+    }
+
+    private void advance(String ingestId, long committed, int records, RestockResponseDTO applied) {
+        int advanced = restockIngestRepository.advance(ingestId, committed, (long) records,
+                (long) applied.getProductsRestocked(), (long) applied.getShipmentsCreated(),
+                (long) applied.getOrdersUpdated(), LocalDateTime.now());
+        if (advanced == 0) {
+            // Rolls the chunk back: another ingest of this file applied it
+            throw new ConcurrentIngestException(ingestId);
+        }
+    }
+
+    /**
+     * Sums the quantities of each product's lines, in product ID order.
+     */
+    private static List<RestockItemDTO> merge(List<RestockItemDTO> records) {
+        Map<Long, Long> quantities = new TreeMap<>();
+        for (RestockItemDTO record : records) {
+            quantities.merge(record.getProductId(), record.getQuantity(), Long::sum);
+        }
+        List<RestockItemDTO> merged = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> merged.add(new RestockItemDTO(productId, quantity)));
+        return merged;
+    }
+
+    private RestockIngest finish(String ingestId, String status, String error) {
+        return transactionTemplate.execute(tx -> {
+            restockIngestRepository.updateStatus(ingestId, status,
+                    error != null && error.length() > 1000 ? error.substring(0, 1000) : error, LocalDateTime.now());
+            return restockIngestRepository.findById(ingestId).orElseThrow();
+        });
+    }
+
+    /**
+     * Another ingest of the same file committed the chunk first.
+     */
+    private static class ConcurrentIngestException extends IllegalStateException {
+        ConcurrentIngestException(String ingestId) {
+            super("Restock ingest " + ingestId + " is being run concurrently");
+        }
+    }
+
+    private static RestockIngestDTO toDTO(RestockIngest ingest, Long resumed) {
+        return RestockIngestDTO.builder()
+                .ingestId(ingest.getIngestId())
+                .format(ingest.getFormat())
+                .status(ingest.getStatus())
+                .recordsCommitted(ingest.getRecordsCommitted())
+                .recordsResumed(resumed)
+                .chunksCommitted(ingest.getChunksCommitted())
+                .productsRestocked(ingest.getProductsRestocked())
+                .shipmentsCreated(ingest.getShipmentsCreated())
+                .ordersUpdated(ingest.getOrdersUpdated())
+                .createdAt(ingest.getCreatedAt())
+                .updatedAt(ingest.getUpdatedAt())
+                .error(ingest.getError())
+                .build();
+    }
+}
@@ -0,0 +1,240 @@
+package com.inventory.service;
+
+import com.inventory.dto.RestockItemDTO;
+import com.inventory.dto.RestockResponseDTO;
+import com.inventory.entity.*;
+import com.inventory.repository.OrderItemRepository;
+import com.inventory.repository.PendingOrderItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * RestockService - Handles restock operations.
+ * Increases inventory and fulfills pending order items in FIFO order.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RestockService {
+
+    /**
+     * Attempts at acquiring a lock plan that still covers the backlog once the
+     * locks are held. If the plan still grew on the last attempt, the restock
+     * fails with CannotAcquireLockException.
+     */
+    private static final int MAX_LOCK_PLAN_ATTEMPTS = 5;
+
+    private final InventoryService inventoryService;
+    private final OrderService orderService;
+    private final ShipmentService shipmentService;
+    private final PendingOrderItemRepository pendingOrderItemRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Processes a restock synchronously.
+     *
+     * Flow:
+     * 1. Locks every product the restock can touch in ascending order
+     * 2. Updates inventory quantities
+     * 3. Processes pending order items in FIFO order
+     * 4. Creates shipments for fulfilled pending items
+     * 5. Updates order statuses
+     */
+    public RestockResponseDTO processRestock(List<RestockItemDTO> restockItems) {
+        return processRestock(restockItems, response -> { });
+    }
+
+    /**
+     * Processes a restock like processRestock(List) and passes the result to
+     * beforeCommit inside the same transaction, so whatever it writes
+     * commits or rolls back together with the restock.
+     */
+    public RestockResponseDTO processRestock(List<RestockItemDTO> restockItems,
+            Consumer<RestockResponseDTO> beforeCommit) {
+        return withLockPlan(restockItems.stream().map(RestockItemDTO::getProductId).toList(), () -> {
+            RestockResponseDTO response = applyRestock(restockItems);
+            beforeCommit.accept(response);
+            return response;
+        });
+    }
+
+    private RestockResponseDTO applyRestock(List<RestockItemDTO> restockItems) {
+        List<Long> shipmentsCreated = new ArrayList<>();
+        List<Long> ordersUpdated = new ArrayList<>();
+
+        for (RestockItemDTO restockItem : restockItems) {
+            log.info("Restocking product {} with quantity {}",
+                    restockItem.getProductId(), restockItem.getQuantity());
+
+            inventoryService.increaseInventory(restockItem.getProductId(), restockItem.getQuantity());
+
+            BacklogFulfillment fulfillment = allocateBacklog(
+                    restockItem.getProductId(), restockItem.getQuantity());
+            shipmentsCreated.addAll(fulfillment.getShipmentIds());
+            ordersUpdated.addAll(fulfillment.getCompletedOrderIds());
+        }
+
+        return RestockResponseDTO.builder()
+                .productsRestocked(restockItems.size())
+                .shipmentsCreated(shipmentsCreated.size())
+                .ordersUpdated(ordersUpdated.size())
+                .build();
+    }
+
+    /**
+     * Commits the inventory increase for every restock item without touching
+     * the backlog. Used by async restock mode; fulfillment is queued separately.
+     */
+    @Transactional
+    public void increaseInventory(List<RestockItemDTO> restockItems) {
+        inventoryService.lockInventories(restockItems.stream().map(RestockItemDTO::getProductId).toList());
+        for (RestockItemDTO restockItem : restockItems) {
+            log.info("Restocking product {} with quantity {} (backlog deferred)",
+                    restockItem.getProductId(), restockItem.getQuantity());
+            inventoryService.increaseInventory(restockItem.getProductId(), restockItem.getQuantity());
+        }
+    }
+
+    /**
+     * Allocates newly restocked quantity of a product to its pending order
+     * items, oldest first.
+     *
+     * @param productId Product that was restocked
+     * @param quantity  Quantity added by the restock(s)
+     * @return Shipments created and orders completed by this pass
+     */
+    public BacklogFulfillment fulfillBacklog(Long productId, long quantity) {
+        return withLockPlan(List.of(productId), () -> allocateBacklog(productId, quantity));
+    }
+
+    /**
+     * Runs restock work after locking every product it can touch, in ascending
+     * productId order, before any inventory is modified.
+     *
+     * The plan is the restocked products plus every product of the orders
+     * waiting on them. It is computed before the locks are taken, so an order
+     * committed in between can add products to the backlog. Once the locks
+     * are held the backlog for the restocked products is frozen (orders lock
+     * their products before creating pending items), so the plan is
+     * recomputed; if it grew, the transaction is rolled back and retried with
+     * the larger plan rather than locking the extra rows out of order. The
+     * plan only grows, so retries soon cover it; the work never runs without
+     * it, and after MAX_LOCK_PLAN_ATTEMPTS the restock fails with
+     * CannotAcquireLockException.
+     * When called inside an existing transaction the plan is locked once
+     * and not retried.
+     */
+    private <T> T withLockPlan(Collection<Long> restockedProductIds, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            inventoryService.lockInventories(planLocks(restockedProductIds));
+            return work.get();
+        }
+
+        Set<Long> plan = planLocks(restockedProductIds);
+        for (int attempt = 1;; attempt++) {
+            Set<Long> lockPlan = new TreeSet<>(plan);
+            try {
+                return transactionTemplate.execute(status -> {
+                    inventoryService.lockInventories(lockPlan);
+                    Set<Long> required = planLocks(restockedProductIds);
+                    if (!lockPlan.containsAll(required)) {
+                        throw new LockPlanChangedException(required);
+                    }
+                    return work.get();
+                });
+            } catch (LockPlanChangedException e) {
+                if (attempt == MAX_LOCK_PLAN_ATTEMPTS) {
+                    throw new CannotAcquireLockException("Lock plan for restock of " + restockedProductIds
+                            + " still growing after " + attempt + " attempts: " + e.required);
+                }
+                log.debug("Lock plan for restock of {} grew to {}; retrying", restockedProductIds, e.required);
+                plan.addAll(e.required);
+            }
+        }
+    }
+
+    /**
+     * Collects the restocked products plus every product of the orders
+     * waiting on them.
+     */
+    private Set<Long> planLocks(Collection<Long> restockedProductIds) {
+        Set<Long> plan = new TreeSet<>(restockedProductIds);
+        plan.addAll(orderItemRepository.findProductIdsOfOrdersPendingOn(restockedProductIds));
+        return plan;
+    }
+
+    private BacklogFulfillment allocateBacklog(Long productId, long quantity) {
+        BacklogFulfillment fulfillment = new BacklogFulfillment();
+
+        // Get all pending items for this product, ordered by creation time (oldest
+        // first)
+        List<PendingOrderItem> pendingItems = pendingOrderItemRepository
+                .findByProductIdOrderByCreatedAt(productId);
+
+        long remainingQuantity = quantity;
+
+        for (PendingOrderItem pending : pendingItems) {
+            if (remainingQuantity <= 0)
+                break;
+
+            Long orderId = pending.getOrderId();
+            long promised = pending.getPendingQty();
+            Order order = orderService.getOrder(orderId);
+            List<OrderItem> orderItems = orderItemRepository.findByOrderId(orderId);
+
+            // Create shipments for pending items
+            List<Shipment> shipments = shipmentService.createShipments(
+                    orderId, orderItems, order, orderItemRepository);
+            shipments.forEach(shipment -> fulfillment.shipmentIds.add(shipment.getShipmentId()));
+
+            // Remove fulfilled pending items, shrink partially fulfilled ones
+            List<PendingOrderItem> remainingPending = orderService.settlePendingItems(orderId);
+            if (remainingPending.isEmpty()) {
+                orderService.completeOrderIfAllFulfilled(orderId);
+                fulfillment.completedOrderIds.add(orderId);
+            }
+
+            // Update remaining quantity (simplified - in production, track more granularly)
+            remainingQuantity -= promised;
+        }
+
+        return fulfillment;
+    }
+
+    /**
+     * Signals that the backlog changed between planning and locking.
+     */
+    private static class LockPlanChangedException extends RuntimeException {
+        private final Set<Long> required;
+
+        LockPlanChangedException(Set<Long> required) {
+            super("Lock plan changed", null, false, false);
+            this.required = required;
+        }
+    }
+
+    /**
+     * Result of a backlog allocation pass.
+     */
+    public static class BacklogFulfillment {
+        private final List<Long> shipmentIds = new ArrayList<>();
+        private final List<Long> completedOrderIds = new ArrayList<>();
+
+        public List<Long> getShipmentIds() {
+            return shipmentIds;
+        }
+
+        public List<Long> getCompletedOrderIds() {
+            return completedOrderIds;
+        }
+    }
+}
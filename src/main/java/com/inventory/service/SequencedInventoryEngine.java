@@ -0,0 +1,480 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.*;
+import com.inventory.entity.EngineCheckpoint;
+import com.inventory.entity.Product;
+import com.inventory.repository.*;
+import com.inventory.util.LatencyHistogram;
+import com.inventory.util.MappedCommandJournal;
+import com.inventory.util.RingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * SequencedInventoryEngine - Single-writer processor for orders and restocks.
+ *
+ * Request threads publish commands to a bounded RingBuffer and wait for the
+ * result. One engine thread takes commands in sequence, appends them to a
+ * memory-mapped command journal, applies them to EngineState (inventory,
+ * backlog and order items in memory, no locks) and completes the callers. A
+ * projector thread writes the resulting row changes to the JPA tables in
+ * batched transactions, together with the engine checkpoint.
+ *
+ * Reads through the regular services (e.g. GET /v1/ship_package) see engine
+ * results once they are projected, normally within milliseconds.
+ *
+ * On startup, commands journaled after the checkpoint are replayed and
+ * projected before the engine accepts new ones; the journal is then cleared,
+ * and cleared again whenever the projection has caught up with it. If a
+ * command cannot be journaled, the engine fails the commands in flight and
+ * rejects new ones until restarted.
+ * Enabled with inventory.engine.enabled; all order and restock traffic must
+ * go through the engine while it is enabled.
+ */
+@Component
+@Slf4j
+public class SequencedInventoryEngine {
+
+    private static final int DRAIN_BATCH = 256;
+    private static final int PROJECTION_QUEUE_SIZE = 64;
+    private static final long EVICT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final InventoryProperties.Engine config;
+    private final ObjectMapper objectMapper;
+    private final EngineCheckpointRepository checkpointRepository;
+    private final EngineProjector projector;
+    private final InventorySnapshotPublisher inventorySnapshotPublisher;
+    private final EngineState.Loader loader;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final BlockingQueue<EngineProjection> projections = new ArrayBlockingQueue<>(PROJECTION_QUEUE_SIZE);
+
+    private RingBuffer<PendingCommand> ring;
+    private MappedCommandJournal journal;
+    private EngineState state;
+    private Thread engineThread;
+    private Thread projectorThread;
+    private volatile boolean running;
+    private volatile RuntimeException failure;
+    private volatile long appliedSequence;
+    private volatile long projectedSequence;
+    private long lastEviction;
+
+    public SequencedInventoryEngine(InventoryProperties properties, ObjectMapper objectMapper,
+            EngineCheckpointRepository checkpointRepository, InventoryRepository inventoryRepository,
+            ProductCatalogCache productCatalogCache, PendingOrderItemRepository pendingOrderItemRepository,
+            OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            InventorySnapshotPublisher inventorySnapshotPublisher) {
+        this.config = properties.getEngine();
+        this.inventorySnapshotPublisher = inventorySnapshotPublisher;
+        this.objectMapper = objectMapper;
+        this.checkpointRepository = checkpointRepository;
+        this.projector = new EngineProjector(jdbcTemplate, transactionTemplate);
+        this.loader = new EngineState.Loader() {
+            @Override
+            public Optional<Long> findAvailableQty(Long productId) {
+                return inventoryRepository.findById(productId).map(inventory -> inventory.getAvailableQty());
+            }
+
+            @Override
+            public Optional<Integer> findMassG(Long productId) {
+                return productCatalogCache.getProduct(productId).map(Product::getMassG);
+            }
+
+            @Override
+            public List<com.inventory.entity.PendingOrderItem> findPendingItems(Long productId) {
+                return pendingOrderItemRepository.findByProductIdOrderByCreatedAt(productId);
+            }
+
+            @Override
+            public Optional<com.inventory.entity.Order> findOrder(Long orderId) {
+                return orderRepository.findById(orderId);
+            }
+
+            @Override
+            public List<com.inventory.entity.OrderItem> findOrderItems(Long orderId) {
+                return orderItemRepository.findByOrderId(orderId);
+            }
+        };
+    }
+
+    /**
+     * Replays unprojected journal commands, then starts the engine and
+     * projector threads.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (!config.isEnabled() || running) {
+            return;
+        }
+
+        long checkpoint = checkpointRepository.findById(EngineCheckpoint.SINGLETON_ID)
+                .orElseGet(() -> checkpointRepository.save(new EngineCheckpoint(EngineCheckpoint.SINGLETON_ID, 0L)))
+                .getLastSequence();
+        state = new EngineState(loader);
+        appliedSequence = checkpoint;
+        projectedSequence = checkpoint;
+
+        EngineProjection replayed = new EngineProjection();
+        journal = new MappedCommandJournal(Path.of(config.getJournalPath()), config.getJournalRegionBytes());
+        journal.replay((sequence, payload) -> {
+            if (sequence <= checkpoint) {
+                return;
+            }
+            try {
+                apply(sequence, objectMapper.readValue(payload, JournaledCommand.class), replayed);
+            } catch (Exception e) {
+                // The command failed the same way when it was first applied
+                log.debug("Replayed command {} was rejected: {}", sequence, e.getMessage());
+            }
+            appliedSequence = sequence;
+        });
+        if (appliedSequence > checkpoint) {
+            replayed.lastSequence = appliedSequence;
+            projector.write(replayed);
+            projectedSequence = appliedSequence;
+            log.info("Replayed engine commands {} to {} from the journal", checkpoint + 1, appliedSequence);
+        }
+        journal.reset();
+
+        ring = new RingBuffer<>(config.getRingBufferSize());
+        running = true;
+        engineThread = new Thread(this::engineLoop, "inventory-engine");
+        projectorThread = new Thread(this::projectorLoop, "inventory-engine-projector");
+        engineThread.setDaemon(true);
+        projectorThread.setDaemon(true);
+        engineThread.start();
+        projectorThread.start();
+        log.info("Inventory engine started at sequence {} (ring buffer {})", appliedSequence, ring.getCapacity());
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Processes an order on the engine thread.
+     *
+     * @throws com.inventory.exception.ProductNotFoundException if a product is unknown
+     * @throws IllegalArgumentException                         if the order ID is taken
+     */
+    public OrderResponseDTO processOrder(OrderRequestDTO orderRequest) {
+        return (OrderResponseDTO) submit(new JournaledCommand(
+                CommandType.ORDER, LocalDateTime.now(), orderRequest, null, null));
+    }
+
+    /**
+     * Processes a restock, including backlog fulfillment, on the engine thread.
+     */
+    public RestockResponseDTO processRestock(List<RestockItemDTO> restockItems) {
+        return (RestockResponseDTO) submit(new JournaledCommand(
+                CommandType.RESTOCK, LocalDateTime.now(), null, restockItems, null));
+    }
+
+    /**
+     * Resets the in-memory quantity of re-initialized catalog products to 0.
+     */
+    public void resetInventory(Collection<Long> productIds) {
+        submit(new JournaledCommand(
+                CommandType.RESET_INVENTORY, LocalDateTime.now(), null, null, new ArrayList<>(productIds)));
+    }
+
+    /**
+     * Waits until every command applied so far, including those of callers
+     * that have already returned, is projected to the database.
+     *
+     * @return false if the timeout elapsed first
+     */
+    public boolean awaitProjection(Duration timeout) throws InterruptedException {
+        long target = appliedSequence;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (projectedSequence < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Returns sequence positions, queue depth and latency percentiles.
+     */
+    public EngineStatsDTO getStats() {
+        return EngineStatsDTO.builder()
+                .enabled(running)
+                .appliedSequence(appliedSequence)
+                .projectedSequence(projectedSequence)
+                .queuedCommands(ring != null ? ring.size() : 0L)
+                .ringBufferSize(ring != null ? ring.getCapacity() : config.getRingBufferSize())
+                .completedCommands(latency.getCount())
+                .p50LatencyUs(TimeUnit.NANOSECONDS.toMicros(latency.getPercentile(50)))
+                .p99LatencyUs(TimeUnit.NANOSECONDS.toMicros(latency.getPercentile(99)))
+                .p999LatencyUs(TimeUnit.NANOSECONDS.toMicros(latency.getPercentile(99.9)))
+                .maxLatencyUs(TimeUnit.NANOSECONDS.toMicros(latency.getMax()))
+                .build();
+    }
+
+    /**
+     * Publish-to-completion latency of every command since startup.
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return latency;
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        engineThread.join(TimeUnit.SECONDS.toMillis(10));
+        projectorThread.join(TimeUnit.SECONDS.toMillis(10));
+        journal.close();
+    }
+
+    private Object submit(JournaledCommand command) {
+        if (!running) {
+            throw new IllegalStateException("Inventory engine is not running");
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Inventory engine stopped after a journal failure", failure);
+        }
+        PendingCommand pending = new PendingCommand(command);
+        ring.publish(pending);
+        try {
+            return pending.result.get(config.getCommandTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("No result from the inventory engine within "
+                    + config.getCommandTimeoutMs() + " ms; the command may still be applied");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the inventory engine", e);
+        }
+    }
+
+    private void engineLoop() {
+        List<PendingCommand> batch = new ArrayList<>(DRAIN_BATCH);
+        while (running || ring.size() > 0) {
+            ring.drain(batch::add, DRAIN_BATCH);
+            if (batch.isEmpty()) {
+                evictSettledOrders();
+                if (journal.size() > 0 && projectedSequence >= appliedSequence) {
+                    journal.reset();
+                }
+                ring.idle();
+                continue;
+            }
+
+            // Journal the whole batch before applying or acknowledging any of it
+            long sequence;
+            try {
+                sequence = journal(batch);
+            } catch (RuntimeException e) {
+                fail(batch, e);
+                return;
+            }
+
+            EngineProjection projection = new EngineProjection();
+            for (PendingCommand pending : batch) {
+                try {
+                    pending.value = apply(pending.sequence, pending.command, projection);
+                } catch (RuntimeException e) {
+                    pending.error = e;
+                }
+            }
+            projection.lastSequence = sequence;
+            // Published before any caller returns, so awaitProjection covers their commands
+            appliedSequence = sequence;
+            for (PendingCommand pending : batch) {
+                pending.complete();
+                latency.record(System.nanoTime() - pending.publishedAt);
+            }
+            batch.clear();
+
+            try {
+                projections.put(projection);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Appends the batch to the journal and assigns its sequence numbers. A
+     * full journal is truncated first, once every command in it is
+     * projected; a failed batch is truncated away again.
+     *
+     * @return The sequence of the last command in the batch
+     */
+    private long journal(List<PendingCommand> batch) {
+        if (journal.size() >= config.getJournalMaxBytes()) {
+            while (projectedSequence < appliedSequence) {
+                ring.idle();
+            }
+            journal.reset();
+        }
+        long start = journal.size();
+        long sequence = appliedSequence;
+        try {
+            for (PendingCommand pending : batch) {
+                pending.sequence = ++sequence;
+                journal.append(pending.sequence, objectMapper.writeValueAsBytes(pending.command));
+            }
+            if (config.isFsync()) {
+                journal.force();
+            }
+            return sequence;
+        } catch (JsonProcessingException | RuntimeException e) {
+            try {
+                journal.truncate(start);
+            } catch (RuntimeException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e instanceof RuntimeException runtime
+                    ? runtime : new IllegalStateException("Cannot serialize engine command", e);
+        }
+    }
+
+    /**
+     * Stops the engine after a journal failure: nothing of the batch was
+     * applied, so its callers and those still queued are failed, and new
+     * commands are rejected.
+     */
+    private void fail(List<PendingCommand> batch, RuntimeException cause) {
+        failure = cause;
+        log.error("Inventory engine stopped: journaling commands after sequence {} failed", appliedSequence, cause);
+        IllegalStateException rejected = new IllegalStateException(
+                "Inventory engine stopped after a journal failure", cause);
+        batch.forEach(pending -> pending.result.completeExceptionally(rejected));
+        batch.clear();
+        ring.drain(pending -> pending.result.completeExceptionally(rejected), ring.getCapacity());
+    }
+
+    private Object apply(long sequence, JournaledCommand command, EngineProjection projection) {
+        return switch (command.getType()) {
+            case ORDER -> state.processOrder(sequence, command.getOrder(), command.getTimestamp(), projection);
+            case RESTOCK -> state.processRestock(sequence, command.getRestock(), command.getTimestamp(), projection);
+            case RESET_INVENTORY -> {
+                state.resetInventory(command.getProductIds(), projection);
+                yield null;
+            }
+        };
+    }
+
+    private void evictSettledOrders() {
+        long now = System.nanoTime();
+        if (now - lastEviction < EVICT_INTERVAL_NANOS) {
+            return;
+        }
+        lastEviction = now;
+        int evicted = state.evictSettledOrders(projectedSequence);
+        if (evicted > 0) {
+            log.debug("Evicted {} settled orders from the engine state", evicted);
+        }
+    }
+
+    private void projectorLoop() {
+        while (running || !projections.isEmpty()) {
+            try {
+                EngineProjection merged = projections.poll(10, TimeUnit.MILLISECONDS);
+                if (merged == null) {
+                    continue;
+                }
+                // Coalesce queued projections up to the configured number of commands
+                long firstSequence = projectedSequence;
+                EngineProjection next;
+                while (merged.lastSequence - firstSequence < config.getProjectionBatchSize()
+                        && (next = projections.poll()) != null) {
+                    merged.merge(next);
+                }
+                writeWithRetry(merged);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Projects a batch, retrying until it succeeds; later batches wait, so
+     * the database never skips a command.
+     */
+    private void writeWithRetry(EngineProjection projection) throws InterruptedException {
+        while (true) {
+            try {
+                projector.write(projection);
+                projectedSequence = projection.lastSequence;
+                inventorySnapshotPublisher.markChanged();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Engine projection up to sequence {} failed; retrying", projection.lastSequence, e);
+                Thread.sleep(1000);
+            }
+        }
+    }
+
+    public enum CommandType {
+        ORDER, RESTOCK, RESET_INVENTORY
+    }
+
+    /**
+     * Command as written to the journal.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class JournaledCommand {
+        private CommandType type;
+        private LocalDateTime timestamp;
+        private OrderRequestDTO order;
+        private List<RestockItemDTO> restock;
+        private List<Long> productIds;
+    }
+
+    /**
+     * Command in flight, with the caller waiting on its result.
+     */
+    private static class PendingCommand {
+        final JournaledCommand command;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final long publishedAt = System.nanoTime();
+        long sequence;
+        Object value;
+        RuntimeException error;
+
+        PendingCommand(JournaledCommand command) {
+            this.command = command;
+        }
+
+        void complete() {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.exception.ProductNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ShardedInventory - Splits the available quantity of hot products across
+ * several inventory_shards rows.
+ *
+ * Every order for a product otherwise serializes on its single inventory
+ * row lock. For a sharded product InventoryService skips that lock and
+ * comes here instead:
+ * - take claims one shard with enough stock using FOR UPDATE SKIP LOCKED,
+ *   starting at a random shard, so concurrent orders spread over the shards
+ *   and never wait for each other. Only when no single unlocked shard can
+ *   cover the quantity does it take from several shards, and only when the
+ *   unlocked shards cannot cover it does it wait for locked ones.
+ * - add puts stock on the emptiest unlocked shard.
+ * - reads sum the shards.
+ *
+ * Like the ATOMIC update mode, availability read before a take is not
+ * locked: a take that finds less stock than was read fails the transaction
+ * with IllegalArgumentException. The inventory row of a sharded product
+ * keeps reserved_qty; its available_qty stays 0.
+ *
+ * Shard counts come from inventory.sharding.products (productId: shards) or
+ * setShardCount. A background pass applies configured counts to products
+ * as they appear and rebalances shards that have run low, so that takes keep
+ * finding a single shard with stock. Neither runs while the sequenced engine
+ * is enabled: the engine keeps its own copy of each product's stock on the
+ * inventory row, which moving it to shards would bypass.
+ *
+ * The inventory row's shard_count is the source of truth for routing; it
+ * changes in the same transaction that moves the stock. isSharded answers
+ * from a local copy, reloaded by the background pass, so it can be stale
+ * for a moment (or longer, when another instance resharded). Writes never
+ * trust it alone: take and add report a product without shards, and the
+ * inventory row writes in InventoryService check shard_count, so a write
+ * routed the wrong way refreshes the copy and goes the other way.
+ */
+@Service
+@Slf4j
+public class ShardedInventory {
+
+    private static final String CLAIM_SHARD_SQL = "SELECT id FROM inventory_shards "
+            + "WHERE product_id = ? AND available_qty >= ? "
+            + "ORDER BY MOD(shard_no + ?, ?) LIMIT 1 FOR UPDATE SKIP LOCKED";
+    private static final String CLAIM_UNLOCKED_SHARDS_SQL = "SELECT id, available_qty FROM inventory_shards "
+            + "WHERE product_id = ? AND available_qty > 0 ORDER BY shard_no FOR UPDATE SKIP LOCKED";
+    private static final String LOCK_SHARDS_SQL = "SELECT id, available_qty FROM inventory_shards "
+            + "WHERE product_id = ? ORDER BY shard_no FOR UPDATE";
+    private static final String CLAIM_EMPTIEST_SHARD_SQL = "SELECT id FROM inventory_shards "
+            + "WHERE product_id = ? ORDER BY available_qty, shard_no LIMIT 1 FOR UPDATE SKIP LOCKED";
+    private static final String DECREMENT_SQL =
+            "UPDATE inventory_shards SET available_qty = available_qty - ? WHERE id = ?";
+    private static final String INCREMENT_SQL =
+            "UPDATE inventory_shards SET available_qty = available_qty + ? WHERE id = ?";
+    private static final String INCREMENT_SHARD_NO_SQL =
+            "UPDATE inventory_shards SET available_qty = available_qty + ? WHERE product_id = ? AND shard_no = ?";
+    private static final String SET_SQL = "UPDATE inventory_shards SET available_qty = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryProperties.Sharding config;
+    private final SequencedInventoryEngine sequencedInventoryEngine;
+
+    /** Shard count of every sharded product. */
+    private final Map<Long, Integer> shardCounts = new ConcurrentHashMap<>();
+    private ScheduledExecutorService maintenance;
+
+    public ShardedInventory(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            InventoryProperties inventoryProperties, SequencedInventoryEngine sequencedInventoryEngine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.config = inventoryProperties.getSharding();
+        this.sequencedInventoryEngine = sequencedInventoryEngine;
+    }
+
+    /**
+     * Loads existing shard counts and starts the configure/rebalance pass.
+     */
+    @PostConstruct
+    public void start() {
+        reload();
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-shard-rebalancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::maintain, config.getRebalanceIntervalMs(),
+                config.getRebalanceIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+    }
+
+    public boolean isSharded(Long productId) {
+        return shardCounts.containsKey(productId);
+    }
+
+    /**
+     * Shard count of a product; 0 when it is not sharded.
+     */
+    public int getShardCount(Long productId) {
+        return shardCounts.getOrDefault(productId, 0);
+    }
+
+    /**
+     * Re-reads a product's shard count from its inventory row, after a write
+     * found the local copy stale.
+     *
+     * @return Whether the product is sharded
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean refresh(Long productId) {
+        List<Integer> counts = jdbcTemplate.queryForList(
+                "SELECT shard_count FROM inventory WHERE product_id = ?", Integer.class, productId);
+        int count = counts.isEmpty() ? 0 : counts.get(0);
+        if (count != getShardCount(productId)) {
+            log.info("Routing of product {} refreshed: {} inventory shards", productId, count);
+        }
+        apply(productId, count);
+        return count > 1;
+    }
+
+    /**
+     * Sum of a sharded product's shards.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long getAvailable(Long productId) {
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(available_qty), 0) FROM inventory_shards WHERE product_id = ?",
+                Long.class, productId);
+        return total != null ? total : 0L;
+    }
+
+    /**
+     * Available quantity of each shard of a product, by shard number.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Long> getShardQuantities(Long productId) {
+        return jdbcTemplate.queryForList(
+                "SELECT available_qty FROM inventory_shards WHERE product_id = ? ORDER BY shard_no",
+                Long.class, productId);
+    }
+
+    /**
+     * Sums of the shards of several sharded products, in one query.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<Long, Long> getAvailable(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        Map<Long, Long> totals = new HashMap<>();
+        jdbcTemplate.query("SELECT product_id, SUM(available_qty) FROM inventory_shards "
+                        + "WHERE product_id IN (" + placeholders + ") GROUP BY product_id",
+                rs -> {
+                    totals.put(rs.getLong(1), rs.getLong(2));
+                }, productIds.toArray());
+        return totals;
+    }
+
+    /**
+     * Takes quantity from a sharded product's shards, holding the touched
+     * shard rows until the transaction ends.
+     *
+     * @return false, having taken nothing, if the product turned out not to
+     *         be sharded; its stock is on the inventory row
+     * @throws IllegalArgumentException if the shards hold less than quantity
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean take(Long productId, long quantity) {
+        int shards = getShardCount(productId);
+        int offset = ThreadLocalRandom.current().nextInt(Math.max(shards, 1));
+
+        // Fast path: one unlocked shard covers the whole quantity
+        List<Long> claimed = jdbcTemplate.queryForList(CLAIM_SHARD_SQL, Long.class,
+                productId, quantity, offset, Math.max(shards, 1));
+        if (!claimed.isEmpty()) {
+            jdbcTemplate.update(DECREMENT_SQL, quantity, claimed.get(0));
+            return true;
+        }
+
+        // Spread over unlocked shards, then wait for the rest in shard order
+        long remaining = takeAcross(CLAIM_UNLOCKED_SHARDS_SQL, productId, quantity);
+        if (remaining > 0) {
+            remaining = takeAcross(LOCK_SHARDS_SQL, productId, remaining);
+        }
+        if (remaining == quantity && !refresh(productId)) {
+            return false;
+        }
+        if (remaining > 0) {
+            throw new IllegalArgumentException("Cannot reduce inventory: insufficient quantity for product "
+                    + productId + ", requested=" + quantity);
+        }
+        return true;
+    }
+
+    /**
+     * Adds quantity to the emptiest unlocked shard of a sharded product.
+     *
+     * @return false, having added nothing, if the product turned out not to
+     *         be sharded
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean add(Long productId, long quantity) {
+        List<Long> claimed = jdbcTemplate.queryForList(CLAIM_EMPTIEST_SHARD_SQL, Long.class, productId);
+        if (!claimed.isEmpty()) {
+            jdbcTemplate.update(INCREMENT_SQL, quantity, claimed.get(0));
+            return true;
+        }
+        // Every shard is locked: wait for a random one
+        int shard = ThreadLocalRandom.current().nextInt(Math.max(getShardCount(productId), 1));
+        if (jdbcTemplate.update(INCREMENT_SHARD_NO_SQL, quantity, productId, shard) == 0) {
+            if (!refresh(productId)) {
+                return false;
+            }
+            throw new ProductNotFoundException("Inventory shards not found for product: " + productId);
+        }
+        return true;
+    }
+
+    /**
+     * Sets every shard of a product to 0 (catalog re-initialization).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reset(Long productId) {
+        jdbcTemplate.update("UPDATE inventory_shards SET available_qty = 0 WHERE product_id = ?", productId);
+    }
+
+    /**
+     * Splits a product's available quantity across count shards, or folds
+     * its shards back into the inventory row when count is 1 or less. Stock
+     * is conserved; the inventory row and all shards are locked while it
+     * moves, and the row's shard_count changes with it. The local routing
+     * copy follows on commit.
+     *
+     * @throws ProductNotFoundException if the product has no inventory row
+     * @throws IllegalStateException    if the sequenced engine is enabled
+     */
+    public void setShardCount(Long productId, int count) {
+        requireEngineDisabled();
+        int shardCount = count > 1 ? count : 0;
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> parent = jdbcTemplate.queryForList(
+                    "SELECT available_qty FROM inventory WHERE product_id = ? FOR UPDATE", Long.class, productId);
+            if (parent.isEmpty()) {
+                throw new ProductNotFoundException("Inventory not found for product: " + productId);
+            }
+            long total = parent.get(0) + lockShards(productId).stream().mapToLong(shard -> shard[1]).sum();
+
+            jdbcTemplate.update("DELETE FROM inventory_shards WHERE product_id = ?", productId);
+            if (count > 1) {
+                List<Object[]> rows = new ArrayList<>();
+                for (int shard = 0; shard < count; shard++) {
+                    rows.add(new Object[] {productId, shard, share(total, count, shard)});
+                }
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO inventory_shards (product_id, shard_no, available_qty) VALUES (?, ?, ?)", rows);
+            }
+            jdbcTemplate.update("UPDATE inventory SET available_qty = ?, shard_count = ?, version = version + 1 "
+                    + "WHERE product_id = ?", count > 1 ? 0L : total, shardCount, productId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(productId, shardCount);
+                }
+            });
+        });
+        log.info("Product {} now has {} inventory shards", productId, shardCount);
+    }
+
+    /**
+     * Spreads a product's stock evenly over its shards if any shard holds
+     * less than a quarter of an even share.
+     *
+     * @return true if the shards were rebalanced
+     */
+    public boolean rebalance(Long productId) {
+        Boolean rebalanced = transactionTemplate.execute(status -> {
+            List<long[]> shards = lockShards(productId);
+            if (shards.size() < 2) {
+                return false;
+            }
+            long total = shards.stream().mapToLong(shard -> shard[1]).sum();
+            long evenShare = total / shards.size();
+            long min = shards.stream().mapToLong(shard -> shard[1]).min().orElse(0);
+            if (evenShare == 0 || min * 4 >= evenShare) {
+                return false;
+            }
+
+            List<Object[]> updates = new ArrayList<>();
+            for (int i = 0; i < shards.size(); i++) {
+                updates.add(new Object[] {share(total, shards.size(), i), shards.get(i)[0]});
+            }
+            jdbcTemplate.batchUpdate(SET_SQL, updates);
+            return true;
+        });
+        if (Boolean.TRUE.equals(rebalanced)) {
+            log.debug("Rebalanced inventory shards of product {}", productId);
+        }
+        return Boolean.TRUE.equals(rebalanced);
+    }
+
+    /**
+     * Applies configured shard counts to products that exist, then
+     * rebalances every sharded product. Skipped while the sequenced engine is
+     * enabled.
+     */
+    void maintain() {
+        if (sequencedInventoryEngine.isEnabled()) {
+            return;
+        }
+        try {
+            reload();
+            config.getProducts().forEach((productId, count) -> {
+                if (getShardCount(productId) != (count > 1 ? count : 0) && inventoryExists(productId)) {
+                    setShardCount(productId, count);
+                }
+            });
+            for (Long productId : new ArrayList<>(shardCounts.keySet())) {
+                rebalance(productId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Inventory shard maintenance failed", e);
+        }
+    }
+
+    /**
+     * Replaces the local routing copy with the shard counts on the inventory
+     * rows, picking up changes made by other instances.
+     */
+    private void reload() {
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT product_id, shard_count FROM inventory WHERE shard_count > 1",
+                rs -> {
+                    counts.put(rs.getLong(1), rs.getInt(2));
+                });
+        shardCounts.keySet().retainAll(counts.keySet());
+        shardCounts.putAll(counts);
+    }
+
+    private void apply(Long productId, int count) {
+        if (count > 1) {
+            shardCounts.put(productId, count);
+        } else {
+            shardCounts.remove(productId);
+        }
+    }
+
+    /**
+     * The engine keeps its own copy of inventory that sharding would bypass.
+     */
+    private void requireEngineDisabled() {
+        if (sequencedInventoryEngine.isEnabled()) {
+            throw new IllegalStateException("Inventory cannot be sharded while the sequenced engine is enabled");
+        }
+    }
+
+    private boolean inventoryExists(Long productId) {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory WHERE product_id = ?", Integer.class, productId);
+        return rows != null && rows > 0;
+    }
+
+    /**
+     * Takes up to quantity from the shards returned by the given locking
+     * query, lowest shard first.
+     *
+     * @return Quantity still missing
+     */
+    private long takeAcross(String lockingQuery, Long productId, long quantity) {
+        long remaining = quantity;
+        List<long[]> shards = jdbcTemplate.query(lockingQuery,
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}, productId);
+        for (long[] shard : shards) {
+            if (remaining == 0) {
+                break;
+            }
+            long taken = Math.min(remaining, shard[1]);
+            if (taken > 0) {
+                jdbcTemplate.update(DECREMENT_SQL, taken, shard[0]);
+                remaining -= taken;
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Locks all shards of a product in shard order.
+     *
+     * @return [id, availableQty] per shard
+     */
+    private List<long[]> lockShards(Long productId) {
+        return jdbcTemplate.query(LOCK_SHARDS_SQL,
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}, productId);
+    }
+
+    /**
+     * Even share of total for one shard; the remainder goes to the first
+     * shards.
+     */
+    private static long share(long total, int count, int shard) {
+        return total / count + (shard < total % count ? 1 : 0);
+    }
+}
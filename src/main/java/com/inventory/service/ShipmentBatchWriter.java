@@ -0,0 +1,92 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.ShipmentResponseDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * ShipmentBatchWriter - Writes the shipments for a list of IDs as one
+ * ApiResponseDTO of ShipmentBatchDTO, streamed as it is loaded.
+ *
+ * IDs are looked up in chunks of inventory.shipment-lookup.chunk-size, each
+ * with two IN queries (see ShipmentService.getShipmentResponses), and each
+ * chunk is written and flushed before the next is loaded, so memory use
+ * does not grow with the number of IDs. Because the response is already
+ * under way, a query failing part-way cannot turn it into an error response.
+ * Instead the generator does not auto-close the JSON: the body stops where
+ * the failure happened, unterminated, so no client can parse it as a
+ * successful lookup, and the exception propagates to the caller.
+ */
+@Component
+@Slf4j
+public class ShipmentBatchWriter {
+
+    private final ShipmentService shipmentService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter shipmentWriter;
+    private final InventoryProperties.ShipmentLookup config;
+
+    public ShipmentBatchWriter(ShipmentService shipmentService, ObjectMapper objectMapper,
+            InventoryProperties inventoryProperties) {
+        this.shipmentService = shipmentService;
+        this.objectMapper = objectMapper;
+        // Flushing once per chunk instead of once per shipment
+        this.shipmentWriter = objectMapper.writerFor(ShipmentResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.config = inventoryProperties.getShipmentLookup();
+    }
+
+    /**
+     * Writes the shipments of the given IDs; duplicates are written once.
+     *
+     * @throws IOException if writing the response fails
+     */
+    public void write(Collection<Long> shipmentIds, OutputStream output) throws IOException {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(shipmentIds));
+        List<Long> notFound = new ArrayList<>();
+        int found = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            // Closing after a failure must not complete the JSON
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartObject();
+            generator.writeBooleanField("success", true);
+            generator.writeStringField("message", "Shipments retrieved successfully");
+            generator.writeObjectFieldStart("data");
+            generator.writeObjectFieldStart("shipments");
+            for (int from = 0; from < ids.size(); from += config.getChunkSize()) {
+                List<Long> chunk = ids.subList(from, Math.min(from + config.getChunkSize(), ids.size()));
+                Map<Long, ShipmentResponseDTO> shipments = shipmentService.getShipmentResponses(chunk);
+                for (Long shipmentId : chunk) {
+                    ShipmentResponseDTO shipment = shipments.get(shipmentId);
+                    if (shipment == null) {
+                        notFound.add(shipmentId);
+                        continue;
+                    }
+                    generator.writeFieldName(shipmentId.toString());
+                    shipmentWriter.writeValue(generator, shipment);
+                    found++;
+                }
+                generator.flush();
+            }
+            generator.writeEndObject();
+            generator.writeArrayFieldStart("notFound");
+            for (Long shipmentId : notFound) {
+                generator.writeNumber(shipmentId);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeNullField("error");
+            generator.writeEndObject();
+        }
+        log.info("Batch shipment lookup: {} found, {} not found", found, notFound.size());
+    }
+}
@@ -0,0 +1,79 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.ApiResponseDTO;
+import com.inventory.dto.CacheStatsDTO;
+import com.inventory.dto.ShipmentResponseDTO;
+import com.inventory.exception.ShipmentNotFoundException;
+import com.inventory.util.LruCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * ShipmentResponseCache - Read-through LRU cache of serialized
+ * GET /v1/ship_package/{shipmentId} responses.
+ *
+ * Shipments and their items are never changed after they are created, so a
+ * response can be built and serialized once and served as bytes afterwards,
+ * with no database access or JSON encoding. Only shipments that exist are
+ * cached; unknown IDs go to the database every time.
+ */
+@Component
+public class ShipmentResponseCache {
+
+    private final ShipmentService shipmentService;
+    private final ObjectMapper objectMapper;
+    private final LruCache<Long, byte[]> cache;
+
+    public ShipmentResponseCache(ShipmentService shipmentService, ObjectMapper objectMapper,
+            InventoryProperties properties) {
+        this.shipmentService = shipmentService;
+        this.objectMapper = objectMapper;
+        this.cache = new LruCache<>(properties.getShipmentCache().getMaxSize());
+    }
+
+    /**
+     * Returns the serialized response for a shipment, loading it with a
+     * single query on a miss.
+     *
+     * @throws ShipmentNotFoundException if the shipment does not exist
+     */
+    public byte[] getResponse(Long shipmentId) {
+        byte[] cached = cache.get(shipmentId);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] response = serialize(shipmentService.getShipmentResponse(shipmentId));
+        cache.put(shipmentId, response);
+        return response;
+    }
+
+    /**
+     * Returns cache size and hit, miss and eviction counters.
+     */
+    public CacheStatsDTO getStats() {
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+        return CacheStatsDTO.builder()
+                .size(cache.size())
+                .maxSize(cache.getMaxSize())
+                .hits(hits)
+                .misses(misses)
+                .hitRate(hits + misses == 0 ? 0.0 : (double) hits / (hits + misses))
+                .evictions(cache.getEvictionCount())
+                .build();
+    }
+
+    private byte[] serialize(ShipmentResponseDTO shipment) {
+        try {
+            return objectMapper.writeValueAsBytes(ApiResponseDTO.<ShipmentResponseDTO>builder()
+                    .success(true)
+                    .message("Shipment retrieved successfully")
+                    .data(shipment)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize shipment", e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.inventory.service;
 
+import com.inventory.dto.ShipmentResponseDTO;
+import com.inventory.dto.ShippedItemDTO;
 import com.inventory.entity.*;
 import com.inventory.exception.ShipmentNotFoundException;
 import com.inventory.repository.*;
@@ -39,7 +41,22 @@ public class ShipmentService {
      */
     public List<Shipment> createShipments(Long orderId, List<OrderItem> orderItems,
             Order order, OrderItemRepository orderItemRepository) {
+        return createShipments(orderId, orderItems, order, orderItemRepository, Map.of());
+    }
+
+    /**
+     * Creates shipments for an order, shipping reserved stock first.
+     * Reserved quantities count as available for their products and are
+     * taken out of reserved inventory; anything beyond them is taken from
+     * available inventory as usual.
+     *
+     * @param reservedQuantities Map of productId to quantity reserved for this order
+     * @return List of created shipments
+     */
+    public List<Shipment> createShipments(Long orderId, List<OrderItem> orderItems,
+            Order order, OrderItemRepository orderItemRepository, Map<Long, Long> reservedQuantities) {
         List<Shipment> createdShipments = new ArrayList<>();
+        Map<Long, Long> reservedLeft = new HashMap<>(reservedQuantities);
 
         // Extract product IDs from order items
         List<Long> productIds = orderItems.stream()
@@ -52,9 +69,11 @@ public class ShipmentService {
         Map<Long, InventoryService.ProductInventoryData> productInventoryMap = inventoryService
                 .getProductsWithInventory(productIds, true);
 
-        // Prepare items for packing optimization
+        // Prepare items for packing optimization; lines of the same product
+        // share its stock, in order
         List<ShipmentPackagingOptimizer.ShipmentItem> itemsToPack = new ArrayList<>();
-        Map<Long, OrderItem> orderItemMap = new HashMap<>();
+        Map<Long, List<OrderItem>> orderItemsByProduct = new HashMap<>();
+        Map<Long, Long> availableLeft = new HashMap<>();
 
         for (OrderItem item : orderItems) {
             InventoryService.ProductInventoryData data = productInventoryMap.get(item.getProductId());
@@ -64,10 +83,12 @@ public class ShipmentService {
                 continue;
             }
 
-            Long availableQty = data.getAvailableQty();
+            long left = availableLeft.getOrDefault(item.getProductId(),
+                    data.getAvailableQty() + reservedLeft.getOrDefault(item.getProductId(), 0L));
 
             // Only ship what's available and needed
-            Long qtyToShip = Math.min(availableQty, item.getRequestedQty() - item.getFulfilledQty());
+            long qtyToShip = Math.max(0, Math.min(left, item.getRequestedQty() - item.getFulfilledQty()));
+            availableLeft.put(item.getProductId(), left - qtyToShip);
 
             if (qtyToShip > 0) {
                 ShipmentPackagingOptimizer.ShipmentItem shipmentItem = new ShipmentPackagingOptimizer.ShipmentItem(
@@ -75,7 +96,7 @@ public class ShipmentService {
                         qtyToShip,
                         data.getProduct().getMassG());
                 itemsToPack.add(shipmentItem);
-                orderItemMap.put(item.getProductId(), item);
+                orderItemsByProduct.computeIfAbsent(item.getProductId(), id -> new ArrayList<>()).add(item);
             }
         }
 
@@ -84,10 +105,20 @@ public class ShipmentService {
             return createdShipments;
         }
 
+        // Take the stock before packing, so only what was taken is shipped
+        itemsToPack = takeInventory(itemsToPack, reservedLeft, productIds);
+        if (itemsToPack.isEmpty()) {
+            log.info("No inventory left to ship for order {}", orderId);
+            return createdShipments;
+        }
+
         // Optimize packing
         List<ShipmentPackage> optimizedPackages = ShipmentPackagingOptimizer.optimizePackaging(itemsToPack);
 
-        // Create shipments from optimized packages
+        // Create shipments from optimized packages, totalling what each
+        // product ships across all of them
+        List<com.inventory.entity.ShipmentItem> shipmentItems = new ArrayList<>();
+        Map<Long, Long> shippedQuantities = new LinkedHashMap<>();
         for (ShipmentPackage pkg : optimizedPackages) {
             Shipment shipment = Shipment.builder()
                     .orderId(orderId)
@@ -98,42 +129,100 @@ public class ShipmentService {
             log.info("Created shipment {} for order {} with weight {}g",
                     shipment.getShipmentId(), orderId, pkg.totalWeightG);
 
-            // Create shipment items and update order items
             for (ShipmentPackagingOptimizer.ShipmentItem pkgItem : pkg.items) {
-                com.inventory.entity.ShipmentItem shipmentItem = com.inventory.entity.ShipmentItem.builder()
+                shipmentItems.add(com.inventory.entity.ShipmentItem.builder()
                         .shipmentId(shipment.getShipmentId())
                         .productId(pkgItem.productId)
                         .quantity(pkgItem.quantity)
-                        .build();
-                shipmentItemRepository.save(shipmentItem);
-
-                // Update order item fulfillment
-                OrderItem orderItem = orderItemMap.get(pkgItem.productId);
-                if (orderItem != null) {
-                    long newFulfilledQty = orderItem.getFulfilledQty() + pkgItem.quantity;
-                    orderItem.setFulfilledQty(newFulfilledQty);
-
-                    // Update order item status
-                    if (newFulfilledQty >= orderItem.getRequestedQty()) {
-                        orderItem.setStatus("FULFILLED");
-                    } else {
-                        orderItem.setStatus("PARTIALLY_FULFILLED");
-                    }
-                    orderItemRepository.save(orderItem);
-
-                    // Reduce inventory
-                    inventoryService.reduceInventory(pkgItem.productId, pkgItem.quantity);
-                    log.info("Shipped {} units of product {} in shipment {}",
-                            pkgItem.quantity, pkgItem.productId, shipment.getShipmentId());
-                }
+                        .build());
+                shippedQuantities.merge(pkgItem.productId, pkgItem.quantity, Long::sum);
+                log.debug("Shipped {} units of product {} in shipment {}",
+                        pkgItem.quantity, pkgItem.productId, shipment.getShipmentId());
             }
 
             createdShipments.add(shipment);
         }
+        shipmentItemRepository.saveAll(shipmentItems);
+
+        // Update each order item once, splitting what each product shipped
+        // across its lines in order
+        List<OrderItem> shippedOrderItems = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : shippedQuantities.entrySet()) {
+            long shippedLeft = entry.getValue();
+            for (OrderItem orderItem : orderItemsByProduct.get(entry.getKey())) {
+                long shipped = Math.min(shippedLeft, orderItem.getRequestedQty() - orderItem.getFulfilledQty());
+                if (shipped <= 0) {
+                    break;
+                }
+                shippedLeft -= shipped;
+                long newFulfilledQty = orderItem.getFulfilledQty() + shipped;
+                orderItem.setFulfilledQty(newFulfilledQty);
+                orderItem.setStatus(newFulfilledQty >= orderItem.getRequestedQty()
+                        ? "FULFILLED" : "PARTIALLY_FULFILLED");
+                shippedOrderItems.add(orderItem);
+            }
+        }
+        orderItemRepository.saveAll(shippedOrderItems);
 
         return createdShipments;
     }
 
+    /**
+     * Takes reserved stock first, then reduces available inventory, with one
+     * decrement per product for the whole order. In ATOMIC update mode the
+     * available quantities were read without a lock and another order may
+     * have taken some of them since; items are trimmed to what was actually
+     * taken, and the rest of the order stays on backorder.
+     *
+     * The order's other products go into the decrement with quantity 0, so
+     * that in ATOMIC mode all of its rows are written, and locked, in one
+     * ascending pass before its pending quantities are (see
+     * OrderService.processOrder).
+     *
+     * @return The items to pack, limited to the stock taken
+     */
+    private List<ShipmentPackagingOptimizer.ShipmentItem> takeInventory(
+            List<ShipmentPackagingOptimizer.ShipmentItem> itemsToPack, Map<Long, Long> reservedLeft,
+            List<Long> productIds) {
+        Map<Long, Long> wanted = new LinkedHashMap<>();
+        itemsToPack.forEach(item -> wanted.merge(item.productId, item.quantity, Long::sum));
+
+        Map<Long, Long> fromReserved = new HashMap<>();
+        Map<Long, Long> fromAvailable = new HashMap<>();
+        for (Map.Entry<Long, Long> entry : wanted.entrySet()) {
+            long reserved = Math.min(entry.getValue(), reservedLeft.getOrDefault(entry.getKey(), 0L));
+            if (reserved > 0) {
+                fromReserved.put(entry.getKey(), reserved);
+            }
+            if (entry.getValue() > reserved) {
+                fromAvailable.put(entry.getKey(), entry.getValue() - reserved);
+            }
+        }
+        productIds.forEach(productId -> fromAvailable.putIfAbsent(productId, 0L));
+        Map<Long, Long> taken = new HashMap<>(fromReserved);
+        if (!fromReserved.isEmpty()) {
+            inventoryService.consumeReservedInventories(fromReserved);
+        }
+        inventoryService.reduceInventories(fromAvailable).forEach((productId, quantity) -> {
+            if (quantity > 0) {
+                taken.merge(productId, quantity, Long::sum);
+            }
+        });
+        if (taken.equals(wanted)) {
+            return itemsToPack;
+        }
+
+        List<ShipmentPackagingOptimizer.ShipmentItem> trimmed = new ArrayList<>();
+        for (ShipmentPackagingOptimizer.ShipmentItem item : itemsToPack) {
+            long quantity = Math.min(item.quantity, taken.getOrDefault(item.productId, 0L));
+            if (quantity > 0) {
+                taken.merge(item.productId, -quantity, Long::sum);
+                trimmed.add(new ShipmentPackagingOptimizer.ShipmentItem(item.productId, quantity, item.unitWeightG));
+            }
+        }
+        return trimmed;
+    }
+
     /**
      * Retrieves shipment details by shipment ID.
      */
@@ -150,6 +239,68 @@ public class ShipmentService {
         return shipmentItemRepository.findByShipmentId(shipmentId);
     }
 
+    /**
+     * Retrieves a shipment's order and shipped items with a single query,
+     * without loading the shipped products.
+     *
+     * @throws ShipmentNotFoundException if the shipment does not exist
+     */
+    @Transactional(readOnly = true)
+    public ShipmentResponseDTO getShipmentResponse(Long shipmentId) {
+        List<Object[]> lines = shipmentRepository.findShipmentLines(shipmentId);
+        if (lines.isEmpty()) {
+            throw new ShipmentNotFoundException("Shipment not found: " + shipmentId);
+        }
+        List<ShippedItemDTO> shipped = new ArrayList<>(lines.size());
+        for (Object[] line : lines) {
+            if (line[1] != null) {
+                shipped.add(ShippedItemDTO.builder()
+                        .productId((Long) line[1])
+                        .quantity((Long) line[2])
+                        .build());
+            }
+        }
+        return ShipmentResponseDTO.builder()
+                .orderId((Long) lines.get(0)[0])
+                .shipped(shipped)
+                .build();
+    }
+
+    /**
+     * Retrieves several shipments with two queries, one for the shipments
+     * and one for all of their items, without loading the shipped products.
+     *
+     * @param shipmentIds Shipment IDs to look up
+     * @return Map of shipmentId to shipment in the order of the given IDs;
+     *         unknown IDs are absent
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ShipmentResponseDTO> getShipmentResponses(Collection<Long> shipmentIds) {
+        Map<Long, Long> orderIds = new HashMap<>();
+        for (Object[] row : shipmentRepository.findOrderIdsByShipmentIdIn(shipmentIds)) {
+            orderIds.put((Long) row[0], (Long) row[1]);
+        }
+        Map<Long, ShipmentResponseDTO> shipments = new LinkedHashMap<>();
+        for (Long shipmentId : shipmentIds) {
+            Long orderId = orderIds.get(shipmentId);
+            if (orderId != null) {
+                shipments.put(shipmentId, ShipmentResponseDTO.builder()
+                        .orderId(orderId)
+                        .shipped(new ArrayList<>())
+                        .build());
+            }
+        }
+        if (!shipments.isEmpty()) {
+            for (Object[] line : shipmentItemRepository.findLinesByShipmentIdIn(shipments.keySet())) {
+                shipments.get((Long) line[0]).getShipped().add(ShippedItemDTO.builder()
+                        .productId((Long) line[1])
+                        .quantity((Long) line[2])
+                        .build());
+            }
+        }
+        return shipments;
+    }
+
     /**
      * Gets all shipments for an order.
      */
@@ -0,0 +1,256 @@
+package com.inventory.util;
+
+import com.inventory.entity.Product;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * CatalogSnapshotFile - Read-only, memory-mapped binary copy of the product
+ * catalog.
+ *
+ * Layout: a 64-byte header [int magic][int version][int count][int unused]
+ * [long namesOffset][32-byte digest][8 bytes unused], then one 24-byte record
+ * per product sorted by ID, [long productId][int massG][int nameLength]
+ * [long nameOffset], then the UTF-8 names back to back. Fixed-size sorted
+ * records make a lookup a binary search over the mapping, with no parsing
+ * when the file is opened; pages are read in by the OS as they are touched.
+ *
+ * The digest is a SHA-256 over every product's ID, mass and name in ID
+ * order (see Digest), so a snapshot can be compared with the products
+ * table without comparing rows one by one.
+ *
+ * Files are written to a temporary file and moved into place, so a reader
+ * never sees a partly written snapshot. Lookups only use absolute reads and
+ * are thread-safe.
+ */
+public class CatalogSnapshotFile {
+
+    private static final int MAGIC = 0x49434154; // "ICAT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORD_BYTES = 24;
+    private static final int DIGEST_OFFSET = 24;
+    private static final int DIGEST_BYTES = 32;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final byte[] digest;
+
+    private CatalogSnapshotFile(Path path, MappedByteBuffer buffer, int count, byte[] digest) {
+        this.path = path;
+        this.buffer = buffer;
+        this.count = count;
+        this.digest = digest;
+    }
+
+    /**
+     * Maps an existing snapshot and checks its header.
+     *
+     * @throws IOException if the file is missing, truncated or not a snapshot
+     */
+    public static CatalogSnapshotFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a catalog snapshot: " + path + " has " + size + " bytes");
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int count = buffer.getInt(8);
+            long namesOffset = buffer.getLong(16);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || count < 0
+                    || namesOffset != HEADER_BYTES + (long) count * RECORD_BYTES || namesOffset > size) {
+                throw new IOException("Not a catalog snapshot or unsupported version: " + path);
+            }
+            byte[] digest = new byte[DIGEST_BYTES];
+            buffer.get(DIGEST_OFFSET, digest);
+            return new CatalogSnapshotFile(path, buffer, count, digest);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the rows the source produces and moves it into
+     * place, replacing any previous snapshot.
+     *
+     * @param source Emits products in ascending ID order
+     * @return Number of products written
+     * @throws IllegalStateException if the source is not in ascending ID order
+     */
+    public static int write(Path path, RowSource source) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path records = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        Path names = Files.createTempFile(parent, path.getFileName().toString(), ".names.tmp");
+        try {
+            Digest digest = new Digest();
+            long[] written = {0, Long.MIN_VALUE, 0};   // count, last ID, name bytes
+            try (DataOutputStream recordsOut = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(records), 1 << 16));
+                    DataOutputStream namesOut = new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(names), 1 << 16))) {
+                recordsOut.write(new byte[HEADER_BYTES]);
+                source.forEach((productId, productName, massG) -> {
+                    if (productId <= written[1]) {
+                        throw new IllegalStateException("Products must be in ascending ID order at " + productId);
+                    }
+                    byte[] name = productName.getBytes(StandardCharsets.UTF_8);
+                    recordsOut.writeLong(productId);
+                    recordsOut.writeInt(massG);
+                    recordsOut.writeInt(name.length);
+                    recordsOut.writeLong(written[2]);
+                    namesOut.write(name);
+                    digest.add(productId, name, massG);
+                    written[0]++;
+                    written[1] = productId;
+                    written[2] += name.length;
+                });
+                namesOut.flush();
+                Files.copy(names, recordsOut);
+            }
+            if (written[0] > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Too many products for one snapshot: " + written[0]);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt((int) written[0])
+                    .putInt(0)
+                    .putLong(HEADER_BYTES + written[0] * RECORD_BYTES)
+                    .put(digest.finish());
+            header.clear();
+            try (FileChannel channel = FileChannel.open(records, StandardOpenOption.WRITE)) {
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(records, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return (int) written[0];
+        } finally {
+            Files.deleteIfExists(records);
+            Files.deleteIfExists(names);
+        }
+    }
+
+    /**
+     * Looks a product up by binary search.
+     *
+     * @return A new detached Product, or null if the snapshot does not have it
+     */
+    public Product find(long productId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = HEADER_BYTES + mid * RECORD_BYTES;
+            long id = buffer.getLong(record);
+            if (id < productId) {
+                low = mid + 1;
+            } else if (id > productId) {
+                high = mid - 1;
+            } else {
+                return Product.builder()
+                        .productId(id)
+                        .massG(buffer.getInt(record + 8))
+                        .productName(new String(name(record), StandardCharsets.UTF_8))
+                        .build();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recomputes the digest from the records, for comparison with the one in
+     * the header (file corruption) and with the products table (staleness).
+     */
+    public byte[] computeDigest() {
+        Digest digest = new Digest();
+        for (int i = 0; i < count; i++) {
+            int record = HEADER_BYTES + i * RECORD_BYTES;
+            digest.add(buffer.getLong(record), name(record), buffer.getInt(record + 8));
+        }
+        return digest.finish();
+    }
+
+    /**
+     * Digest stored when the snapshot was written.
+     */
+    public byte[] getDigest() {
+        return digest.clone();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long getFileBytes() {
+        return buffer.capacity();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    private byte[] name(int record) {
+        int length = buffer.getInt(record + 12);
+        long offset = buffer.getLong(record + 16);
+        byte[] name = new byte[length];
+        buffer.get((int) (HEADER_BYTES + (long) count * RECORD_BYTES + offset), name);
+        return name;
+    }
+
+    /**
+     * Order-sensitive SHA-256 over products, fed in ascending ID order.
+     */
+    public static class Digest {
+
+        private final MessageDigest sha256;
+        private final ByteBuffer fields = ByteBuffer.allocate(Long.BYTES + 2 * Integer.BYTES);
+
+        public Digest() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        public void add(long productId, byte[] productName, int massG) {
+            fields.clear();
+            fields.putLong(productId).putInt(massG).putInt(productName.length);
+            sha256.update(fields.array());
+            sha256.update(productName);
+        }
+
+        public byte[] finish() {
+            return sha256.digest();
+        }
+    }
+
+    /**
+     * Emits the products to write.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        void forEach(RowConsumer consumer) throws IOException;
+    }
+
+    /**
+     * Receives one product; may throw IOException while writing it.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(long productId, String productName, int massG) throws IOException;
+    }
+}
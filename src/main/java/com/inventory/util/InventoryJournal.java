@@ -0,0 +1,231 @@
+package com.inventory.util;
+
+import lombok.extern.slf4j.Slf4j;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * InventoryJournal - Append-only log of inventory quantity changes.
+ *
+ * The journal is a sequence of segment files. Each segment starts with a
+ * checkpoint: one SNAPSHOT record per product holding its absolute quantity,
+ * followed by a CHECKPOINT marker. After that come DELTA records. Starting a
+ * new segment writes a fresh checkpoint and only then deletes the older
+ * segments, so the newest segment with a CHECKPOINT marker always describes
+ * the complete state: a product's quantity is its snapshot value (or the
+ * database value if it has none) plus the sum of its deltas.
+ *
+ * Records are fixed-size: type (1 byte), productId (8 bytes), value (8 bytes).
+ * A partially written last record (crash during append) is ignored.
+ */
+@Slf4j
+public class InventoryJournal implements Closeable {
+
+    private static final byte SNAPSHOT = 'S';
+    private static final byte CHECKPOINT = 'C';
+    private static final byte DELTA = 'D';
+    private static final int RECORD_BYTES = 17;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+
+    private FileChannel channel;
+    private long segment;
+
+    public InventoryJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Appends a quantity change. Opens a first segment (with an empty
+     * checkpoint) if none is open yet.
+     */
+    public synchronized void append(long productId, long delta) {
+        try {
+            if (channel == null) {
+                startSegment(Map.of());
+            }
+            write(channel, DELTA, productId, delta);
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to inventory journal", e);
+        }
+    }
+
+    /**
+     * Starts a new segment that begins with the given absolute quantities and
+     * deletes all older segments.
+     *
+     * @param quantities Absolute quantity of every product tracked in memory
+     */
+    public synchronized void checkpoint(Map<Long, Long> quantities) {
+        try {
+            startSegment(quantities);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to checkpoint inventory journal", e);
+        }
+    }
+
+    /**
+     * Reads the newest complete segment.
+     *
+     * @return The recovered state, or null if there is no journal
+     */
+    public synchronized Recovered read() {
+        try {
+            List<Path> segments = listSegments();
+            Collections.reverse(segments);
+            for (Path path : segments) {
+                Recovered recovered = readSegment(path);
+                if (recovered != null) {
+                    return recovered;
+                }
+                log.warn("Ignoring inventory journal segment {} without a checkpoint", path);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read inventory journal", e);
+        }
+    }
+
+    /**
+     * Deletes every segment, once the quantities they hold are in the
+     * inventory table. The next append starts a new, empty segment.
+     */
+    public synchronized void clear() {
+        close();
+        try {
+            for (Path path : listSegments()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear inventory journal", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close inventory journal", e);
+        }
+        channel = null;
+    }
+
+    private void startSegment(Map<Long, Long> quantities) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> older = listSegments();
+        long next = Math.max(segment, older.isEmpty() ? 0 : segmentNumber(older.get(older.size() - 1))) + 1;
+
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, next, SEGMENT_SUFFIX));
+        FileChannel newChannel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        for (Map.Entry<Long, Long> entry : new TreeMap<>(quantities).entrySet()) {
+            write(newChannel, SNAPSHOT, entry.getKey(), entry.getValue());
+        }
+        write(newChannel, CHECKPOINT, 0L, quantities.size());
+        if (fsync) {
+            newChannel.force(true);
+        }
+
+        // The new checkpoint is complete; older segments are no longer needed
+        close();
+        channel = newChannel;
+        segment = next;
+        for (Path old : older) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private void write(FileChannel target, byte type, long productId, long value) throws IOException {
+        record.clear();
+        record.put(type).putLong(productId).putLong(value).flip();
+        while (record.hasRemaining()) {
+            target.write(record);
+        }
+    }
+
+    private Recovered readSegment(Path path) throws IOException {
+        Map<Long, Long> snapshot = new HashMap<>();
+        Map<Long, Long> deltas = new HashMap<>();
+        boolean checkpointed = false;
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (buffer.remaining() >= RECORD_BYTES) {
+            byte type = buffer.get();
+            long productId = buffer.getLong();
+            long value = buffer.getLong();
+            switch (type) {
+                case SNAPSHOT -> snapshot.put(productId, value);
+                case CHECKPOINT -> checkpointed = true;
+                case DELTA -> deltas.merge(productId, value, Long::sum);
+                default -> throw new IOException("Corrupt inventory journal record in " + path);
+            }
+        }
+        return checkpointed ? new Recovered(snapshot, deltas) : null;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted(Comparator.comparingLong(InventoryJournal::segmentNumber))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * State read back from the journal.
+     */
+    public static class Recovered {
+        private final Map<Long, Long> snapshot;
+        private final Map<Long, Long> deltas;
+
+        Recovered(Map<Long, Long> snapshot, Map<Long, Long> deltas) {
+            this.snapshot = snapshot;
+            this.deltas = deltas;
+        }
+
+        /**
+         * Absolute quantities at the last checkpoint.
+         */
+        public Map<Long, Long> getSnapshot() {
+            return snapshot;
+        }
+
+        /**
+         * Net change per product since the last checkpoint.
+         */
+        public Map<Long, Long> getDeltas() {
+            return deltas;
+        }
+    }
+}
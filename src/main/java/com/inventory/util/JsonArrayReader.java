@@ -0,0 +1,67 @@
+package com.inventory.util;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JsonArrayReader - Reads a top-level JSON array in chunks of elements.
+ *
+ * The array is walked token by token with Jackson's streaming parser; only
+ * the element under the cursor is bound to an object, with the same
+ * ObjectMapper settings as request body binding. Memory use depends on the
+ * chunk size, not on the length of the input.
+ *
+ * @param <T> Element type
+ */
+public class JsonArrayReader<T> implements Closeable {
+
+    private final JsonParser parser;
+    private final ObjectReader elementReader;
+    private boolean finished;
+
+    /**
+     * @throws JsonParseException if the input does not start with an array
+     */
+    public JsonArrayReader(ObjectMapper objectMapper, InputStream input, Class<T> elementType) throws IOException {
+        this.parser = objectMapper.getFactory().createParser(input);
+        this.elementReader = objectMapper.readerFor(elementType);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new JsonParseException(parser, "Expected a JSON array");
+        }
+    }
+
+    /**
+     * Reads up to maxSize more elements.
+     *
+     * @return The elements read; empty once the array has ended
+     * @throws IOException if the input is malformed or ends inside the array
+     */
+    public List<T> nextChunk(int maxSize) throws IOException {
+        List<T> chunk = new ArrayList<>(Math.min(maxSize, 1024));
+        while (!finished && chunk.size() < maxSize) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                finished = true;
+            } else if (token == null) {
+                throw new JsonParseException(parser, "Unexpected end of input inside the JSON array");
+            } else {
+                chunk.add(elementReader.readValue(parser));
+            }
+        }
+        return chunk;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,166 @@
+package com.inventory.util;
+
+import lombok.extern.slf4j.Slf4j;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedCommandJournal - Append-only command log written through a
+ * memory-mapped file.
+ *
+ * Records are [int length][long sequence][payload]. The file is mapped in
+ * fixed-size regions; when a record does not fit in the current region the
+ * next region is mapped directly after the last record. Unwritten space is
+ * zero, so a zero length marks the end of the log; the length is written
+ * after the rest of the record, so a torn record is never replayed. Appends
+ * only copy bytes
+ * into the mapping; force() makes them durable against power loss, while a
+ * process crash loses nothing that was appended.
+ *
+ * Not thread-safe: a single writer (the engine thread) owns the journal.
+ */
+@Slf4j
+public class MappedCommandJournal implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    private final Path path;
+    private final long regionBytes;
+
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionStart;
+
+    public MappedCommandJournal(Path path, long regionBytes) {
+        this.path = path;
+        this.regionBytes = regionBytes;
+    }
+
+    /**
+     * Reads every complete record, in order, then positions the journal for
+     * appending after the last one.
+     */
+    public void replay(RecordHandler handler) {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            long position = 0;
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (position + HEADER_BYTES <= size) {
+                header.clear();
+                channel.read(header, position);
+                header.flip();
+                int length = header.getInt();
+                long sequence = header.getLong();
+                if (length <= 0 || position + HEADER_BYTES + length > size) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                channel.read(payload, position + HEADER_BYTES);
+                handler.handle(sequence, payload.array());
+                position += HEADER_BYTES + length;
+            }
+            map(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open command journal " + path, e);
+        }
+    }
+
+    /**
+     * Appends one command record.
+     */
+    public void append(long sequence, byte[] payload) {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > regionBytes) {
+            throw new IllegalArgumentException("Journal record of " + recordBytes
+                    + " bytes exceeds the region size of " + regionBytes);
+        }
+        if (region.remaining() < recordBytes) {
+            map(regionStart + region.position());
+        }
+        // Length last: a record only becomes visible to replay once complete
+        int start = region.position();
+        region.position(start + Integer.BYTES);
+        region.putLong(sequence).put(payload);
+        region.putInt(start, payload.length);
+    }
+
+    /**
+     * Flushes appended records to the storage device.
+     */
+    public void force() {
+        region.force();
+    }
+
+    /**
+     * Bytes of records appended so far.
+     */
+    public long size() {
+        return regionStart + region.position();
+    }
+
+    /**
+     * Discards every record; used once they are all reflected elsewhere.
+     */
+    public void reset() {
+        truncate(0);
+    }
+
+    /**
+     * Discards the records from the given position (a previous size()) on,
+     * and continues appending there.
+     */
+    public void truncate(long position) {
+        try {
+            region = null;
+            channel.truncate(position);
+            map(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to truncate command journal " + path, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            region.force();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close command journal {}", path, e);
+        }
+        channel = null;
+    }
+
+    private void map(long start) {
+        try {
+            if (region != null) {
+                region.force();
+            }
+            region = channel.map(FileChannel.MapMode.READ_WRITE, start, regionBytes);
+            regionStart = start;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map command journal " + path, e);
+        }
+    }
+
+    /**
+     * Receives replayed records.
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        void handle(long sequence, byte[] payload);
+    }
+}
@@ -0,0 +1,115 @@
+package com.inventory.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.inventory.dto.RestockItemDTO;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RestockRecordReader - Reads restock records from a CSV or NDJSON file one
+ * line at a time.
+ *
+ * CSV lines are "productId,quantity"; a first line that does not start with
+ * a digit is taken as a header. NDJSON lines are RestockItemDTO objects.
+ * Blank lines are skipped in both. Records are numbered from 0 in file
+ * order, so a caller can skip the ones it already applied.
+ */
+public class RestockRecordReader implements Closeable {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectReader jsonReader;
+    private long lineNumber;
+
+    public RestockRecordReader(InputStream input, Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+        this.format = format;
+        this.jsonReader = objectMapper.readerFor(RestockItemDTO.class);
+    }
+
+    /**
+     * Reads and discards up to count records.
+     *
+     * @return Records skipped; fewer than count if the file ended
+     */
+    public long skip(long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count && next() != null) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * Reads up to maxSize more records.
+     *
+     * @return The records read; empty at the end of the file
+     * @throws IllegalArgumentException if a line is not a valid record
+     */
+    public List<RestockItemDTO> nextChunk(int maxSize) throws IOException {
+        List<RestockItemDTO> chunk = new ArrayList<>(Math.min(maxSize, 1024));
+        RestockItemDTO record;
+        while (chunk.size() < maxSize && (record = next()) != null) {
+            chunk.add(record);
+        }
+        return chunk;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private RestockItemDTO next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (format == Format.CSV && lineNumber == 1 && !Character.isDigit(line.charAt(0))) {
+                continue;
+            }
+            RestockItemDTO record = format == Format.CSV ? parseCsv(line) : parseJson(line);
+            if (record.getProductId() == null || record.getQuantity() == null || record.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Line " + lineNumber
+                        + ": product ID and a positive quantity are required");
+            }
+            return record;
+        }
+        return null;
+    }
+
+    private RestockItemDTO parseCsv(String line) {
+        String[] fields = line.split(",");
+        if (fields.length != 2) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected productId,quantity");
+        }
+        try {
+            return new RestockItemDTO(Long.parseLong(fields[0].strip()), Long.parseLong(fields[1].strip()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    private RestockItemDTO parseJson(String line) {
+        try {
+            return jsonReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getOriginalMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.inventory.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * RingBuffer - Bounded multi-producer, single-consumer ring of preallocated
+ * slots.
+ *
+ * Producers claim the next sequence with one atomic increment, wait while
+ * the ring is full (back-pressure), fill the slot and publish it by storing
+ * the sequence in the slot's marker. The single consumer reads slots strictly
+ * in sequence order, so entries are processed in exactly the order they were
+ * claimed. Neither side takes a lock; waiting sides park for a few
+ * microseconds at a time.
+ *
+ * @param <T> Entry type
+ */
+public class RingBuffer<T> {
+
+    private static final long WAIT_NANOS = 10_000;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> entries;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1;
+
+    /**
+     * @param capacity Number of slots; must be a power of two
+     */
+    public RingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Publishes an entry, waiting for a free slot if the ring is full.
+     *
+     * @return The entry's sequence number
+     */
+    public long publish(T entry) {
+        long sequence = claimed.incrementAndGet();
+        // The slot is free once the entry one lap behind has been consumed
+        while (sequence - consumed > capacity) {
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+        int index = (int) sequence & mask;
+        entries.set(index, entry);
+        published.set(index, sequence);
+        return sequence;
+    }
+
+    /**
+     * Hands up to maxEntries published entries to the handler, in sequence
+     * order. Must only be called from the consumer thread.
+     *
+     * @return Number of entries handled; 0 if none were published
+     */
+    public int drain(Consumer<T> handler, int maxEntries) {
+        int handled = 0;
+        long next = consumed + 1;
+        while (handled < maxEntries) {
+            int index = (int) next & mask;
+            if (published.get(index) != next) {
+                break;
+            }
+            T entry = entries.get(index);
+            entries.set(index, null);
+            handler.accept(entry);
+            handled++;
+            next++;
+        }
+        if (handled > 0) {
+            consumed = next - 1;
+        }
+        return handled;
+    }
+
+    /**
+     * Parks the consumer briefly; used when drain found nothing.
+     */
+    public void idle() {
+        LockSupport.parkNanos(WAIT_NANOS);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Entries claimed by producers but not yet consumed.
+     */
+    public long size() {
+        return Math.max(0, claimed.get() - consumed);
+    }
+}
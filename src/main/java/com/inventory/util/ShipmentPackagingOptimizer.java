@@ -15,18 +15,33 @@ public class ShipmentPackagingOptimizer {
     private static final int MAX_SHIPMENT_WEIGHT_G = 1800;
 
     /**
-     * Represents a shipment package with items.
+     * Represents a shipment package with items, at most one per product.
      */
     public static class ShipmentPackage {
         public List<ShipmentItem> items = new ArrayList<>();
         public int totalWeightG = 0;
+        private final Map<Long, Integer> itemIndexByProduct = new HashMap<>();
 
         public boolean canAddItem(ShipmentItem item) {
             return (totalWeightG + item.totalWeightG) <= MAX_SHIPMENT_WEIGHT_G;
         }
 
+        /**
+         * Adds an item, merging it into the package's item for the same
+         * product if there is one, so the package becomes one shipment_items
+         * row per product.
+         */
         public void addItem(ShipmentItem item) {
-            items.add(item);
+            Integer index = itemIndexByProduct.get(item.productId);
+            if (index == null) {
+                itemIndexByProduct.put(item.productId, items.size());
+                items.add(item);
+            } else {
+                // A new item, as the packed ones may belong to the caller
+                ShipmentItem packed = items.get(index);
+                items.set(index, new ShipmentItem(item.productId, packed.quantity + item.quantity,
+                        packed.unitWeightG));
+            }
             totalWeightG += item.totalWeightG;
         }
     }
@@ -59,6 +74,8 @@ public class ShipmentPackagingOptimizer {
      * 2. Sort items by weight in descending order (heaviest first)
      * 3. For each item, place it in the first bin (shipment) that has enough space
      * 4. If no bin has space, create a new bin
+     * Items for the same product that end up in the same bin are merged into
+     * one item.
      * 
      * This approach minimizes the number of shipments needed while handling
      * oversized items.
@@ -0,0 +1,67 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.config.InventoryProperties.UpdateMode;
+import com.inventory.entity.Inventory;
+import com.inventory.entity.Product;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Base of the service tests that run against the database in several
+ * update modes. They share one application context and database, so each
+ * test creates its own products with IDs from a shared counter.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:services;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+        "inventory.reservation.wheel-tick-ms=20",
+        "inventory.in-memory.journal-dir=${java.io.tmpdir}/inventory-journal-${random.uuid}",
+        "inventory.sharding.rebalance-interval-ms=60000",
+        "inventory.ledger.checkpoint-interval-ms=600000",
+        "inventory.ledger.checkpoint-delay-ms=0",
+        "inventory.snapshot.refresh-interval-ms=60000",
+        "logging.level.com.inventory=WARN"
+})
+@AutoConfigureMockMvc
+abstract class AbstractDatabaseTest {
+
+    private static long nextId = 1_000L;
+
+    @Autowired
+    protected InventoryService inventoryService;
+
+    @Autowired
+    protected InventoryRepository inventoryRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @Autowired
+    protected InventoryProperties inventoryProperties;
+
+    @AfterEach
+    void restoreMode() {
+        inventoryProperties.setUpdateMode(UpdateMode.PESSIMISTIC);
+    }
+
+    /**
+     * A fresh ID for a product or an order.
+     */
+    protected static synchronized long nextId() {
+        return nextId++;
+    }
+
+    /**
+     * Creates a product with an inventory row holding availableQty.
+     */
+    protected Long createProduct(long availableQty) {
+        Long id = nextId();
+        productRepository.save(Product.builder().productId(id).productName("P" + id).massG(100).build());
+        inventoryRepository.save(Inventory.builder().productId(id).availableQty(availableQty).build());
+        return id;
+    }
+}
@@ -0,0 +1,134 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.RestockQueueStatsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AsyncRestockQueue Test Suite")
+class AsyncRestockQueueTest {
+
+    @Mock
+    private RestockService restockService;
+
+    private InventoryProperties properties;
+    private AsyncRestockQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        properties = new InventoryProperties();
+        properties.getRestock().setCoalesceWindowMs(100);
+        properties.getRestock().setPassRetryBackoffMs(50);
+        queue = new AsyncRestockQueue(restockService, properties, new OptimisticRetry(properties));
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should coalesce restocks of the same product into one allocation pass")
+    void testCoalescesSameProduct() {
+        // Arrange
+        when(restockService.fulfillBacklog(anyLong(), anyLong()))
+                .thenReturn(new RestockService.BacklogFulfillment());
+
+        // Act
+        queue.submit(1L, 10L);
+        queue.submit(1L, 5L);
+        queue.submit(1L, 3L);
+
+        // Assert
+        verify(restockService, timeout(2000).times(1)).fulfillBacklog(1L, 18L);
+        RestockQueueStatsDTO stats = queue.getStats();
+        assertEquals(3L, stats.getEnqueued());
+        assertEquals(2L, stats.getCoalesced());
+        assertEquals(2.0 / 3.0, stats.getCoalesceRate(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should run a separate pass per product")
+    void testSeparatePassPerProduct() {
+        // Arrange
+        when(restockService.fulfillBacklog(anyLong(), anyLong()))
+                .thenReturn(new RestockService.BacklogFulfillment());
+
+        // Act
+        queue.submit(1L, 10L);
+        queue.submit(2L, 4L);
+
+        // Assert
+        verify(restockService, timeout(2000)).fulfillBacklog(1L, 10L);
+        verify(restockService, timeout(2000)).fulfillBacklog(2L, 4L);
+        assertEquals(0L, queue.getStats().getCoalesced());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed pass with the same quantity")
+    void testFailedPassIsRetried() {
+        // Arrange
+        when(restockService.fulfillBacklog(anyLong(), anyLong()))
+                .thenThrow(new IllegalStateException("boom"))
+                .thenReturn(new RestockService.BacklogFulfillment());
+
+        // Act
+        queue.submit(1L, 10L);
+
+        // Assert
+        verify(restockService, timeout(2000).times(2)).fulfillBacklog(1L, 10L);
+        RestockQueueStatsDTO stats = queue.getStats();
+        assertEquals(1L, stats.getRetried());
+        assertEquals(0L, stats.getFailed());
+    }
+
+    @Test
+    @DisplayName("Should run queued passes at shutdown instead of dropping them")
+    void testShutdownRunsQueuedPasses() {
+        // Arrange
+        properties.getRestock().setCoalesceWindowMs(60_000);
+        when(restockService.fulfillBacklog(anyLong(), anyLong()))
+                .thenReturn(new RestockService.BacklogFulfillment());
+        queue.submit(1L, 7L);
+
+        // Act
+        queue.shutdown();
+
+        // Assert
+        verify(restockService).fulfillBacklog(1L, 7L);
+        assertEquals(0, queue.getStats().getQueuedProducts());
+    }
+
+    @Test
+    @DisplayName("Should give up a pass after its last attempt and keep draining")
+    void testFailedPassIsCounted() {
+        // Arrange
+        properties.getRestock().setPassMaxAttempts(2);
+        when(restockService.fulfillBacklog(eq(1L), anyLong())).thenThrow(new IllegalStateException("boom"));
+        when(restockService.fulfillBacklog(eq(2L), anyLong()))
+                .thenReturn(new RestockService.BacklogFulfillment());
+
+        // Act
+        queue.submit(1L, 1L);
+        queue.submit(2L, 1L);
+
+        // Assert
+        verify(restockService, timeout(2000)).fulfillBacklog(2L, 1L);
+        verify(restockService, timeout(2000).times(2)).fulfillBacklog(1L, 1L);
+        queue.shutdown();
+        RestockQueueStatsDTO stats = queue.getStats();
+        assertEquals(1L, stats.getRetried());
+        assertEquals(1L, stats.getFailed());
+        assertEquals(0, stats.getQueuedProducts());
+    }
+}
@@ -0,0 +1,82 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties.UpdateMode;
+import com.inventory.dto.AvailableToPromiseDTO;
+import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderRequestDTO;
+import com.inventory.dto.RestockItemDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Available-to-promise tests against the database: pending totals follow
+ * orders, restocks and backlog draining, and always match the backlog.
+ */
+@DisplayName("Available-to-promise tests")
+class AvailableToPromiseTest extends AbstractDatabaseTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RestockService restockService;
+
+    @Autowired
+    private BacklogService backlogService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Modes in which restock and backlog draining read the stock they just wrote
+    @ParameterizedTest
+    @EnumSource(value = UpdateMode.class, names = {"PESSIMISTIC", "OPTIMISTIC"})
+    @DisplayName("Pending totals follow orders, restocks and backlog draining")
+    void testPendingTotals(UpdateMode mode) {
+        inventoryProperties.setUpdateMode(mode);
+        Long first = createProduct(5L);
+        Long second = createProduct(0L);
+
+        // 3 of first and all of second go to the backlog
+        orderService.processOrder(new OrderRequestDTO(nextId(), List.of(
+                new OrderItemRequestDTO(first, 8L), new OrderItemRequestDTO(second, 4L))));
+        assertAtp(first, 0L, 3L, 0L);
+        assertAtp(second, 0L, 4L, 0L);
+
+        // A restock ships part of the backlog
+        restockService.processRestock(List.of(new RestockItemDTO(first, 2L)));
+        assertAtp(first, 0L, 1L, 0L);
+
+        // Stock added without backlog allocation is netted out until drained
+        restockService.increaseInventory(List.of(new RestockItemDTO(second, 10L)));
+        assertAtp(second, 10L, 4L, 6L);
+        transactionTemplate.execute(status -> backlogService.drainBatch(10));
+        assertAtp(second, 6L, 0L, 6L);
+
+        restockService.processRestock(List.of(new RestockItemDTO(first, 3L)));
+        assertAtp(first, 2L, 0L, 2L);
+        assertEquals(0L, backlogTotal(first) + backlogTotal(second));
+    }
+
+    private void assertAtp(Long productId, long available, long pending, long atp) {
+        AvailableToPromiseDTO result = inventoryService.getAvailableToPromise(List.of(productId)).get(0);
+        assertEquals(new AvailableToPromiseDTO(productId, available, pending, atp), result);
+        assertEquals(backlogTotal(productId), pending);
+    }
+
+    private long backlogTotal(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(pending_qty), 0) FROM pending_order_items WHERE product_id = ?",
+                Long.class, productId);
+    }
+}
@@ -0,0 +1,219 @@
+package com.inventory.service;
+
+import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderRequestDTO;
+import com.inventory.dto.RestockItemDTO;
+import com.inventory.entity.OrderItem;
+import com.inventory.entity.PendingOrderItem;
+import com.inventory.entity.Product;
+import com.inventory.repository.OrderItemRepository;
+import com.inventory.repository.PendingOrderItemRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for SKIP LOCKED backlog draining, using H2 in
+ * PostgreSQL mode as a stand-in for PostgreSQL.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:backlog;MODE=PostgreSQL;LOCK_TIMEOUT=5000",
+        "logging.level.com.inventory=WARN"
+})
+@DisplayName("BacklogService Test Suite")
+class BacklogServiceTest {
+
+    private static final List<Long> PRODUCT_IDS = List.of(1L, 2L, 3L, 4L);
+    private static final Long CLAIM_PRODUCT_ID = 10L;
+    private static final Long RESTOCK_PRODUCT_ID = 11L;
+
+    @Autowired
+    private BacklogService backlogService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RestockService restockService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PendingOrderItemRepository pendingOrderItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private long nextOrderId = 1L;
+
+    @BeforeEach
+    void setUp() {
+        pendingOrderItemRepository.deleteAll();
+        for (Long productId : List.of(1L, 2L, 3L, 4L, CLAIM_PRODUCT_ID, RESTOCK_PRODUCT_ID)) {
+            if (!productRepository.existsById(productId)) {
+                productRepository.save(Product.builder()
+                        .productId(productId).productName("P" + productId).massG(100).build());
+                inventoryService.initializeInventoryForProduct(productId);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent claims should return disjoint batches without blocking")
+    void testConcurrentClaimsAreDisjoint() throws Exception {
+        // Arrange: six pending items with stock available
+        for (int i = 0; i < 6; i++) {
+            placeOrder(Map.of(CLAIM_PRODUCT_ID, 1L));
+        }
+        restockService.increaseInventory(List.of(new RestockItemDTO(CLAIM_PRODUCT_ID, 1L)));
+
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Act: hold a claim of three rows open in another transaction
+        Future<Set<Long>> first = executor.submit(() -> transactionTemplate.execute(status -> {
+            Set<Long> ids = ids(pendingOrderItemRepository.claimBatchForProducts(List.of(CLAIM_PRODUCT_ID), 3));
+            claimed.countDown();
+            await(release);
+            return ids;
+        }));
+        assertTrue(claimed.await(10, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        Set<Long> second = transactionTemplate.execute(status -> ids(
+                pendingOrderItemRepository.claimBatchForProducts(List.of(CLAIM_PRODUCT_ID), 10)));
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        // Assert
+        Set<Long> firstIds = first.get(10, TimeUnit.SECONDS);
+        assertEquals(3, firstIds.size());
+        assertEquals(3, second.size());
+        assertTrue(Collections.disjoint(firstIds, second));
+        assertTrue(waitedMs < 2000, "Second claim should skip locked rows, not wait for them");
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Parallel workers should drain the backlog exactly once")
+    void testParallelWorkersDrainBacklog() throws Exception {
+        // Arrange: 40 backordered orders across four products
+        Random random = new Random(7);
+        Map<Long, Long> requestedPerProduct = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            Map<Long, Long> requested = new HashMap<>();
+            requested.put(PRODUCT_IDS.get(random.nextInt(4)), 1L + random.nextInt(3));
+            requested.put(PRODUCT_IDS.get(random.nextInt(4)), 1L + random.nextInt(3));
+            requested.forEach((id, qty) -> requestedPerProduct.merge(id, qty, Long::sum));
+            placeOrder(requested);
+        }
+        restockService.increaseInventory(requestedPerProduct.entrySet().stream()
+                .map(entry -> new RestockItemDTO(entry.getKey(), entry.getValue() + 5))
+                .toList());
+
+        // Act: four workers drain in batches of five until nothing is claimable
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Long>> workers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            workers.add(executor.submit(() -> {
+                long shipped = 0;
+                BacklogService.DrainResult result;
+                do {
+                    result = backlogService.drainBatch(5);
+                    shipped += result.getUnitsShipped();
+                } while (result.getClaimed() > 0);
+                return shipped;
+            }));
+        }
+        long totalShipped = 0;
+        for (Future<Long> worker : workers) {
+            totalShipped += worker.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(0, pendingOrderItemRepository.count());
+        assertEquals(requestedPerProduct.values().stream().mapToLong(Long::longValue).sum(), totalShipped);
+        for (Map.Entry<Long, Long> entry : requestedPerProduct.entrySet()) {
+            assertEquals(5L, inventoryService.getAvailableQuantity(entry.getKey()));
+        }
+        for (long orderId = 1; orderId < nextOrderId; orderId++) {
+            for (OrderItem item : orderItemRepository.findByOrderId(orderId)) {
+                assertEquals(item.getRequestedQty(), item.getFulfilledQty());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A worker draining during a restock should wait for it instead of deadlocking")
+    void testWorkerWaitsForRestockLocks() throws Exception {
+        // Arrange: three units backordered, one of them now in stock
+        long orderId = nextOrderId;
+        placeOrder(Map.of(RESTOCK_PRODUCT_ID, 3L));
+        restockService.increaseInventory(List.of(new RestockItemDTO(RESTOCK_PRODUCT_ID, 1L)));
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act: a restock holds its lock plan while a worker starts a batch,
+        // then settles the same pending row
+        Future<?> restock = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            inventoryService.lockInventories(List.of(RESTOCK_PRODUCT_ID));
+            locked.countDown();
+            await(release);
+            restockService.processRestock(List.of(new RestockItemDTO(RESTOCK_PRODUCT_ID, 2L)));
+        }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        Future<BacklogService.DrainResult> worker = executor.submit(() -> backlogService.drainBatch(5));
+        Thread.sleep(500);
+        release.countDown();
+
+        // Assert: both finish, and the restock shipped the whole backlog
+        restock.get(30, TimeUnit.SECONDS);
+        assertEquals(0, worker.get(30, TimeUnit.SECONDS).getClaimed());
+        executor.shutdown();
+        assertEquals(0, pendingOrderItemRepository.count());
+        assertEquals(0L, inventoryService.getAvailableQuantity(RESTOCK_PRODUCT_ID));
+        for (OrderItem item : orderItemRepository.findByOrderId(orderId)) {
+            assertEquals(item.getRequestedQty(), item.getFulfilledQty());
+        }
+    }
+
+    private void placeOrder(Map<Long, Long> requested) {
+        List<OrderItemRequestDTO> items = requested.entrySet().stream()
+                .map(entry -> new OrderItemRequestDTO(entry.getKey(), entry.getValue()))
+                .toList();
+        orderService.processOrder(new OrderRequestDTO(nextOrderId++, items));
+    }
+
+    private static Set<Long> ids(List<PendingOrderItem> items) {
+        return items.stream().map(PendingOrderItem::getId).collect(Collectors.toSet());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
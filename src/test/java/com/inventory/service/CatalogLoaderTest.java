@@ -0,0 +1,162 @@
+package com.inventory.service;
+
+import com.inventory.dto.CatalogLoadProgressDTO;
+import com.inventory.dto.CatalogUpsertResultDTO;
+import com.inventory.dto.ProductDTO;
+import com.inventory.entity.Inventory;
+import com.inventory.entity.Product;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk catalog loading against the database: throughput, resets of existing
+ * products, delta upserts and validation.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalogload;MODE=PostgreSQL",
+        "logging.level.com.inventory=WARN"
+})
+@Slf4j
+@DisplayName("Catalog loader tests")
+class CatalogLoaderTest {
+
+    private static final int PRODUCTS = 200_000;
+    private static final int BASELINE_PRODUCTS = 1_000;
+
+    /**
+     * Conservative target: the bulk path must load at least ten times as
+     * fast as saving entities one product at a time on the same hardware.
+     */
+    private static final double MIN_SPEEDUP = 10.0;
+
+    @Autowired
+    private CatalogLoader catalogLoader;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Loads a large catalog with zero inventory in chunks")
+    void testBulkLoadThroughput() {
+        // Baseline: the per-product entity saves the catalog endpoint used before
+        long baselineBegin = System.nanoTime();
+        for (ProductDTO product : products(3_000_000L, BASELINE_PRODUCTS, "B")) {
+            productRepository.save(Product.builder()
+                    .productId(product.getProductId())
+                    .productName(product.getProductName())
+                    .massG(product.getMassG())
+                    .build());
+            inventoryService.initializeInventoryForProduct(product.getProductId());
+        }
+        long baselinePerSecond = BASELINE_PRODUCTS * TimeUnit.SECONDS.toNanos(1)
+                / (System.nanoTime() - baselineBegin);
+
+        List<ProductDTO> catalog = products(1_000_000L, PRODUCTS, "P");
+        // Warm up the statements and the JIT on separate ranges
+        for (int i = 0; i < 3; i++) {
+            catalogLoader.load(products(2_000_000L + i * 100_000L, 100_000, "W"));
+        }
+
+        CatalogLoadProgressDTO result = catalogLoader.load(catalog);
+        log.warn("Catalog load: {} products in {} ms ({}/s, {} chunks; entity saves: {}/s)",
+                result.getLoadedProducts(), result.getElapsedMs(), result.getProductsPerSecond(),
+                result.getChunks(), baselinePerSecond);
+
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(PRODUCTS, result.getInsertedProducts());
+        assertEquals(0L, result.getUpdatedProducts());
+        assertEquals(result, catalogLoader.getProgress());
+        assertEquals(PRODUCTS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory WHERE product_id BETWEEN 1000000 AND 1999999 "
+                        + "AND available_qty = 0 AND reserved_qty = 0 AND pending_qty = 0", Integer.class));
+        assertEquals(0L, inventoryService.getAvailableQuantity(1_000_000L + PRODUCTS - 1));
+        assertTrue(result.getProductsPerSecond() >= baselinePerSecond * MIN_SPEEDUP, "Bulk load at "
+                + result.getProductsPerSecond() + "/s is below " + MIN_SPEEDUP + "x the entity saves' "
+                + baselinePerSecond + "/s");
+    }
+
+    @Test
+    @DisplayName("Reloading resets stock and updates details of existing products")
+    void testReloadResetsExistingProducts() {
+        catalogLoader.load(products(500L, 3, "Old"));
+        inventoryService.increaseInventory(500L, 7L);
+        inventoryService.reserveInventory(500L, 2L);
+
+        CatalogLoadProgressDTO result = catalogLoader.load(List.of(
+                new ProductDTO(500L, "Ignored", 100),
+                new ProductDTO(503L, "New", 300),
+                new ProductDTO(500L, "Renamed", 250)));
+
+        assertEquals(1L, result.getInsertedProducts());
+        assertEquals(1L, result.getUpdatedProducts());
+        assertEquals("Renamed", productRepository.findById(500L).orElseThrow().getProductName());
+        assertEquals(250, productRepository.findById(500L).orElseThrow().getMassG());
+        Inventory inventory = inventoryRepository.findById(500L).orElseThrow();
+        assertEquals(0L, inventory.getAvailableQty());
+        assertEquals(2L, inventory.getReservedQty());
+        assertEquals(0L, inventoryRepository.findById(503L).orElseThrow().getAvailableQty());
+        assertEquals("RESET", jdbcTemplate.queryForObject("SELECT entry_type FROM inventory_ledger "
+                + "WHERE product_id = 500 ORDER BY id DESC LIMIT 1", String.class));
+    }
+
+    @Test
+    @DisplayName("Upserts only changed products and keeps their stock")
+    void testUpsertWritesOnlyChanges() {
+        catalogLoader.load(products(700L, 3, "P"));
+        inventoryService.increaseInventory(700L, 5L);
+        inventoryService.increaseInventory(701L, 6L);
+        Integer ledgerEntries = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_ledger", Integer.class);
+
+        CatalogUpsertResultDTO result = catalogLoader.upsert(List.of(
+                new ProductDTO(700L, "P700", 100 + 700 % 900),
+                new ProductDTO(701L, "Renamed", 150),
+                new ProductDTO(800L, "New", 200)));
+
+        assertEquals(3L, result.getReceivedProducts());
+        assertEquals(List.of(800L), result.getInsertedProductIds());
+        assertEquals(List.of(701L), result.getUpdatedProductIds());
+        assertEquals(1L, result.getUnchangedProducts());
+        assertEquals("Renamed", productRepository.findById(701L).orElseThrow().getProductName());
+        assertEquals(5L, inventoryService.getAvailableQuantity(700L));
+        assertEquals(6L, inventoryService.getAvailableQuantity(701L));
+        assertEquals(0L, inventoryService.getAvailableQuantity(800L));
+        assertEquals(ledgerEntries, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_ledger",
+                Integer.class));
+    }
+
+    @Test
+    @DisplayName("Rejects products without a mass before writing anything")
+    void testRejectsIncompleteProducts() {
+        List<ProductDTO> catalog = List.of(new ProductDTO(900L, "Ok", 100), new ProductDTO(901L, "No mass", null));
+
+        assertThrows(IllegalArgumentException.class, () -> catalogLoader.load(catalog));
+        assertFalse(productRepository.existsById(900L));
+    }
+
+    private static List<ProductDTO> products(long firstId, int count, String prefix) {
+        return LongStream.range(firstId, firstId + count)
+                .mapToObj(id -> new ProductDTO(id, prefix + id, 100 + (int) (id % 900)))
+                .toList();
+    }
+}
@@ -0,0 +1,157 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.ProductDTO;
+import com.inventory.util.CatalogSnapshotFile;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Catalog snapshot tests against the database: rewrites after catalog
+ * changes, warm starts served before verification, and replacement of stale
+ * or corrupt snapshots.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalogsnapshot;MODE=PostgreSQL",
+        "inventory.catalog-snapshot.enabled=true",
+        "inventory.catalog-snapshot.path=${java.io.tmpdir}/inventory-catalog-${random.uuid}/catalog.snapshot",
+        "logging.level.com.inventory=WARN"
+})
+@Slf4j
+@DisplayName("Catalog snapshot tests")
+class CatalogSnapshotStoreTest {
+
+    private static final int PRODUCTS = 100_000;
+
+    @Autowired
+    private CatalogSnapshotStore catalogSnapshotStore;
+
+    @Autowired
+    private CatalogLoader catalogLoader;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private InventoryProperties inventoryProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Rewrites the snapshot after catalog changes and serves warm starts from it")
+    void testRewriteAndWarmStart() throws Exception {
+        catalogLoader.load(products(1L, PRODUCTS));
+        awaitStatus(catalogSnapshotStore, "VERIFIED", productCount());
+
+        catalogLoader.upsert(List.of(new ProductDTO(42L, "Renamed", 420)));
+        awaitStatus(catalogSnapshotStore, "VERIFIED", productCount());
+        assertEquals("Renamed", catalogSnapshotStore.find(42L).getProductName());
+        productCatalogCache.invalidateAll();
+        assertEquals(420, productCatalogCache.getProduct(42L).orElseThrow().getMassG());
+        assertTrue(productCatalogCache.getStats().getSnapshotLoads() >= 1);
+
+        // A restarted instance serves lookups as soon as the file is mapped
+        CatalogSnapshotStore restarted = store(Path.of(inventoryProperties.getCatalogSnapshot().getPath()));
+        try {
+            long begin = System.nanoTime();
+            restarted.open();
+            long opened = System.nanoTime();
+            for (long id = 1; id <= PRODUCTS; id++) {
+                assertNotNull(restarted.find(id));
+            }
+            long looked = System.nanoTime();
+            log.warn("Catalog snapshot warm start: opened {} products in {} us, {} lookups/s",
+                    PRODUCTS, TimeUnit.NANOSECONDS.toMicros(opened - begin),
+                    PRODUCTS * TimeUnit.SECONDS.toNanos(1) / (looked - opened));
+
+            assertEquals("UNVERIFIED", restarted.getStatus().getStatus());
+            restarted.verifyInBackground();
+            awaitStatus(restarted, "VERIFIED", productCount());
+            assertNull(restarted.getStatus().getWrittenAt());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Replaces a stale snapshot after serving it until checked")
+    void testStaleSnapshotIsRewritten() throws Exception {
+        catalogLoader.upsert(List.of(new ProductDTO(900_000L, "Current", 100)));
+        Path path = Files.createTempDirectory("inventory-catalog").resolve("stale.snapshot");
+        CatalogSnapshotFile.write(path, row -> row.accept(900_000L, "Outdated", 100));
+
+        CatalogSnapshotStore restarted = store(path);
+        try {
+            restarted.open();
+            assertEquals("Outdated", restarted.find(900_000L).getProductName());
+
+            restarted.verifyInBackground();
+            awaitStatus(restarted, "VERIFIED", null);
+            assertEquals("Current", restarted.find(900_000L).getProductName());
+            assertNotNull(restarted.getStatus().getWrittenAt());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Ignores a file that is not a snapshot and writes a new one")
+    void testCorruptSnapshotIsIgnored() throws Exception {
+        Path path = Files.createTempDirectory("inventory-catalog").resolve("corrupt.snapshot");
+        Files.write(path, new byte[100]);
+
+        CatalogSnapshotStore restarted = store(path);
+        try {
+            restarted.open();
+            assertEquals("ABSENT", restarted.getStatus().getStatus());
+            assertNotNull(restarted.getStatus().getError());
+
+            restarted.verifyInBackground();
+            awaitStatus(restarted, "VERIFIED", productCount());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    private Integer productCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class);
+    }
+
+    private CatalogSnapshotStore store(Path path) {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getCatalogSnapshot().setEnabled(true);
+        properties.getCatalogSnapshot().setPath(path.toString());
+        return new CatalogSnapshotStore(jdbcTemplate, properties);
+    }
+
+    private static void awaitStatus(CatalogSnapshotStore store, String status, Integer products)
+            throws InterruptedException {
+        BooleanSupplier reached = () -> status.equals(store.getStatus().getStatus())
+                && (products == null || products.equals(store.getStatus().getProducts()));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!reached.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(reached.getAsBoolean(), "Snapshot status is " + store.getStatus());
+    }
+
+    private static List<ProductDTO> products(long firstId, int count) {
+        return LongStream.range(firstId, firstId + count)
+                .mapToObj(id -> new ProductDTO(id, "P" + id, 100 + (int) (id % 900)))
+                .toList();
+    }
+}
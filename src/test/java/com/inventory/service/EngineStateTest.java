@@ -0,0 +1,153 @@
+package com.inventory.service;
+
+import com.inventory.dto.*;
+import com.inventory.entity.Order;
+import com.inventory.entity.OrderItem;
+import com.inventory.entity.PendingOrderItem;
+import com.inventory.exception.ProductNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EngineState Unit Tests")
+class EngineStateTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final Map<Long, Long> storedInventory = new HashMap<>();
+    private final List<Order> storedOrders = new ArrayList<>();
+    private final List<OrderItem> storedOrderItems = new ArrayList<>();
+    private final List<PendingOrderItem> storedPendingItems = new ArrayList<>();
+    private EngineState state;
+
+    @BeforeEach
+    void setUp() {
+        storedInventory.put(1L, 5L);
+        storedInventory.put(2L, 0L);
+        state = new EngineState(new EngineState.Loader() {
+            @Override
+            public Optional<Long> findAvailableQty(Long productId) {
+                return Optional.ofNullable(storedInventory.get(productId));
+            }
+
+            @Override
+            public Optional<Integer> findMassG(Long productId) {
+                return storedInventory.containsKey(productId) ? Optional.of(100) : Optional.empty();
+            }
+
+            @Override
+            public List<PendingOrderItem> findPendingItems(Long productId) {
+                return storedPendingItems.stream().filter(item -> item.getProductId().equals(productId)).toList();
+            }
+
+            @Override
+            public Optional<Order> findOrder(Long orderId) {
+                return storedOrders.stream().filter(order -> order.getOrderId().equals(orderId)).findFirst();
+            }
+
+            @Override
+            public List<OrderItem> findOrderItems(Long orderId) {
+                return storedOrderItems.stream().filter(item -> item.getOrderId().equals(orderId)).toList();
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Should ship available stock and queue the rest as backlog")
+    void testProcessOrderPartiallyFulfilled() {
+        // Arrange
+        EngineProjection projection = new EngineProjection();
+
+        // Act
+        OrderResponseDTO response = state.processOrder(1L, order(100L, 1L, 8L), NOW, projection);
+
+        // Assert
+        assertEquals("PENDING", response.getStatus());
+        assertEquals(5L, response.getItems().get(0).getFulfilledQty());
+        assertEquals(0L, state.getAvailable(1L));
+        assertEquals(1, projection.orderInserts.size());
+        assertEquals(1, projection.shipmentInserts.size());
+        assertEquals(1, projection.pendingInserts.size());
+        assertEquals(3L, projection.pendingInserts.get(0)[2]);
+        assertEquals(0L, projection.inventoryUpdates.get(1L));
+    }
+
+    @Test
+    @DisplayName("Should fulfill the backlog on restock and complete the order")
+    void testProcessRestockCompletesOrder() {
+        // Arrange
+        state.processOrder(1L, order(100L, 1L, 8L), NOW, new EngineProjection());
+        EngineProjection projection = new EngineProjection();
+
+        // Act
+        RestockResponseDTO response = state.processRestock(2L,
+                List.of(new RestockItemDTO(1L, 10L)), NOW, projection);
+
+        // Assert
+        assertEquals(1, response.getShipmentsCreated());
+        assertEquals(1, response.getOrdersUpdated());
+        assertEquals(7L, state.getAvailable(1L));
+        assertEquals("COMPLETED", projection.orderStatusUpdates.get(100L));
+        assertTrue(projection.pendingDeletes.contains(List.of(100L, 1L)));
+        assertEquals(7L, projection.inventoryUpdates.get(1L));
+        assertEquals(0, state.evictSettledOrders(1L));
+        assertEquals(1, state.evictSettledOrders(2L));
+    }
+
+    @Test
+    @DisplayName("Should split restocks across stored lines of the same product by row ID")
+    void testProcessRestockSplitsStoredLines() {
+        // Arrange: an order placed outside the engine with two lines of product 2
+        storedOrders.add(Order.builder().orderId(200L).status("PENDING").createdAt(NOW).build());
+        storedOrderItems.add(OrderItem.builder().id(11L).orderId(200L).productId(2L).requestedQty(3L).build());
+        storedOrderItems.add(OrderItem.builder().id(12L).orderId(200L).productId(2L).requestedQty(4L).build());
+        storedPendingItems.add(PendingOrderItem.builder().id(21L).orderId(200L).productId(2L).pendingQty(3L)
+                .createdAt(NOW).build());
+        storedPendingItems.add(PendingOrderItem.builder().id(22L).orderId(200L).productId(2L).pendingQty(4L)
+                .createdAt(NOW).build());
+        EngineProjection projection = new EngineProjection();
+
+        // Act
+        state.processRestock(1L, List.of(new RestockItemDTO(2L, 5L)), NOW, projection);
+
+        // Assert: 5 shipped fill the lines in order; 2 stay pending on the older row
+        assertEquals(3L, projection.orderItemRowUpdates.get(11L)[0]);
+        assertEquals("FULFILLED", projection.orderItemRowUpdates.get(11L)[1]);
+        assertEquals(2L, projection.orderItemRowUpdates.get(12L)[0]);
+        assertEquals("PARTIALLY_FULFILLED", projection.orderItemRowUpdates.get(12L)[1]);
+        assertEquals(Map.of(21L, 2L), projection.pendingRowUpdates);
+        assertEquals(Set.of(22L), projection.pendingRowDeletes);
+        assertTrue(projection.orderItemUpdates.isEmpty());
+        assertTrue(projection.pendingUpdates.isEmpty());
+        assertEquals(Set.of(2L), projection.pendingProducts);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown products and duplicate orders without changing state")
+    void testRejectedOrdersLeaveStateUntouched() {
+        // Arrange
+        state.processOrder(1L, order(100L, 1L, 2L), NOW, new EngineProjection());
+        EngineProjection projection = new EngineProjection();
+
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class,
+                () -> state.processOrder(2L, order(101L, 99L, 1L), NOW, projection));
+        assertThrows(IllegalArgumentException.class,
+                () -> state.processOrder(3L, order(100L, 1L, 1L), NOW, projection));
+        assertEquals(3L, state.getAvailable(1L));
+        assertTrue(projection.orderInserts.isEmpty());
+        assertTrue(projection.inventoryUpdates.isEmpty());
+    }
+
+    private static OrderRequestDTO order(Long orderId, Long productId, Long quantity) {
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setOrderId(orderId);
+        request.setRequested(List.of(new OrderItemRequestDTO(productId, quantity)));
+        return request;
+    }
+}
@@ -0,0 +1,205 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.entity.Inventory;
+import com.inventory.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InMemoryInventory Unit Tests")
+class InMemoryInventoryTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path journalDir;
+
+    private InventoryProperties properties;
+    private InMemoryInventory inMemoryInventory;
+
+    @BeforeEach
+    void setUp() {
+        properties = new InventoryProperties();
+        properties.setUpdateMode(InventoryProperties.UpdateMode.IN_MEMORY);
+        properties.getInMemory().setJournalDir(journalDir.toString());
+        properties.getInMemory().setFlushIntervalMs(60_000);
+        inMemoryInventory = new InMemoryInventory(inventoryRepository, jdbcTemplate, properties);
+        inMemoryInventory.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inMemoryInventory.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should decrement with compare-and-set and reject overdrafts")
+    void testDecrement() {
+        // Arrange
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inventory(1L, 10L)));
+
+        // Act
+        long remaining = inMemoryInventory.decrement(1L, 4L);
+
+        // Assert
+        assertEquals(6L, remaining);
+        assertThrows(IllegalArgumentException.class, () -> inMemoryInventory.decrement(1L, 7L));
+        assertEquals(6L, inMemoryInventory.get(1L));
+        verify(inventoryRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should write changed quantities to the table in one batch on flush")
+    @SuppressWarnings("unchecked")
+    void testFlushWritesBatch() {
+        // Arrange
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inventory(1L, 10L)));
+        when(inventoryRepository.findById(2L)).thenReturn(Optional.of(inventory(2L, 5L)));
+        inMemoryInventory.decrement(1L, 3L);
+        inMemoryInventory.adjust(2L, 2L);
+
+        // Act
+        inMemoryInventory.flush();
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertArrayEquals(new Object[] {7L, 1L}, rows.getValue().get(0));
+        assertArrayEquals(new Object[] {7L, 2L}, rows.getValue().get(1));
+    }
+
+    @Test
+    @DisplayName("Should replay unflushed changes from the journal after a crash")
+    @SuppressWarnings("unchecked")
+    void testRecoveryAfterCrash() {
+        // Arrange: checkpoint product 1 at 7, then change both products without flushing
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inventory(1L, 10L)));
+        inMemoryInventory.decrement(1L, 3L);
+        inMemoryInventory.flush();
+        when(inventoryRepository.findById(2L)).thenReturn(Optional.of(inventory(2L, 5L)));
+        inMemoryInventory.decrement(1L, 2L);
+        inMemoryInventory.adjust(2L, 4L);
+        reset(jdbcTemplate);
+
+        // Act: a new instance over the same journal, as after a restart
+        InMemoryInventory restarted = new InMemoryInventory(inventoryRepository, jdbcTemplate, properties);
+        restarted.start();
+        restarted.shutdown();
+
+        // Assert: product 1 from its checkpoint (7 - 2), product 2 from the table (5 + 4)
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertArrayEquals(new Object[] {5L, 1L}, rows.getValue().get(0));
+        assertArrayEquals(new Object[] {9L, 2L}, rows.getValue().get(1));
+    }
+
+    @Test
+    @DisplayName("Should not replay the journal after a clean shutdown or in another mode")
+    void testJournalNotReplayedOverNewerTable() {
+        // Arrange: a clean shutdown, then a crash with unflushed changes
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inventory(1L, 10L)));
+        inMemoryInventory.decrement(1L, 3L);
+        inMemoryInventory.shutdown();
+        reset(jdbcTemplate);
+        InMemoryInventory crashed = new InMemoryInventory(inventoryRepository, jdbcTemplate, properties);
+        crashed.start();
+        crashed.decrement(1L, 4L);
+
+        // Act: restart in another mode, then in IN_MEMORY mode again
+        properties.setUpdateMode(InventoryProperties.UpdateMode.PESSIMISTIC);
+        InMemoryInventory pessimistic = new InMemoryInventory(inventoryRepository, jdbcTemplate, properties);
+        pessimistic.start();
+        properties.setUpdateMode(InventoryProperties.UpdateMode.IN_MEMORY);
+        InMemoryInventory restarted = new InMemoryInventory(inventoryRepository, jdbcTemplate, properties);
+        restarted.start();
+        restarted.shutdown();
+
+        // Assert: nothing was replayed into the table
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should journal a transaction's change only once it commits")
+    @SuppressWarnings("unchecked")
+    void testUncommittedChangesNotReplayed() {
+        // Arrange: one transaction commits a decrement, another is still open at the crash
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inventory(1L, 10L)));
+        inTransaction(() -> inMemoryInventory.decrement(1L, 3L), TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            inMemoryInventory.decrement(1L, 2L);
+            assertEquals(5L, inMemoryInventory.get(1L));
+            assertEquals(7L, inMemoryInventory.getTracked().get(1L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Act: a new instance over the same journal, as after a restart
+        InMemoryInventory restarted = new InMemoryInventory(inventoryRepository, jdbcTemplate, properties);
+        restarted.start();
+        restarted.shutdown();
+
+        // Assert: only the committed decrement was replayed
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertArrayEquals(new Object[] {7L, 1L}, rows.getValue().get(0));
+    }
+
+    @Test
+    @DisplayName("Should take a rolled back change off the counter without journaling it")
+    void testRollbackRestoresCounter() {
+        // Arrange
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inventory(1L, 10L)));
+
+        // Act
+        inTransaction(() -> inMemoryInventory.decrement(1L, 4L), TransactionSynchronization.STATUS_ROLLED_BACK);
+        inMemoryInventory.flush();
+
+        // Assert
+        assertEquals(10L, inMemoryInventory.get(1L));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * Runs action with transaction synchronization active, then completes
+     * the simulated transaction with the given status.
+     */
+    private static void inTransaction(Runnable action, int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), status);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Inventory inventory(Long productId, Long quantity) {
+        return Inventory.builder().productId(productId).availableQty(quantity).build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties.UpdateMode;
+import com.inventory.dto.StockLevelDTO;
+import com.inventory.entity.InventoryLedgerEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Inventory ledger tests against the database: entries commit with their
+ * change, and levels rebuilt from checkpoints match a full replay.
+ */
+@DisplayName("Inventory ledger tests")
+class InventoryLedgerTest extends AbstractDatabaseTest {
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @ParameterizedTest
+    @EnumSource(UpdateMode.class)
+    @DisplayName("Should record committed changes only, in order")
+    void testRecordsCommittedChanges(UpdateMode mode) {
+        inventoryProperties.setUpdateMode(mode);
+        Long productId = createInitializedProduct();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryService.increaseInventory(productId, 10L);
+            inventoryService.reduceInventories(Map.of(productId, 3L));
+        });
+        assertThrows(IllegalArgumentException.class, () -> transactionTemplate.executeWithoutResult(
+                status -> inventoryService.reduceInventory(productId, 100L)));
+        transactionTemplate.executeWithoutResult(status -> inventoryService.reserveInventory(productId, 2L));
+
+        List<InventoryLedgerEntry> entries = inventoryLedger.getEntries(productId, 0L, 10);
+        assertEquals(List.of("RESET", "INCREASE", "DECREASE", "RESERVE"),
+                entries.stream().map(InventoryLedgerEntry::getEntryType).toList());
+        StockLevelDTO level = inventoryLedger.getStockLevel(productId, Long.MAX_VALUE);
+        assertEquals(5L, level.getAvailableQty());
+        assertEquals(2L, level.getReservedQty());
+        assertEquals(5L, inventoryService.getAvailableQuantity(productId));
+    }
+
+    @Test
+    @DisplayName("Should rebuild past levels from checkpoints as a full replay would")
+    void testCheckpointedRebuild() {
+        Long productId = createInitializedProduct();
+        transactionTemplate.executeWithoutResult(status -> inventoryService.increaseInventory(productId, 50L));
+        for (int i = 0; i < 5; i++) {
+            transactionTemplate.executeWithoutResult(status -> inventoryService.reduceInventory(productId, 1L));
+        }
+        long beforeCheckpoint = inventoryLedger.getStockLevel(productId, Long.MAX_VALUE).getLedgerId();
+
+        assertTrue(inventoryLedger.checkpoint() >= 1);
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryService.reserveInventory(productId, 4L);
+            inventoryService.releaseReservedInventory(productId, 1L);
+            inventoryService.consumeReservedInventories(Map.of(productId, 3L));
+        });
+        transactionTemplate.executeWithoutResult(status -> inventoryService.increaseInventory(productId, 7L));
+
+        StockLevelDTO latest = inventoryLedger.getStockLevel(productId, Long.MAX_VALUE);
+        assertEquals(beforeCheckpoint, latest.getCheckpointLedgerId());
+        assertEquals(4L, latest.getReplayedEntries());
+        assertEquals(49L, latest.getAvailableQty());
+        assertEquals(0L, latest.getReservedQty());
+        assertEquals(49L, inventoryService.getAvailableQuantity(productId));
+
+        // Before the checkpoint: replayed from the start
+        StockLevelDTO past = inventoryLedger.getStockLevel(productId, beforeCheckpoint - 2);
+        assertEquals(0L, past.getCheckpointLedgerId());
+        assertEquals(47L, past.getAvailableQty());
+
+        // A reset after the checkpoint replaces the available quantity
+        transactionTemplate.executeWithoutResult(status -> inventoryService.initializeInventoryForProduct(productId));
+        transactionTemplate.executeWithoutResult(status -> inventoryService.increaseInventory(productId, 2L));
+        assertEquals(2L, inventoryLedger.getStockLevel(productId, Long.MAX_VALUE).getAvailableQty());
+    }
+
+    /**
+     * Creates a product through catalog initialization, which starts its
+     * ledger with a RESET entry.
+     */
+    private Long createInitializedProduct() {
+        Long id = createProduct(0L);
+        transactionTemplate.executeWithoutResult(status -> inventoryService.initializeInventoryForProduct(id));
+        return id;
+    }
+}
@@ -0,0 +1,319 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.config.InventoryProperties.UpdateMode;
+import com.inventory.dto.LockContentionDTO;
+import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderRequestDTO;
+import com.inventory.dto.RestockItemDTO;
+import com.inventory.entity.Inventory;
+import com.inventory.entity.Product;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.OrderItemRepository;
+import com.inventory.repository.PendingOrderItemRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.ShipmentItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrency test for ordered lock acquisition.
+ * Runs many threads of overlapping orders and restocks against a small
+ * product set and checks that no transaction deadlocks or times out.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lockcontention;MODE=PostgreSQL;LOCK_TIMEOUT=2000",
+        "logging.level.com.inventory=WARN"
+})
+@Slf4j
+@DisplayName("Inventory lock contention tests")
+class InventoryLockContentionTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS = 400;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RestockService restockService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ShipmentItemRepository shipmentItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private InventoryLockStats inventoryLockStats;
+
+    @Autowired
+    private InventoryProperties inventoryProperties;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PendingOrderItemRepository pendingOrderItemRepository;
+
+    @Test
+    @DisplayName("Concurrent orders and restocks complete without deadlocks")
+    void testConcurrentOrdersAndRestocksDoNotDeadlock() throws Exception {
+        List<Long> productIds = createProducts(100L, 8);
+        AtomicLong orderIds = new AtomicLong(1000L);
+        AtomicLong restocked = new AtomicLong();
+        AtomicInteger failures = new AtomicInteger();
+
+        long elapsed = runConcurrently(random -> {
+            List<Long> shuffled = new ArrayList<>(productIds);
+            Collections.shuffle(shuffled, random);
+            List<Long> touched = shuffled.subList(0, 2 + random.nextInt(3));
+            try {
+                if (random.nextBoolean()) {
+                    List<OrderItemRequestDTO> requested = touched.stream()
+                            .map(id -> new OrderItemRequestDTO(id, 1L + random.nextInt(3)))
+                            .toList();
+                    orderService.processOrder(new OrderRequestDTO(orderIds.incrementAndGet(), requested));
+                } else {
+                    List<RestockItemDTO> items = touched.stream()
+                            .map(id -> new RestockItemDTO(id, 1L + random.nextInt(5)))
+                            .toList();
+                    restockService.processRestock(items);
+                    restocked.addAndGet(items.stream().mapToLong(RestockItemDTO::getQuantity).sum());
+                }
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                log.warn("Operation failed: {}", e.getMessage());
+            }
+        });
+
+        log.warn("Planned locking: {} ops in {} ms ({} ops/s), {} failures",
+                OPERATIONS, elapsed, OPERATIONS * 1000L / Math.max(elapsed, 1), failures.get());
+
+        assertEquals(0, failures.get(), "No order or restock should deadlock or time out");
+
+        // Every restocked unit is either still available or was shipped
+        long available = inventoryRepository.findByProductIdIn(productIds).stream()
+                .mapToLong(Inventory::getAvailableQty)
+                .sum();
+        long shipped = shipmentItemRepository.findAll().stream()
+                .filter(item -> productIds.contains(item.getProductId()))
+                .mapToLong(item -> item.getQuantity())
+                .sum();
+        assertEquals(restocked.get(), available + shipped);
+    }
+
+    @Test
+    @DisplayName("Concurrent orders in ATOMIC mode backorder what is gone instead of failing")
+    void testAtomicOrdersBackorderUnderContention() throws Exception {
+        List<Long> productIds = createProducts(400L, 4);
+        productIds.forEach(id -> inventoryService.increaseInventory(id, 50L));
+        AtomicLong orderIds = new AtomicLong(4000L);
+        AtomicInteger failures = new AtomicInteger();
+
+        inventoryProperties.setUpdateMode(UpdateMode.ATOMIC);
+        try {
+            runConcurrently(random -> {
+                List<OrderItemRequestDTO> requested = randomSubset(productIds, random).stream()
+                        .map(id -> new OrderItemRequestDTO(id, 1L + random.nextInt(3)))
+                        .toList();
+                try {
+                    orderService.processOrder(new OrderRequestDTO(orderIds.incrementAndGet(), requested));
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                    log.warn("Order failed: {}", e.getMessage());
+                }
+            });
+        } finally {
+            inventoryProperties.setUpdateMode(UpdateMode.PESSIMISTIC);
+        }
+
+        assertEquals(0, failures.get(), "No order should be rejected for stock another order took");
+        for (Long productId : productIds) {
+            long available = inventoryService.getAvailableQuantity(productId);
+            long shipped = shipmentItemRepository.findAll().stream()
+                    .filter(item -> item.getProductId().equals(productId))
+                    .mapToLong(item -> item.getQuantity())
+                    .sum();
+            long requested = orderItemRepository.findAll().stream()
+                    .filter(item -> item.getProductId().equals(productId))
+                    .mapToLong(item -> item.getRequestedQty())
+                    .sum();
+            long pending = pendingOrderItemRepository.findAll().stream()
+                    .filter(item -> item.getProductId().equals(productId))
+                    .mapToLong(item -> item.getPendingQty())
+                    .sum();
+            assertEquals(50L, available + shipped);
+            assertEquals(requested, shipped + pending);
+        }
+    }
+
+    @Test
+    @DisplayName("Planned ascending locks beat unordered per-row locks under contention")
+    void testPlannedLockingVersusUnorderedLocking() throws Exception {
+        List<Long> productIds = createProducts(200L, 4);
+        AtomicInteger unorderedFailures = new AtomicInteger();
+        AtomicInteger plannedFailures = new AtomicInteger();
+
+        // Unordered: each transaction locks rows one by one in request order,
+        // as increaseInventory/reduceInventory did before lock planning
+        long unorderedElapsed = runConcurrently(random -> {
+            List<Long> touched = randomSubset(productIds, random);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Long productId : touched) {
+                        Inventory inventory = inventoryRepository.findByIdWithLock(productId).orElseThrow();
+                        inventory.setAvailableQty(inventory.getAvailableQty() + 1);
+                        pause();
+                    }
+                });
+            } catch (Exception e) {
+                unorderedFailures.incrementAndGet();
+            }
+        });
+
+        // Planned: the same work, with every lock taken up front in ascending order
+        long plannedElapsed = runConcurrently(random -> {
+            List<Long> touched = randomSubset(productIds, random);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    inventoryService.lockInventories(touched);
+                    for (Long productId : touched) {
+                        inventoryService.increaseInventory(productId, 1L);
+                        pause();
+                    }
+                });
+            } catch (Exception e) {
+                plannedFailures.incrementAndGet();
+            }
+        });
+
+        log.warn("Unordered locking: {} ms ({} ops/s), {} deadlocks/timeouts",
+                unorderedElapsed, OPERATIONS * 1000L / Math.max(unorderedElapsed, 1), unorderedFailures.get());
+        log.warn("Planned locking:   {} ms ({} ops/s), {} deadlocks/timeouts",
+                plannedElapsed, OPERATIONS * 1000L / Math.max(plannedElapsed, 1), plannedFailures.get());
+
+        assertEquals(0, plannedFailures.get());
+    }
+
+    @Test
+    @DisplayName("Lock stats rank the product held by a slow transaction first")
+    void testLockStatsReportContendedProduct() throws Exception {
+        List<Long> productIds = createProducts(300L, 2);
+        Long hot = productIds.get(0);
+        Long cold = productIds.get(1);
+        inventoryLockStats.reset();
+
+        // A waiter that gets the lock after 300 ms, then one that times out (LOCK_TIMEOUT=2000)
+        holdLockWhile(hot, 300, () -> inventoryService.increaseInventory(hot, 1L));
+        holdLockWhile(hot, 3_000, () -> assertThrows(Exception.class,
+                () -> inventoryService.increaseInventory(hot, 1L)));
+        inventoryService.increaseInventory(cold, 1L);
+
+        List<LockContentionDTO> report = inventoryLockStats.getTopContended(10);
+        LockContentionDTO top = report.get(0);
+        log.warn("Lock contention report: {}", report);
+
+        assertEquals(2, report.size());
+        assertEquals(hot, top.getProductId());
+        assertEquals(3L, top.getAcquisitions());
+        assertEquals(1L, top.getTimeouts());
+        assertTrue(top.getTotalWaitMs() >= 2_000, "Waits until the timeout count too");
+        assertTrue(top.getMaxHoldUs() >= 3_000_000, "Hold lasts until the holder commits");
+        assertEquals(cold, report.get(1).getProductId());
+        assertEquals(0L, report.get(1).getTimeouts());
+        assertEquals(report.subList(0, 1), inventoryLockStats.getTopContended(1));
+    }
+
+    /**
+     * Locks a product in another thread's transaction for holdMillis and runs
+     * the action while the lock is held.
+     */
+    private void holdLockWhile(Long productId, long holdMillis, Runnable action) throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            inventoryService.lockInventories(List.of(productId));
+            locked.countDown();
+            try {
+                Thread.sleep(holdMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        action.run();
+        holder.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    private List<Long> createProducts(long firstId, int count) {
+        List<Long> ids = LongStream.range(firstId, firstId + count).boxed().toList();
+        for (Long id : ids) {
+            productRepository.save(Product.builder().productId(id).productName("P" + id).massG(100).build());
+            inventoryService.initializeInventoryForProduct(id);
+        }
+        return ids;
+    }
+
+    private static List<Long> randomSubset(List<Long> productIds, Random random) {
+        List<Long> shuffled = new ArrayList<>(productIds);
+        Collections.shuffle(shuffled, random);
+        return shuffled.subList(0, 2 + random.nextInt(productIds.size() - 1));
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs OPERATIONS tasks across THREADS threads and returns the elapsed ms.
+     */
+    private static long runConcurrently(java.util.function.Consumer<Random> operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            Random random = new Random(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                operation.accept(random);
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        executor.shutdown();
+        return elapsed;
+    }
+}
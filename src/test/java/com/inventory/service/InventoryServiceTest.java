@@ -1,10 +1,10 @@
 package com.inventory.service;
 
+import com.inventory.config.InventoryProperties;
 import com.inventory.entity.Inventory;
 import com.inventory.entity.Product;
 import com.inventory.exception.ProductNotFoundException;
 import com.inventory.repository.InventoryRepository;
-import com.inventory.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -12,10 +12,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,7 +32,25 @@ class InventoryServiceTest {
     private InventoryRepository inventoryRepository;
 
     @Mock
-    private ProductRepository productRepository;
+    private ProductCatalogCache productCatalogCache;
+
+    @Mock
+    private InMemoryInventory inMemoryInventory;
+
+    @Mock
+    private ShardedInventory shardedInventory;
+
+    @Mock
+    private InventorySnapshotPublisher inventorySnapshotPublisher;
+
+    @Mock
+    private InventoryLedger inventoryLedger;
+
+    @Spy
+    private InventoryProperties inventoryProperties = new InventoryProperties();
+
+    @Spy
+    private InventoryLockStats inventoryLockStats = new InventoryLockStats(new InventoryProperties());
 
     @InjectMocks
     private InventoryService inventoryService;
@@ -259,6 +279,125 @@ class InventoryServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("ATOMIC update mode tests")
+    class AtomicUpdateModeTests {
+
+        @BeforeEach
+        void setAtomicMode() {
+            inventoryProperties.setUpdateMode(InventoryProperties.UpdateMode.ATOMIC);
+        }
+
+        @Test
+        @DisplayName("Should reduce with a single conditional update and no lock")
+        void testReduceInventoryAtomic() {
+            // Arrange
+            when(inventoryRepository.decrementIfAvailable(1L, 3L)).thenReturn(1);
+
+            // Act
+            inventoryService.reduceInventory(1L, 3L);
+
+            // Assert
+            verify(inventoryRepository, never()).findByIdWithLock(anyLong());
+            verify(inventoryRepository, never()).save(any(Inventory.class));
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when no row matched")
+        void testReduceInventoryAtomicInsufficient() {
+            // Arrange
+            when(inventoryRepository.decrementIfAvailable(1L, 30L)).thenReturn(0);
+            when(inventoryRepository.existsById(1L)).thenReturn(true);
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> {
+                inventoryService.reduceInventory(1L, 30L);
+            });
+        }
+
+        @Test
+        @DisplayName("Should throw ProductNotFoundException when product is missing")
+        void testReduceInventoryAtomicMissingProduct() {
+            // Arrange
+            when(inventoryRepository.decrementIfAvailable(9L, 1L)).thenReturn(0);
+            when(inventoryRepository.existsById(9L)).thenReturn(false);
+
+            // Act & Assert
+            assertThrows(ProductNotFoundException.class, () -> {
+                inventoryService.reduceInventory(9L, 1L);
+            });
+        }
+
+        @Test
+        @DisplayName("Should increase with a single update")
+        void testIncreaseInventoryAtomic() {
+            // Arrange
+            when(inventoryRepository.increment(1L, 5L)).thenReturn(1);
+
+            // Act
+            inventoryService.increaseInventory(1L, 5L);
+
+            // Assert
+            verify(inventoryRepository, times(1)).increment(1L, 5L);
+            verify(inventoryRepository, never()).findByIdWithLock(anyLong());
+        }
+
+        @Test
+        @DisplayName("Should fall back to per-product reduction outside ATOMIC mode")
+        void testReduceInventoriesPessimistic() {
+            // Arrange
+            inventoryProperties.setUpdateMode(InventoryProperties.UpdateMode.PESSIMISTIC);
+            Inventory inventory2 = Inventory.builder().productId(2L).availableQty(4L).build();
+            when(inventoryRepository.findByIdWithLock(1L)).thenReturn(Optional.of(testInventory));
+            when(inventoryRepository.findByIdWithLock(2L)).thenReturn(Optional.of(inventory2));
+
+            // Act
+            inventoryService.reduceInventories(Map.of(2L, 4L, 1L, 3L));
+
+            // Assert
+            assertEquals(7L, testInventory.getAvailableQty());
+            assertEquals(0L, inventory2.getAvailableQty());
+        }
+    }
+
+    @Nested
+    @DisplayName("IN_MEMORY update mode tests")
+    class InMemoryUpdateModeTests {
+
+        @BeforeEach
+        void setInMemoryMode() {
+            inventoryProperties.setUpdateMode(InventoryProperties.UpdateMode.IN_MEMORY);
+        }
+
+        @Test
+        @DisplayName("Should reduce the in-memory counter without touching the database")
+        void testReduceInventoryInMemory() {
+            // Arrange
+            when(inMemoryInventory.decrement(1L, 3L)).thenReturn(7L);
+
+            // Act
+            inventoryService.reduceInventory(1L, 3L);
+
+            // Assert
+            verify(inMemoryInventory, times(1)).decrement(1L, 3L);
+            verifyNoInteractions(inventoryRepository);
+        }
+
+        @Test
+        @DisplayName("Should report the in-memory quantity as available")
+        void testGetAvailableQuantityInMemory() {
+            // Arrange
+            when(inMemoryInventory.get(1L)).thenReturn(42L);
+
+            // Act
+            Long result = inventoryService.getAvailableQuantity(1L);
+
+            // Assert
+            assertEquals(42L, result);
+            verify(inventoryRepository, never()).findById(anyLong());
+        }
+    }
+
     @Nested
     @DisplayName("getProductDetails() tests")
     class GetProductDetailsTests {
@@ -267,7 +406,7 @@ class InventoryServiceTest {
         @DisplayName("Should return product details")
         void testGetProductDetailsSuccess() {
             // Arrange
-            when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+            when(productCatalogCache.getProduct(1L)).thenReturn(Optional.of(testProduct));
 
             // Act
             Product result = inventoryService.getProductDetails(1L);
@@ -282,7 +421,7 @@ class InventoryServiceTest {
         @DisplayName("Should throw ProductNotFoundException when product not found")
         void testGetProductDetailsNotFound() {
             // Arrange
-            when(productRepository.findById(1L)).thenReturn(Optional.empty());
+            when(productCatalogCache.getProduct(1L)).thenReturn(Optional.empty());
 
             // Act & Assert
             assertThrows(ProductNotFoundException.class, () -> {
@@ -0,0 +1,86 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties.UpdateMode;
+import com.inventory.dto.InventoryLevelDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Inventory snapshot tests against the database: versions change only with
+ * quantities, and unchanged polls are answered with 304 Not Modified.
+ */
+@DisplayName("Inventory snapshot tests")
+class InventorySnapshotPublisherTest extends AbstractDatabaseTest {
+
+    @Autowired
+    private InventorySnapshotPublisher inventorySnapshotPublisher;
+
+    @Autowired
+    private ShardedInventory shardedInventory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should publish a new version only when a quantity changed")
+    void testVersioning() {
+        Long first = createProduct(5L);
+        Long second = createProduct(7L);
+        shardedInventory.setShardCount(second, 2);
+
+        InventorySnapshotPublisher.Snapshot before = inventorySnapshotPublisher.refresh();
+        assertEquals(List.of(new InventoryLevelDTO(first, 5L), new InventoryLevelDTO(second, 7L)),
+                before.toDTO(List.of(second, first, -1L)).getItems());
+        assertSame(before, inventorySnapshotPublisher.refresh());
+
+        transactionTemplate.executeWithoutResult(status -> inventoryService.reduceInventory(second, 3L));
+        InventorySnapshotPublisher.Snapshot after = inventorySnapshotPublisher.refresh();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertEquals(List.of(new InventoryLevelDTO(second, 4L)), after.toDTO(List.of(second)).getItems());
+    }
+
+    @Test
+    @DisplayName("Should take IN_MEMORY quantities from the in-memory counters")
+    void testInMemoryQuantities() {
+        inventoryProperties.setUpdateMode(UpdateMode.IN_MEMORY);
+        Long productId = createProduct(10L);
+
+        transactionTemplate.executeWithoutResult(status -> inventoryService.reduceInventory(productId, 4L));
+
+        assertEquals(List.of(new InventoryLevelDTO(productId, 6L)),
+                inventorySnapshotPublisher.refresh().toDTO(List.of(productId)).getItems());
+    }
+
+    @Test
+    @DisplayName("Should answer a matching If-None-Match with 304")
+    void testConditionalGet() throws Exception {
+        Long productId = createProduct(3L);
+        String etag = inventorySnapshotPublisher.refresh().getEtag();
+
+        mockMvc.perform(get("/v1/inventory"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(jsonPath("$.success").value(true));
+        mockMvc.perform(get("/v1/inventory").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/v1/inventory").param("ids", productId + ",-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(jsonPath("$.data.items.length()").value(1));
+        mockMvc.perform(get("/v1/inventory").param("ids", productId.toString()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+}
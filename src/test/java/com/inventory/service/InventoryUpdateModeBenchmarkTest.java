@@ -0,0 +1,213 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.config.InventoryProperties.UpdateMode;
+import com.inventory.entity.Inventory;
+import com.inventory.entity.Product;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contention benchmark for the inventory update modes.
+ * Each operation decrements two random products in one transaction, the
+ * way a two-line order does; fewer products means more contention.
+ * OPTIMISTIC cells also report how many version conflicts were retried and
+ * how many operations gave up after the last attempt. A second benchmark
+ * compares raw single-product decrements of the in-memory counters with the
+ * JPA row-lock path.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:updatemodes;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+        "inventory.optimistic.max-attempts=10",
+        "inventory.in-memory.journal-dir=${java.io.tmpdir}/inventory-journal-${random.uuid}",
+        "logging.level.com.inventory=WARN"
+})
+@Slf4j
+@DisplayName("Inventory update mode benchmark")
+class InventoryUpdateModeBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS = 2000;
+    private static final long INITIAL_STOCK = 1_000_000L;
+    private static final int[] PRODUCT_COUNTS = {2, 8, 64};
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryProperties inventoryProperties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private InMemoryInventory inMemoryInventory;
+
+    private static long nextProductId = 1_000L;
+
+    @AfterEach
+    void restoreMode() {
+        inventoryProperties.setUpdateMode(UpdateMode.PESSIMISTIC);
+    }
+
+    @Test
+    @DisplayName("Compare throughput of update modes across contention levels")
+    void testUpdateModeThroughput() throws Exception {
+        StringBuilder report = new StringBuilder(String.format("%n%-10s", "products"));
+        for (UpdateMode mode : UpdateMode.values()) {
+            report.append(String.format("%26s", mode));
+        }
+
+        for (int productCount : PRODUCT_COUNTS) {
+            report.append(String.format("%n%-10d", productCount));
+            for (UpdateMode mode : UpdateMode.values()) {
+                inventoryProperties.setUpdateMode(mode);
+                long conflictsBefore = optimisticRetry.getConflictCount();
+                long exhaustedBefore = optimisticRetry.getExhaustedCount();
+                long opsPerSecond = runBenchmark(productCount);
+                report.append(String.format("%9d op/s (%4d retried/%3d failed)", opsPerSecond,
+                        optimisticRetry.getConflictCount() - conflictsBefore,
+                        optimisticRetry.getExhaustedCount() - exhaustedBefore));
+            }
+        }
+
+        log.warn("Inventory update throughput ({} threads, {} two-product decrements per cell):{}",
+                THREADS, OPERATIONS, report);
+    }
+
+    @Test
+    @DisplayName("Compare single-product decrements: in-memory counters vs JPA row locks")
+    void testDecrementThroughput() throws Exception {
+        long jpa = runDecrements(UpdateMode.PESSIMISTIC);
+        long inMemory = runDecrements(UpdateMode.IN_MEMORY);
+
+        log.warn("Single-product decrements ({} threads, {} ops on one hot product): "
+                + "JPA {} op/s, in-memory {} op/s", THREADS, OPERATIONS, jpa, inMemory);
+    }
+
+    /**
+     * Runs OPERATIONS reduceInventory calls against one hot product.
+     *
+     * @return Decrements per second
+     */
+    private long runDecrements(UpdateMode mode) throws Exception {
+        inventoryProperties.setUpdateMode(mode);
+        Long productId = createProducts(1).get(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                inventoryService.reduceInventory(productId, 1L);
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+
+        inMemoryInventory.flush();
+        long remaining = inventoryRepository.findById(productId).orElseThrow().getAvailableQty();
+        assertEquals(INITIAL_STOCK - OPERATIONS, remaining);
+        return OPERATIONS * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1);
+    }
+
+    /**
+     * Runs OPERATIONS two-product decrements over a fresh product set and
+     * checks that every committed unit is accounted for.
+     *
+     * @return Committed operations per second
+     */
+    private long runBenchmark(int productCount) throws Exception {
+        List<Long> productIds = createProducts(productCount);
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger committed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            Random random = new Random(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                Long first = productIds.get(random.nextInt(productCount));
+                Long second = productIds.get(random.nextInt(productCount));
+                Map<Long, Long> quantities = new HashMap<>();
+                quantities.merge(first, 1L, Long::sum);
+                quantities.merge(second, 1L, Long::sum);
+                try {
+                    optimisticRetry.run(() -> transactionTemplate.executeWithoutResult(status -> {
+                        inventoryService.lockInventories(quantities.keySet());
+                        inventoryService.reduceInventories(quantities);
+                    }));
+                    committed.incrementAndGet();
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+
+        // IN_MEMORY quantities reach the table on flush
+        inMemoryInventory.flush();
+
+        // Only OPTIMISTIC may give up (after its last retry); locks never fail here
+        if (inventoryProperties.getUpdateMode() != UpdateMode.OPTIMISTIC) {
+            assertEquals(0, failures.get());
+        }
+        long remaining = inventoryRepository.findByProductIdIn(productIds).stream()
+                .mapToLong(Inventory::getAvailableQty)
+                .sum();
+        assertEquals(INITIAL_STOCK * productCount - 2L * committed.get(), remaining);
+
+        return committed.get() * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1);
+    }
+
+    private List<Long> createProducts(int count) {
+        List<Long> ids = LongStream.range(nextProductId, nextProductId + count).boxed().toList();
+        nextProductId += count;
+        for (Long id : ids) {
+            productRepository.save(Product.builder().productId(id).productName("P" + id).massG(100).build());
+            inventoryRepository.save(Inventory.builder().productId(id).availableQty(INITIAL_STOCK).build());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,81 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.config.InventoryProperties.UpdateMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OptimisticRetry Unit Tests")
+class OptimisticRetryTest {
+
+    private InventoryProperties properties;
+    private OptimisticRetry optimisticRetry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new InventoryProperties();
+        properties.setUpdateMode(UpdateMode.OPTIMISTIC);
+        properties.getOptimistic().setMaxAttempts(3);
+        properties.getOptimistic().setInitialBackoffMs(1);
+        properties.getOptimistic().setMaxBackoffMs(2);
+        optimisticRetry = new OptimisticRetry(properties);
+    }
+
+    @Test
+    @DisplayName("Should retry a version conflict until the operation succeeds")
+    void testRetriesUntilSuccess() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        String result = optimisticRetry.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "done";
+        });
+
+        // Assert
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, optimisticRetry.getConflictCount());
+        assertEquals(0, optimisticRetry.getExhaustedCount());
+    }
+
+    @Test
+    @DisplayName("Should give up after max attempts")
+    void testGivesUpAfterMaxAttempts() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> optimisticRetry.run(() -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        }));
+        assertEquals(3, calls.get());
+        assertEquals(1, optimisticRetry.getExhaustedCount());
+    }
+
+    @Test
+    @DisplayName("Should not retry outside OPTIMISTIC mode")
+    void testNoRetryInPessimisticMode() {
+        // Arrange
+        properties.setUpdateMode(UpdateMode.PESSIMISTIC);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> optimisticRetry.run(() -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        }));
+        assertEquals(1, calls.get());
+        assertEquals(0, optimisticRetry.getConflictCount());
+    }
+}
@@ -1,6 +1,7 @@
 package com.inventory.service;
 
 import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderPreviewDTO;
 import com.inventory.dto.OrderRequestDTO;
 import com.inventory.entity.*;
 import com.inventory.exception.OrderNotFoundException;
@@ -41,6 +42,12 @@ class OrderServiceTest {
     @Mock
     private ShipmentService shipmentService;
 
+    @Mock
+    private InventorySnapshotPublisher inventorySnapshotPublisher;
+
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -358,6 +365,37 @@ class OrderServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("settlePendingItems() tests")
+    class SettlePendingItemsTests {
+
+        @Test
+        @DisplayName("Should settle pending items of one product against what its lines lack together")
+        void testSettleSameProductPendingItems() {
+            // Arrange: lines of 3 and 2, with 2 shipped to the first
+            testOrderItem.setRequestedQty(3L);
+            testOrderItem.setFulfilledQty(2L);
+            OrderItem sameProduct = OrderItem.builder()
+                    .id(2L).orderId(1L).productId(1L).requestedQty(2L).fulfilledQty(0L).status("PENDING")
+                    .build();
+            PendingOrderItem first = PendingOrderItem.builder()
+                    .id(1L).orderId(1L).productId(1L).pendingQty(3L).createdAt(LocalDateTime.now()).build();
+            PendingOrderItem second = PendingOrderItem.builder()
+                    .id(2L).orderId(1L).productId(1L).pendingQty(2L).createdAt(LocalDateTime.now()).build();
+            when(orderItemRepository.findByOrderId(1L)).thenReturn(List.of(testOrderItem, sameProduct));
+            when(pendingOrderItemRepository.findByOrderId(1L)).thenReturn(List.of(first, second));
+
+            // Act
+            List<PendingOrderItem> remaining = orderService.settlePendingItems(1L);
+
+            // Assert: 3 units still lacking, not 3 per pending item
+            assertEquals(List.of(first), remaining);
+            assertEquals(3L, first.getPendingQty());
+            verify(pendingOrderItemRepository).delete(second);
+            verify(inventoryService).adjustPendingQuantity(1L, -2L);
+        }
+    }
+
     @Nested
     @DisplayName("completeOrderIfAllFulfilled() tests")
     class CompleteOrderIfAllFulfilledTests {
@@ -401,4 +439,51 @@ class OrderServiceTest {
             verify(orderRepository, never()).save(any(Order.class));
         }
     }
+
+    @Nested
+    @DisplayName("previewOrder() tests")
+    class PreviewOrderTests {
+
+        @Test
+        @DisplayName("Should plan shipments from the snapshot without touching repositories")
+        void testPreviewSharesAvailableAcrossLines() {
+            // Arrange
+            InventorySnapshotPublisher.Snapshot snapshot = mock(InventorySnapshotPublisher.Snapshot.class);
+            when(snapshot.getAvailableQty(1L)).thenReturn(7L);
+            when(snapshot.getVersion()).thenReturn(3L);
+            when(inventorySnapshotPublisher.getSnapshot()).thenReturn(snapshot);
+            when(productCatalogCache.getProducts(anyCollection())).thenReturn(Map.of(1L, testProduct));
+            OrderRequestDTO request = new OrderRequestDTO(1L, List.of(
+                    new OrderItemRequestDTO(1L, 5L),
+                    new OrderItemRequestDTO(1L, 5L)));
+
+            // Act
+            OrderPreviewDTO preview = orderService.previewOrder(request);
+
+            // Assert
+            assertEquals("PARTIALLY_FULFILLED", preview.getStatus());
+            assertEquals(3L, preview.getSnapshotVersion());
+            assertEquals(5L, preview.getItems().get(0).getFulfilledQty());
+            assertEquals(2L, preview.getItems().get(1).getFulfilledQty());
+            assertEquals(7L, preview.getShipments().stream()
+                    .flatMap(shipment -> shipment.getItems().stream())
+                    .mapToLong(item -> item.getQuantity())
+                    .sum());
+            verifyNoInteractions(orderRepository, orderItemRepository, pendingOrderItemRepository,
+                    inventoryService, shipmentService);
+        }
+
+        @Test
+        @DisplayName("Should reject products missing from the snapshot")
+        void testPreviewUnknownProduct() {
+            // Arrange
+            InventorySnapshotPublisher.Snapshot snapshot = mock(InventorySnapshotPublisher.Snapshot.class);
+            when(snapshot.getAvailableQty(1L)).thenReturn(null);
+            when(inventorySnapshotPublisher.getSnapshot()).thenReturn(snapshot);
+            when(productCatalogCache.getProducts(anyCollection())).thenReturn(Map.of(1L, testProduct));
+
+            // Act & Assert
+            assertThrows(ProductNotFoundException.class, () -> orderService.previewOrder(validOrderRequest));
+        }
+    }
 }
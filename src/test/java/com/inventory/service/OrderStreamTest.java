@@ -0,0 +1,124 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.dto.OrderStreamResultDTO;
+import com.inventory.dto.ProductDTO;
+import com.inventory.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Streamed order ingest tests against the database: one result line per
+ * order in input order, with malformed and invalid orders reported in
+ * place.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderstream;MODE=PostgreSQL",
+        "inventory.order-stream.chunk-size=2",
+        "inventory.order-stream.pipeline-depth=1",
+        "logging.level.com.inventory=WARN"
+})
+@AutoConfigureMockMvc
+@Slf4j
+@DisplayName("Order stream tests")
+class OrderStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogLoader catalogLoader;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Writes one result per order in input order and skips rejected lines")
+    void testMixedStream() throws Exception {
+        catalogLoader.upsert(List.of(new ProductDTO(40L, "A", 100), new ProductDTO(41L, "B", 100)));
+        inventoryService.increaseInventory(40L, 5L);
+        String stream = String.join("\n",
+                order(5001L, 40L, 2L),
+                "{\"orderId\": 5002, \"requested\": [",
+                "",
+                order(5003L, 99L, 1L),
+                order(5004L, 41L, 3L),
+                "{\"orderId\": 5005, \"requested\": []}",
+                order(5006L, 40L, 3L)) + "\n";
+
+        List<OrderStreamResultDTO> results = stream(stream);
+
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L, 7L), results.stream().map(OrderStreamResultDTO::getLine).toList());
+        assertEquals(List.of(true, false, false, true, false, true),
+                results.stream().map(OrderStreamResultDTO::getSuccess).toList());
+        assertEquals("FULFILLED", results.get(0).getStatus());
+        assertTrue(results.get(2).getError().contains("99"));
+        assertEquals("PENDING", results.get(3).getStatus());
+        assertEquals("FULFILLED", results.get(5).getStatus());
+        assertEquals(0L, inventoryService.getAvailableQuantity(40L));
+        assertFalse(orderRepository.existsById(5003L));
+    }
+
+    @Test
+    @DisplayName("Processes a long stream with a bounded pipeline")
+    void testLongStream() throws Exception {
+        int orders = 200;
+        catalogLoader.upsert(List.of(new ProductDTO(50L, "C", 100)));
+        inventoryService.increaseInventory(50L, (long) orders);
+        String stream = LongStream.range(0, orders)
+                .mapToObj(i -> order(6000L + i, 50L, 1L))
+                .collect(Collectors.joining("\n"));
+
+        long begin = System.nanoTime();
+        List<OrderStreamResultDTO> results = stream(stream);
+        long elapsedMs = (System.nanoTime() - begin) / 1_000_000;
+        log.warn("Order stream: {} orders in {} ms", orders, elapsedMs);
+
+        assertEquals(orders, results.size());
+        assertTrue(results.stream().allMatch(OrderStreamResultDTO::getSuccess));
+        assertEquals(0L, inventoryService.getAvailableQuantity(50L));
+    }
+
+    private List<OrderStreamResultDTO> stream(String body) throws Exception {
+        String response = mockMvc.perform(post("/v1/process_order/stream")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        return Arrays.stream(response.split("\n"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, OrderStreamResultDTO.class);
+                    } catch (Exception e) {
+                        throw new AssertionError("Not a result line: " + line, e);
+                    }
+                })
+                .toList();
+    }
+
+    private static String order(long orderId, long productId, long quantity) {
+        return "{\"orderId\": " + orderId + ", \"requested\": [{\"productId\": " + productId
+                + ", \"quantity\": " + quantity + "}]}";
+    }
+}
@@ -0,0 +1,135 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.CacheStatsDTO;
+import com.inventory.entity.Product;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductCatalogCache Unit Tests")
+class ProductCatalogCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CatalogSnapshotStore catalogSnapshotStore;
+
+    private ProductCatalogCache productCatalogCache;
+
+    @BeforeEach
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getCatalogCache().setMaxSize(2);
+        productCatalogCache = new ProductCatalogCache(productRepository, catalogSnapshotStore, properties);
+    }
+
+    @Test
+    @DisplayName("Should read through on a miss and serve repeats from memory")
+    void testReadThrough() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+
+        // Act
+        productCatalogCache.getProduct(1L);
+        Optional<Product> second = productCatalogCache.getProduct(1L);
+
+        // Assert
+        assertEquals(500, second.orElseThrow().getMassG());
+        verify(productRepository, times(1)).findById(1L);
+        CacheStatsDTO stats = productCatalogCache.getStats();
+        assertEquals(1L, stats.getHits());
+        assertEquals(1L, stats.getMisses());
+    }
+
+    @Test
+    @DisplayName("Should load only missing products in one query and evict least recently used")
+    void testBatchLoadAndEviction() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+        when(productRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(product(2L), product(3L)));
+        productCatalogCache.getProduct(1L);
+
+        // Act
+        Map<Long, Product> products = productCatalogCache.getProducts(List.of(1L, 2L, 3L));
+
+        // Assert
+        assertEquals(3, products.size());
+        CacheStatsDTO stats = productCatalogCache.getStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(1L, stats.getEvictions());
+    }
+
+    @Test
+    @DisplayName("Should reload products after invalidation")
+    void testInvalidateAll() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+        productCatalogCache.getProduct(1L);
+
+        // Act
+        productCatalogCache.invalidateAll();
+        productCatalogCache.getProduct(1L);
+
+        // Assert
+        verify(productRepository, times(2)).findById(1L);
+        assertEquals(1L, productCatalogCache.getStats().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("Should reload only the invalidated products")
+    void testInvalidateProducts() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(product(2L)));
+        productCatalogCache.getProduct(1L);
+        productCatalogCache.getProduct(2L);
+
+        // Act
+        productCatalogCache.invalidate(List.of(2L));
+        productCatalogCache.getProduct(1L);
+        productCatalogCache.getProduct(2L);
+
+        // Assert
+        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(2)).findById(2L);
+        CacheStatsDTO stats = productCatalogCache.getStats();
+        assertEquals(0L, stats.getInvalidations());
+        assertEquals(1L, stats.getKeyInvalidations());
+    }
+
+    @Test
+    @DisplayName("Should not cache a product loaded before a concurrent invalidation")
+    void testLoadRacingInvalidation() {
+        // Arrange: the product is upserted while its old row is being read
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            productCatalogCache.invalidate(List.of(1L));
+            return Optional.of(product(1L));
+        }).thenReturn(Optional.of(product(1L)));
+
+        // Act
+        productCatalogCache.getProduct(1L);
+        productCatalogCache.getProduct(1L);
+
+        // Assert: the second read loads again instead of hitting the stale copy
+        verify(productRepository, times(2)).findById(1L);
+        assertEquals(0L, productCatalogCache.getStats().getHits());
+    }
+
+    private static Product product(Long productId) {
+        return Product.builder().productId(productId).productName("P" + productId).massG(500).build();
+    }
+}
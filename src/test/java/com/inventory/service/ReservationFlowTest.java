@@ -0,0 +1,92 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties.UpdateMode;
+import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderRequestDTO;
+import com.inventory.dto.ReservationRequestDTO;
+import com.inventory.dto.ReservationResponseDTO;
+import com.inventory.entity.Order;
+import com.inventory.exception.InsufficientInventoryException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end reservation tests against the database, in every update mode.
+ */
+@DisplayName("Reservation flow tests")
+class ReservationFlowTest extends AbstractDatabaseTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @ParameterizedTest
+    @EnumSource(UpdateMode.class)
+    @DisplayName("Reserved stock survives a competing order and ships on confirm")
+    void testConfirmShipsReservedStock(UpdateMode mode) {
+        inventoryProperties.setUpdateMode(mode);
+        Long productId = createProduct(10L);
+
+        ReservationResponseDTO reservation = reservationService.reserve(reserve(productId, 6L, 60L));
+        assertEquals(4L, inventoryService.getAvailableQuantity(productId));
+        assertEquals(6L, reservedQty(productId));
+
+        // A competing order can only take the unreserved stock
+        Order competing = orderService.processOrder(
+                new OrderRequestDTO(nextId(), List.of(new OrderItemRequestDTO(productId, 10L))));
+        assertEquals("PENDING", competing.getStatus());
+        assertEquals(0L, inventoryService.getAvailableQuantity(productId));
+        assertThrows(InsufficientInventoryException.class,
+                () -> reservationService.reserve(reserve(productId, 1L, 60L)));
+
+        Order order = reservationService.confirm(reservation.getReservationId(), nextId());
+        assertEquals("FULFILLED", order.getStatus());
+        assertEquals(0L, reservedQty(productId));
+        assertEquals(0L, inventoryService.getAvailableQuantity(productId));
+        assertEquals("CONFIRMED", reservationService.getReservation(reservation.getReservationId()).getStatus());
+        assertThrows(IllegalStateException.class,
+                () -> reservationService.release(reservation.getReservationId()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = UpdateMode.class, names = {"PESSIMISTIC", "IN_MEMORY"})
+    @DisplayName("Released and expired reservations return their stock")
+    void testReleaseAndExpiry(UpdateMode mode) throws Exception {
+        inventoryProperties.setUpdateMode(mode);
+        Long productId = createProduct(10L);
+
+        ReservationResponseDTO released = reservationService.reserve(reserve(productId, 3L, 60L));
+        ReservationResponseDTO expiring = reservationService.reserve(reserve(productId, 4L, 1L));
+        assertEquals(3L, inventoryService.getAvailableQuantity(productId));
+
+        reservationService.release(released.getReservationId());
+        assertEquals(6L, inventoryService.getAvailableQuantity(productId));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!"EXPIRED".equals(reservationService.getReservation(expiring.getReservationId()).getStatus())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals("EXPIRED", reservationService.getReservation(expiring.getReservationId()).getStatus());
+        assertEquals(10L, inventoryService.getAvailableQuantity(productId));
+        assertEquals(0L, reservedQty(productId));
+        assertThrows(IllegalStateException.class,
+                () -> reservationService.confirm(expiring.getReservationId(), nextId()));
+    }
+
+    private long reservedQty(Long productId) {
+        return inventoryRepository.findById(productId).orElseThrow().getReservedQty();
+    }
+
+    private static ReservationRequestDTO reserve(Long productId, Long quantity, Long ttlSeconds) {
+        return new ReservationRequestDTO(List.of(new OrderItemRequestDTO(productId, quantity)), ttlSeconds);
+    }
+}
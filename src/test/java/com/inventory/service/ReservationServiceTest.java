@@ -0,0 +1,208 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderRequestDTO;
+import com.inventory.dto.ReservationRequestDTO;
+import com.inventory.dto.ReservationResponseDTO;
+import com.inventory.entity.Order;
+import com.inventory.entity.Reservation;
+import com.inventory.entity.ReservationItem;
+import com.inventory.exception.InsufficientInventoryException;
+import com.inventory.repository.ReservationItemRepository;
+import com.inventory.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("ReservationService Unit Tests")
+class ReservationServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private ReservationItemRepository reservationItemRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private SequencedInventoryEngine sequencedInventoryEngine;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ReservationService reservationService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getReservation().setWheelTickMs(10);
+        properties.getReservation().setWheelSize(64);
+        properties.getReservation().setExpiryRetryMs(20);
+
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(reservationRepository.findByStatus("ACTIVE")).thenReturn(List.of());
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            reservation.setReservationId(7L);
+            return reservation;
+        });
+
+        reservationService = new ReservationService(reservationRepository, reservationItemRepository,
+                inventoryService, orderService, sequencedInventoryEngine, transactionTemplate, properties);
+        reservationService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reserve merged lines in product order and schedule expiry")
+    void testReserve() {
+        // Arrange
+        ReservationRequestDTO request = new ReservationRequestDTO(List.of(
+                new OrderItemRequestDTO(2L, 1L),
+                new OrderItemRequestDTO(1L, 3L),
+                new OrderItemRequestDTO(2L, 4L)), 60L);
+
+        // Act
+        ReservationResponseDTO response = reservationService.reserve(request);
+
+        // Assert
+        assertEquals(7L, response.getReservationId());
+        assertEquals("ACTIVE", response.getStatus());
+        assertEquals(2, response.getItems().size());
+        var inOrder = inOrder(inventoryService);
+        inOrder.verify(inventoryService).lockInventories(Set.of(1L, 2L));
+        inOrder.verify(inventoryService).reserveInventory(1L, 3L);
+        inOrder.verify(inventoryService).reserveInventory(2L, 5L);
+        assertEquals(1, reservationService.getScheduledExpiryCount());
+    }
+
+    @Test
+    @DisplayName("Should not save a reservation when stock is insufficient")
+    void testReserveInsufficientStock() {
+        // Arrange
+        doThrow(new InsufficientInventoryException("insufficient"))
+                .when(inventoryService).reserveInventory(1L, 10L);
+        ReservationRequestDTO request = new ReservationRequestDTO(List.of(new OrderItemRequestDTO(1L, 10L)), null);
+
+        // Act & Assert
+        assertThrows(InsufficientInventoryException.class, () -> reservationService.reserve(request));
+        verify(reservationRepository, never()).save(any());
+        assertEquals(0, reservationService.getScheduledExpiryCount());
+    }
+
+    @Test
+    @DisplayName("Should confirm into an order shipped from the reserved quantities")
+    void testConfirm() {
+        // Arrange
+        Reservation reservation = active(LocalDateTime.now().plusMinutes(5));
+        when(reservationRepository.findByIdWithLock(7L)).thenReturn(Optional.of(reservation));
+        when(reservationItemRepository.findByReservationId(7L)).thenReturn(List.of(
+                ReservationItem.builder().reservationId(7L).productId(1L).quantity(3L).build()));
+        Order order = Order.builder().orderId(100L).status("FULFILLED").build();
+        when(orderService.processOrder(any(OrderRequestDTO.class), anyMap())).thenReturn(order);
+
+        // Act
+        Order result = reservationService.confirm(7L, 100L);
+
+        // Assert
+        assertSame(order, result);
+        assertEquals("CONFIRMED", reservation.getStatus());
+        assertEquals(100L, reservation.getOrderId());
+        verify(orderService).processOrder(
+                argThat(request -> request.getOrderId().equals(100L) && request.getRequested().size() == 1),
+                eq(Map.of(1L, 3L)));
+        verify(inventoryService, never()).releaseReservedInventory(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should refuse to confirm a reservation past its expiry time")
+    void testConfirmExpired() {
+        // Arrange
+        when(reservationRepository.findByIdWithLock(7L))
+                .thenReturn(Optional.of(active(LocalDateTime.now().minusSeconds(1))));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> reservationService.confirm(7L, 100L));
+        verify(orderService, never()).processOrder(any(), anyMap());
+    }
+
+    @Test
+    @DisplayName("Should release the stock of an active reservation when it expires")
+    void testExpiry() {
+        // Arrange
+        Reservation reservation = active(LocalDateTime.now());
+        when(reservationRepository.findByIdWithLock(7L)).thenReturn(Optional.of(reservation));
+        when(reservationItemRepository.findByReservationId(7L)).thenReturn(List.of(
+                ReservationItem.builder().reservationId(7L).productId(1L).quantity(3L).build()));
+
+        // Act
+        reservationService.onExpiry(7L);
+        reservationService.onExpiry(7L);
+
+        // Assert
+        assertEquals("EXPIRED", reservation.getStatus());
+        verify(inventoryService, times(1)).releaseReservedInventory(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should schedule the expiry again when its transaction fails")
+    void testExpiryRetriedAfterFailure() {
+        // Arrange
+        Reservation reservation = active(LocalDateTime.now());
+        when(reservationRepository.findByIdWithLock(7L))
+                .thenThrow(new IllegalStateException("lock timeout"))
+                .thenReturn(Optional.of(reservation));
+        when(reservationItemRepository.findByReservationId(7L)).thenReturn(List.of(
+                ReservationItem.builder().reservationId(7L).productId(1L).quantity(3L).build()));
+
+        // Act
+        reservationService.onExpiry(7L);
+
+        // Assert
+        verify(inventoryService, timeout(2000)).releaseReservedInventory(1L, 3L);
+        assertEquals("EXPIRED", reservation.getStatus());
+    }
+
+    private static Reservation active(LocalDateTime expiresAt) {
+        return Reservation.builder()
+                .reservationId(7L)
+                .status("ACTIVE")
+                .createdAt(LocalDateTime.now())
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.inventory.service;
+
+import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderRequestDTO;
+import com.inventory.dto.ProductDTO;
+import com.inventory.dto.RestockIngestDTO;
+import com.inventory.entity.Order;
+import com.inventory.repository.OrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Restock file ingest tests against the database: chunked commits with
+ * merged lines and backlog fulfillment, resumption after a failure, and
+ * completed files not being applied twice.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:restockingest;MODE=PostgreSQL",
+        "inventory.restock.ingest-chunk-size=2",
+        "logging.level.com.inventory=WARN"
+})
+@AutoConfigureMockMvc
+@DisplayName("Restock ingest tests")
+class RestockIngestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogLoader catalogLoader;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private RestockIngestService restockIngestService;
+
+    @Test
+    @DisplayName("Merges duplicate lines per chunk, fulfills the backlog and ignores a completed file")
+    void testCsvIngest() throws Exception {
+        catalogLoader.upsert(List.of(new ProductDTO(10L, "A", 100), new ProductDTO(11L, "B", 100),
+                new ProductDTO(12L, "C", 100)));
+        orderService.processOrder(new OrderRequestDTO(1000L, List.of(new OrderItemRequestDTO(12L, 1L))));
+        String csv = "productId,quantity\n10,5\n10,3\n\n11,4\n12,1\n";
+
+        ingest("receipt-1", "text/csv", csv)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.data.recordsCommitted").value(4))
+                .andExpect(jsonPath("$.data.chunksCommitted").value(2))
+                .andExpect(jsonPath("$.data.productsRestocked").value(3))
+                .andExpect(jsonPath("$.data.shipmentsCreated").value(1));
+
+        assertEquals(8L, inventoryService.getAvailableQuantity(10L));
+        assertEquals(4L, inventoryService.getAvailableQuantity(11L));
+        assertEquals("COMPLETED", orderRepository.findById(1000L).map(Order::getStatus).orElseThrow());
+
+        ingest("receipt-1", "text/csv", csv)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("COMPLETED"));
+        assertEquals(8L, inventoryService.getAvailableQuantity(10L));
+    }
+
+    @Test
+    @DisplayName("Resumes after the last committed chunk when a failed file is sent again")
+    void testResumeAfterFailure() throws Exception {
+        catalogLoader.upsert(List.of(new ProductDTO(20L, "D", 100), new ProductDTO(21L, "E", 100)));
+        String valid = "{\"productId\": 20, \"quantity\": 2}\n{\"productId\": 21, \"quantity\": 2}\n";
+
+        ingest("receipt-2", "application/x-ndjson", valid + "{\"productId\": 20, \"quantity\": \n"
+                + "{\"productId\": 21, \"quantity\": 5}\n")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(startsWith("Line 3")))
+                .andExpect(jsonPath("$.data.status").value("FAILED"))
+                .andExpect(jsonPath("$.data.recordsCommitted").value(2));
+        assertEquals(2L, inventoryService.getAvailableQuantity(20L));
+
+        ingest("receipt-2", "application/x-ndjson", valid + "{\"productId\": 20, \"quantity\": 1}\n"
+                + "{\"productId\": 21, \"quantity\": 5}\n")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.recordsResumed").value(2))
+                .andExpect(jsonPath("$.data.recordsCommitted").value(4));
+
+        assertEquals(3L, inventoryService.getAvailableQuantity(20L));
+        assertEquals(7L, inventoryService.getAvailableQuantity(21L));
+        RestockIngestDTO progress = restockIngestService.getIngest("receipt-2").orElseThrow();
+        assertEquals(2, progress.getChunksCommitted());
+        assertNull(progress.getError());
+        mockMvc.perform(get("/v1/process_restock/ingest/receipt-2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.format").value("NDJSON"));
+        mockMvc.perform(get("/v1/process_restock/ingest/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions ingest(String ingestId, String contentType, String body) throws Exception {
+        return mockMvc.perform(post("/v1/process_restock/ingest/" + ingestId)
+                .contentType(contentType)
+                .content(body));
+    }
+}
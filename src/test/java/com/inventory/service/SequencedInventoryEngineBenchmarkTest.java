@@ -0,0 +1,177 @@
+package com.inventory.service;
+
+import com.inventory.dto.*;
+import com.inventory.entity.Inventory;
+import com.inventory.entity.Product;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.util.LatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput and latency benchmark for the sequenced inventory engine.
+ * Concurrent clients send two-line orders against a small set of hot
+ * products, interleaved with restocks that drain the resulting backlog.
+ * Once the projection has caught up, every unit must be accounted for in
+ * the database: stock left plus stock shipped equals stock received.
+ * The same workload, smaller, runs through OrderService and RestockService
+ * on separate products as the baseline for the throughput target.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:engine;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+        "inventory.engine.enabled=true",
+        "inventory.engine.journal-path=${java.io.tmpdir}/inventory-engine-${random.uuid}/commands.journal",
+        "logging.level.com.inventory=WARN"
+})
+@Slf4j
+@DisplayName("Sequenced inventory engine benchmark")
+class SequencedInventoryEngineBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int ORDERS = 10_000;
+    private static final int BASELINE_ORDERS = 500;
+    private static final int RESTOCK_EVERY = 50;
+    private static final int PRODUCTS = 8;
+    private static final long INITIAL_STOCK = 5_000L;
+    private static final long RESTOCK_QTY = 40L;
+
+    /**
+     * Conservative target: the engine must at least double the throughput of
+     * the row-lock services on the same hardware.
+     */
+    private static final double MIN_SPEEDUP = 2.0;
+
+    @Autowired
+    private SequencedInventoryEngine engine;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RestockService restockService;
+
+    @Test
+    @DisplayName("Process concurrent orders and restocks and project them consistently")
+    void testEngineThroughput() throws Exception {
+        List<Long> baselineIds = createProducts(101);
+        long baselinePerSecond = runWorkload(baselineIds, 1_000_001L, BASELINE_ORDERS,
+                orderService::processOrder, restockService::processRestock).perSecond;
+
+        List<Long> productIds = createProducts(1);
+        LatencyHistogram latency = engine.getLatencyHistogram();
+        latency.reset();
+        Workload workload = runWorkload(productIds, 1L, ORDERS, engine::processOrder, engine::processRestock);
+        long commandsPerSecond = workload.perSecond;
+
+        long projectBegin = System.nanoTime();
+        assertTrue(engine.awaitProjection(Duration.ofMinutes(2)));
+        long projectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - projectBegin);
+
+        log.warn("Engine: {} commands from {} threads at {} op/s (services: {} op/s); latency p50 {} us, "
+                + "p99 {} us, p99.9 {} us, max {} us; projection caught up {} ms after the last command",
+                workload.commands, THREADS, commandsPerSecond, baselinePerSecond,
+                TimeUnit.NANOSECONDS.toMicros(latency.getPercentile(50)),
+                TimeUnit.NANOSECONDS.toMicros(latency.getPercentile(99)),
+                TimeUnit.NANOSECONDS.toMicros(latency.getPercentile(99.9)),
+                TimeUnit.NANOSECONDS.toMicros(latency.getMax()),
+                projectMillis);
+
+        // Everything received is either still on the shelf or shipped
+        String engineProducts = " WHERE product_id <= " + PRODUCTS;
+        Long available = jdbcTemplate.queryForObject(
+                "SELECT SUM(available_qty) FROM inventory" + engineProducts, Long.class);
+        Long shipped = jdbcTemplate.queryForObject(
+                "SELECT SUM(quantity) FROM shipment_items" + engineProducts, Long.class);
+        assertEquals(INITIAL_STOCK * PRODUCTS + workload.restocked, available + shipped);
+
+        // Ordered units are either shipped or in the backlog
+        Long requested = jdbcTemplate.queryForObject(
+                "SELECT SUM(requested_qty) FROM order_items" + engineProducts, Long.class);
+        Long pending = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(pending_qty), 0) FROM pending_order_items" + engineProducts, Long.class);
+        assertEquals(requested, shipped + pending);
+        assertEquals(ORDERS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE order_id <= " + ORDERS, Integer.class));
+        assertEquals(engine.getStats().getAppliedSequence(), jdbcTemplate.queryForObject(
+                "SELECT last_sequence FROM engine_checkpoint", Long.class));
+
+        assertTrue(commandsPerSecond >= baselinePerSecond * MIN_SPEEDUP, "Engine throughput "
+                + commandsPerSecond + " op/s is below " + MIN_SPEEDUP + "x the services' " + baselinePerSecond);
+    }
+
+    /**
+     * Sends two-line orders from THREADS clients, with a restock after every
+     * RESTOCK_EVERY orders.
+     */
+    private Workload runWorkload(List<Long> productIds, long firstOrderId, int orders,
+            Consumer<OrderRequestDTO> orderHandler, Consumer<List<RestockItemDTO>> restockHandler) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        long restocked = 0;
+        for (int i = 0; i < orders; i++) {
+            long orderId = firstOrderId + i;
+            Random random = new Random(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                orderHandler.accept(new OrderRequestDTO(orderId, List.of(
+                        new OrderItemRequestDTO(productIds.get(random.nextInt(PRODUCTS)), 1L + random.nextInt(3)),
+                        new OrderItemRequestDTO(productIds.get(random.nextInt(PRODUCTS)), 1L + random.nextInt(3)))));
+                return null;
+            }));
+            if (i % RESTOCK_EVERY == 0) {
+                Long productId = productIds.get(random.nextInt(PRODUCTS));
+                restocked += RESTOCK_QTY;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    restockHandler.accept(List.of(new RestockItemDTO(productId, RESTOCK_QTY)));
+                    return null;
+                }));
+            }
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+        return new Workload(futures.size(), restocked,
+                futures.size() * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1));
+    }
+
+    private List<Long> createProducts(long firstId) {
+        List<Long> ids = LongStream.range(firstId, firstId + PRODUCTS).boxed().toList();
+        for (Long id : ids) {
+            productRepository.save(Product.builder().productId(id).productName("P" + id).massG(150).build());
+            inventoryRepository.save(Inventory.builder().productId(id).availableQty(INITIAL_STOCK).build());
+        }
+        return ids;
+    }
+
+    private record Workload(int commands, long restocked, long perSecond) {
+    }
+}
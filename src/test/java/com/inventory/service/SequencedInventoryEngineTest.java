@@ -0,0 +1,67 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Journal housekeeping of the sequenced inventory engine, with a journal
+ * small enough that it must be truncated while the engine runs and a
+ * region too small for large commands.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:enginejournal;MODE=PostgreSQL",
+        "inventory.engine.enabled=true",
+        "inventory.engine.journal-path=${java.io.tmpdir}/inventory-engine-${random.uuid}/commands.journal",
+        "inventory.engine.journal-region-bytes=1024",
+        "inventory.engine.journal-max-bytes=4096",
+        "logging.level.com.inventory=ERROR"
+})
+@DisplayName("Sequenced inventory engine journal tests")
+class SequencedInventoryEngineTest {
+
+    @Autowired
+    private SequencedInventoryEngine engine;
+
+    @Autowired
+    private CatalogLoader catalogLoader;
+
+    @Autowired
+    private InventoryProperties inventoryProperties;
+
+    @Test
+    @DisplayName("Keeps the journal bounded, and stops cleanly when a command cannot be journaled")
+    void testJournalHousekeeping() throws Exception {
+        catalogLoader.upsert(List.of(new ProductDTO(1L, "A", 100)));
+        engine.processRestock(List.of(new RestockItemDTO(1L, 1_000L)));
+        for (long orderId = 1; orderId <= 200; orderId++) {
+            engine.processOrder(new OrderRequestDTO(orderId, List.of(new OrderItemRequestDTO(1L, 1L))));
+        }
+        assertTrue(engine.awaitProjection(Duration.ofSeconds(30)));
+        Path journalPath = Path.of(inventoryProperties.getEngine().getJournalPath());
+        assertTrue(Files.size(journalPath) <= 4096 + 1024, "Journal grew to " + Files.size(journalPath));
+
+        // A record larger than a journal region cannot be appended
+        List<OrderItemRequestDTO> items = LongStream.rangeClosed(1, 50)
+                .mapToObj(productId -> new OrderItemRequestDTO(productId, 1L))
+                .toList();
+        long applied = engine.getStats().getAppliedSequence();
+        IllegalStateException failed = assertThrows(IllegalStateException.class,
+                () -> engine.processOrder(new OrderRequestDTO(201L, items)));
+        assertInstanceOf(IllegalArgumentException.class, failed.getCause());
+        assertThrows(IllegalStateException.class,
+                () -> engine.processRestock(List.of(new RestockItemDTO(1L, 1L))));
+        assertEquals(applied, engine.getStats().getAppliedSequence());
+    }
+}
@@ -0,0 +1,186 @@
+package com.inventory.service;
+
+import com.inventory.config.InventoryProperties.UpdateMode;
+import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderRequestDTO;
+import com.inventory.entity.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sharded inventory tests against the database: stock is conserved through
+ * orders, restocks, rebalancing and unsharding, and a single hot product
+ * takes more orders per second once sharded.
+ */
+@Slf4j
+@DisplayName("Sharded inventory tests")
+class ShardedInventoryTest extends AbstractDatabaseTest {
+
+    private static final int THREADS = 16;
+    private static final int ORDERS = 500;
+    private static final int SHARDS = 8;
+
+    @Autowired
+    private ShardedInventory shardedInventory;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @EnumSource(value = UpdateMode.class, names = {"PESSIMISTIC", "ATOMIC", "OPTIMISTIC"})
+    @DisplayName("Orders and restocks of a sharded product conserve its stock")
+    void testShardedOrdersConserveStock(UpdateMode mode) {
+        inventoryProperties.setUpdateMode(mode);
+        Long productId = createProduct(100L);
+
+        shardedInventory.setShardCount(productId, 4);
+        assertTrue(shardedInventory.isSharded(productId));
+        assertEquals(List.of(25L, 25L, 25L, 25L), shardedInventory.getShardQuantities(productId));
+        assertEquals(0L, inventoryRepository.findById(productId).orElseThrow().getAvailableQty());
+        assertEquals(100L, inventoryService.getAvailableQuantity(productId));
+
+        // More than any single shard holds: taken across shards
+        Order order = orderService.processOrder(
+                new OrderRequestDTO(nextId(), List.of(new OrderItemRequestDTO(productId, 60L))));
+        assertEquals("FULFILLED", order.getStatus());
+        assertEquals(40L, inventoryService.getAvailableQuantity(productId));
+
+        Order partial = orderService.processOrder(
+                new OrderRequestDTO(nextId(), List.of(new OrderItemRequestDTO(productId, 50L))));
+        assertEquals("PENDING", partial.getStatus());
+        assertEquals(0L, inventoryService.getAvailableQuantity(productId));
+
+        transactionTemplate.executeWithoutResult(status -> inventoryService.increaseInventory(productId, 30L));
+        assertEquals(30L, inventoryService.getAvailableQuantity(productId));
+
+        shardedInventory.setShardCount(productId, 1);
+        assertFalse(shardedInventory.isSharded(productId));
+        assertEquals(30L, inventoryRepository.findById(productId).orElseThrow().getAvailableQty());
+        assertTrue(shardedInventory.getShardQuantities(productId).isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = UpdateMode.class, names = {"PESSIMISTIC", "ATOMIC", "OPTIMISTIC"})
+    @DisplayName("Writes follow the inventory row's shard count when another instance resharded")
+    void testStaleRoutingFollowsInventoryRow(UpdateMode mode) {
+        inventoryProperties.setUpdateMode(mode);
+        Long productId = createProduct(20L);
+
+        // Another instance shards the product: this instance's routing copy is stale
+        jdbcTemplate.update("INSERT INTO inventory_shards (product_id, shard_no, available_qty) VALUES (?, 0, 10), "
+                + "(?, 1, 10)", productId, productId);
+        jdbcTemplate.update("UPDATE inventory SET available_qty = 0, shard_count = 2, version = version + 1 "
+                + "WHERE product_id = ?", productId);
+        assertFalse(shardedInventory.isSharded(productId));
+
+        transactionTemplate.executeWithoutResult(status -> inventoryService.increaseInventory(productId, 5L));
+        assertTrue(shardedInventory.isSharded(productId));
+        assertEquals(25L, inventoryService.getAvailableQuantity(productId));
+        assertEquals(0L, inventoryRepository.findById(productId).orElseThrow().getAvailableQty());
+
+        // ... and unshards it again: stock back on the row
+        jdbcTemplate.update("DELETE FROM inventory_shards WHERE product_id = ?", productId);
+        jdbcTemplate.update("UPDATE inventory SET available_qty = 25, shard_count = 0, version = version + 1 "
+                + "WHERE product_id = ?", productId);
+
+        transactionTemplate.executeWithoutResult(status -> inventoryService.reduceInventory(productId, 5L));
+        assertFalse(shardedInventory.isSharded(productId));
+        assertEquals(20L, inventoryService.getAvailableQuantity(productId));
+    }
+
+    @Test
+    @DisplayName("Rebalancing evens out drained shards and keeps the total")
+    void testRebalance() {
+        Long productId = createProduct(80L);
+        shardedInventory.setShardCount(productId, 4);
+        jdbcTemplate.update("UPDATE inventory_shards SET available_qty = 0 WHERE product_id = ? AND shard_no < 2",
+                productId);
+        assertEquals(40L, shardedInventory.getAvailable(productId));
+
+        assertTrue(shardedInventory.rebalance(productId));
+        assertEquals(List.of(10L, 10L, 10L, 10L), shardedInventory.getShardQuantities(productId));
+        assertFalse(shardedInventory.rebalance(productId));
+    }
+
+    @Test
+    @DisplayName("Configured products are sharded by the maintenance pass")
+    void testConfiguredShards() {
+        Long productId = createProduct(10L);
+        inventoryProperties.getSharding().getProducts().put(productId, 3);
+        try {
+            shardedInventory.maintain();
+        } finally {
+            inventoryProperties.getSharding().getProducts().remove(productId);
+        }
+        assertEquals(3, shardedInventory.getShardCount(productId));
+        assertEquals(List.of(4L, 3L, 3L), shardedInventory.getShardQuantities(productId));
+    }
+
+    @Test
+    @DisplayName("Compare order throughput on one hot product: single row vs shards")
+    void testHotProductThroughput() throws Exception {
+        long single = runOrders(createProduct(ORDERS), 1);
+        long sharded = runOrders(createProduct(ORDERS), SHARDS);
+
+        log.warn("Single-product orders ({} threads, {} orders): one row {} op/s, {} shards {} op/s ({}x)",
+                THREADS, ORDERS, single, SHARDS, sharded, String.format("%.2f", (double) sharded / single));
+        assertTrue(sharded > single, "Sharded throughput " + sharded + " op/s not above " + single + " op/s");
+    }
+
+    /**
+     * Places ORDERS one-unit orders for the product from THREADS threads and
+     * checks that the product sells out exactly.
+     *
+     * @return Orders per second
+     */
+    private long runOrders(Long productId, int shards) throws Exception {
+        shardedInventory.setShardCount(productId, shards);
+        AtomicLong fulfilled = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            long orderId = nextId();
+            futures.add(executor.submit(() -> {
+                start.await();
+                Order order = orderService.processOrder(
+                        new OrderRequestDTO(orderId, List.of(new OrderItemRequestDTO(productId, 1L))));
+                if ("FULFILLED".equals(order.getStatus())) {
+                    fulfilled.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+
+        assertEquals(ORDERS, fulfilled.get());
+        assertEquals(0L, inventoryService.getAvailableQuantity(productId));
+        return ORDERS * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1);
+    }
+}
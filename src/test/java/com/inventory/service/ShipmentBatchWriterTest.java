@@ -0,0 +1,75 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.config.InventoryProperties;
+import com.inventory.dto.ShipmentResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShipmentBatchWriter Unit Tests")
+class ShipmentBatchWriterTest {
+
+    @Mock
+    private ShipmentService shipmentService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ShipmentBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getShipmentLookup().setChunkSize(1);
+        writer = new ShipmentBatchWriter(shipmentService, objectMapper, properties);
+    }
+
+    @Test
+    @DisplayName("Should write a complete response when every chunk loads")
+    void testCompleteResponse() throws Exception {
+        // Arrange
+        when(shipmentService.getShipmentResponses(List.of(1L)))
+                .thenReturn(Map.of(1L, ShipmentResponseDTO.builder().orderId(1L).build()));
+        when(shipmentService.getShipmentResponses(List.of(2L))).thenReturn(Map.of());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        writer.write(List.of(1L, 2L), output);
+
+        // Assert
+        var body = objectMapper.readTree(output.toByteArray());
+        assertTrue(body.get("success").asBoolean());
+        assertTrue(body.get("data").get("shipments").has("1"));
+        assertEquals(2L, body.get("data").get("notFound").get(0).asLong());
+    }
+
+    @Test
+    @DisplayName("Should leave the JSON unterminated when a chunk fails part-way")
+    void testFailureLeavesInvalidJson() {
+        // Arrange
+        when(shipmentService.getShipmentResponses(List.of(1L)))
+                .thenReturn(Map.of(1L, ShipmentResponseDTO.builder().orderId(1L).build()));
+        when(shipmentService.getShipmentResponses(List.of(2L)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, () -> writer.write(List.of(1L, 2L), output));
+
+        // Assert: the first chunk was sent, but the body does not parse as a response
+        assertTrue(output.size() > 0);
+        assertThrows(JsonProcessingException.class, () -> objectMapper.readTree(output.toByteArray()));
+    }
+}
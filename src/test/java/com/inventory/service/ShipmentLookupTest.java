@@ -0,0 +1,132 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.dto.OrderItemRequestDTO;
+import com.inventory.dto.OrderRequestDTO;
+import com.inventory.dto.ProductDTO;
+import com.inventory.dto.ShipmentBatchDTO;
+import com.inventory.entity.Shipment;
+import com.inventory.repository.ShipmentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Shipment lookup tests against the database: single-query lookups served
+ * from the response cache after the first request, and batch lookups
+ * streamed in chunks.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shipmentlookup;MODE=PostgreSQL",
+        "inventory.shipment-lookup.chunk-size=2",
+        "inventory.shipment-lookup.max-ids=5",
+        "logging.level.com.inventory=WARN"
+})
+@AutoConfigureMockMvc
+@DisplayName("Shipment lookup tests")
+class ShipmentLookupTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogLoader catalogLoader;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ShipmentRepository shipmentRepository;
+
+    @Autowired
+    private ShipmentResponseCache shipmentResponseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Serves repeat lookups of a shipment from the response cache")
+    void testCachedLookup() throws Exception {
+        catalogLoader.upsert(List.of(new ProductDTO(70L, "A", 100), new ProductDTO(71L, "B", 200)));
+        inventoryService.increaseInventory(70L, 2L);
+        inventoryService.increaseInventory(71L, 3L);
+        orderService.processOrder(new OrderRequestDTO(7000L,
+                List.of(new OrderItemRequestDTO(70L, 2L), new OrderItemRequestDTO(71L, 3L))));
+        Long shipmentId = shipmentRepository.findByOrderId(7000L).stream()
+                .map(Shipment::getShipmentId).findFirst().orElseThrow();
+        long hits = shipmentResponseCache.getStats().getHits();
+
+        String first = mockMvc.perform(get("/v1/ship_package/" + shipmentId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.orderId").value(7000))
+                .andExpect(jsonPath("$.data.shipped.length()").value(2))
+                .andReturn().getResponse().getContentAsString();
+        String second = mockMvc.perform(get("/v1/ship_package/" + shipmentId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, second);
+        assertEquals(hits + 1, shipmentResponseCache.getStats().getHits());
+        mockMvc.perform(get("/v1/ship_package/999999"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.success").value(false));
+        mockMvc.perform(get("/v1/ship_package/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.size").value(1));
+    }
+
+    @Test
+    @DisplayName("Returns several shipments in request order and lists unknown IDs")
+    void testBatchLookup() throws Exception {
+        catalogLoader.upsert(List.of(new ProductDTO(80L, "C", 1000)));
+        inventoryService.increaseInventory(80L, 3L);
+        orderService.processOrder(new OrderRequestDTO(8000L, List.of(new OrderItemRequestDTO(80L, 3L))));
+        List<Long> shipmentIds = shipmentRepository.findByOrderId(8000L).stream()
+                .map(Shipment::getShipmentId).sorted().toList();
+        assertEquals(3, shipmentIds.size());
+        String ids = shipmentIds.get(2) + ",999999," + shipmentIds.get(0) + "," + shipmentIds.get(1)
+                + "," + shipmentIds.get(0);
+
+        String body = mockMvc.perform(get("/v1/ship_packages").param("ids", ids))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(jsonPath("$.success").value(true))
+                .andReturn().getResponse().getContentAsString();
+        ShipmentBatchDTO batch = objectMapper.treeToValue(objectMapper.readTree(body).get("data"),
+                ShipmentBatchDTO.class);
+
+        assertEquals(List.of(shipmentIds.get(2), shipmentIds.get(0), shipmentIds.get(1)),
+                List.copyOf(batch.getShipments().keySet()));
+        assertEquals(List.of(999999L), batch.getNotFound());
+        assertTrue(batch.getShipments().values().stream()
+                .allMatch(shipment -> shipment.getOrderId() == 8000L && shipment.getShipped().size() == 1));
+
+        mockMvc.perform(post("/v1/ship_packages")
+                        .contentType("application/json")
+                        .content("[" + shipmentIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.shipments.length()").value(3))
+                .andExpect(jsonPath("$.data.notFound.length()").value(0));
+        mockMvc.perform(post("/v1/ship_packages")
+                        .contentType("application/json")
+                        .content("[1,2,3,4,5,6]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+}
@@ -1,5 +1,6 @@
 package com.inventory.service;
 
+import com.inventory.dto.ShipmentResponseDTO;
 import com.inventory.entity.*;
 import com.inventory.exception.ShipmentNotFoundException;
 import com.inventory.repository.*;
@@ -204,6 +205,99 @@ class ShipmentServiceTest {
             // Assert
             verify(inventoryService, atLeastOnce()).reduceInventory(anyLong(), anyLong());
         }
+
+        @Test
+        @DisplayName("Should decrement and update each product once across packages")
+        void testCreateShipmentsAggregatesPerProduct() {
+            // Arrange
+            // 5 units of 500g need two packages (3 + 2 units)
+            OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+            Map<Long, InventoryService.ProductInventoryData> inventoryMap = new HashMap<>();
+            inventoryMap.put(1L, new InventoryService.ProductInventoryData(testProduct, 4L));
+            when(inventoryService.getProductsWithInventory(List.of(1L), true)).thenReturn(inventoryMap);
+            when(shipmentRepository.save(any(Shipment.class))).thenReturn(testShipment);
+            when(inventoryService.reduceInventories(anyMap())).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // Act
+            List<Shipment> result = shipmentService.createShipments(1L, List.of(testOrderItem), testOrder,
+                    orderItemRepository, Map.of(1L, 1L));
+
+            // Assert
+            assertEquals(2, result.size());
+            verify(inventoryService).consumeReservedInventories(Map.of(1L, 1L));
+            verify(inventoryService).reduceInventories(Map.of(1L, 4L));
+            verify(inventoryService, never()).reduceInventory(anyLong(), anyLong());
+            verify(orderItemRepository).saveAll(List.of(testOrderItem));
+            verify(orderItemRepository, never()).save(any(OrderItem.class));
+            assertEquals(5L, testOrderItem.getFulfilledQty());
+            assertEquals("FULFILLED", testOrderItem.getStatus());
+        }
+
+        @Test
+        @DisplayName("Should share a product's stock across its order lines")
+        void testCreateShipmentsSharesStockAcrossLines() {
+            // Arrange
+            OrderItem sameProduct = OrderItem.builder()
+                    .id(2L)
+                    .orderId(1L)
+                    .productId(1L)
+                    .requestedQty(2L)
+                    .fulfilledQty(0L)
+                    .status("PENDING")
+                    .build();
+            testOrderItem.setRequestedQty(2L);
+            Map<Long, InventoryService.ProductInventoryData> inventoryMap = new HashMap<>();
+            inventoryMap.put(1L, new InventoryService.ProductInventoryData(testProduct, 3L));
+            when(inventoryService.getProductsWithInventory(List.of(1L, 1L), true)).thenReturn(inventoryMap);
+            when(shipmentRepository.save(any(Shipment.class))).thenReturn(testShipment);
+            when(inventoryService.reduceInventories(anyMap())).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // Act
+            shipmentService.createShipments(1L, List.of(testOrderItem, sameProduct), testOrder,
+                    mock(OrderItemRepository.class));
+
+            // Assert
+            verify(inventoryService).reduceInventories(Map.of(1L, 3L));
+            assertEquals(2L, testOrderItem.getFulfilledQty());
+            assertEquals("FULFILLED", testOrderItem.getStatus());
+            assertEquals(1L, sameProduct.getFulfilledQty());
+            assertEquals("PARTIALLY_FULFILLED", sameProduct.getStatus());
+        }
+
+        @Test
+        @DisplayName("Should write one shipment item per product in a package")
+        void testCreateShipmentsMergesSameProductLines() {
+            // Arrange
+            OrderItem sameProduct = OrderItem.builder()
+                    .id(2L)
+                    .orderId(1L)
+                    .productId(1L)
+                    .requestedQty(1L)
+                    .fulfilledQty(0L)
+                    .status("PENDING")
+                    .build();
+            testOrderItem.setRequestedQty(2L);
+            OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+            Map<Long, InventoryService.ProductInventoryData> inventoryMap = new HashMap<>();
+            inventoryMap.put(1L, new InventoryService.ProductInventoryData(testProduct, 10L));
+            when(inventoryService.getProductsWithInventory(List.of(1L, 1L), true)).thenReturn(inventoryMap);
+            when(shipmentRepository.save(any(Shipment.class))).thenReturn(testShipment);
+            when(inventoryService.reduceInventories(anyMap())).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // Act
+            List<Shipment> result = shipmentService.createShipments(1L, List.of(testOrderItem, sameProduct),
+                    testOrder, orderItemRepository);
+
+            // Assert
+            assertEquals(1, result.size());
+            verify(shipmentItemRepository).saveAll(argThat((List<ShipmentItem> items) -> items.size() == 1
+                    && items.get(0).getProductId() == 1L && items.get(0).getQuantity() == 3L));
+            verify(orderItemRepository).saveAll(List.of(testOrderItem, sameProduct));
+            assertEquals(2L, testOrderItem.getFulfilledQty());
+            assertEquals("FULFILLED", testOrderItem.getStatus());
+            assertEquals(1L, sameProduct.getFulfilledQty());
+            assertEquals("FULFILLED", sameProduct.getStatus());
+        }
     }
 
     @Nested
@@ -238,6 +332,55 @@ class ShipmentServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("getShipmentResponse() tests")
+    class GetShipmentResponseTests {
+
+        @Test
+        @DisplayName("Should build the response from one projection query")
+        void testGetShipmentResponse() {
+            // Arrange
+            when(shipmentRepository.findShipmentLines(1L)).thenReturn(List.of(
+                    new Object[] { 1L, 1L, 2L },
+                    new Object[] { 1L, 3L, 5L }));
+
+            // Act
+            ShipmentResponseDTO result = shipmentService.getShipmentResponse(1L);
+
+            // Assert
+            assertEquals(1L, result.getOrderId());
+            assertEquals(2, result.getShipped().size());
+            assertEquals(3L, result.getShipped().get(1).getProductId());
+            assertEquals(5L, result.getShipped().get(1).getQuantity());
+            verifyNoInteractions(shipmentItemRepository);
+        }
+
+        @Test
+        @DisplayName("Should return no items for a shipment without items")
+        void testGetShipmentResponseWithoutItems() {
+            // Arrange
+            List<Object[]> lines = new ArrayList<>();
+            lines.add(new Object[] { 1L, null, null });
+            when(shipmentRepository.findShipmentLines(1L)).thenReturn(lines);
+
+            // Act
+            ShipmentResponseDTO result = shipmentService.getShipmentResponse(1L);
+
+            // Assert
+            assertTrue(result.getShipped().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should throw ShipmentNotFoundException when not found")
+        void testGetShipmentResponseNotFound() {
+            // Arrange
+            when(shipmentRepository.findShipmentLines(1L)).thenReturn(List.of());
+
+            // Act & Assert
+            assertThrows(ShipmentNotFoundException.class, () -> shipmentService.getShipmentResponse(1L));
+        }
+    }
+
     @Nested
     @DisplayName("getShipmentItems() tests")
     class GetShipmentItemsTests {
@@ -294,6 +437,49 @@ class ShipmentServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("getShipmentResponses() tests")
+    class GetShipmentResponsesTests {
+
+        @Test
+        @DisplayName("Should load shipments and their items with one query each")
+        void testGetShipmentResponses() {
+            // Arrange
+            List<Long> shipmentIds = List.of(2L, 9L, 1L);
+            when(shipmentRepository.findOrderIdsByShipmentIdIn(shipmentIds)).thenReturn(List.of(
+                    new Object[] { 1L, 10L },
+                    new Object[] { 2L, 20L }));
+            when(shipmentItemRepository.findLinesByShipmentIdIn(any())).thenReturn(List.of(
+                    new Object[] { 1L, 5L, 1L },
+                    new Object[] { 2L, 6L, 2L },
+                    new Object[] { 1L, 7L, 3L }));
+
+            // Act
+            Map<Long, ShipmentResponseDTO> result = shipmentService.getShipmentResponses(shipmentIds);
+
+            // Assert
+            assertEquals(List.of(2L, 1L), List.copyOf(result.keySet()));
+            assertEquals(20L, result.get(2L).getOrderId());
+            assertEquals(2, result.get(1L).getShipped().size());
+            assertEquals(7L, result.get(1L).getShipped().get(1).getProductId());
+            verify(shipmentItemRepository).findLinesByShipmentIdIn(Set.of(2L, 1L));
+        }
+
+        @Test
+        @DisplayName("Should skip the item query when no shipment exists")
+        void testGetShipmentResponsesNoneFound() {
+            // Arrange
+            when(shipmentRepository.findOrderIdsByShipmentIdIn(List.of(9L))).thenReturn(List.of());
+
+            // Act
+            Map<Long, ShipmentResponseDTO> result = shipmentService.getShipmentResponses(List.of(9L));
+
+            // Assert
+            assertTrue(result.isEmpty());
+            verifyNoInteractions(shipmentItemRepository);
+        }
+    }
+
     @Nested
     @DisplayName("getShipmentsForOrder() tests")
     class GetShipmentsForOrderTests {
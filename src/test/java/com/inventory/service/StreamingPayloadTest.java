@@ -0,0 +1,95 @@
+package com.inventory.service;
+
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Streamed catalog and restock payloads: parsed and applied chunk by chunk,
+ * with chunks before a malformed element kept.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:streaming;MODE=PostgreSQL",
+        "inventory.catalog-load.chunk-size=3",
+        "inventory.restock.stream-chunk-size=2",
+        "logging.level.com.inventory=WARN"
+})
+@AutoConfigureMockMvc
+@DisplayName("Streaming payload tests")
+class StreamingPayloadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    @DisplayName("Loads a streamed catalog and restocks it in chunks")
+    void testStreamCatalogAndRestock() throws Exception {
+        mockMvc.perform(post("/v1/init_catalog/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(catalog(100L, 7)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.data.loadedProducts").value(7))
+                .andExpect(jsonPath("$.data.chunks").value(3));
+
+        String restock = LongStream.range(100L, 105L)
+                .mapToObj(id -> "{\"productId\": " + id + ", \"quantity\": " + (id - 90) + "}")
+                .collect(Collectors.joining(", ", "[", "]"));
+        mockMvc.perform(post("/v1/process_restock/stream?async=false")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(restock))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.productsRestocked").value(5));
+
+        assertEquals(10L, inventoryService.getAvailableQuantity(100L));
+        assertEquals(14L, inventoryService.getAvailableQuantity(104L));
+        assertEquals(0L, inventoryService.getAvailableQuantity(106L));
+    }
+
+    @Test
+    @DisplayName("Keeps the chunks before a malformed element and reports the error")
+    void testMalformedCatalogKeepsEarlierChunks() throws Exception {
+        String catalog = catalog(200L, 4);
+        String truncated = catalog.substring(0, catalog.length() - 1) + ", {\"productId\": ";
+
+        mockMvc.perform(post("/v1/init_catalog/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(truncated))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.data.status").value("FAILED"))
+                .andExpect(jsonPath("$.data.loadedProducts").value(3));
+
+        assertTrue(productRepository.existsById(202L));
+        assertFalse(productRepository.existsById(203L));
+
+        mockMvc.perform(post("/v1/process_restock/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\": 200}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String catalog(long firstId, int count) {
+        return LongStream.range(firstId, firstId + count)
+                .mapToObj(id -> "{\"productId\": " + id + ", \"productName\": \"P" + id + "\", \"massG\": 100}")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}